@@ -22,6 +22,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Configuration properties for ECM integration defaults and business logic behavior.
@@ -63,6 +65,56 @@ public class EcmIntegrationProperties {
      */
     private ErrorHandling errorHandling = new ErrorHandling();
 
+    /**
+     * Name autocomplete configuration
+     */
+    private SearchDefaults search = new SearchDefaults();
+
+    /**
+     * Near-duplicate detection configuration
+     */
+    private SimilarityDefaults similarity = new SimilarityDefaults();
+
+    /**
+     * In-memory tag bitmap index configuration
+     */
+    private TagIndexDefaults tagIndex = new TagIndexDefaults();
+
+    /**
+     * Folder hierarchy configuration
+     */
+    private FolderDefaults folders = new FolderDefaults();
+
+    /**
+     * Default configuration for background recursive folder delete and copy jobs
+     */
+    private FolderJobDefaults folderJobs = new FolderJobDefaults();
+
+    /**
+     * Default values for permission checks
+     */
+    private PermissionDefaults permissions = new PermissionDefaults();
+
+    /**
+     * Background sweepers applying expirations
+     */
+    private SweeperDefaults sweepers = new SweeperDefaults();
+
+    /**
+     * Document metadata configuration
+     */
+    private MetadataDefaults metadata = new MetadataDefaults();
+
+    /**
+     * Tag assignment configuration
+     */
+    private TagDefaults tags = new TagDefaults();
+
+    /**
+     * Document version retention configuration
+     */
+    private VersionDefaults versions = new VersionDefaults();
+
     @Data
     public static class SignatureDefaults {
         /**
@@ -132,6 +184,16 @@ public class EcmIntegrationProperties {
          * Default retention period in days for documents
          */
         private Integer retentionDays = 2555; // 7 years default
+
+        /**
+         * Maximum number of retries of a version number allocation failing transiently (lock timeout, deadlock)
+         */
+        private Integer versionAllocationMaxRetries = 5;
+
+        /**
+         * First backoff between version number allocation retries, doubled on each further retry
+         */
+        private Duration versionAllocationRetryBackoff = Duration.ofMillis(20);
     }
 
     @Data
@@ -157,4 +219,472 @@ public class EcmIntegrationProperties {
          */
         private Boolean sendErrorNotifications = false;
     }
-}
\ No newline at end of file
+
+    @Data
+    public static class SearchDefaults {
+        /**
+         * Number of name suggestions returned when the request does not specify a limit
+         */
+        private Integer suggestionLimit = 10;
+
+        /**
+         * Maximum number of name suggestions a single request may ask for
+         */
+        private Integer maxSuggestionLimit = 50;
+
+        /**
+         * Minimum query length before trigram (substring) matching complements prefix matches
+         */
+        private Integer trigramMinLength = 3;
+
+        /**
+         * Number of suggestion requests after which a tenant is served from the in-memory prefix index
+         */
+        private Integer hotTenantThreshold = 100;
+
+        /**
+         * Maximum number of tenants kept in the in-memory prefix index (least recently used are evicted)
+         */
+        private Integer maxHotTenants = 20;
+
+        /**
+         * Maximum number of tenants whose suggestion requests are counted towards the hot tenant threshold
+         * (least recently counted are dropped and start again from zero)
+         */
+        private Integer maxTrackedTenants = 10000;
+
+        /**
+         * Tenants with more document and folder names than this are always served from the database
+         */
+        private Integer maxIndexedNamesPerTenant = 200000;
+    }
+
+    @Data
+    public static class SimilarityDefaults {
+        /**
+         * Whether MinHash signatures are computed for uploaded content
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Number of MinHash values per signature. Changing it invalidates stored signatures.
+         */
+        private Integer numHashes = 128;
+
+        /**
+         * Number of LSH bands (must divide numHashes). Fewer, wider bands only pair closer duplicates.
+         */
+        private Integer bands = 16;
+
+        /**
+         * Number of consecutive words forming a text shingle
+         */
+        private Integer wordShingleSize = 5;
+
+        /**
+         * Maximum number of content bytes shingled per document
+         */
+        private Integer maxContentBytes = 1048576;
+
+        /**
+         * Number of signature worker threads (0 uses one per available core)
+         */
+        private Integer parallelism = 0;
+
+        /**
+         * Maximum number of uploads waiting for a signature before new ones are skipped
+         */
+        private Integer queueCapacity = 1000;
+
+        /**
+         * Default minimum estimated Jaccard similarity of reported documents
+         */
+        private Double defaultMinSimilarity = 0.8;
+
+        /**
+         * Maximum number of LSH candidates scored per query
+         */
+        private Integer maxCandidates = 1000;
+
+        /**
+         * Number of similar documents returned when the request does not specify a limit
+         */
+        private Integer defaultLimit = 10;
+
+        /**
+         * Maximum number of similar documents a single request may ask for
+         */
+        private Integer maxLimit = 100;
+    }
+
+    @Data
+    public static class TagIndexDefaults {
+        /**
+         * File the loaded tenant indexes are snapshotted to on shutdown and after each rebuild,
+         * and restored from on startup (empty disables snapshots)
+         */
+        private String snapshotPath = "";
+
+        /**
+         * Interval between background rebuilds of the loaded tenant indexes from the database,
+         * which also pick up tag changes made through other instances (ISO-8601 duration)
+         */
+        private Duration rebuildInterval = Duration.ofHours(1);
+
+        /**
+         * Maximum number of tenants kept in memory (least recently queried are evicted)
+         */
+        private Integer maxTenants = 100;
+
+        /**
+         * Tenants with more documents than this are not indexed; their tag expressions are evaluated in SQL
+         */
+        private Integer maxDocumentsPerTenant = 10000000;
+
+        /**
+         * Page size used when the request does not specify one
+         */
+        private Integer defaultPageSize = 20;
+
+        /**
+         * Maximum page size a single request may ask for
+         */
+        private Integer maxPageSize = 1000;
+    }
+
+    @Data
+    public static class FolderDefaults {
+        /**
+         * Page size of subtree listings when the request does not specify one
+         */
+        private Integer defaultPageSize = 50;
+
+        /**
+         * Maximum page size a single subtree listing may ask for
+         */
+        private Integer maxPageSize = 1000;
+
+        /**
+         * Whether folder trees are cached in memory for path resolution and breadcrumbs
+         */
+        private Boolean treeCacheEnabled = true;
+
+        /**
+         * Maximum number of tenants whose folder tree is kept in memory
+         */
+        private Integer treeCacheMaxTenants = 500;
+
+        /**
+         * Tenants with more folders than this are served from the database instead, and counted again only
+         * after tree-cache-max-staleness
+         */
+        private Integer treeCacheMaxFoldersPerTenant = 200000;
+
+        /**
+         * Age after which a cached folder tree is reloaded, bounding staleness if a change notification is missed
+         */
+        private Duration treeCacheMaxStaleness = Duration.ofMinutes(15);
+
+        /**
+         * PostgreSQL LISTEN/NOTIFY channel used to invalidate folder trees on the other instances
+         * (empty to disable cross-instance invalidation)
+         */
+        private String changeChannel = "ecm_folder_changes";
+
+        /**
+         * Whether folder statistics are periodically recomputed from the documents to correct drift
+         */
+        private Boolean statsReconcileEnabled = true;
+
+        /**
+         * Interval between two folder statistics reconciliations
+         */
+        private Duration statsReconcileInterval = Duration.ofHours(6);
+    }
+
+    @Data
+    public static class FolderJobDefaults {
+        /**
+         * Whether this instance picks up and runs folder jobs
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Number of folders or documents processed per batch; progress is persisted after each batch
+         */
+        private Integer batchSize = 200;
+
+        /**
+         * Maximum number of concurrent content deletes or copies per job
+         */
+        private Integer contentConcurrency = 8;
+
+        /**
+         * Maximum number of jobs run concurrently by this instance
+         */
+        private Integer maxConcurrentJobs = 2;
+
+        /**
+         * Interval at which this instance looks for pending jobs and jobs abandoned by stopped instances
+         */
+        private Duration pollInterval = Duration.ofSeconds(10);
+
+        /**
+         * Lease of a running job, renewed after each batch; an expired lease lets another instance resume the job
+         */
+        private Duration leaseDuration = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class PermissionDefaults {
+        /**
+         * Whether permission check decisions are cached in memory
+         */
+        private Boolean decisionCacheEnabled = true;
+
+        /**
+         * Maximum number of cached decisions (least recently checked are evicted)
+         */
+        private Integer decisionCacheMaxEntries = 100000;
+
+        /**
+         * Time a granted decision is served from the cache, shortened to the next expiration of the party's permissions
+         */
+        private Duration decisionCachePositiveTtl = Duration.ofMinutes(5);
+
+        /**
+         * Time a denied decision is served from the cache
+         */
+        private Duration decisionCacheNegativeTtl = Duration.ofMinutes(1);
+
+        /**
+         * Maximum number of document and permission type pairs a single batch check may ask for
+         */
+        private Integer maxBatchChecks = 1000;
+
+        /**
+         * Maximum number of concurrent PermissionPort calls made by a batch check for uncached decisions
+         */
+        private Integer batchCheckConcurrency = 16;
+
+        /**
+         * Maximum number of documents whose permissions are kept in memory for local evaluation,
+         * used when no ECM PermissionPort is configured (least recently checked are evicted)
+         */
+        private Integer aclCacheMaxDocuments = 100000;
+
+        /**
+         * Age after which the in-memory permissions of a document are reloaded, bounding how long
+         * permission writes made on other instances go unseen
+         */
+        private Duration aclMaxStaleness = Duration.ofMinutes(5);
+
+        /**
+         * Security levels of the documents a principal may read without a READ permission, in listings and
+         * permission checks alike; an unexpired READ permission, granted or denied, always decides
+         */
+        private List<String> openSecurityLevels = new ArrayList<>(List.of("PUBLIC"));
+
+        /**
+         * Whether local permissions are periodically reconciled with the ECM PermissionPort
+         */
+        private Boolean reconcileEnabled = true;
+
+        /**
+         * Interval between two reconciliations
+         */
+        private Duration reconcileInterval = Duration.ofHours(6);
+
+        /**
+         * Number of local permissions compared per batch
+         */
+        private Integer reconcileBatchSize = 500;
+
+        /**
+         * Age after which a batch whose digest is unchanged is checked against the provider again,
+         * bounding how long drift on the provider's side goes unnoticed
+         */
+        private Duration reconcileFullCheckInterval = Duration.ofDays(7);
+
+        /**
+         * Maximum number of concurrent PermissionPort calls made by a reconciliation
+         */
+        private Integer reconcileConcurrency = 4;
+
+        /**
+         * Maximum number of PermissionPort calls per second made by a reconciliation
+         */
+        private Integer reconcileMaxCallsPerSecond = 50;
+    }
+
+    @Data
+    public static class SweeperDefaults {
+        /**
+         * Sweeper deleting document permissions past their expiration date
+         */
+        private SweeperSettings expiredPermissions = new SweeperSettings();
+
+        /**
+         * Sweeper releasing document locks past their locked-until date
+         */
+        private SweeperSettings staleLocks = new SweeperSettings();
+
+        /**
+         * Sweeper marking pending signature requests past their expiration date as expired
+         */
+        private SweeperSettings expiredSignatureRequests = new SweeperSettings();
+    }
+
+    @Data
+    public static class SweeperSettings {
+        /**
+         * Whether this instance runs the sweeper (every instance can, since batches are claimed with SKIP LOCKED)
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Maximum number of rows claimed and updated by one statement
+         */
+        private Integer batchSize = 500;
+
+        /**
+         * Delay between the end of one sweep and the start of the next
+         */
+        private Duration interval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class MetadataDefaults {
+        /**
+         * Page size of a document's metadata listing when the request does not specify one
+         */
+        private Integer defaultPageSize = 100;
+
+        /**
+         * Maximum page size a single metadata listing may ask for
+         */
+        private Integer maxPageSize = 1000;
+
+        /**
+         * Maximum number of keys a single bulk metadata upsert may write
+         */
+        private Integer maxBulkEntries = 500;
+
+        /**
+         * Whether the complete metadata of recently read documents is cached in memory
+         */
+        private Boolean cacheEnabled = true;
+
+        /**
+         * Maximum number of documents whose metadata is cached
+         */
+        private Integer cacheMaxDocuments = 50000;
+
+        /**
+         * Maximum estimated size in bytes of the cached metadata
+         */
+        private Long cacheMaxBytes = 64L * 1024 * 1024;
+
+        /**
+         * Whether listing a folder loads the metadata of the listed documents into the cache
+         */
+        private Boolean cacheWarmOnFolderListing = true;
+
+        /**
+         * Maximum number of compiled metadata schema templates kept in memory
+         */
+        private Integer schemaCacheMaxTemplates = 10000;
+
+        /**
+         * Age after which a compiled metadata schema template is reloaded, bounding staleness when it
+         * was changed on another instance
+         */
+        private Duration schemaCacheMaxStaleness = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class TagDefaults {
+        /**
+         * Number of documents written per statement by bulk tag and untag requests
+         */
+        private Integer bulkBatchSize = 1000;
+
+        /**
+         * Maximum number of documents a single bulk tag or untag request may select
+         */
+        private Integer maxBulkDocuments = 100000;
+
+        /**
+         * Maximum number of tags a single bulk tag or untag request may carry
+         */
+        private Integer maxBulkTags = 100;
+
+        /**
+         * Whether the tags of recently used tenants are kept in memory to resolve tag names without a query
+         */
+        private Boolean dictionaryEnabled = true;
+
+        /**
+         * Maximum number of tenants whose tag dictionary is kept in memory (least recently used are evicted)
+         */
+        private Integer dictionaryMaxTenants = 1000;
+
+        /**
+         * Tenants with more tags than this resolve tag names with a query
+         */
+        private Integer dictionaryMaxTagsPerTenant = 100000;
+
+        /**
+         * Age after which a tag dictionary is reloaded, bounding staleness when tags are changed on another instance
+         */
+        private Duration dictionaryMaxStaleness = Duration.ofMinutes(5);
+
+        /**
+         * Number of tags returned by the most used tags listing when the request does not specify one
+         */
+        private Integer topDefaultLimit = 20;
+
+        /**
+         * Maximum number of tags a single most used tags listing may ask for
+         */
+        private Integer topMaxLimit = 500;
+
+        /**
+         * Whether the tag usage counts are periodically reconciled with the tag assignments
+         */
+        private Boolean usageReconcileEnabled = true;
+
+        /**
+         * Cron expression of the tag usage count reconciliation
+         */
+        private String usageReconcileCron = "0 30 2 * * *";
+    }
+
+    @Data
+    public static class VersionDefaults {
+        /**
+         * Whether this instance prunes document versions past their tenant's retention policy
+         */
+        private Boolean pruneEnabled = true;
+
+        /**
+         * Cron expression of the version pruning
+         */
+        private String pruneCron = "0 0 3 * * *";
+
+        /**
+         * Maximum number of documents whose versions are claimed and pruned by one batch
+         */
+        private Integer pruneBatchSize = 100;
+
+        /**
+         * Age after which the claim of a pruning run that stopped before deleting its versions is taken over
+         */
+        private Duration pruneClaimTimeout = Duration.ofHours(1);
+
+        /**
+         * Maximum number of version contents deleted from ECM storage at the same time
+         */
+        private Integer pruneContentConcurrency = 8;
+    }
+}
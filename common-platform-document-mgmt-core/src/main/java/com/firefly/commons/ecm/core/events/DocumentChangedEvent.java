@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.events;
+
+import com.firefly.commons.ecm.models.entities.Document;
+import lombok.Value;
+
+/**
+ * Application event published after a document row has been created, updated or deleted.
+ * Listeners use it to keep in-memory indexes and caches in step with the database.
+ */
+@Value
+public class DocumentChangedEvent {
+
+    /**
+     * The kind of change
+     */
+    EntityChangeType changeType;
+
+    /**
+     * The document as persisted (for deletions, the last known state)
+     */
+    Document document;
+
+    /**
+     * The document before an update, or null for creations and deletions
+     */
+    Document previous;
+}
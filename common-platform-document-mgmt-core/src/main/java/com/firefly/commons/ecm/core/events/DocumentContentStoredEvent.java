@@ -0,0 +1,39 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.events;
+
+import com.firefly.commons.ecm.models.entities.Document;
+import lombok.Value;
+
+/**
+ * Application event published after new content of a document has been stored through the ECM content port.
+ * Listeners use it to derive content-based indexes in the background, reading the content back from the port
+ * when they process it, so that queued events do not hold uploads in memory.
+ */
+@Value
+public class DocumentContentStoredEvent {
+
+    /**
+     * The document whose content was stored
+     */
+    Document document;
+
+    /**
+     * The content MIME type
+     */
+    String mimeType;
+}
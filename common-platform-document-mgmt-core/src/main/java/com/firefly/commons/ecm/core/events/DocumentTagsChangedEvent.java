@@ -0,0 +1,40 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.events;
+
+import com.firefly.commons.ecm.models.entities.DocumentTag;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Application event published once per batch of a bulk tag or untag request, after the batch of
+ * document tag assignments has been created or deleted.
+ */
+@Value
+public class DocumentTagsChangedEvent {
+
+    /**
+     * The kind of change, CREATED or DELETED
+     */
+    EntityChangeType changeType;
+
+    /**
+     * The (document, tag, tenant) assignments actually created or deleted by the batch
+     */
+    List<DocumentTag> documentTags;
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.DocumentMetadata;
+import com.firefly.commons.ecm.models.repositories.DocumentMetadataRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the complete metadata of documents, stamped with the metadata version of each document.
+ *
+ * Every write to a document's metadata increments documents.metadata_version. A read first gets the current
+ * version with a primary key lookup and serves the cached metadata only when it carries that same version,
+ * so a read never returns metadata older than a write completed before it, whichever instance made the write.
+ * The version is read before the metadata rows when loading, so a write racing with a load can only leave
+ * an entry stamped too old, which is reloaded on its next read.
+ *
+ * Concurrent misses on the same document share one load. The cache is bounded both by number of documents
+ * and by the estimated size of their metadata; the least recently read documents are evicted first.
+ * The cached entities are never handed to code that could modify them: callers map them to DTOs.
+ */
+@Slf4j
+@Component
+public class DocumentMetadataCache {
+
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final long ROW_OVERHEAD_BYTES = 160;
+
+    private record Entry(long version, List<DocumentMetadata> metadata, long bytes) {
+    }
+
+    private final EcmIntegrationProperties.MetadataDefaults properties;
+    private final DocumentMetadataRepository metadataRepository;
+    private final DocumentRepository documentRepository;
+
+    // Guarded by itself; access ordered, so iteration starts with the least recently read document
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong bytes = new AtomicLong();
+    private final ConcurrentHashMap<UUID, Mono<Entry>> loads = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter invalidations;
+    private final Counter evictions;
+
+    @Autowired
+    public DocumentMetadataCache(EcmIntegrationProperties properties,
+                                 DocumentMetadataRepository metadataRepository,
+                                 DocumentRepository documentRepository,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this(properties, metadataRepository, documentRepository, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    DocumentMetadataCache(EcmIntegrationProperties properties,
+                          DocumentMetadataRepository metadataRepository,
+                          DocumentRepository documentRepository,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties.getMetadata();
+        this.metadataRepository = metadataRepository;
+        this.documentRepository = documentRepository;
+
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.staleHits = lookups(meterRegistry, "stale");
+        this.invalidations = Counter.builder("ecm.metadata.cache.invalidations")
+                .description("Cached document metadata dropped because this instance wrote it")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("ecm.metadata.cache.evictions")
+                .description("Cached document metadata evicted to stay within the size limits")
+                .register(meterRegistry);
+        Gauge.builder("ecm.metadata.cache.size", this, DocumentMetadataCache::size)
+                .description("Number of documents whose metadata is cached")
+                .register(meterRegistry);
+        Gauge.builder("ecm.metadata.cache.bytes", bytes, AtomicLong::get)
+                .description("Estimated size in bytes of the cached metadata")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("ecm.metadata.cache.lookups")
+                .description("Document metadata cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the cache is enabled. When it is not, callers read the metadata from the repository.
+     *
+     * @return true if metadata should be read through the cache
+     */
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(properties.getCacheEnabled());
+    }
+
+    /**
+     * Get the complete metadata of a document, in key order.
+     *
+     * @param documentId The document ID
+     * @return A Mono emitting the metadata entries, empty when the document does not exist or has no metadata
+     */
+    public Mono<List<DocumentMetadata>> get(UUID documentId) {
+        if (!isEnabled()) {
+            return metadataRepository.findAllByDocumentId(documentId).collectList();
+        }
+        return documentRepository.findMetadataVersion(documentId)
+                .flatMap(version -> {
+                    Entry entry;
+                    synchronized (entries) {
+                        entry = entries.get(documentId);
+                    }
+                    if (entry != null && entry.version() == version) {
+                        hits.increment();
+                        return Mono.just(entry.metadata());
+                    }
+                    (entry == null ? misses : staleHits).increment();
+                    return loads.computeIfAbsent(documentId, key -> load(key)
+                                    .doFinally(signal -> loads.remove(key))
+                                    .cache())
+                            .flatMap(loaded -> loaded.version() >= version
+                                    ? Mono.just(loaded)
+                                    // The shared load started before the write whose version this read has seen
+                                    : load(documentId))
+                            .map(Entry::metadata);
+                })
+                .defaultIfEmpty(List.of());
+    }
+
+    private Mono<Entry> load(UUID documentId) {
+        return documentRepository.findMetadataVersion(documentId)
+                .flatMap(version -> metadataRepository.findAllByDocumentId(documentId)
+                        .collectList()
+                        .map(rows -> store(documentId, version, rows)));
+    }
+
+    /**
+     * Load the metadata of many documents into the cache with one query, for the documents that are not
+     * cached yet or whose cached metadata is outdated. The load runs in the background; failures are logged.
+     *
+     * @param documentIds The document IDs
+     */
+    public void warm(Collection<UUID> documentIds) {
+        if (!isEnabled() || !Boolean.TRUE.equals(properties.getCacheWarmOnFolderListing()) || documentIds.isEmpty()) {
+            return;
+        }
+        documentRepository.findMetadataVersions(documentIds)
+                .filter(document -> document.getMetadataVersion() != null && !loads.containsKey(document.getId())
+                        && !isCurrent(document.getId(), document.getMetadataVersion()))
+                .collectMap(Document::getId, Document::getMetadataVersion)
+                .filter(versions -> !versions.isEmpty())
+                .flatMap(versions -> metadataRepository.findAllByDocumentIdIn(versions.keySet())
+                        .collectMultimap(DocumentMetadata::getDocumentId)
+                        .doOnNext(rows -> versions.forEach((documentId, version) ->
+                                store(documentId, version, rows.getOrDefault(documentId, List.of())))))
+                .subscribe(
+                        rows -> log.debug("Metadata of {} documents loaded into the cache", rows.size()),
+                        error -> log.warn("Metadata cache warm-up failed: {}", error.getMessage()));
+    }
+
+    private boolean isCurrent(UUID documentId, long version) {
+        synchronized (entries) {
+            Entry entry = entries.get(documentId);
+            return entry != null && entry.version() >= version;
+        }
+    }
+
+    private Entry store(UUID documentId, long version, Collection<DocumentMetadata> rows) {
+        List<DocumentMetadata> metadata = List.copyOf(rows);
+        Entry entry = new Entry(version, metadata, estimateBytes(metadata));
+        long maxDocuments = properties.getCacheMaxDocuments();
+        long maxBytes = properties.getCacheMaxBytes();
+        synchronized (entries) {
+            Entry current = entries.get(documentId);
+            // A concurrent load already stored newer metadata
+            if (current != null && current.version() > version) {
+                return entry;
+            }
+            entries.put(documentId, entry);
+            bytes.addAndGet(entry.bytes() - (current != null ? current.bytes() : 0));
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while ((entries.size() > maxDocuments || bytes.get() > maxBytes) && eldest.hasNext()) {
+                bytes.addAndGet(-eldest.next().bytes());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        return entry;
+    }
+
+    private static long estimateBytes(List<DocumentMetadata> metadata) {
+        long total = ENTRY_OVERHEAD_BYTES;
+        for (DocumentMetadata row : metadata) {
+            total += ROW_OVERHEAD_BYTES + 2L * (length(row.getKey()) + length(row.getValue()) + length(row.getType())
+                    + length(row.getTenantId()) + length(row.getCreatedBy()) + length(row.getUpdatedBy()));
+        }
+        return total;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * Drop the cached metadata of a document after this instance wrote it. Reads would detect the new
+     * version anyway; dropping the entry frees its memory and keeps later reads from joining a load
+     * that started before the write.
+     *
+     * @param documentId The document ID
+     */
+    public void invalidate(UUID documentId) {
+        loads.remove(documentId);
+        synchronized (entries) {
+            Entry removed = entries.remove(documentId);
+            if (removed != null) {
+                bytes.addAndGet(-removed.bytes());
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Get the number of documents whose metadata is cached.
+     *
+     * @return The number of documents
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Get the estimated size of the cached metadata.
+     *
+     * @return The estimated size in bytes
+     */
+    public long bytes() {
+        return bytes.get();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentContentStoredEvent;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.repositories.DocumentSimilaritySignatureRepository;
+import com.firefly.core.ecm.port.document.DocumentContentPort;
+import com.firefly.core.ecm.service.EcmPortProvider;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Computes and stores MinHash signatures and LSH buckets for uploaded document content.
+ *
+ * Signatures are computed off the request path on a bounded worker pool with one thread per core
+ * (by default) and a bounded queue; uploads arriving while the queue is full are skipped and logged,
+ * and get a signature on their next upload. The queue holds only the documents: each worker reads
+ * the content back from the ECM content port, up to the shingled maximum, so at most one content per
+ * worker is in memory.
+ */
+@Slf4j
+@Component
+public class DocumentSimilarityIndexer {
+
+    private final DocumentSimilaritySignatureRepository repository;
+    private final MinHasher minHasher;
+    private final EcmPortProvider ecmPortProvider;
+    private final TransactionalOperator transactionalOperator;
+    private final int maxContentBytes;
+    private final boolean enabled;
+    private final Scheduler scheduler;
+
+    public DocumentSimilarityIndexer(DocumentSimilaritySignatureRepository repository,
+                                     MinHasher minHasher,
+                                     EcmPortProvider ecmPortProvider,
+                                     ReactiveTransactionManager transactionManager,
+                                     EcmIntegrationProperties properties) {
+        this.repository = repository;
+        this.minHasher = minHasher;
+        this.ecmPortProvider = ecmPortProvider;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        EcmIntegrationProperties.SimilarityDefaults similarity = properties.getSimilarity();
+        this.enabled = Boolean.TRUE.equals(similarity.getEnabled());
+        this.maxContentBytes = similarity.getMaxContentBytes();
+        int parallelism = similarity.getParallelism() > 0
+                ? similarity.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newBoundedElastic(parallelism, similarity.getQueueCapacity(), "ecm-similarity");
+    }
+
+    @EventListener
+    public void onContentStored(DocumentContentStoredEvent event) {
+        Document document = event.getDocument();
+        Optional<DocumentContentPort> contentPort = ecmPortProvider.getDocumentContentPort();
+        if (!enabled || document.getTenantId() == null || contentPort.isEmpty()) {
+            return;
+        }
+        Mono.fromCallable(() -> minHasher.signature(readContent(contentPort.get(), document.getId()), event.getMimeType()))
+                .subscribeOn(scheduler)
+                .filter(signature -> signature.shingleCount() > 0)
+                .flatMap(signature -> store(document.getId(), document.getTenantId(), signature))
+                .subscribe(
+                        unused -> log.debug("Similarity signature stored for document {}", document.getId()),
+                        error -> log.warn("Similarity signature not stored for document {}: {}", document.getId(), error.getMessage()));
+    }
+
+    /**
+     * Read the leading content of a document on the calling worker. Workers may block; waiting for the read
+     * here keeps the content out of the queue.
+     */
+    private byte[] readContent(DocumentContentPort port, UUID documentId) {
+        DataBuffer buffer = DataBufferUtils.join(DataBufferUtils.takeUntilByteCount(
+                port.getContentStream(documentId), maxContentBytes)).block();
+        if (buffer == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private Mono<Integer> store(UUID documentId, String tenantId, MinHasher.Signature signature) {
+        return repository.upsertSignature(documentId, tenantId, MinHasher.encode(signature.values()), signature.shingleCount())
+                .then(repository.deleteBuckets(documentId))
+                .then(repository.insertBuckets(documentId, tenantId,
+                        minHasher.bandNumbers(), minHasher.bucketHashes(signature.values())))
+                .as(transactionalOperator::transactional);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
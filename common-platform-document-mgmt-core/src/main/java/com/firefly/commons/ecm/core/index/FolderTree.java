@@ -0,0 +1,240 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.models.entities.Folder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory snapshot of the folder hierarchy of one tenant.
+ *
+ * Holds every folder by ID, the children of each folder and the folder ID of each name path, so
+ * path resolution is one map lookup and breadcrumbs are a walk up the parent links. Lookups are
+ * lock-free; mutations are serialized and keep the paths of moved or renamed subtrees current.
+ */
+public class FolderTree {
+
+    private final Map<UUID, Folder> folders = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> children = new ConcurrentHashMap<>();
+    private final Map<String, UUID> idsByPath = new ConcurrentHashMap<>();
+    private final List<Consumer<FolderTree>> pending = new ArrayList<>();
+    private final long createdAt = System.nanoTime();
+    private volatile boolean ready;
+
+    /**
+     * Add or replace a folder. When its parent or name changed, the paths of its
+     * descendants are derived again from the new ones.
+     *
+     * @param folder The folder as persisted
+     */
+    public synchronized void put(Folder folder) {
+        Folder previous = folders.put(folder.getId(), folder);
+        if (previous != null) {
+            unlinkParent(previous);
+            unmapPath(previous);
+        }
+        linkParent(folder);
+        mapPath(folder);
+        if (previous != null && (!Objects.equals(previous.getPath(), folder.getPath())
+                || !Objects.equals(previous.getParentFolderId(), folder.getParentFolderId()))) {
+            children.getOrDefault(folder.getId(), Set.of()).forEach(this::refreshSubtree);
+        }
+    }
+
+    /**
+     * Remove a folder. Its children become root folders, as the database does on delete.
+     *
+     * @param folderId The folder ID
+     */
+    public synchronized void remove(UUID folderId) {
+        Folder previous = folders.remove(folderId);
+        if (previous == null) {
+            return;
+        }
+        unlinkParent(previous);
+        unmapPath(previous);
+        Set<UUID> orphans = children.remove(folderId);
+        if (orphans != null) {
+            for (UUID childId : orphans) {
+                Folder child = folders.get(childId);
+                if (child != null) {
+                    folders.put(childId, copy(child, null, null, null, null));
+                    refreshSubtree(childId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply a mutation now if the tree is ready, or after the bulk load completes otherwise.
+     *
+     * @param mutation The mutation to apply
+     */
+    public synchronized void apply(Consumer<FolderTree> mutation) {
+        if (ready) {
+            mutation.accept(this);
+        } else {
+            pending.add(mutation);
+        }
+    }
+
+    /**
+     * Mark the bulk load as complete, replaying the mutations received while it was running.
+     */
+    public synchronized void markReady() {
+        pending.forEach(mutation -> mutation.accept(this));
+        pending.clear();
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return The age of the tree in nanoseconds
+     */
+    public long age() {
+        return System.nanoTime() - createdAt;
+    }
+
+    public int size() {
+        return folders.size();
+    }
+
+    public Folder get(UUID folderId) {
+        return folders.get(folderId);
+    }
+
+    /**
+     * Resolve a name path such as {@code /Contracts/2024} to its folder.
+     *
+     * @param path The name path (normalized with {@link #normalizePath(String)})
+     * @return The folder, or null when no folder has that path
+     */
+    public Folder resolve(String path) {
+        UUID folderId = idsByPath.get(path);
+        return folderId != null ? folders.get(folderId) : null;
+    }
+
+    /**
+     * Get the breadcrumbs of a folder: its ancestors from the root down, followed by the folder itself.
+     *
+     * @param folderId The folder ID
+     * @return The breadcrumbs, or an empty list when the folder is unknown
+     */
+    public List<Folder> breadcrumbs(UUID folderId) {
+        List<Folder> trail = new ArrayList<>();
+        Folder current = folders.get(folderId);
+        // Bounded walk, so that a corrupt cycle cannot loop forever
+        for (int hops = 0; current != null && hops <= folders.size(); hops++) {
+            trail.add(current);
+            current = current.getParentFolderId() != null ? folders.get(current.getParentFolderId()) : null;
+        }
+        Collections.reverse(trail);
+        return trail;
+    }
+
+    /**
+     * Normalize a name path: a single leading slash, no trailing or repeated slashes.
+     *
+     * @param path The path as typed
+     * @return The normalized path ("/" for the empty path)
+     */
+    public static String normalizePath(String path) {
+        StringBuilder normalized = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                normalized.append('/').append(segment);
+            }
+        }
+        return normalized.length() == 0 ? "/" : normalized.toString();
+    }
+
+    private void refreshSubtree(UUID folderId) {
+        Folder folder = folders.get(folderId);
+        if (folder == null) {
+            return;
+        }
+        Folder parent = folder.getParentFolderId() != null ? folders.get(folder.getParentFolderId()) : null;
+        String path = (parent != null && parent.getPath() != null ? parent.getPath() : "") + "/" + folder.getName();
+        String idPath = (parent != null && parent.getIdPath() != null ? parent.getIdPath() : "/") + folder.getId() + "/";
+        int depth = parent != null && parent.getDepth() != null ? parent.getDepth() + 1 : 0;
+
+        unmapPath(folder);
+        Folder refreshed = copy(folder, folder.getParentFolderId(), path, idPath, depth);
+        folders.put(folderId, refreshed);
+        mapPath(refreshed);
+        children.getOrDefault(folderId, Set.of()).forEach(this::refreshSubtree);
+    }
+
+    private void linkParent(Folder folder) {
+        if (folder.getParentFolderId() != null) {
+            children.computeIfAbsent(folder.getParentFolderId(), key -> ConcurrentHashMap.newKeySet()).add(folder.getId());
+        }
+    }
+
+    private void unlinkParent(Folder folder) {
+        if (folder.getParentFolderId() != null) {
+            Set<UUID> siblings = children.get(folder.getParentFolderId());
+            if (siblings != null) {
+                siblings.remove(folder.getId());
+            }
+        }
+    }
+
+    private void mapPath(Folder folder) {
+        if (folder.getPath() != null) {
+            idsByPath.put(folder.getPath(), folder.getId());
+        }
+    }
+
+    private void unmapPath(Folder folder) {
+        if (folder.getPath() != null) {
+            idsByPath.remove(folder.getPath(), folder.getId());
+        }
+    }
+
+    private static Folder copy(Folder folder, UUID parentFolderId, String path, String idPath, Integer depth) {
+        return Folder.builder()
+                .id(folder.getId())
+                .name(folder.getName())
+                .description(folder.getDescription())
+                .parentFolderId(parentFolderId)
+                .path(path != null ? path : "/" + folder.getName())
+                .idPath(idPath != null ? idPath : "/" + folder.getId() + "/")
+                .depth(depth != null ? depth : 0)
+                .securityLevel(folder.getSecurityLevel())
+                .isSystemFolder(folder.getIsSystemFolder())
+                .tenantId(folder.getTenantId())
+                .createdAt(folder.getCreatedAt())
+                .createdBy(folder.getCreatedBy())
+                .updatedAt(folder.getUpdatedAt())
+                .updatedBy(folder.getUpdatedBy())
+                .version(folder.getVersion())
+                .build();
+    }
+}
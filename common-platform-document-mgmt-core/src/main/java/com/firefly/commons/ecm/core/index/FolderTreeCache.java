@@ -0,0 +1,260 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.events.FolderChangedEvent;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@link FolderTree} instances for the tenants that resolve folder paths and breadcrumbs.
+ *
+ * A tenant is bulk loaded with one query on first use and kept current from the folder change events
+ * of this instance, which are published once the change has committed. Changes made on other instances arrive as PostgreSQL notifications on the
+ * configured channel and drop the affected tree, which is then reloaded on its next use.
+ * Tenants with too many folders are remembered as such, and their folders are counted again only
+ * once that verdict reaches the configured maximum staleness.
+ */
+@Slf4j
+@Component
+public class FolderTreeCache {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final FolderRepository folderRepository;
+    private final ConnectionFactory connectionFactory;
+    private final EcmIntegrationProperties.FolderDefaults properties;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Map<String, FolderTree> trees;
+    private final Map<String, Long> oversized;
+    private final ConcurrentHashMap<String, Mono<FolderTree>> loads = new ConcurrentHashMap<>();
+    private volatile Disposable listener;
+
+    public FolderTreeCache(FolderRepository folderRepository,
+                           ConnectionFactory connectionFactory,
+                           EcmIntegrationProperties properties) {
+        this.folderRepository = folderRepository;
+        this.connectionFactory = connectionFactory;
+        this.properties = properties.getFolders();
+        int maxTenants = this.properties.getTreeCacheMaxTenants();
+        this.trees = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FolderTree> eldest) {
+                return size() > maxTenants;
+            }
+        });
+        this.oversized = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxTenants;
+            }
+        });
+    }
+
+    /**
+     * Get the folder tree of a tenant, loading it from the database on first use or once it is stale.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the ready tree, or empty when the tenant is not cached
+     *         (cache disabled or too many folders), in which case callers query the database
+     */
+    public Mono<FolderTree> getTree(String tenantId) {
+        if (!Boolean.TRUE.equals(properties.getTreeCacheEnabled()) || tenantId == null) {
+            return Mono.empty();
+        }
+        FolderTree tree = trees.get(tenantId);
+        if (tree != null && tree.isReady() && tree.age() < properties.getTreeCacheMaxStaleness().toNanos()) {
+            return Mono.just(tree);
+        }
+        Long checkedAt = oversized.get(tenantId);
+        if (checkedAt != null && System.nanoTime() - checkedAt < properties.getTreeCacheMaxStaleness().toNanos()) {
+            return Mono.empty();
+        }
+        return loads.computeIfAbsent(tenantId, key -> load(key)
+                .doFinally(signal -> loads.remove(key))
+                .cache());
+    }
+
+    private Mono<FolderTree> load(String tenantId) {
+        long maxFolders = properties.getTreeCacheMaxFoldersPerTenant();
+        return folderRepository.countByTenantId(tenantId)
+                .flatMap(count -> {
+                    if (count > maxFolders) {
+                        log.debug("Folder tree of tenant {} not cached: {} folders above the limit of {}", tenantId, count, maxFolders);
+                        oversized.put(tenantId, System.nanoTime());
+                        trees.remove(tenantId);
+                        return Mono.empty();
+                    }
+                    oversized.remove(tenantId);
+                    FolderTree tree = new FolderTree();
+                    // Register before loading, so that changes made during the load are queued and replayed
+                    trees.put(tenantId, tree);
+                    return folderRepository.findByTenantId(tenantId)
+                            .doOnNext(tree::put)
+                            .then(Mono.fromCallable(() -> {
+                                tree.markReady();
+                                log.debug("Folder tree loaded for tenant {} with {} folders", tenantId, tree.size());
+                                return tree;
+                            }))
+                            .doOnError(error -> trees.remove(tenantId, tree));
+                });
+    }
+
+    /**
+     * Drop the folder tree of a tenant; it is reloaded on its next use.
+     *
+     * @param tenantId The tenant ID
+     */
+    public void invalidate(String tenantId) {
+        trees.remove(tenantId);
+    }
+
+    /**
+     * Tell the other instances that the folders of a tenant changed. Must be called inside the
+     * transaction of the change, so that the notification is only delivered once it commits.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono completing when the notification is queued
+     */
+    public Mono<Void> publishChange(String tenantId) {
+        String channel = properties.getChangeChannel();
+        if (tenantId == null || channel == null || channel.isBlank()) {
+            return Mono.empty();
+        }
+        return folderRepository.notifyChange(channel, instanceId + ":" + tenantId);
+    }
+
+    @EventListener
+    public void onFolderChanged(FolderChangedEvent event) {
+        Folder folder = event.getFolder();
+        Folder previous = event.getPrevious();
+        if (previous != null && previous.getTenantId() != null && !previous.getTenantId().equals(folder.getTenantId())) {
+            mutate(previous.getTenantId(), tree -> tree.remove(previous.getId()));
+        }
+        if (event.getChangeType() == EntityChangeType.DELETED) {
+            mutate(folder.getTenantId(), tree -> tree.remove(folder.getId()));
+        } else {
+            mutate(folder.getTenantId(), tree -> tree.put(folder));
+        }
+    }
+
+    private void mutate(String tenantId, Consumer<FolderTree> mutation) {
+        if (tenantId == null) {
+            return;
+        }
+        FolderTree tree = trees.get(tenantId);
+        if (tree != null) {
+            tree.apply(mutation);
+        }
+    }
+
+    /**
+     * Start listening for the change notifications of the other instances on a dedicated connection.
+     * The connection is re-established with backoff when it drops; every tree is dropped on (re)connect
+     * since notifications sent while disconnected are lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        String channel = properties.getChangeChannel();
+        if (!Boolean.TRUE.equals(properties.getTreeCacheEnabled()) || channel == null || channel.isBlank()) {
+            return;
+        }
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            log.warn("Folder change channel '{}' is not a valid identifier, cross-instance invalidation disabled", channel);
+            return;
+        }
+        listener = Flux.usingWhen(Mono.from(connectionFactory.create()),
+                        connection -> listen(connection, channel),
+                        Connection::close)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .filter(error -> !(error instanceof UnsupportedOperationException))
+                        .doBeforeRetry(signal -> log.warn("Folder change listener reconnecting: {}", signal.failure().getMessage())))
+                .subscribe(this::onNotification,
+                        error -> log.warn("Folder change listener stopped: {}", error.getMessage()));
+    }
+
+    private Flux<String> listen(Connection connection, String channel) {
+        PostgresqlConnection postgres = unwrap(connection);
+        if (postgres == null) {
+            return Flux.error(new UnsupportedOperationException("Folder change notifications require a PostgreSQL connection"));
+        }
+        return postgres.createStatement("LISTEN " + channel)
+                .execute()
+                .flatMap(PostgresqlResult::getRowsUpdated)
+                .then(Mono.fromRunnable(() -> {
+                    trees.clear();
+                    log.info("Listening for folder changes on channel {}", channel);
+                }))
+                .thenMany(postgres.getNotifications())
+                .mapNotNull(notification -> notification.getParameter());
+    }
+
+    private void onNotification(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        invalidate(payload.substring(separator + 1));
+    }
+
+    private static PostgresqlConnection unwrap(Connection connection) {
+        Object current = connection;
+        while (!(current instanceof PostgresqlConnection) && current instanceof Wrapped<?> wrapped) {
+            Object inner = wrapped.unwrap();
+            if (inner == null || inner == current) {
+                return null;
+            }
+            current = inner;
+        }
+        return current instanceof PostgresqlConnection postgres ? postgres : null;
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        Disposable current = listener;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+}
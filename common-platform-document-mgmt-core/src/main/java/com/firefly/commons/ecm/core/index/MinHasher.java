@@ -0,0 +1,288 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Computes MinHash signatures of document content and their LSH band hashes.
+ *
+ * Text content is split into lower-cased word shingles; any other content is shingled over
+ * 8-byte windows. Each shingle is hashed once to 64 bits and then remixed with one seed per
+ * signature slot. Since the minimum of a multiset equals the minimum of its distinct elements,
+ * shingles are never collected, so signatures are computed in a single pass with constant memory.
+ */
+@Component
+public class MinHasher {
+
+    private static final int BYTE_SHINGLE_SIZE = 8;
+    private static final int TEXT_SNIFF_BYTES = 4096;
+    private static final long SEED = 0x5DEECE66DL;
+
+    private final int numHashes;
+    private final int bands;
+    private final int rows;
+    private final int wordShingleSize;
+    private final int maxContentBytes;
+    private final long[] seeds;
+
+    @Autowired
+    public MinHasher(EcmIntegrationProperties properties) {
+        this(properties.getSimilarity().getNumHashes(),
+                properties.getSimilarity().getBands(),
+                properties.getSimilarity().getWordShingleSize(),
+                properties.getSimilarity().getMaxContentBytes());
+    }
+
+    public MinHasher(int numHashes, int bands, int wordShingleSize, int maxContentBytes) {
+        if (numHashes <= 0 || bands <= 0 || numHashes % bands != 0) {
+            throw new IllegalArgumentException("Number of hashes (" + numHashes + ") must be a positive multiple of bands (" + bands + ")");
+        }
+        if (wordShingleSize <= 0 || maxContentBytes <= 0) {
+            throw new IllegalArgumentException("Shingle size and maximum content bytes must be positive");
+        }
+        this.numHashes = numHashes;
+        this.bands = bands;
+        this.rows = numHashes / bands;
+        this.wordShingleSize = wordShingleSize;
+        this.maxContentBytes = maxContentBytes;
+        SplittableRandom random = new SplittableRandom(SEED);
+        this.seeds = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * A MinHash signature and the number of shingles it was computed from.
+     */
+    public record Signature(int[] values, int shingleCount) {
+    }
+
+    /**
+     * Compute the signature of a document's content.
+     *
+     * @param content The content bytes (only the first maxContentBytes are read)
+     * @param mimeType The content MIME type, used to choose between word and byte shingles
+     * @return The signature; its shingle count is 0 for empty content
+     */
+    public Signature signature(byte[] content, String mimeType) {
+        int length = Math.min(content.length, maxContentBytes);
+        int[] values = new int[numHashes];
+        Arrays.fill(values, Integer.MAX_VALUE);
+        int shingles = isText(content, length, mimeType)
+                ? addWordShingles(new String(content, 0, length, StandardCharsets.UTF_8), values)
+                : addByteShingles(content, length, values);
+        return new Signature(values, shingles);
+    }
+
+    /**
+     * Compute the LSH bucket hash of every band of a signature.
+     *
+     * @param values The signature values
+     * @return One bucket hash per band
+     */
+    public long[] bandHashes(int[] values) {
+        if (values.length != numHashes) {
+            throw new IllegalArgumentException("Signature has " + values.length + " values, expected " + numHashes);
+        }
+        long[] hashes = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long hash = mix(band + 1L);
+            for (int row = 0; row < rows; row++) {
+                hash = mix(hash ^ (values[band * rows + row] & 0xFFFFFFFFL));
+            }
+            hashes[band] = hash;
+        }
+        return hashes;
+    }
+
+    /**
+     * Compute the LSH buckets of a signature in the array form bound to bucket queries.
+     *
+     * @param values The signature values
+     * @return The bucket hash of each band, indexed by band number
+     */
+    public Long[] bucketHashes(int[] values) {
+        return Arrays.stream(bandHashes(values)).boxed().toArray(Long[]::new);
+    }
+
+    /**
+     * @return The band numbers (0 to bands - 1), aligned with {@link #bucketHashes(int[])}
+     */
+    public Integer[] bandNumbers() {
+        Integer[] numbers = new Integer[bands];
+        Arrays.setAll(numbers, band -> band);
+        return numbers;
+    }
+
+    /**
+     * Estimate the Jaccard similarity of two signatures as the fraction of equal slots.
+     *
+     * @param left The first signature
+     * @param right The second signature
+     * @return The estimated similarity in [0, 1]
+     */
+    public static double similarity(int[] left, int[] right) {
+        if (left.length != right.length || left.length == 0) {
+            return 0.0;
+        }
+        int equal = 0;
+        for (int i = 0; i < left.length; i++) {
+            if (left[i] == right[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / left.length;
+    }
+
+    public static byte[] encode(int[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES);
+        buffer.asIntBuffer().put(values);
+        return buffer.array();
+    }
+
+    public static int[] decode(byte[] bytes) {
+        int[] values = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(values);
+        return values;
+    }
+
+    private int addWordShingles(String text, int[] values) {
+        long[] window = new long[wordShingleSize];
+        int tokens = 0;
+        int shingles = 0;
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == start) {
+                break;
+            }
+            window[tokens % wordShingleSize] = tokenHash(text, start, i);
+            tokens++;
+            if (tokens >= wordShingleSize) {
+                update(values, shingleHash(window, tokens));
+                shingles++;
+            }
+        }
+        if (tokens > 0 && tokens < wordShingleSize) {
+            update(values, shingleHash(window, tokens));
+            shingles++;
+        }
+        return shingles;
+    }
+
+    private long shingleHash(long[] window, int tokens) {
+        int size = Math.min(tokens, wordShingleSize);
+        long hash = 0;
+        for (int j = tokens - size; j < tokens; j++) {
+            hash = mix(hash ^ window[j % wordShingleSize]);
+        }
+        return hash;
+    }
+
+    private static long tokenHash(String text, int start, int end) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= Character.toLowerCase(text.charAt(i));
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private int addByteShingles(byte[] content, int length, int[] values) {
+        if (length == 0) {
+            return 0;
+        }
+        if (length < BYTE_SHINGLE_SIZE) {
+            long gram = 0;
+            for (int i = 0; i < length; i++) {
+                gram = (gram << 8) | (content[i] & 0xFF);
+            }
+            update(values, mix(gram ^ length));
+            return 1;
+        }
+        long gram = 0;
+        int shingles = 0;
+        for (int i = 0; i < length; i++) {
+            gram = (gram << 8) | (content[i] & 0xFF);
+            if (i >= BYTE_SHINGLE_SIZE - 1) {
+                update(values, mix(gram));
+                shingles++;
+            }
+        }
+        return shingles;
+    }
+
+    private void update(int[] values, long shingleHash) {
+        for (int i = 0; i < numHashes; i++) {
+            int value = (int) (mix(shingleHash ^ seeds[i]) >>> 32);
+            if (value < values[i]) {
+                values[i] = value;
+            }
+        }
+    }
+
+    static boolean isText(byte[] content, int length, String mimeType) {
+        if (mimeType != null) {
+            String type = mimeType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/") || type.contains("json") || type.contains("xml")
+                    || type.contains("csv") || type.contains("javascript")) {
+                return true;
+            }
+        }
+        int sample = Math.min(length, TEXT_SNIFF_BYTES);
+        if (sample == 0) {
+            return false;
+        }
+        int control = 0;
+        for (int i = 0; i < sample; i++) {
+            int b = content[i] & 0xFF;
+            if (b == 0) {
+                return false;
+            }
+            if (b < 0x20 && b != '\n' && b != '\r' && b != '\t' && b != '\f') {
+                control++;
+            }
+        }
+        return control * 20 < sample;
+    }
+
+    /**
+     * Stafford variant 13 of the 64-bit finalizer used by SplittableRandom.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
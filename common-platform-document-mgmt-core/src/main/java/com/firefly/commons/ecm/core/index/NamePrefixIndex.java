@@ -0,0 +1,148 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.interfaces.dtos.NameSuggestionDTO;
+import com.firefly.commons.ecm.interfaces.enums.NameSuggestionType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory prefix index over the document and folder names of a single tenant.
+ *
+ * Entries are kept in a concurrent skip list keyed by the lower-cased name followed by the entity ID,
+ * so a prefix lookup is a range scan over the keys starting at the prefix and reads never take a lock.
+ * Mutations received while the index is still being bulk loaded are queued and replayed once the
+ * load completes, so the index never misses a write that raced with its construction.
+ */
+public class NamePrefixIndex {
+
+    /**
+     * Ranking used for prefix matches: shortest name first, then alphabetical.
+     */
+    public static final Comparator<NameSuggestionDTO> RANKING = Comparator
+            .comparingInt((NameSuggestionDTO entry) -> entry.getName().length())
+            .thenComparing(entry -> normalize(entry.getName()));
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, NameSuggestionDTO> entries = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<UUID, String> keysById = new ConcurrentHashMap<>();
+    private final List<Consumer<NamePrefixIndex>> pendingMutations = new ArrayList<>();
+    private volatile boolean ready;
+
+    /**
+     * Lower-cases a name or query the same way for indexing and lookup.
+     *
+     * @param value The raw value
+     * @return The normalized value
+     */
+    public static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Insert or replace the entry for an entity.
+     *
+     * @param entry The suggestion entry
+     */
+    public void put(NameSuggestionDTO entry) {
+        if (entry.getId() == null || entry.getName() == null) {
+            return;
+        }
+        String key = normalize(entry.getName()) + KEY_SEPARATOR + entry.getId();
+        String previousKey = keysById.put(entry.getId(), key);
+        if (previousKey != null && !previousKey.equals(key)) {
+            entries.remove(previousKey);
+        }
+        entries.put(key, entry);
+    }
+
+    /**
+     * Remove the entry of an entity, if present.
+     *
+     * @param id The document or folder ID
+     */
+    public void remove(UUID id) {
+        String key = keysById.remove(id);
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Apply a mutation now if the index is ready, otherwise queue it until the bulk load completes.
+     *
+     * @param mutation The mutation to apply
+     */
+    public synchronized void apply(Consumer<NamePrefixIndex> mutation) {
+        if (ready) {
+            mutation.accept(this);
+        } else {
+            pendingMutations.add(mutation);
+        }
+    }
+
+    /**
+     * Replay the queued mutations and open the index for lookups.
+     */
+    public synchronized void markReady() {
+        pendingMutations.forEach(mutation -> mutation.accept(this));
+        pendingMutations.clear();
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    /**
+     * Find the entries whose normalized name starts with the given prefix.
+     *
+     * @param normalizedPrefix The lower-cased prefix
+     * @param type Optional entity kind filter
+     * @param limit The maximum number of results
+     * @param window The number of candidates read in key order before ranking
+     * @return The ranked matches
+     */
+    public List<NameSuggestionDTO> findByPrefix(String normalizedPrefix, NameSuggestionType type, int limit, int window) {
+        List<NameSuggestionDTO> candidates = new ArrayList<>(Math.min(window, 64));
+        for (NameSuggestionDTO entry : entries.subMap(normalizedPrefix, true, normalizedPrefix + Character.MAX_VALUE, false).values()) {
+            if (type != null && type != entry.getType()) {
+                continue;
+            }
+            candidates.add(entry);
+            if (candidates.size() >= window) {
+                break;
+            }
+        }
+        candidates.sort(RANKING);
+        return candidates.size() > limit ? new ArrayList<>(candidates.subList(0, limit)) : candidates;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.events.FolderChangedEvent;
+import com.firefly.commons.ecm.interfaces.dtos.NameSuggestionDTO;
+import com.firefly.commons.ecm.interfaces.enums.NameSuggestionType;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps {@link NamePrefixIndex} instances for the hottest tenants.
+ *
+ * A tenant is loaded in the background once it has issued the configured number of suggestion
+ * requests, and the least recently used tenant is evicted when the configured number of hot tenants
+ * is exceeded. Loaded indexes are kept current from the document and folder change events.
+ * Request counts are kept for a bounded number of tenants, dropping the least recently counted.
+ */
+@Slf4j
+@Component
+public class NameSuggestionIndexRegistry {
+
+    private final DocumentRepository documentRepository;
+    private final FolderRepository folderRepository;
+    private final EcmIntegrationProperties properties;
+
+    private final Map<String, AtomicLong> requestCounts;
+    private final Map<String, NamePrefixIndex> indexes;
+
+    public NameSuggestionIndexRegistry(DocumentRepository documentRepository,
+                                       FolderRepository folderRepository,
+                                       EcmIntegrationProperties properties) {
+        this.documentRepository = documentRepository;
+        this.folderRepository = folderRepository;
+        this.properties = properties;
+        int maxHotTenants = properties.getSearch().getMaxHotTenants();
+        this.indexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NamePrefixIndex> eldest) {
+                return size() > maxHotTenants;
+            }
+        });
+        int maxTrackedTenants = properties.getSearch().getMaxTrackedTenants();
+        this.requestCounts = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AtomicLong> eldest) {
+                return size() > maxTrackedTenants;
+            }
+        });
+    }
+
+    /**
+     * Record a suggestion request for a tenant and return its index if it is loaded.
+     * Crossing the hot tenant threshold triggers a background load.
+     *
+     * @param tenantId The tenant ID
+     * @return The ready index of the tenant, or null when the tenant must be served from the database
+     */
+    public NamePrefixIndex lookup(String tenantId) {
+        NamePrefixIndex index = indexes.get(tenantId);
+        if (index != null) {
+            return index.isReady() ? index : null;
+        }
+        long requests = requestCounts.computeIfAbsent(tenantId, key -> new AtomicLong()).incrementAndGet();
+        if (requests >= properties.getSearch().getHotTenantThreshold()) {
+            load(tenantId);
+        }
+        return null;
+    }
+
+    private void load(String tenantId) {
+        NamePrefixIndex index = new NamePrefixIndex();
+        if (indexes.putIfAbsent(tenantId, index) != null) {
+            return;
+        }
+        requestCounts.remove(tenantId);
+        long maxNames = properties.getSearch().getMaxIndexedNamesPerTenant();
+
+        Mono.zip(documentRepository.countByTenantId(tenantId), folderRepository.countByTenantId(tenantId))
+                .flatMapMany(counts -> {
+                    long names = counts.getT1() + counts.getT2();
+                    if (names > maxNames) {
+                        return Flux.error(new IllegalStateException(
+                                "Tenant " + tenantId + " has " + names + " names, above the in-memory limit of " + maxNames));
+                    }
+                    return Flux.merge(
+                            documentRepository.findNameEntriesByTenantId(tenantId).map(NameSuggestionIndexRegistry::toSuggestion),
+                            folderRepository.findNameEntriesByTenantId(tenantId).map(NameSuggestionIndexRegistry::toSuggestion));
+                })
+                .doOnNext(index::put)
+                .then()
+                .subscribe(
+                        unused -> { },
+                        error -> {
+                            indexes.remove(tenantId, index);
+                            log.warn("Name index not loaded for tenant {}: {}", tenantId, error.getMessage());
+                        },
+                        () -> {
+                            index.markReady();
+                            log.info("Name index loaded for tenant {} with {} entries", tenantId, index.size());
+                        });
+    }
+
+    @EventListener
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        Document document = event.getDocument();
+        Document previous = event.getPrevious();
+        if (previous != null && !Objects.equals(previous.getTenantId(), document.getTenantId())) {
+            removeEntry(previous.getTenantId(), previous.getId());
+        }
+        if (event.getChangeType() == EntityChangeType.DELETED) {
+            removeEntry(document.getTenantId(), document.getId());
+        } else {
+            putEntry(document.getTenantId(), toSuggestion(document));
+        }
+    }
+
+    @EventListener
+    public void onFolderChanged(FolderChangedEvent event) {
+        Folder folder = event.getFolder();
+        Folder previous = event.getPrevious();
+        if (previous != null && !Objects.equals(previous.getTenantId(), folder.getTenantId())) {
+            removeEntry(previous.getTenantId(), previous.getId());
+        }
+        if (event.getChangeType() == EntityChangeType.DELETED) {
+            removeEntry(folder.getTenantId(), folder.getId());
+        } else {
+            putEntry(folder.getTenantId(), toSuggestion(folder));
+        }
+    }
+
+    private void putEntry(String tenantId, NameSuggestionDTO entry) {
+        NamePrefixIndex index = tenantId != null ? indexes.get(tenantId) : null;
+        if (index != null) {
+            index.apply(target -> target.put(entry));
+        }
+    }
+
+    private void removeEntry(String tenantId, UUID id) {
+        NamePrefixIndex index = tenantId != null ? indexes.get(tenantId) : null;
+        if (index != null) {
+            index.apply(target -> target.remove(id));
+        }
+    }
+
+    public static NameSuggestionDTO toSuggestion(Document document) {
+        return NameSuggestionDTO.builder()
+                .id(document.getId())
+                .name(document.getName())
+                .type(NameSuggestionType.DOCUMENT)
+                .parentFolderId(document.getFolderId())
+                .build();
+    }
+
+    public static NameSuggestionDTO toSuggestion(Folder folder) {
+        return NameSuggestionDTO.builder()
+                .id(folder.getId())
+                .name(folder.getName())
+                .type(NameSuggestionType.FOLDER)
+                .parentFolderId(folder.getParentFolderId())
+                .build();
+    }
+}
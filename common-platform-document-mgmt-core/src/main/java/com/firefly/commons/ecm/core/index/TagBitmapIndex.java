@@ -0,0 +1,286 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Compressed bitmap index of the tags of one tenant's documents.
+ *
+ * Every document gets a dense int ordinal on first sight; each tag maps to the bitmap of the
+ * ordinals of its documents, and a universe bitmap holds every live document so that NOT can be
+ * evaluated as a difference. Ordinals of deleted documents are not reused until the next rebuild.
+ * Reads share a read lock, so queries never block each other.
+ */
+public class TagBitmapIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<UUID> documents = new ArrayList<>();
+    private final RoaringBitmap universe = new RoaringBitmap();
+    private final Map<UUID, RoaringBitmap> tags = new HashMap<>();
+    private final List<Consumer<TagBitmapIndex>> pending = new ArrayList<>();
+    private volatile boolean ready;
+
+    /**
+     * Register a live document.
+     *
+     * @param documentId The document ID
+     */
+    public void addDocument(UUID documentId) {
+        lock.writeLock().lock();
+        try {
+            universe.add(ordinal(documentId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document and all of its tags.
+     *
+     * @param documentId The document ID
+     */
+    public void removeDocument(UUID documentId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(documentId);
+            if (ordinal != null) {
+                documents.set(ordinal, null);
+                universe.remove(ordinal);
+                tags.values().forEach(bitmap -> bitmap.remove(ordinal));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record that a document carries a tag. Unknown documents are registered as live.
+     *
+     * @param documentId The document ID
+     * @param tagId The tag ID
+     */
+    public void tag(UUID documentId, UUID tagId) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinal(documentId);
+            universe.add(ordinal);
+            tags.computeIfAbsent(tagId, key -> new RoaringBitmap()).add(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record that a document no longer carries a tag.
+     *
+     * @param documentId The document ID
+     * @param tagId The tag ID
+     */
+    public void untag(UUID documentId, UUID tagId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(documentId);
+            RoaringBitmap bitmap = tags.get(tagId);
+            if (ordinal != null && bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    tags.remove(tagId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a mutation now if the index is ready, or after the bulk load completes otherwise.
+     *
+     * @param mutation The mutation to apply
+     */
+    public synchronized void apply(Consumer<TagBitmapIndex> mutation) {
+        if (ready) {
+            mutation.accept(this);
+        } else {
+            pending.add(mutation);
+        }
+    }
+
+    /**
+     * Mark the bulk load as complete, replaying the mutations received while it was running.
+     */
+    public synchronized void markReady() {
+        pending.forEach(mutation -> mutation.accept(this));
+        pending.clear();
+        lock.writeLock().lock();
+        try {
+            universe.runOptimize();
+            tags.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return The number of live documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return universe.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Evaluate an expression and return one page of matching document IDs, in ordinal order.
+     *
+     * @param expression The tag expression
+     * @param tagIdsByTerm The tag IDs each expression term resolves to
+     * @param offset The number of matches to skip
+     * @param limit The maximum number of IDs returned
+     * @return The page of document IDs and the total number of matches
+     */
+    public TagQueryResult query(TagExpression expression, Map<String, ? extends Collection<UUID>> tagIdsByTerm,
+                                long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Function<String, RoaringBitmap> resolver = term -> {
+                Collection<UUID> tagIds = tagIdsByTerm.get(term);
+                if (tagIds == null || tagIds.isEmpty()) {
+                    return null;
+                }
+                RoaringBitmap bitmap = new RoaringBitmap();
+                tagIds.stream().map(tags::get).filter(Objects::nonNull).forEach(bitmap::or);
+                return bitmap;
+            };
+            RoaringBitmap matches = expression.evaluate(resolver, universe);
+            long total = matches.getLongCardinality();
+            List<UUID> page = new ArrayList<>();
+            if (offset < total) {
+                PeekableIntIterator iterator = matches.getIntIterator();
+                iterator.advanceIfNeeded(matches.select((int) offset));
+                while (iterator.hasNext() && page.size() < limit) {
+                    page.add(documents.get(iterator.next()));
+                }
+            }
+            return new TagQueryResult(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One page of a tag query.
+     *
+     * @param documentIds The document IDs of the page
+     * @param total The total number of matching documents
+     */
+    public record TagQueryResult(List<UUID> documentIds, long total) {
+    }
+
+    /**
+     * Write the index in the snapshot format read by {@link #readFrom(DataInput)}.
+     *
+     * @param out The output
+     * @throws IOException On write failures
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(documents.size());
+            for (UUID documentId : documents) {
+                out.writeBoolean(documentId != null);
+                if (documentId != null) {
+                    out.writeLong(documentId.getMostSignificantBits());
+                    out.writeLong(documentId.getLeastSignificantBits());
+                }
+            }
+            universe.serialize(out);
+            out.writeInt(tags.size());
+            for (Map.Entry<UUID, RoaringBitmap> entry : tags.entrySet()) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                entry.getValue().serialize(out);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read an index written by {@link #writeTo(DataOutput)}. The returned index is ready.
+     *
+     * @param in The input
+     * @return The index
+     * @throws IOException On read failures or corrupt input
+     */
+    public static TagBitmapIndex readFrom(DataInput in) throws IOException {
+        TagBitmapIndex index = new TagBitmapIndex();
+        int documentCount = in.readInt();
+        for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+            UUID documentId = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+            index.documents.add(documentId);
+            if (documentId != null) {
+                index.ordinals.put(documentId, ordinal);
+            }
+        }
+        index.universe.deserialize(in);
+        int tagCount = in.readInt();
+        for (int i = 0; i < tagCount; i++) {
+            UUID tagId = new UUID(in.readLong(), in.readLong());
+            RoaringBitmap bitmap = new RoaringBitmap();
+            bitmap.deserialize(in);
+            index.tags.put(tagId, bitmap);
+        }
+        index.ready = true;
+        return index;
+    }
+
+    private int ordinal(UUID documentId) {
+        Integer ordinal = ordinals.get(documentId);
+        if (ordinal == null) {
+            ordinal = documents.size();
+            documents.add(documentId);
+            ordinals.put(documentId, ordinal);
+        }
+        return ordinal;
+    }
+}
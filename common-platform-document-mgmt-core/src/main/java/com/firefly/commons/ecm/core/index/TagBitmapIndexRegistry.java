@@ -0,0 +1,291 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentChangedEvent;
+import com.firefly.commons.ecm.core.events.DocumentTagChangedEvent;
+import com.firefly.commons.ecm.core.events.DocumentTagsChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.DocumentTag;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentTagRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps {@link TagBitmapIndex} instances for the tenants that issue tag expression queries.
+ *
+ * A tenant is bulk loaded from the database on its first query and kept current from the document
+ * and document tag change events. Loaded tenants are rebuilt in the background on a fixed cadence,
+ * and snapshotted to a file so that a restarted instance can answer immediately while it rebuilds.
+ * Tenants with more documents than the configured limit are not indexed; their queries are answered
+ * from the database, and their size is checked again once per rebuild interval.
+ */
+@Slf4j
+@Component
+public class TagBitmapIndexRegistry {
+
+    private static final int SNAPSHOT_MAGIC = 0x54414731;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentTagRepository documentTagRepository;
+    private final EcmIntegrationProperties.TagIndexDefaults properties;
+
+    private final Map<String, TagBitmapIndex> indexes;
+    private final Map<String, Long> oversized;
+    private final ConcurrentHashMap<String, TagBitmapIndex> rebuilding = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Mono<TagBitmapIndex>> loads = new ConcurrentHashMap<>();
+
+    public TagBitmapIndexRegistry(DocumentRepository documentRepository,
+                                  DocumentTagRepository documentTagRepository,
+                                  EcmIntegrationProperties properties) {
+        this.documentRepository = documentRepository;
+        this.documentTagRepository = documentTagRepository;
+        this.properties = properties.getTagIndex();
+        int maxTenants = this.properties.getMaxTenants();
+        this.indexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TagBitmapIndex> eldest) {
+                return size() > maxTenants;
+            }
+        });
+        this.oversized = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxTenants;
+            }
+        });
+    }
+
+    /**
+     * Get the index of a tenant, loading it from the database on first use.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the ready index, or empty when the tenant has more documents than an index may hold
+     */
+    public Mono<TagBitmapIndex> getIndex(String tenantId) {
+        TagBitmapIndex index = indexes.get(tenantId);
+        if (index != null) {
+            return Mono.just(index);
+        }
+        Long checkedAt = oversized.get(tenantId);
+        if (checkedAt != null && System.nanoTime() - checkedAt < properties.getRebuildInterval().toNanos()) {
+            return Mono.empty();
+        }
+        return loads.computeIfAbsent(tenantId, key -> build(key)
+                .doFinally(signal -> loads.remove(key))
+                .cache());
+    }
+
+    private Mono<TagBitmapIndex> build(String tenantId) {
+        long maxDocuments = properties.getMaxDocumentsPerTenant();
+        return documentRepository.countByTenantId(tenantId)
+                .flatMap(count -> {
+                    if (count > maxDocuments) {
+                        log.info("Tag index not built for tenant {}: {} documents, above the limit of {}",
+                                tenantId, count, maxDocuments);
+                        oversized.put(tenantId, System.nanoTime());
+                        indexes.remove(tenantId);
+                        return Mono.empty();
+                    }
+                    oversized.remove(tenantId);
+                    TagBitmapIndex index = new TagBitmapIndex();
+                    rebuilding.put(tenantId, index);
+                    return documentRepository.findIdEntriesByTenantId(tenantId)
+                            .doOnNext(document -> index.addDocument(document.getId()))
+                            .thenMany(documentTagRepository.findTagEntriesByTenantId(tenantId))
+                            .doOnNext(documentTag -> index.tag(documentTag.getDocumentId(), documentTag.getTagId()))
+                            .then(Mono.fromCallable(() -> {
+                                index.markReady();
+                                indexes.put(tenantId, index);
+                                log.info("Tag index built for tenant {} with {} documents", tenantId, index.size());
+                                return index;
+                            }))
+                            .doFinally(signal -> rebuilding.remove(tenantId, index));
+                });
+    }
+
+    /**
+     * Rebuild every loaded tenant from the database and refresh the snapshot.
+     * Queries keep being answered by the previous index until its replacement is ready.
+     */
+    @Scheduled(initialDelayString = "${firefly.ecm.integration.tag-index.rebuild-interval:PT1H}",
+            fixedDelayString = "${firefly.ecm.integration.tag-index.rebuild-interval:PT1H}")
+    public void rebuildAll() {
+        List<String> tenants;
+        synchronized (indexes) {
+            tenants = new ArrayList<>(indexes.keySet());
+        }
+        Flux.fromIterable(tenants)
+                .concatMap(tenantId -> build(tenantId)
+                        .onErrorResume(error -> {
+                            log.warn("Tag index not rebuilt for tenant {}: {}", tenantId, error.getMessage());
+                            indexes.remove(tenantId);
+                            return Mono.empty();
+                        }))
+                .then(Mono.fromRunnable(this::writeSnapshot).subscribeOn(Schedulers.boundedElastic()))
+                .subscribe(unused -> { }, error -> log.warn("Tag index rebuild failed: {}", error.getMessage()));
+    }
+
+    @EventListener
+    public void onDocumentTagChanged(DocumentTagChangedEvent event) {
+        DocumentTag documentTag = event.getDocumentTag();
+        DocumentTag previous = event.getPrevious();
+        if (previous != null) {
+            mutate(previous.getTenantId(), index -> index.untag(previous.getDocumentId(), previous.getTagId()));
+        }
+        if (event.getChangeType() == EntityChangeType.DELETED) {
+            mutate(documentTag.getTenantId(), index -> index.untag(documentTag.getDocumentId(), documentTag.getTagId()));
+        } else {
+            mutate(documentTag.getTenantId(), index -> index.tag(documentTag.getDocumentId(), documentTag.getTagId()));
+        }
+    }
+
+    @EventListener
+    public void onDocumentTagsChanged(DocumentTagsChangedEvent event) {
+        boolean deleted = event.getChangeType() == EntityChangeType.DELETED;
+        Map<String, List<DocumentTag>> byTenant = new LinkedHashMap<>();
+        for (DocumentTag documentTag : event.getDocumentTags()) {
+            byTenant.computeIfAbsent(documentTag.getTenantId(), key -> new ArrayList<>()).add(documentTag);
+        }
+        // One mutation per tenant, so a batch takes each index lock once
+        byTenant.forEach((tenantId, documentTags) -> mutate(tenantId, index -> {
+            for (DocumentTag documentTag : documentTags) {
+                if (deleted) {
+                    index.untag(documentTag.getDocumentId(), documentTag.getTagId());
+                } else {
+                    index.tag(documentTag.getDocumentId(), documentTag.getTagId());
+                }
+            }
+        }));
+    }
+
+    @EventListener
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        Document document = event.getDocument();
+        Document previous = event.getPrevious();
+        if (previous != null && !Objects.equals(previous.getTenantId(), document.getTenantId())) {
+            mutate(previous.getTenantId(), index -> index.removeDocument(previous.getId()));
+        }
+        if (event.getChangeType() == EntityChangeType.DELETED) {
+            mutate(document.getTenantId(), index -> index.removeDocument(document.getId()));
+        } else {
+            mutate(document.getTenantId(), index -> index.addDocument(document.getId()));
+        }
+    }
+
+    private void mutate(String tenantId, Consumer<TagBitmapIndex> mutation) {
+        if (tenantId == null) {
+            return;
+        }
+        TagBitmapIndex current = indexes.get(tenantId);
+        if (current != null) {
+            current.apply(mutation);
+        }
+        TagBitmapIndex next = rebuilding.get(tenantId);
+        if (next != null && next != current) {
+            next.apply(mutation);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreSnapshot() {
+        Path path = snapshotPath();
+        if (path == null || !Files.isReadable(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a tag index snapshot");
+            }
+            int tenantCount = in.readInt();
+            for (int i = 0; i < tenantCount; i++) {
+                String tenantId = in.readUTF();
+                indexes.put(tenantId, TagBitmapIndex.readFrom(in));
+            }
+            log.info("Tag index snapshot restored from {} with {} tenants", path, tenantCount);
+        } catch (IOException | RuntimeException e) {
+            indexes.clear();
+            log.warn("Tag index snapshot {} not restored: {}", path, e.getMessage());
+            return;
+        }
+        // The snapshot may miss changes made while this instance was down
+        rebuildAll();
+    }
+
+    @PreDestroy
+    public void writeSnapshot() {
+        Path path = snapshotPath();
+        if (path == null) {
+            return;
+        }
+        Map<String, TagBitmapIndex> snapshot;
+        synchronized (indexes) {
+            snapshot = new LinkedHashMap<>(indexes);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, TagBitmapIndex> entry : snapshot.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    entry.getValue().writeTo(out);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Tag index snapshot written to {} with {} tenants", path, snapshot.size());
+        } catch (IOException e) {
+            log.warn("Tag index snapshot {} not written: {}", path, e.getMessage());
+        }
+    }
+
+    private Path snapshotPath() {
+        String path = properties.getSnapshotPath();
+        return path == null || path.isBlank() ? null : Path.of(path);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.interfaces.dtos.TagDTO;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The tags of one tenant, by name and by ID.
+ *
+ * Names are interned, so that the name keys of every dictionary and the names of the tags they hold
+ * share one instance per distinct name. Reads are lock-free; writes are serialized so that both maps
+ * stay consistent with each other.
+ */
+public class TagDictionary {
+
+    private final Map<String, UUID> idsByName = new ConcurrentHashMap<>();
+    private final Map<UUID, TagDTO> tagsById = new ConcurrentHashMap<>();
+    private final long loadedAt = System.nanoTime();
+
+    /**
+     * Add a tag, or replace it when it was renamed.
+     *
+     * @param tag The tag
+     */
+    public synchronized void put(TagDTO tag) {
+        if (tag.getId() == null || tag.getName() == null) {
+            return;
+        }
+        String name = tag.getName().intern();
+        tag.setName(name);
+        TagDTO previous = tagsById.put(tag.getId(), tag);
+        if (previous != null && !previous.getName().equals(name)) {
+            idsByName.remove(previous.getName(), tag.getId());
+        }
+        idsByName.put(name, tag.getId());
+    }
+
+    /**
+     * Remove a tag.
+     *
+     * @param tagId The tag ID
+     */
+    public synchronized void remove(UUID tagId) {
+        TagDTO previous = tagsById.remove(tagId);
+        if (previous != null) {
+            idsByName.remove(previous.getName(), tagId);
+        }
+    }
+
+    /**
+     * Get the ID of the tag with a name.
+     *
+     * @param name The tag name
+     * @return The tag ID, or null when the tenant has no tag with that name
+     */
+    public UUID idOf(String name) {
+        return name != null ? idsByName.get(name) : null;
+    }
+
+    /**
+     * Get a tag by its ID.
+     *
+     * @param tagId The tag ID
+     * @return The tag, shared and not to be modified, or null when the tenant has no tag with that ID
+     */
+    public TagDTO get(UUID tagId) {
+        return tagId != null ? tagsById.get(tagId) : null;
+    }
+
+    public int size() {
+        return tagsById.size();
+    }
+
+    /**
+     * Nanoseconds since the dictionary was loaded.
+     */
+    public long age() {
+        return System.nanoTime() - loadedAt;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.events.TagChangedEvent;
+import com.firefly.commons.ecm.core.mappers.TagMapper;
+import com.firefly.commons.ecm.models.entities.Tag;
+import com.firefly.commons.ecm.models.repositories.TagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a {@link TagDictionary} for the tenants whose tags are resolved by name.
+ *
+ * A tenant is bulk loaded with one query on first use and kept current from the tag change events
+ * of this instance. Tags changed on other instances are picked up once the dictionary reaches the
+ * configured maximum staleness; until then callers look up the names it misses in the database.
+ */
+@Slf4j
+@Component
+public class TagDictionaryCache {
+
+    private final TagRepository tagRepository;
+    private final TagMapper tagMapper;
+    private final EcmIntegrationProperties.TagDefaults properties;
+
+    private final Map<String, TagDictionary> dictionaries;
+    private final ConcurrentHashMap<String, Mono<TagDictionary>> loads = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+
+    public TagDictionaryCache(TagRepository tagRepository,
+                              TagMapper tagMapper,
+                              EcmIntegrationProperties properties) {
+        this.tagRepository = tagRepository;
+        this.tagMapper = tagMapper;
+        this.properties = properties.getTags();
+        int maxTenants = this.properties.getDictionaryMaxTenants();
+        this.dictionaries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TagDictionary> eldest) {
+                return size() > maxTenants;
+            }
+        });
+    }
+
+    /**
+     * Get the tag dictionary of a tenant, loading it from the database on first use or once it is stale.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the dictionary, or empty when the tenant is not cached
+     *         (cache disabled or too many tags), in which case callers query the database
+     */
+    public Mono<TagDictionary> getDictionary(String tenantId) {
+        if (!Boolean.TRUE.equals(properties.getDictionaryEnabled()) || tenantId == null) {
+            return Mono.empty();
+        }
+        TagDictionary dictionary = dictionaries.get(tenantId);
+        if (dictionary != null && dictionary.age() < properties.getDictionaryMaxStaleness().toNanos()) {
+            return Mono.just(dictionary);
+        }
+        return loads.computeIfAbsent(tenantId, key -> load(key)
+                .doFinally(signal -> loads.remove(key))
+                .cache());
+    }
+
+    private Mono<TagDictionary> load(String tenantId) {
+        long maxTags = properties.getDictionaryMaxTagsPerTenant();
+        long changesAtStart = changes.get();
+        return tagRepository.countByTenantId(tenantId)
+                .flatMap(count -> {
+                    if (count > maxTags) {
+                        log.debug("Tag dictionary of tenant {} not cached: {} tags above the limit of {}", tenantId, count, maxTags);
+                        dictionaries.remove(tenantId);
+                        return Mono.empty();
+                    }
+                    TagDictionary dictionary = new TagDictionary();
+                    return tagRepository.findByTenantId(tenantId)
+                            .doOnNext(tag -> dictionary.put(tagMapper.toDTO(tag)))
+                            .then(Mono.fromCallable(() -> {
+                                // A tag changed while loading may be missing from the rows read, so the
+                                // dictionary answers this call only and the next one loads again
+                                if (changes.get() == changesAtStart) {
+                                    dictionaries.put(tenantId, dictionary);
+                                } else {
+                                    dictionaries.remove(tenantId);
+                                }
+                                log.debug("Tag dictionary loaded for tenant {} with {} tags", tenantId, dictionary.size());
+                                return dictionary;
+                            }));
+                });
+    }
+
+    /**
+     * Drop the tag dictionary of a tenant; it is reloaded on its next use.
+     *
+     * @param tenantId The tenant ID
+     */
+    public void invalidate(String tenantId) {
+        dictionaries.remove(tenantId);
+    }
+
+    @EventListener
+    public void onTagChanged(TagChangedEvent event) {
+        changes.incrementAndGet();
+        Tag tag = event.getTag();
+        Tag previous = event.getPrevious();
+        if (previous != null && previous.getTenantId() != null && !previous.getTenantId().equals(tag.getTenantId())) {
+            TagDictionary dictionary = dictionaries.get(previous.getTenantId());
+            if (dictionary != null) {
+                dictionary.remove(previous.getId());
+            }
+        }
+        TagDictionary dictionary = tag.getTenantId() != null ? dictionaries.get(tag.getTenantId()) : null;
+        if (dictionary == null) {
+            return;
+        }
+        if (event.getChangeType() == EntityChangeType.DELETED) {
+            dictionary.remove(tag.getId());
+        } else {
+            dictionary.put(tagMapper.toDTO(tag));
+        }
+    }
+}
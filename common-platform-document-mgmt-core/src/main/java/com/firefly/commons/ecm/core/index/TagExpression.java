@@ -0,0 +1,277 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Parsed boolean tag expression such as {@code KYC AND 2024 AND NOT archived}.
+ *
+ * Operators are {@code AND}, {@code OR} and {@code NOT} (case-insensitive, NOT binding tightest,
+ * then AND, then OR) and parentheses group sub-expressions. Tags are bare words or double-quoted
+ * names, e.g. {@code "tax return" OR invoice}.
+ */
+public sealed interface TagExpression {
+
+    /**
+     * Evaluate the expression to the set of matching document ordinals.
+     *
+     * @param tags Resolves a tag term to the bitmap of its document ordinals (empty for unknown tags)
+     * @param universe The ordinals of every document, complemented by NOT
+     * @return A new bitmap with the matching ordinals
+     */
+    RoaringBitmap evaluate(Function<String, RoaringBitmap> tags, RoaringBitmap universe);
+
+    /**
+     * Render the expression as a SQL condition, for tenants whose documents are not indexed in memory.
+     *
+     * @param terms Renders the condition of a tag term
+     * @return The condition, with every operator parenthesized
+     */
+    String toSql(Function<String, String> terms);
+
+    /**
+     * @return The distinct tag terms referenced by the expression, in order of appearance
+     */
+    default Set<String> terms() {
+        Set<String> terms = new LinkedHashSet<>();
+        collectTerms(terms);
+        return terms;
+    }
+
+    void collectTerms(Set<String> terms);
+
+    record Term(String name) implements TagExpression {
+        @Override
+        public RoaringBitmap evaluate(Function<String, RoaringBitmap> tags, RoaringBitmap universe) {
+            RoaringBitmap bitmap = tags.apply(name);
+            return bitmap != null ? bitmap.clone() : new RoaringBitmap();
+        }
+
+        @Override
+        public String toSql(Function<String, String> terms) {
+            return terms.apply(name);
+        }
+
+        @Override
+        public void collectTerms(Set<String> terms) {
+            terms.add(name);
+        }
+    }
+
+    record And(List<TagExpression> operands) implements TagExpression {
+        @Override
+        public RoaringBitmap evaluate(Function<String, RoaringBitmap> tags, RoaringBitmap universe) {
+            // Intersect positive operands first and subtract negated ones, so NOT never materializes a complement
+            RoaringBitmap result = null;
+            List<TagExpression> negated = new ArrayList<>();
+            for (TagExpression operand : operands) {
+                if (operand instanceof Not not) {
+                    negated.add(not.operand());
+                    continue;
+                }
+                RoaringBitmap value = operand.evaluate(tags, universe);
+                result = result == null ? value : RoaringBitmap.and(result, value);
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+            if (result == null) {
+                result = universe.clone();
+            }
+            for (TagExpression operand : negated) {
+                result.andNot(operand.evaluate(tags, universe));
+            }
+            return result;
+        }
+
+        @Override
+        public String toSql(Function<String, String> terms) {
+            return operands.stream().map(operand -> operand.toSql(terms)).collect(Collectors.joining(" AND ", "(", ")"));
+        }
+
+        @Override
+        public void collectTerms(Set<String> terms) {
+            operands.forEach(operand -> operand.collectTerms(terms));
+        }
+    }
+
+    record Or(List<TagExpression> operands) implements TagExpression {
+        @Override
+        public RoaringBitmap evaluate(Function<String, RoaringBitmap> tags, RoaringBitmap universe) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (TagExpression operand : operands) {
+                result.or(operand.evaluate(tags, universe));
+            }
+            return result;
+        }
+
+        @Override
+        public String toSql(Function<String, String> terms) {
+            return operands.stream().map(operand -> operand.toSql(terms)).collect(Collectors.joining(" OR ", "(", ")"));
+        }
+
+        @Override
+        public void collectTerms(Set<String> terms) {
+            operands.forEach(operand -> operand.collectTerms(terms));
+        }
+    }
+
+    record Not(TagExpression operand) implements TagExpression {
+        @Override
+        public RoaringBitmap evaluate(Function<String, RoaringBitmap> tags, RoaringBitmap universe) {
+            return RoaringBitmap.andNot(universe, operand.evaluate(tags, universe));
+        }
+
+        @Override
+        public String toSql(Function<String, String> terms) {
+            return "(NOT " + operand.toSql(terms) + ")";
+        }
+
+        @Override
+        public void collectTerms(Set<String> terms) {
+            operand.collectTerms(terms);
+        }
+    }
+
+    /**
+     * Parse a tag expression.
+     *
+     * @param expression The expression text
+     * @return The parsed expression
+     * @throws IllegalArgumentException When the expression is empty or malformed
+     */
+    static TagExpression parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Tag expression cannot be empty");
+        }
+        Parser parser = new Parser(tokenize(expression));
+        TagExpression result = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.position).text()
+                    + "' in tag expression: " + expression);
+        }
+        return result;
+    }
+
+    private static List<Token> tokenize(String expression) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(new Token(String.valueOf(c), false));
+                i++;
+            } else if (c == '"') {
+                int end = expression.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated quoted tag in tag expression: " + expression);
+                }
+                tokens.add(new Token(expression.substring(i + 1, end), true));
+                i = end + 1;
+            } else {
+                int start = i;
+                while (i < expression.length() && !Character.isWhitespace(expression.charAt(i))
+                        && "()\"".indexOf(expression.charAt(i)) < 0) {
+                    i++;
+                }
+                tokens.add(new Token(expression.substring(start, i), false));
+            }
+        }
+        return tokens;
+    }
+
+    record Token(String text, boolean quoted) {
+        boolean is(String keyword) {
+            return !quoted && text.toUpperCase(Locale.ROOT).equals(keyword);
+        }
+    }
+
+    final class Parser {
+        private final List<Token> tokens;
+        private int position;
+
+        private Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        private TagExpression parseOr() {
+            List<TagExpression> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while (accept("OR")) {
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Or(operands);
+        }
+
+        private TagExpression parseAnd() {
+            List<TagExpression> operands = new ArrayList<>();
+            operands.add(parseNot());
+            while (accept("AND")) {
+                operands.add(parseNot());
+            }
+            return operands.size() == 1 ? operands.get(0) : new And(operands);
+        }
+
+        private TagExpression parseNot() {
+            if (accept("NOT")) {
+                return new Not(parseNot());
+            }
+            return parsePrimary();
+        }
+
+        private TagExpression parsePrimary() {
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Tag expression ends unexpectedly");
+            }
+            Token token = tokens.get(position++);
+            if (!token.quoted() && token.text().equals("(")) {
+                TagExpression inner = parseOr();
+                if (position >= tokens.size() || !tokens.get(position).text().equals(")") || tokens.get(position).quoted()) {
+                    throw new IllegalArgumentException("Missing ')' in tag expression");
+                }
+                position++;
+                return inner;
+            }
+            if (!token.quoted() && (token.text().equals(")") || token.is("AND") || token.is("OR") || token.is("NOT"))) {
+                throw new IllegalArgumentException("Expected a tag but found '" + token.text() + "' in tag expression");
+            }
+            if (token.text().isBlank()) {
+                throw new IllegalArgumentException("Tag names in tag expressions cannot be blank");
+            }
+            return new Term(token.text());
+        }
+
+        private boolean accept(String keyword) {
+            if (position < tokens.size() && tokens.get(position).is(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentPermissionChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.models.entities.DocumentPermission;
+import com.firefly.commons.ecm.models.repositories.DocumentPermissionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Deletes document permissions past their expiration date. Checks already ignore expired grants;
+ * sweeping them keeps the table, the party index and the in-memory permission state small.
+ */
+@Component
+public class ExpiredPermissionSweeper extends ExpirySweeper<DocumentPermission> {
+
+    private final DocumentPermissionRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ExpiredPermissionSweeper(DocumentPermissionRepository repository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    EcmIntegrationProperties properties,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        super("expired-permissions", properties.getSweepers().getExpiredPermissions(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    protected Flux<DocumentPermission> sweepBatch(int limit) {
+        return repository.deleteExpiredBatch(limit);
+    }
+
+    @Override
+    protected Mono<Double> measureLagSeconds() {
+        return repository.findExpiredLagSeconds();
+    }
+
+    @Override
+    protected void publish(DocumentPermission permission) {
+        eventPublisher.publishEvent(new DocumentPermissionChangedEvent(EntityChangeType.DELETED, permission, null));
+    }
+}
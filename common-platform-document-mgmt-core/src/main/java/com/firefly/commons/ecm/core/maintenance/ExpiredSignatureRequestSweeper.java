@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.events.SignatureRequestChangedEvent;
+import com.firefly.commons.ecm.models.entities.SignatureRequest;
+import com.firefly.commons.ecm.models.repositories.SignatureRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Marks pending and in-progress signature requests past their expiration date as EXPIRED.
+ */
+@Component
+public class ExpiredSignatureRequestSweeper extends ExpirySweeper<SignatureRequest> {
+
+    private final SignatureRequestRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ExpiredSignatureRequestSweeper(SignatureRequestRepository repository,
+                                          ApplicationEventPublisher eventPublisher,
+                                          EcmIntegrationProperties properties,
+                                          ObjectProvider<MeterRegistry> meterRegistry) {
+        super("expired-signature-requests", properties.getSweepers().getExpiredSignatureRequests(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    protected Flux<SignatureRequest> sweepBatch(int limit) {
+        return repository.expireBatch(limit);
+    }
+
+    @Override
+    protected Mono<Double> measureLagSeconds() {
+        return repository.findExpiredLagSeconds();
+    }
+
+    @Override
+    protected void publish(SignatureRequest request) {
+        eventPublisher.publishEvent(new SignatureRequestChangedEvent(EntityChangeType.UPDATED, request, null));
+    }
+}
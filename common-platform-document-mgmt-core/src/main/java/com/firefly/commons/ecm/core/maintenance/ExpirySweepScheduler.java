@@ -0,0 +1,49 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Schedules every enabled {@link ExpirySweeper} on its own configured cadence.
+ */
+@Slf4j
+@Component
+public class ExpirySweepScheduler implements SchedulingConfigurer {
+
+    private final List<ExpirySweeper<?>> sweepers;
+
+    public ExpirySweepScheduler(List<ExpirySweeper<?>> sweepers) {
+        this.sweepers = sweepers;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        for (ExpirySweeper<?> sweeper : sweepers) {
+            if (!Boolean.TRUE.equals(sweeper.getSettings().getEnabled())) {
+                log.info("Sweeper {} is disabled", sweeper.getName());
+                continue;
+            }
+            registrar.addFixedDelayTask(sweeper::run, sweeper.getSettings().getInterval());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base of the background sweepers that apply expirations the services only check lazily.
+ *
+ * A sweep runs batches until one comes back short. Each batch is a single statement that claims expired
+ * rows with FOR UPDATE SKIP LOCKED and applies the expiry to all of them, so every instance can sweep
+ * at the same time without blocking each other or processing a row twice. Change events are published
+ * once the batch statement has committed. After each sweep the lag, the age of the oldest expired row
+ * still left, is measured for the {@code ecm.sweeper.lag} gauge.
+ *
+ * @param <T> The type of the swept rows
+ */
+@Slf4j
+public abstract class ExpirySweeper<T> {
+
+    private final String name;
+    private final EcmIntegrationProperties.SweeperSettings settings;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter swept;
+
+    protected ExpirySweeper(String name, EcmIntegrationProperties.SweeperSettings settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.swept = Counter.builder("ecm.sweeper.swept")
+                .description("Rows whose expiry was applied by the sweeper")
+                .tag("sweeper", name)
+                .register(meterRegistry);
+        Gauge.builder("ecm.sweeper.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest expired row left after the last sweep")
+                .tag("sweeper", name)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claim one batch of expired rows and apply their expiry, in a single statement.
+     *
+     * @param limit The maximum number of rows
+     * @return A Flux emitting the swept rows
+     */
+    protected abstract Flux<T> sweepBatch(int limit);
+
+    /**
+     * Measure how long the oldest expired row still left has been expired.
+     *
+     * @return A Mono emitting the lag in seconds
+     */
+    protected abstract Mono<Double> measureLagSeconds();
+
+    /**
+     * Publish the change event of a swept row.
+     *
+     * @param row The swept row
+     */
+    protected abstract void publish(T row);
+
+    public String getName() {
+        return name;
+    }
+
+    public EcmIntegrationProperties.SweeperSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Start a sweep unless the previous one is still running. Called on the sweeper's cadence.
+     */
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        sweep()
+                .doFinally(signal -> running.set(false))
+                .subscribe(count -> {
+                            if (count > 0) {
+                                log.info("Sweeper {} applied {} expirations", name, count);
+                            }
+                        },
+                        error -> log.warn("Sweeper {} failed: {}", name, error.getMessage()));
+    }
+
+    /**
+     * Sweep every expired row, one batch at a time.
+     *
+     * @return A Mono emitting the number of swept rows
+     */
+    public Mono<Long> sweep() {
+        int batchSize = settings.getBatchSize();
+        return Mono.defer(() -> sweepBatch(batchSize)
+                        .doOnNext(this::publish)
+                        .count())
+                .repeat()
+                .takeUntil(count -> count < batchSize)
+                .reduce(0L, Long::sum)
+                .doOnNext(swept::increment)
+                .flatMap(count -> measureLagSeconds()
+                        .defaultIfEmpty(0.0)
+                        .doOnNext(lag -> lagSeconds.set(Math.round(lag)))
+                        .thenReturn(count));
+    }
+}
@@ -0,0 +1,489 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.events.FolderChangedEvent;
+import com.firefly.commons.ecm.core.index.FolderTreeCache;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobPhase;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobStatus;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobType;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.entities.FolderJob;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentVersionRepository;
+import com.firefly.commons.ecm.models.repositories.FolderJobRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import com.firefly.commons.ecm.models.repositories.FolderStatsRepository;
+import com.firefly.core.ecm.port.document.DocumentContentPort;
+import com.firefly.core.ecm.service.EcmPortProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs background recursive folder delete and copy jobs.
+ *
+ * Jobs are claimed from the folder_jobs table with FOR UPDATE SKIP LOCKED under a lease that is renewed
+ * after every batch, so any instance can pick up pending jobs and resume the jobs of a stopped instance.
+ * Each job walks its subtree in batches; the phase and cursors are saved with every batch, and content
+ * deletes or copies within a batch run with bounded concurrency.
+ *
+ * A delete removes the documents, their content and the content of their versions first, then every
+ * folder of the subtree in one statement, under the tenant's exclusive hierarchy lock. A document whose
+ * content could not be deleted is kept, and so are the folders, so that nothing is orphaned. A copy
+ * recreates the folders parents first, then the documents and their content, recording each created item
+ * so that a resumed copy does not duplicate them.
+ *
+ * A job with failed documents, of either type, ends FAILED with their count in its error message, so that
+ * an incomplete delete or copy is never reported as COMPLETED.
+ */
+@Slf4j
+@Component
+public class FolderJobRunner {
+
+    private static final UUID FIRST_DOCUMENT_ID = new UUID(0L, 0L);
+
+    private final FolderJobRepository jobRepository;
+    private final FolderRepository folderRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentVersionRepository versionRepository;
+    private final FolderStatsRepository folderStatsRepository;
+    private final EcmPortProvider ecmPortProvider;
+    private final FolderTreeCache folderTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionalOperator transactionalOperator;
+    private final EcmIntegrationProperties.FolderJobDefaults properties;
+
+    private final String owner = UUID.randomUUID().toString();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicBoolean polling = new AtomicBoolean();
+
+    public FolderJobRunner(FolderJobRepository jobRepository,
+                           FolderRepository folderRepository,
+                           DocumentRepository documentRepository,
+                           DocumentVersionRepository versionRepository,
+                           FolderStatsRepository folderStatsRepository,
+                           EcmPortProvider ecmPortProvider,
+                           FolderTreeCache folderTreeCache,
+                           ApplicationEventPublisher eventPublisher,
+                           ReactiveTransactionManager transactionManager,
+                           EcmIntegrationProperties properties) {
+        this.jobRepository = jobRepository;
+        this.folderRepository = folderRepository;
+        this.documentRepository = documentRepository;
+        this.versionRepository = versionRepository;
+        this.folderStatsRepository = folderStatsRepository;
+        this.ecmPortProvider = ecmPortProvider;
+        this.folderTreeCache = folderTreeCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.properties = properties.getFolderJobs();
+    }
+
+    /**
+     * Claim jobs up to the concurrency limit of this instance. Called on a fixed cadence, on startup,
+     * when a job is created on this instance and when one of its jobs finishes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${firefly.ecm.integration.folder-jobs.poll-interval:PT10S}")
+    public void poll() {
+        int slots = properties.getMaxConcurrentJobs() - running.get();
+        if (!Boolean.TRUE.equals(properties.getEnabled()) || slots <= 0 || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        Flux.range(0, slots)
+                .concatMap(slot -> jobRepository.claimNext(owner, leaseSeconds()))
+                .doFinally(signal -> polling.set(false))
+                .subscribe(this::start, error -> log.warn("Folder jobs not claimed: {}", error.getMessage()));
+    }
+
+    private void start(FolderJob job) {
+        running.incrementAndGet();
+        log.info("Running {} job {} for folder {} from phase {}", job.getJobType(), job.getId(), job.getFolderId(), job.getPhase());
+        Mono<FolderJob> work = job.getJobType() == FolderJobType.DELETE ? runDelete(job) : runCopy(job);
+        work.flatMap(done -> done.getFailedDocuments() > 0
+                        ? finish(done, FolderJobStatus.FAILED, done.getFailedDocuments() + " documents could not be "
+                                + (done.getJobType() == FolderJobType.DELETE ? "deleted" : "copied"))
+                        : finish(done, FolderJobStatus.COMPLETED, null))
+                .onErrorResume(OptimisticLockingFailureException.class, error -> {
+                    log.warn("Folder job {} was taken over by another instance", job.getId());
+                    return Mono.empty();
+                })
+                .onErrorResume(error -> jobRepository.findById(job.getId())
+                        .flatMap(current -> finish(current, FolderJobStatus.FAILED, error.getMessage())))
+                .doFinally(signal -> {
+                    running.decrementAndGet();
+                    poll();
+                })
+                .subscribe(finished -> log.info("Folder job {} {}", finished.getId(), finished.getStatus()),
+                        error -> log.warn("Folder job {} not finalized: {}", job.getId(), error.getMessage()));
+    }
+
+    private Mono<FolderJob> finish(FolderJob job, FolderJobStatus status, String errorMessage) {
+        job.setStatus(status);
+        job.setErrorMessage(errorMessage);
+        job.setCompletedAt(LocalDateTime.now());
+        return jobRepository.save(job)
+                .flatMap(saved -> jobRepository.deleteItems(saved.getId()).thenReturn(saved));
+    }
+
+    /**
+     * Persist the progress of a job and extend its lease. Fails with an optimistic locking error
+     * when another instance took the job over.
+     */
+    private Mono<FolderJob> saveProgress(FolderJob job) {
+        return jobRepository.save(job)
+                .doOnNext(saved -> job.setVersion(saved.getVersion()))
+                .flatMap(saved -> jobRepository.renewLease(saved.getId(), owner, leaseSeconds())
+                        .flatMap(renewed -> renewed > 0
+                                ? Mono.just(saved)
+                                : Mono.error(new OptimisticLockingFailureException("Lease of folder job " + saved.getId() + " lost"))));
+    }
+
+    // Recursive delete
+
+    private Mono<FolderJob> runDelete(FolderJob job) {
+        return folderRepository.findById(job.getFolderId())
+                .flatMap(root -> (job.getPhase() == FolderJobPhase.DOCUMENTS
+                        ? deleteDocuments(job, root)
+                        : Mono.just(job))
+                        .then(Mono.defer(() -> deleteFolders(job, root))))
+                // The folder is already gone: a previous run deleted it
+                .defaultIfEmpty(job);
+    }
+
+    private Mono<FolderJob> deleteDocuments(FolderJob job, Folder root) {
+        return Mono.defer(() -> deleteDocumentBatch(job, root))
+                .repeat()
+                .takeUntil(more -> !more)
+                .then(Mono.just(job));
+    }
+
+    private Mono<Boolean> deleteDocumentBatch(FolderJob job, Folder root) {
+        UUID after = job.getDocumentCursor() != null ? job.getDocumentCursor() : FIRST_DOCUMENT_ID;
+        return documentRepository.findSubtreeBatch(root.getId(), after, properties.getBatchSize())
+                .collectList()
+                .flatMap(batch -> {
+                    if (batch.isEmpty()) {
+                        return Mono.just(false);
+                    }
+                    return Flux.fromIterable(batch)
+                            .flatMap(document -> deleteContent(document)
+                                    .thenReturn(document)
+                                    .onErrorResume(error -> {
+                                        log.warn("Content of document {} not deleted: {}", document.getId(), error.getMessage());
+                                        return Mono.empty();
+                                    }), properties.getContentConcurrency())
+                            .collectList()
+                            .flatMap(deleted -> removeDocuments(root.getTenantId(), deleted)
+                                    .then(Mono.defer(() -> {
+                                        job.setProcessedDocuments(job.getProcessedDocuments() + deleted.size());
+                                        job.setFailedDocuments(job.getFailedDocuments() + batch.size() - deleted.size());
+                                        job.setDocumentCursor(batch.get(batch.size() - 1).getId());
+                                        return saveProgress(job);
+                                    }))
+                                    .doOnSuccess(saved -> deleted.forEach(document -> eventPublisher.publishEvent(
+                                            new DocumentChangedEvent(EntityChangeType.DELETED, document, null)))))
+                            .thenReturn(true);
+                });
+    }
+
+    /**
+     * Delete the stored content of a document: the content of each of its versions, then its own content.
+     * The version rows themselves go with the document row.
+     */
+    private Mono<Void> deleteContent(Document document) {
+        Mono<Void> versions = ecmPortProvider.getDocumentVersionPort()
+                .map(port -> versionRepository.findByDocumentId(document.getId())
+                        .concatMap(version -> port.deleteVersion(version.getId()))
+                        .then())
+                .orElse(Mono.empty());
+        Mono<Void> content = document.getStoragePath() == null ? Mono.empty()
+                : ecmPortProvider.getDocumentContentPort()
+                        .map(port -> port.deleteContent(document.getId()).then())
+                        .orElse(Mono.empty());
+        return versions.then(content).then(Mono.defer(() -> ecmPortProvider.getDocumentSearchPort()
+                .map(searchPort -> searchPort.removeFromIndex(document.getId())
+                        .onErrorResume(error -> Mono.empty())
+                        .then())
+                .orElse(Mono.empty())));
+    }
+
+    /**
+     * Delete document rows and subtract them from the statistics of their folders, one delta per folder.
+     * The usage counts of their tags are decreased by the same statement as the rows.
+     */
+    private Mono<Void> removeDocuments(String tenantId, List<Document> documents) {
+        if (documents.isEmpty()) {
+            return Mono.empty();
+        }
+        Map<UUID, List<Document>> byFolder = documents.stream()
+                .collect(Collectors.groupingBy(Document::getFolderId));
+        return folderRepository.lockHierarchyShared(tenantId)
+                .then(documentRepository.deleteWithTagCounts(documents.stream().map(Document::getId).toList()))
+                .thenMany(Flux.fromIterable(byFolder.entrySet()))
+                .concatMap(entry -> {
+                    long count = entry.getValue().size();
+                    long bytes = entry.getValue().stream()
+                            .mapToLong(document -> document.getFileSize() != null ? document.getFileSize() : 0L)
+                            .sum();
+                    return folderStatsRepository.applyDelta(entry.getKey(), -count, -bytes, -count, -bytes);
+                })
+                .then()
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<FolderJob> deleteFolders(FolderJob job, Folder root) {
+        job.setPhase(FolderJobPhase.FOLDERS);
+        return folderRepository.lockHierarchy(root.getTenantId())
+                .then(documentRepository.countInSubtree(root.getId()))
+                .flatMap(remaining -> {
+                    if (remaining == 0) {
+                        return folderRepository.deleteSubtree(root.getIdPath())
+                                .collectList()
+                                .flatMap(deleted -> folderTreeCache.publishChange(root.getTenantId())
+                                        .thenReturn(Optional.of(deleted)));
+                    }
+                    if (job.getFailedDocuments() > 0) {
+                        return Mono.error(new IllegalStateException("Content of " + job.getFailedDocuments()
+                                + " documents could not be deleted; their folders were kept"));
+                    }
+                    // Documents were added while the job ran
+                    return Mono.just(Optional.<List<Folder>>empty());
+                })
+                .as(transactionalOperator::transactional)
+                .flatMap(deleted -> {
+                    if (deleted.isEmpty()) {
+                        job.setDocumentCursor(null);
+                        return deleteDocuments(job, root).then(Mono.defer(() -> deleteFolders(job, root)));
+                    }
+                    deleted.get().forEach(folder -> eventPublisher.publishEvent(
+                            new FolderChangedEvent(EntityChangeType.DELETED, folder, null)));
+                    job.setProcessedFolders((long) deleted.get().size());
+                    return Mono.just(job);
+                });
+    }
+
+    // Recursive copy
+
+    private Mono<FolderJob> runCopy(FolderJob job) {
+        Map<UUID, UUID> targets = new ConcurrentHashMap<>();
+        return folderRepository.findById(job.getFolderId())
+                .switchIfEmpty(Mono.error(new RuntimeException("Folder not found with ID: " + job.getFolderId())))
+                .flatMap(root -> (job.getPhase() == FolderJobPhase.FOLDERS
+                        ? copyFolders(job, root, targets)
+                        : Mono.just(job))
+                        .then(Mono.defer(() -> copyDocuments(job, root, targets))));
+    }
+
+    private Mono<FolderJob> copyFolders(FolderJob job, Folder root, Map<UUID, UUID> targets) {
+        return Mono.defer(() -> copyFolderBatch(job, root, targets))
+                .repeat()
+                .takeUntil(more -> !more)
+                .then(Mono.defer(() -> {
+                    job.setPhase(FolderJobPhase.DOCUMENTS);
+                    job.setDocumentCursor(null);
+                    return saveProgress(job);
+                }));
+    }
+
+    private Mono<Boolean> copyFolderBatch(FolderJob job, Folder root, Map<UUID, UUID> targets) {
+        String after = job.getFolderCursor() != null ? job.getFolderCursor() : "";
+        return folderRepository.findSubtreeBatch(root.getIdPath(), after, properties.getBatchSize())
+                .collectList()
+                .flatMap(batch -> {
+                    if (batch.isEmpty()) {
+                        return Mono.just(false);
+                    }
+                    // The batch and its progress commit together, so a resumed job never copies a folder twice
+                    return folderRepository.lockHierarchyShared(root.getTenantId())
+                            .thenMany(Flux.fromIterable(batch))
+                            .concatMap(source -> copyFolder(job, root, source, targets))
+                            .collectList()
+                            .flatMap(created -> {
+                                job.setProcessedFolders(job.getProcessedFolders() + created.size());
+                                job.setFolderCursor(batch.get(batch.size() - 1).getIdPath());
+                                return folderTreeCache.publishChange(root.getTenantId())
+                                        .then(saveProgress(job))
+                                        .thenReturn(created);
+                            })
+                            .as(transactionalOperator::transactional)
+                            .doOnNext(created -> created.forEach(folder -> eventPublisher.publishEvent(
+                                    new FolderChangedEvent(EntityChangeType.CREATED, folder, null))))
+                            .thenReturn(true);
+                });
+    }
+
+    private Mono<Folder> copyFolder(FolderJob job, Folder root, Folder source, Map<UUID, UUID> targets) {
+        boolean isRoot = source.getId().equals(root.getId());
+        Mono<Optional<UUID>> parent = isRoot
+                ? Mono.just(Optional.ofNullable(job.getTargetParentFolderId()))
+                : targetOf(job, source.getParentFolderId(), targets).map(Optional::of);
+        return parent.flatMap(parentFolderId -> folderRepository.save(Folder.builder()
+                                .name(isRoot && job.getTargetName() != null ? job.getTargetName() : source.getName())
+                                .description(source.getDescription())
+                                .parentFolderId(parentFolderId.orElse(null))
+                                .securityLevel(source.getSecurityLevel())
+                                .isSystemFolder(false)
+                                .tenantId(source.getTenantId())
+                                .build()))
+                .flatMap(created -> folderRepository.assignPaths(created.getId()))
+                .flatMap(created -> jobRepository.insertItem(job.getId(), source.getId(), created.getId())
+                        .doOnNext(inserted -> {
+                            targets.put(source.getId(), created.getId());
+                            if (isRoot) {
+                                job.setTargetFolderId(created.getId());
+                            }
+                        })
+                        .thenReturn(created));
+    }
+
+    private Mono<UUID> targetOf(FolderJob job, UUID sourceId, Map<UUID, UUID> targets) {
+        UUID target = targets.get(sourceId);
+        if (target != null) {
+            return Mono.just(target);
+        }
+        return jobRepository.findItemTarget(job.getId(), sourceId)
+                .switchIfEmpty(Mono.error(new IllegalStateException("No copy recorded for folder " + sourceId)))
+                .doOnNext(found -> targets.put(sourceId, found));
+    }
+
+    private Mono<FolderJob> copyDocuments(FolderJob job, Folder root, Map<UUID, UUID> targets) {
+        return Mono.defer(() -> copyDocumentBatch(job, root, targets))
+                .repeat()
+                .takeUntil(more -> !more)
+                .then(Mono.just(job));
+    }
+
+    private Mono<Boolean> copyDocumentBatch(FolderJob job, Folder root, Map<UUID, UUID> targets) {
+        UUID after = job.getDocumentCursor() != null ? job.getDocumentCursor() : FIRST_DOCUMENT_ID;
+        return documentRepository.findSubtreeBatch(root.getId(), after, properties.getBatchSize())
+                .collectList()
+                .flatMap(batch -> {
+                    if (batch.isEmpty()) {
+                        return Mono.just(false);
+                    }
+                    return Flux.fromIterable(batch)
+                            .flatMap(source -> copyDocument(job, source, targets)
+                                    .thenReturn(true)
+                                    .onErrorResume(error -> {
+                                        log.warn("Document {} not copied: {}", source.getId(), error.getMessage());
+                                        return Mono.just(false);
+                                    }), properties.getContentConcurrency())
+                            .collectList()
+                            .flatMap(results -> {
+                                long copied = results.stream().filter(Boolean::booleanValue).count();
+                                job.setProcessedDocuments(job.getProcessedDocuments() + copied);
+                                job.setFailedDocuments(job.getFailedDocuments() + results.size() - copied);
+                                job.setDocumentCursor(batch.get(batch.size() - 1).getId());
+                                return saveProgress(job);
+                            })
+                            .thenReturn(true);
+                });
+    }
+
+    /**
+     * Copy one document: its row (unless an interrupted run already created it), then its content.
+     */
+    private Mono<Document> copyDocument(FolderJob job, Document source, Map<UUID, UUID> targets) {
+        return jobRepository.findItemTarget(job.getId(), source.getId())
+                .flatMap(documentRepository::findById)
+                .switchIfEmpty(Mono.defer(() -> createDocumentCopy(job, source, targets)))
+                .flatMap(copy -> copyContent(source, copy));
+    }
+
+    private Mono<Document> createDocumentCopy(FolderJob job, Document source, Map<UUID, UUID> targets) {
+        return targetOf(job, source.getFolderId(), targets)
+                .flatMap(folderId -> folderRepository.lockHierarchyShared(source.getTenantId())
+                        .then(documentRepository.save(Document.builder()
+                                .name(source.getName())
+                                .description(source.getDescription())
+                                .fileName(source.getFileName())
+                                .fileExtension(source.getFileExtension())
+                                .mimeType(source.getMimeType())
+                                .fileSize(source.getFileSize())
+                                .documentType(source.getDocumentType())
+                                .documentStatus(source.getDocumentStatus())
+                                .storageType(source.getStorageType())
+                                .securityLevel(source.getSecurityLevel())
+                                .folderId(folderId)
+                                .isEncrypted(source.getIsEncrypted())
+                                .isIndexed(false)
+                                .isLocked(false)
+                                .expirationDate(source.getExpirationDate())
+                                .retentionDate(source.getRetentionDate())
+                                .tenantId(source.getTenantId())
+                                .checksum(source.getChecksum())
+                                .build()))
+                        .flatMap(copy -> jobRepository.insertItem(job.getId(), source.getId(), copy.getId())
+                                .then(Mono.defer(() -> {
+                                    long bytes = copy.getFileSize() != null ? copy.getFileSize() : 0L;
+                                    return folderStatsRepository.applyDelta(folderId, 1, bytes, 1, bytes);
+                                }))
+                                .thenReturn(copy))
+                        .as(transactionalOperator::transactional))
+                .doOnNext(copy -> eventPublisher.publishEvent(new DocumentChangedEvent(EntityChangeType.CREATED, copy, null)));
+    }
+
+    private Mono<Document> copyContent(Document source, Document copy) {
+        Optional<DocumentContentPort> contentPort = ecmPortProvider.getDocumentContentPort();
+        if (source.getStoragePath() == null || copy.getStoragePath() != null || contentPort.isEmpty()) {
+            return Mono.just(copy);
+        }
+        DocumentContentPort port = contentPort.get();
+        String mimeType = source.getMimeType() != null ? source.getMimeType() : "application/octet-stream";
+        return DataBufferUtils.join(port.getContentStream(source.getId()))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .flatMap(bytes -> port.storeContent(copy.getId(), bytes, mimeType))
+                .flatMap(storagePath -> {
+                    copy.setStoragePath(storagePath);
+                    return documentRepository.save(copy);
+                });
+    }
+
+    private long leaseSeconds() {
+        return properties.getLeaseDuration().toSeconds();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import com.firefly.commons.ecm.models.repositories.FolderStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Periodically recomputes the folder rollup statistics from the documents, one tenant at a time.
+ *
+ * The statistics are maintained by deltas, so anything written around the services (imports, manual
+ * fixes, failed deltas) makes them drift. Each tenant is recomputed in one statement under the tenant's
+ * exclusive hierarchy lock, which holds off concurrent deltas, and only drifted rows are rewritten.
+ */
+@Slf4j
+@Component
+public class FolderStatsReconciler {
+
+    private final FolderStatsRepository folderStatsRepository;
+    private final FolderRepository folderRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final boolean enabled;
+
+    public FolderStatsReconciler(FolderStatsRepository folderStatsRepository,
+                                 FolderRepository folderRepository,
+                                 ReactiveTransactionManager transactionManager,
+                                 EcmIntegrationProperties properties) {
+        this.folderStatsRepository = folderStatsRepository;
+        this.folderRepository = folderRepository;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.enabled = Boolean.TRUE.equals(properties.getFolders().getStatsReconcileEnabled());
+    }
+
+    @Scheduled(initialDelayString = "${firefly.ecm.integration.folders.stats-reconcile-interval:PT6H}",
+            fixedDelayString = "${firefly.ecm.integration.folders.stats-reconcile-interval:PT6H}")
+    public void reconcileAll() {
+        if (!enabled) {
+            return;
+        }
+        folderStatsRepository.findFolderTenantIds()
+                .concatMap(tenantId -> reconcile(tenantId)
+                        .onErrorResume(error -> {
+                            log.warn("Folder statistics not reconciled for tenant {}: {}", tenantId, error.getMessage());
+                            return Mono.empty();
+                        }))
+                .reduce(0, Integer::sum)
+                .subscribe(corrected -> log.info("Folder statistics reconciled, {} folders corrected", corrected),
+                        error -> log.warn("Folder statistics reconciliation failed: {}", error.getMessage()));
+    }
+
+    /**
+     * Recompute the statistics of one tenant.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of corrected folders
+     */
+    public Mono<Integer> reconcile(String tenantId) {
+        return folderRepository.lockHierarchy(tenantId)
+                .then(folderStatsRepository.reconcileTenant(tenantId))
+                .as(transactionalOperator::transactional)
+                .doOnNext(corrected -> {
+                    if (corrected > 0) {
+                        log.warn("Folder statistics of tenant {} had drifted, {} folders corrected", tenantId, corrected);
+                    }
+                });
+    }
+}
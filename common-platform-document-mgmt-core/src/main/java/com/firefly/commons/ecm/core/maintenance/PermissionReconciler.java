@@ -0,0 +1,263 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.entities.DocumentPermission;
+import com.firefly.commons.ecm.models.repositories.DocumentPermissionRepository;
+import com.firefly.core.ecm.domain.enums.security.PrincipalType;
+import com.firefly.core.ecm.domain.enums.security.ResourceType;
+import com.firefly.core.ecm.domain.model.security.Permission;
+import com.firefly.core.ecm.port.security.PermissionPort;
+import com.firefly.core.ecm.service.EcmPortProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically reconciles the local document permissions with the ECM PermissionPort.
+ *
+ * The permission service keeps going when a port call fails, so the local table and the provider can
+ * drift apart. Each tenant's permissions are walked in keyset batches. A batch whose digest matches the
+ * one recorded when it was last verified, within the full check interval, is skipped without calling
+ * the provider; otherwise every permission of the batch is checked through the port and repaired when
+ * the provider disagrees, with bounded concurrency and a cap on calls per second. The digest is only
+ * recorded once the whole batch is in sync.
+ *
+ * The port cannot list its permissions, so grants the provider still holds for deleted local rows are
+ * not detected.
+ */
+@Slf4j
+@Component
+public class PermissionReconciler {
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private enum Outcome { IN_SYNC, REPAIRED, FAILED }
+
+    private final DocumentPermissionRepository repository;
+    private final EcmPortProvider ecmPortProvider;
+    private final EcmIntegrationProperties.PermissionDefaults properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter checked;
+    private final Counter missing;
+    private final Counter unexpected;
+    private final Counter repaired;
+    private final Counter failed;
+    private final Counter skippedBatches;
+
+    @Autowired
+    public PermissionReconciler(DocumentPermissionRepository repository,
+                                EcmPortProvider ecmPortProvider,
+                                EcmIntegrationProperties properties,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this(repository, ecmPortProvider, properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    PermissionReconciler(DocumentPermissionRepository repository,
+                         EcmPortProvider ecmPortProvider,
+                         EcmIntegrationProperties properties,
+                         MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.ecmPortProvider = ecmPortProvider;
+        this.properties = properties.getPermissions();
+        this.checked = Counter.builder("ecm.permission.reconcile.checked")
+                .description("Local permissions checked against the permission provider")
+                .register(meterRegistry);
+        this.missing = drift(meterRegistry, "missing");
+        this.unexpected = drift(meterRegistry, "unexpected");
+        this.repaired = Counter.builder("ecm.permission.reconcile.repaired")
+                .description("Drifted permissions repaired on the permission provider")
+                .register(meterRegistry);
+        this.failed = Counter.builder("ecm.permission.reconcile.failed")
+                .description("Permissions whose check or repair failed")
+                .register(meterRegistry);
+        this.skippedBatches = Counter.builder("ecm.permission.reconcile.skipped.batches")
+                .description("Batches skipped because their digest is unchanged since they were last verified")
+                .register(meterRegistry);
+    }
+
+    private static Counter drift(MeterRegistry meterRegistry, String kind) {
+        return Counter.builder("ecm.permission.reconcile.drift")
+                .description("Permissions on which the provider disagreed with the local table, by kind")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${firefly.ecm.integration.permissions.reconcile-interval:PT6H}",
+            fixedDelayString = "${firefly.ecm.integration.permissions.reconcile-interval:PT6H}")
+    public void reconcileAll() {
+        if (!Boolean.TRUE.equals(properties.getReconcileEnabled())) {
+            return;
+        }
+        PermissionPort port = ecmPortProvider.getPermissionPort().orElse(null);
+        if (port == null || !running.compareAndSet(false, true)) {
+            return;
+        }
+        repository.findTenantIds()
+                .concatMap(tenantId -> reconcile(port, tenantId)
+                        .onErrorResume(error -> {
+                            log.warn("Permissions not reconciled for tenant {}: {}", tenantId, error.getMessage());
+                            return Mono.empty();
+                        }))
+                .reduce(0L, Long::sum)
+                .doFinally(signal -> running.set(false))
+                .subscribe(drifted -> log.info("Permissions reconciled, {} drifted permissions found", drifted),
+                        error -> log.warn("Permission reconciliation failed: {}", error.getMessage()));
+    }
+
+    /**
+     * Reconcile the permissions of one tenant.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of drifted permissions found
+     */
+    public Mono<Long> reconcile(String tenantId) {
+        return ecmPortProvider.getPermissionPort()
+                .map(port -> reconcile(port, tenantId))
+                .orElse(Mono.error(new RuntimeException("ECM PermissionPort is not configured")));
+    }
+
+    private Mono<Long> reconcile(PermissionPort port, String tenantId) {
+        int batchSize = properties.getReconcileBatchSize();
+        long maxAgeSeconds = properties.getReconcileFullCheckInterval().toSeconds();
+        return repository.findBatchByTenantId(tenantId, FIRST_ID, batchSize).collectList()
+                .expand(batch -> batch.size() < batchSize
+                        ? Mono.empty()
+                        : repository.findBatchByTenantId(tenantId, batch.get(batch.size() - 1).getId(), batchSize).collectList())
+                .filter(batch -> !batch.isEmpty())
+                .concatMap(batch -> reconcileBatch(port, tenantId, batch, maxAgeSeconds))
+                .reduce(0L, Long::sum)
+                .flatMap(drifted -> repository.deleteReconcileDigestsOlderThan(tenantId, maxAgeSeconds)
+                        .thenReturn(drifted));
+    }
+
+    private Mono<Long> reconcileBatch(PermissionPort port, String tenantId, List<DocumentPermission> batch, long maxAgeSeconds) {
+        Instant now = Instant.now();
+        String digest = digest(batch, now);
+        UUID firstId = batch.get(0).getId();
+        return repository.findReconcileDigest(tenantId, firstId, maxAgeSeconds)
+                .filter(digest::equals)
+                .map(unchanged -> {
+                    skippedBatches.increment();
+                    return 0L;
+                })
+                .switchIfEmpty(Mono.defer(() -> checkBatch(port, batch, now)
+                        .flatMap(outcomes -> {
+                            long drifted = outcomes.stream().filter(outcome -> outcome == Outcome.REPAIRED).count();
+                            // Batches with failures stay unrecorded, so that the next run checks them again
+                            return outcomes.contains(Outcome.FAILED)
+                                    ? Mono.just(drifted)
+                                    : repository.saveReconcileDigest(tenantId, firstId, digest).thenReturn(drifted);
+                        })));
+    }
+
+    private Mono<List<Outcome>> checkBatch(PermissionPort port, List<DocumentPermission> batch, Instant now) {
+        Duration callInterval = Duration.ofNanos(1_000_000_000L / Math.max(1, properties.getReconcileMaxCallsPerSecond()));
+        return Flux.fromIterable(batch)
+                .delayElements(callInterval)
+                .flatMap(permission -> check(port, permission, now), properties.getReconcileConcurrency())
+                .collectList();
+    }
+
+    private Mono<Outcome> check(PermissionPort port, DocumentPermission permission, Instant now) {
+        boolean expected = isEffective(permission, now);
+        return port.hasPermission(
+                        permission.getDocumentId(),
+                        ResourceType.DOCUMENT,
+                        permission.getPartyId(),
+                        PrincipalType.USER,
+                        com.firefly.core.ecm.domain.enums.security.PermissionType.valueOf(permission.getPermissionType().name()))
+                .defaultIfEmpty(false)
+                .flatMap(actual -> {
+                    checked.increment();
+                    if (actual == expected) {
+                        return Mono.just(Outcome.IN_SYNC);
+                    }
+                    (expected ? missing : unexpected).increment();
+                    Permission repair = toPortPermission(permission, expected);
+                    Mono<?> call = expected ? port.grantPermission(repair) : port.updatePermission(repair);
+                    return call.then(Mono.fromCallable(() -> {
+                        repaired.increment();
+                        return Outcome.REPAIRED;
+                    }));
+                })
+                .onErrorResume(error -> {
+                    failed.increment();
+                    log.debug("Permission {} not reconciled: {}", permission.getId(), error.getMessage());
+                    return Mono.just(Outcome.FAILED);
+                });
+    }
+
+    private static boolean isEffective(DocumentPermission permission, Instant now) {
+        return Boolean.TRUE.equals(permission.getIsGranted())
+                && (permission.getExpirationDate() == null
+                || permission.getExpirationDate().toInstant(ZoneOffset.UTC).isAfter(now));
+    }
+
+    private static Permission toPortPermission(DocumentPermission permission, boolean granted) {
+        return Permission.builder()
+                .id(permission.getId())
+                .resourceId(permission.getDocumentId())
+                .resourceType(ResourceType.DOCUMENT)
+                .principalId(permission.getPartyId())
+                .principalType(PrincipalType.USER)
+                .permissionType(com.firefly.core.ecm.domain.enums.security.PermissionType.valueOf(permission.getPermissionType().name()))
+                .granted(granted)
+                .expiresAt(permission.getExpirationDate() != null ? permission.getExpirationDate().toInstant(ZoneOffset.UTC) : null)
+                .inherited(false)
+                .build();
+    }
+
+    /**
+     * Digest of what the provider should hold for a batch. It covers each permission's version and whether
+     * it is in effect, so that an expiration changes the digest as much as a write does.
+     */
+    static String digest(List<DocumentPermission> batch, Instant now) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (DocumentPermission permission : batch) {
+                String entry = permission.getId() + "|" + permission.getDocumentId() + "|" + permission.getPartyId()
+                        + "|" + permission.getPermissionType() + "|" + isEffective(permission, now)
+                        + "|" + permission.getExpirationDate() + "|" + permission.getVersion() + "\n";
+                sha.update(entry.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Releases document locks whose locked-until date has passed, so that documents locked by clients that
+ * never unlocked them become editable again.
+ */
+@Component
+public class StaleLockSweeper extends ExpirySweeper<Document> {
+
+    private final DocumentRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StaleLockSweeper(DocumentRepository repository,
+                            ApplicationEventPublisher eventPublisher,
+                            EcmIntegrationProperties properties,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        super("stale-locks", properties.getSweepers().getStaleLocks(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    protected Flux<Document> sweepBatch(int limit) {
+        return repository.releaseStaleLocksBatch(limit);
+    }
+
+    @Override
+    protected Mono<Double> measureLagSeconds() {
+        return repository.findStaleLockLagSeconds();
+    }
+
+    @Override
+    protected void publish(Document document) {
+        // Only the lock columns changed, so listeners need no previous state
+        eventPublisher.publishEvent(new DocumentChangedEvent(EntityChangeType.UPDATED, document, null));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.repositories.TagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Nightly recomputes the tag usage counts from the document tag assignments, one tenant at a time.
+ *
+ * The counts are maintained by deltas in the assignment and document delete statements, so assignments
+ * changed outside the service (imports, manual fixes, direct SQL deletes) make them drift. Each tenant is
+ * recomputed in one statement while its tag rows are locked, which holds off concurrent deltas, and only
+ * drifted counts are rewritten.
+ */
+@Slf4j
+@Component
+public class TagUsageReconciler {
+
+    private final TagRepository tagRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final boolean enabled;
+
+    public TagUsageReconciler(TagRepository tagRepository,
+                              ReactiveTransactionManager transactionManager,
+                              EcmIntegrationProperties properties) {
+        this.tagRepository = tagRepository;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.enabled = Boolean.TRUE.equals(properties.getTags().getUsageReconcileEnabled());
+    }
+
+    @Scheduled(cron = "${firefly.ecm.integration.tags.usage-reconcile-cron:0 30 2 * * *}")
+    public void reconcileAll() {
+        if (!enabled) {
+            return;
+        }
+        tagRepository.findTagTenantIds()
+                .concatMap(tenantId -> reconcile(tenantId)
+                        .onErrorResume(error -> {
+                            log.warn("Tag usage counts not reconciled for tenant {}: {}", tenantId, error.getMessage());
+                            return Mono.empty();
+                        }))
+                .reduce(0, Integer::sum)
+                .subscribe(corrected -> log.info("Tag usage counts reconciled, {} tags corrected", corrected),
+                        error -> log.warn("Tag usage count reconciliation failed: {}", error.getMessage()));
+    }
+
+    /**
+     * Recompute the usage counts of one tenant.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of corrected tags
+     */
+    public Mono<Integer> reconcile(String tenantId) {
+        return tagRepository.lockByTenantId(tenantId)
+                .then(tagRepository.reconcileUsageCounts(tenantId))
+                .as(transactionalOperator::transactional)
+                .doOnNext(corrected -> {
+                    if (corrected > 0) {
+                        log.warn("Tag usage counts of tenant {} had drifted, {} tags corrected", tenantId, corrected);
+                    }
+                });
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.entities.DocumentVersion;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentVersionRepository;
+import com.firefly.commons.ecm.models.repositories.VersionRetentionPolicyRepository;
+import com.firefly.core.ecm.service.EcmPortProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Nightly prunes the document versions their tenant's retention policy no longer keeps, one tenant at a time.
+ *
+ * The documents of a tenant are walked in ID order, one batch at a time, and only the versions of each batch
+ * are ranked against the policy. The prunable versions are claimed by a statement that marks them and commits
+ * on its own, with FOR UPDATE SKIP LOCKED, so several instances can prune at once and no transaction stays
+ * open while storage is called. A version referenced by a signature is never claimed, and a claimed version
+ * can no longer be signed. The content of each claimed version is then deleted through the ECM
+ * DocumentVersionPort with bounded concurrency, and the rows whose content is gone are deleted. A version
+ * whose content could not be deleted keeps its row, is released and is retried by the next run.
+ */
+@Slf4j
+@Component
+public class VersionPruner {
+
+    private static final UUID FIRST_DOCUMENT_ID = new UUID(0L, 0L);
+
+    private final DocumentVersionRepository versionRepository;
+    private final DocumentRepository documentRepository;
+    private final VersionRetentionPolicyRepository policyRepository;
+    private final EcmPortProvider ecmPortProvider;
+    private final EcmIntegrationProperties.VersionDefaults properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public VersionPruner(DocumentVersionRepository versionRepository,
+                         DocumentRepository documentRepository,
+                         VersionRetentionPolicyRepository policyRepository,
+                         EcmPortProvider ecmPortProvider,
+                         EcmIntegrationProperties properties) {
+        this.versionRepository = versionRepository;
+        this.documentRepository = documentRepository;
+        this.policyRepository = policyRepository;
+        this.ecmPortProvider = ecmPortProvider;
+        this.properties = properties.getVersions();
+    }
+
+    @Scheduled(cron = "${firefly.ecm.integration.versions.prune-cron:0 0 3 * * *}")
+    public void pruneAll() {
+        if (!Boolean.TRUE.equals(properties.getPruneEnabled()) || !running.compareAndSet(false, true)) {
+            return;
+        }
+        policyRepository.findPolicyTenantIds()
+                .concatMap(tenantId -> prune(tenantId)
+                        .onErrorResume(error -> {
+                            log.warn("Document versions not pruned for tenant {}: {}", tenantId, error.getMessage());
+                            return Mono.empty();
+                        }))
+                .reduce(0L, Long::sum)
+                .doFinally(signal -> running.set(false))
+                .subscribe(pruned -> log.info("Document version pruning done, {} versions pruned", pruned),
+                        error -> log.warn("Document version pruning failed: {}", error.getMessage()));
+    }
+
+    /**
+     * Prune the versions of one tenant, one batch at a time.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of pruned versions
+     */
+    public Mono<Long> prune(String tenantId) {
+        int batchSize = properties.getPruneBatchSize();
+        AtomicReference<UUID> afterId = new AtomicReference<>(FIRST_DOCUMENT_ID);
+        return Mono.defer(() -> pruneBatch(tenantId, afterId, batchSize))
+                .repeat()
+                .takeUntil(batch -> batch.documents() < batchSize)
+                .map(PrunedBatch::pruned)
+                .reduce(0L, Long::sum)
+                .doOnNext(pruned -> {
+                    if (pruned > 0) {
+                        log.info("Pruned {} document versions of tenant {}", pruned, tenantId);
+                    }
+                });
+    }
+
+    private Mono<PrunedBatch> pruneBatch(String tenantId, AtomicReference<UUID> afterId, int batchSize) {
+        return documentRepository.findIdBatch(tenantId, afterId.get(), batchSize)
+                .collectList()
+                .flatMap(documentIds -> {
+                    if (documentIds.isEmpty()) {
+                        return Mono.just(new PrunedBatch(0, 0));
+                    }
+                    afterId.set(documentIds.get(documentIds.size() - 1));
+                    return versionRepository.claimPrunable(documentIds, properties.getPruneClaimTimeout().toSeconds())
+                            .collectList()
+                            .flatMap(claimed -> claimed.isEmpty()
+                                    ? Mono.just(0)
+                                    : prune(claimed))
+                            .map(pruned -> new PrunedBatch(documentIds.size(), pruned));
+                });
+    }
+
+    /**
+     * Delete the content of claimed versions, then the rows of those whose content is gone, and release the
+     * others.
+     */
+    private Mono<Integer> prune(List<DocumentVersion> claimed) {
+        return Flux.fromIterable(claimed)
+                .flatMap(this::deleteContent, properties.getPruneContentConcurrency())
+                .collect(Collectors.toSet())
+                .flatMap(deleted -> {
+                    List<UUID> failed = claimed.stream()
+                            .map(DocumentVersion::getId)
+                            .filter(id -> !deleted.contains(id))
+                            .toList();
+                    Mono<Integer> release = failed.isEmpty() ? Mono.just(0) : versionRepository.releaseClaimed(failed);
+                    return release.then(deleted.isEmpty() ? Mono.just(0) : versionRepository.deleteClaimed(deleted));
+                });
+    }
+
+    /**
+     * Delete the content of a version from ECM storage.
+     *
+     * @return A Mono emitting the version ID once its content is gone, or empty if it could not be deleted
+     */
+    private Mono<UUID> deleteContent(DocumentVersion version) {
+        return ecmPortProvider.getDocumentVersionPort()
+                .map(port -> port.deleteVersion(version.getId())
+                        .then(Mono.just(version.getId()))
+                        .onErrorResume(error -> {
+                            log.warn("Content of document version {} not deleted, version kept: {}",
+                                    version.getId(), error.getMessage());
+                            return Mono.empty();
+                        }))
+                // Without ECM versioning the version only exists as its row
+                .orElse(Mono.just(version.getId()));
+    }
+
+    private record PrunedBatch(int documents, long pruned) {
+    }
+}
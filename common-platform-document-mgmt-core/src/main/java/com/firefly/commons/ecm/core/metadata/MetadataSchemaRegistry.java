@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.metadata;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.repositories.MetadataSchemaFieldRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the compiled {@link MetadataSchemaValidator} of each tenant and document type.
+ *
+ * A template is loaded and compiled on first use and dropped when it is changed on this instance.
+ * Changes made on other instances are picked up once the cached template reaches the configured
+ * maximum staleness.
+ */
+@Slf4j
+@Component
+public class MetadataSchemaRegistry {
+
+    private final MetadataSchemaFieldRepository schemaFieldRepository;
+    private final EcmIntegrationProperties.MetadataDefaults properties;
+
+    private final Map<String, CachedValidator> validators;
+    private final ConcurrentHashMap<String, Mono<MetadataSchemaValidator>> loads = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public MetadataSchemaRegistry(MetadataSchemaFieldRepository schemaFieldRepository,
+                                  EcmIntegrationProperties properties) {
+        this.schemaFieldRepository = schemaFieldRepository;
+        this.properties = properties.getMetadata();
+        int maxTemplates = this.properties.getSchemaCacheMaxTemplates();
+        this.validators = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValidator> eldest) {
+                return size() > maxTemplates;
+            }
+        });
+    }
+
+    /**
+     * Get the validator of the template that applies to a document, from its tenant and type. The caller
+     * passes the document it has already loaded, so no further lookup is needed.
+     *
+     * @param document The document, with at least its tenant and type
+     * @return A Mono emitting the validator, {@link MetadataSchemaValidator#NONE} when the document has no template
+     */
+    public Mono<MetadataSchemaValidator> forDocument(Document document) {
+        return forTemplate(document.getTenantId(), document.getDocumentType());
+    }
+
+    /**
+     * Get the validator of the template of a tenant and document type, loading it on first use or once it is stale.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type
+     * @return A Mono emitting the validator, {@link MetadataSchemaValidator#NONE} when there is no template
+     */
+    public Mono<MetadataSchemaValidator> forTemplate(String tenantId, DocumentType documentType) {
+        if (tenantId == null || documentType == null) {
+            return Mono.just(MetadataSchemaValidator.NONE);
+        }
+        String templateKey = templateKey(tenantId, documentType);
+        CachedValidator cached = validators.get(templateKey);
+        if (cached != null && System.nanoTime() - cached.loadedAt() < properties.getSchemaCacheMaxStaleness().toNanos()) {
+            return Mono.just(cached.validator());
+        }
+        return loads.computeIfAbsent(templateKey, key -> load(key, tenantId, documentType)
+                .doFinally(signal -> loads.remove(key))
+                .cache());
+    }
+
+    private Mono<MetadataSchemaValidator> load(String templateKey, String tenantId, DocumentType documentType) {
+        long loadGeneration = generation.get();
+        return schemaFieldRepository.findByTenantIdAndDocumentType(tenantId, documentType)
+                .collectList()
+                .map(fields -> {
+                    MetadataSchemaValidator validator;
+                    try {
+                        validator = MetadataSchemaValidator.compile(fields);
+                    } catch (IllegalArgumentException e) {
+                        // Templates are compiled before they are stored; a broken row must not block writes
+                        log.warn("Metadata schema of tenant {} and type {} does not compile: {}", tenantId, documentType, e.getMessage());
+                        validator = MetadataSchemaValidator.NONE;
+                    }
+                    synchronized (validators) {
+                        // A template changed while this one was loading: it may predate the change
+                        if (generation.get() == loadGeneration) {
+                            validators.put(templateKey, new CachedValidator(validator, System.nanoTime()));
+                        }
+                    }
+                    log.debug("Metadata schema loaded for tenant {} and type {} with {} fields", tenantId, documentType, fields.size());
+                    return validator;
+                });
+    }
+
+    /**
+     * Drop the compiled template of a tenant and document type; it is reloaded on its next use. A load
+     * already in flight still answers its callers but is not cached.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type
+     */
+    public void invalidate(String tenantId, DocumentType documentType) {
+        String templateKey = templateKey(tenantId, documentType);
+        synchronized (validators) {
+            generation.incrementAndGet();
+            validators.remove(templateKey);
+        }
+        loads.remove(templateKey);
+    }
+
+    private static String templateKey(String tenantId, DocumentType documentType) {
+        return tenantId + ":" + documentType.name();
+    }
+
+    private record CachedValidator(MetadataSchemaValidator validator, long loadedAt) {
+    }
+}
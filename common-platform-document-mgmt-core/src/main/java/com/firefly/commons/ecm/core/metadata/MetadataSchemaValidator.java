@@ -0,0 +1,197 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.metadata;
+
+import com.firefly.commons.ecm.interfaces.enums.MetadataValueType;
+import com.firefly.commons.ecm.models.entities.MetadataSchemaField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Metadata schema template compiled for validation: patterns are compiled and allowed values hashed
+ * once, so checking an entry costs a map lookup and the checks of its own rule.
+ *
+ * Keys without a rule are accepted as they are. Instances are immutable and shared between requests.
+ */
+public final class MetadataSchemaValidator {
+
+    /**
+     * Validator of documents without a template, accepting any metadata.
+     */
+    public static final MetadataSchemaValidator NONE = new MetadataSchemaValidator(Map.of());
+
+    private final Map<String, Rule> rules;
+    private final List<String> requiredKeys;
+
+    private MetadataSchemaValidator(Map<String, Rule> rules) {
+        this.rules = rules;
+        this.requiredKeys = rules.values().stream()
+                .filter(Rule::required)
+                .map(Rule::key)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Compile the fields of a template.
+     *
+     * @param fields The fields of the template
+     * @return The validator, {@link #NONE} when there are no fields
+     * @throws IllegalArgumentException if a field has no key, a key appears twice, a value type is unknown
+     *         or a pattern is not a valid regular expression
+     */
+    public static MetadataSchemaValidator compile(Collection<MetadataSchemaField> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return NONE;
+        }
+        Map<String, Rule> rules = new HashMap<>();
+        for (MetadataSchemaField field : fields) {
+            if (field.getKey() == null || field.getKey().isBlank()) {
+                throw new IllegalArgumentException("Metadata schema fields must have a key");
+            }
+            MetadataValueType type;
+            try {
+                type = field.getValueType() != null ? MetadataValueType.valueOf(field.getValueType()) : null;
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown value type for metadata key " + field.getKey() + ": " + field.getValueType());
+            }
+            Pattern pattern;
+            try {
+                pattern = field.getPattern() != null ? Pattern.compile(field.getPattern()) : null;
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid pattern for metadata key " + field.getKey() + ": " + e.getDescription());
+            }
+            Set<String> allowedValues = field.getAllowedValues() != null && field.getAllowedValues().length > 0
+                    ? Set.copyOf(Arrays.asList(field.getAllowedValues()))
+                    : null;
+            Rule rule = new Rule(field.getKey(), Boolean.TRUE.equals(field.getIsRequired()), type, pattern, allowedValues);
+            if (rules.putIfAbsent(field.getKey(), rule) != null) {
+                throw new IllegalArgumentException("Metadata key appears more than once in the schema: " + field.getKey());
+            }
+        }
+        return new MetadataSchemaValidator(Map.copyOf(rules));
+    }
+
+    /**
+     * Check one metadata value against the rule of its key.
+     *
+     * @param key The metadata key
+     * @param value The metadata value
+     * @param errors The list the violations are added to
+     */
+    public void validate(String key, String value, List<String> errors) {
+        Rule rule = rules.get(key);
+        if (rule == null) {
+            return;
+        }
+        if (value == null) {
+            if (rule.required()) {
+                errors.add("Metadata " + key + " is required");
+            }
+            return;
+        }
+        if (rule.type() != null) {
+            try {
+                TypedMetadataValues.parse(rule.type(), value);
+            } catch (IllegalArgumentException e) {
+                errors.add("Metadata " + key + ": " + e.getMessage());
+            }
+        }
+        if (rule.pattern() != null && !rule.pattern().matcher(value).matches()) {
+            errors.add("Metadata " + key + " does not match the pattern " + rule.pattern().pattern());
+        }
+        if (rule.allowedValues() != null && !rule.allowedValues().contains(value)) {
+            errors.add("Metadata " + key + " is not one of the allowed values");
+        }
+    }
+
+    /**
+     * Check the complete metadata of a document: every value against its rule, and every required key present.
+     *
+     * @param values The metadata values by key
+     * @return The violations, empty when the metadata is valid
+     */
+    public List<String> validateAll(Map<String, String> values) {
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        List<String> errors = new ArrayList<>();
+        values.forEach((key, value) -> validate(key, value, errors));
+        for (String key : requiredKeys) {
+            if (!values.containsKey(key)) {
+                errors.add("Metadata " + key + " is required");
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Check one metadata value against the rule of its key.
+     *
+     * @param key The metadata key
+     * @param value The metadata value
+     * @return The violations, empty when the value is valid
+     */
+    public List<String> validate(String key, String value) {
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        List<String> errors = new ArrayList<>();
+        validate(key, value, errors);
+        return errors;
+    }
+
+    /**
+     * Whether a key may be deleted from a document.
+     *
+     * @param key The metadata key
+     * @return false when the template requires the key
+     */
+    public boolean isRemovable(String key) {
+        Rule rule = rules.get(key);
+        return rule == null || !rule.required();
+    }
+
+    /**
+     * Get the typed form the template gives a key, used as the metadata type of entries written without one.
+     *
+     * @param key The metadata key
+     * @return The typed form, or null when the key has no rule or is free text
+     */
+    public MetadataValueType typeOf(String key) {
+        Rule rule = rules.get(key);
+        return rule != null ? rule.type() : null;
+    }
+
+    /**
+     * Get the keys every document of the template must have, in key order.
+     */
+    public List<String> getRequiredKeys() {
+        return requiredKeys;
+    }
+
+    private record Rule(String key, boolean required, MetadataValueType type, Pattern pattern, Set<String> allowedValues) {
+    }
+}
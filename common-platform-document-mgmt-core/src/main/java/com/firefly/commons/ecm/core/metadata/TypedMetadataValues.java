@@ -0,0 +1,169 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.metadata;
+
+import com.firefly.commons.ecm.interfaces.enums.MetadataValueType;
+import com.firefly.commons.ecm.models.entities.DocumentMetadata;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Derives the typed forms of metadata values from their free-form metadata_type.
+ *
+ * Numbers are parsed as {@link BigDecimal}. Timestamps are ISO-8601 instants, offset date-times,
+ * local date-times (taken as UTC) or dates (taken at midnight UTC); a space may replace the 'T'.
+ * Booleans are true or false in any case. The same forms are accepted by the V14 backfill.
+ */
+public final class TypedMetadataValues {
+
+    private static final Set<String> NUMBER_TYPES =
+            Set.of("NUMBER", "NUMERIC", "DECIMAL", "INTEGER", "INT", "LONG", "DOUBLE", "FLOAT", "AMOUNT", "CURRENCY");
+    private static final Set<String> TIMESTAMP_TYPES = Set.of("DATE", "DATETIME", "DATE_TIME", "TIMESTAMP", "INSTANT");
+    private static final Set<String> BOOLEAN_TYPES = Set.of("BOOLEAN", "BOOL");
+
+    private TypedMetadataValues() {
+    }
+
+    /**
+     * Get the typed form named by a metadata type.
+     *
+     * @param metadataType The free-form metadata type
+     * @return The typed form, or null when the type names none (free text)
+     */
+    public static MetadataValueType typeOf(String metadataType) {
+        if (metadataType == null) {
+            return null;
+        }
+        String normalized = metadataType.trim().toUpperCase(Locale.ROOT);
+        if (NUMBER_TYPES.contains(normalized)) {
+            return MetadataValueType.NUMBER;
+        }
+        if (TIMESTAMP_TYPES.contains(normalized)) {
+            return MetadataValueType.TIMESTAMP;
+        }
+        if (BOOLEAN_TYPES.contains(normalized)) {
+            return MetadataValueType.BOOLEAN;
+        }
+        return null;
+    }
+
+    /**
+     * Set the typed columns of a metadata entry from its type and value. Values that do not parse as
+     * their type keep only their text form.
+     *
+     * @param metadata The metadata entry to update
+     * @return The same metadata entry
+     */
+    public static DocumentMetadata apply(DocumentMetadata metadata) {
+        metadata.setValueNumber(null);
+        metadata.setValueTimestamp(null);
+        metadata.setValueBoolean(null);
+        MetadataValueType type = typeOf(metadata.getType());
+        if (type == null || metadata.getValue() == null) {
+            return metadata;
+        }
+        try {
+            switch (type) {
+                case NUMBER -> metadata.setValueNumber(parseNumber(metadata.getValue()));
+                case TIMESTAMP -> metadata.setValueTimestamp(parseTimestamp(metadata.getValue()));
+                case BOOLEAN -> metadata.setValueBoolean(parseBoolean(metadata.getValue()));
+            }
+        } catch (IllegalArgumentException e) {
+            // Kept as text only
+        }
+        return metadata;
+    }
+
+    /**
+     * Parse a value into the typed form used to store and compare it.
+     *
+     * @param type The typed form
+     * @param value The value
+     * @return A {@link BigDecimal}, an {@link Instant} or a {@link Boolean}
+     * @throws IllegalArgumentException if the value does not parse as the type
+     */
+    public static Object parse(MetadataValueType type, String value) {
+        return switch (type) {
+            case NUMBER -> parseNumber(value);
+            case TIMESTAMP -> parseTimestamp(value);
+            case BOOLEAN -> parseBoolean(value);
+        };
+    }
+
+    /**
+     * Parse a number value.
+     *
+     * @throws IllegalArgumentException if the value is not a decimal number
+     */
+    public static BigDecimal parseNumber(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Number expected, got null");
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Number expected, got: " + value);
+        }
+    }
+
+    /**
+     * Parse a date or timestamp value.
+     *
+     * @throws IllegalArgumentException if the value is not an ISO-8601 date or timestamp
+     */
+    public static Instant parseTimestamp(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Timestamp expected, got null");
+        }
+        String text = value.trim().replace(' ', 'T');
+        try {
+            if (text.length() == 10) {
+                return LocalDate.parse(text).atStartOfDay().toInstant(ZoneOffset.UTC);
+            }
+            if (text.endsWith("Z") || text.lastIndexOf('+') > 10 || text.lastIndexOf('-') > 10) {
+                return OffsetDateTime.parse(text).toInstant();
+            }
+            return LocalDateTime.parse(text).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("ISO-8601 date or timestamp expected, got: " + value);
+        }
+    }
+
+    /**
+     * Parse a boolean value.
+     *
+     * @throws IllegalArgumentException if the value is neither true nor false
+     */
+    public static Boolean parseBoolean(String value) {
+        String text = value != null ? value.trim() : "";
+        if ("true".equalsIgnoreCase(text)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(text)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("true or false expected, got: " + value);
+    }
+}
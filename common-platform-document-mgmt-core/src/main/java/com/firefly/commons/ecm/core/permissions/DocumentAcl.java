@@ -0,0 +1,173 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.permissions;
+
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
+import com.firefly.commons.ecm.models.entities.DocumentPermission;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable access control list of a document, compiled into one bitset over {@link PermissionType}
+ * per principal. Permission writes produce a new instance instead of changing this one, so readers
+ * never need to lock.
+ *
+ * An unexpired permission of a principal decides whether it holds the permission type, granted or
+ * denied ({@code is_granted} false); a principal has at most one permission per document and type.
+ * Without one, READ is granted on a document at an open security level and every other type is
+ * refused: the rule document listings apply in SQL.
+ */
+public final class DocumentAcl {
+
+    private record Principal(int granted, int denied, long[] expirations) {
+    }
+
+    private final Map<UUID, Principal> principals;
+    private final boolean open;
+    private final long loadedAt;
+
+    private DocumentAcl(Map<UUID, Principal> principals, boolean open, long loadedAt) {
+        this.principals = principals;
+        this.open = open;
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * Compile the permissions of a document that is not at an open security level.
+     *
+     * @param permissions All the permissions of the document
+     * @param loadedAt Epoch millisecond at which the permissions were read
+     * @return The access control list
+     */
+    public static DocumentAcl of(Collection<DocumentPermission> permissions, long loadedAt) {
+        return of(permissions, false, loadedAt);
+    }
+
+    /**
+     * Compile the permissions of a document.
+     *
+     * @param permissions All the permissions of the document
+     * @param open Whether the document is at an open security level
+     * @param loadedAt Epoch millisecond at which the permissions were read
+     * @return The access control list
+     */
+    public static DocumentAcl of(Collection<DocumentPermission> permissions, boolean open, long loadedAt) {
+        DocumentAcl acl = new DocumentAcl(Map.of(), open, loadedAt);
+        for (DocumentPermission permission : permissions) {
+            acl = acl.with(permission);
+        }
+        return acl;
+    }
+
+    /**
+     * Check whether a principal holds a permission type.
+     *
+     * @param principalId The principal ID
+     * @param permissionType The permission type
+     * @param now Current epoch millisecond, against which expirations are evaluated
+     * @return Whether the permission is granted
+     */
+    public boolean isGranted(UUID principalId, PermissionType permissionType, long now) {
+        Principal principal = principals.get(principalId);
+        int bit = bit(permissionType);
+        if (principal != null && ((principal.granted() | principal.denied()) & bit) != 0) {
+            long[] expirations = principal.expirations();
+            if (expirations == null || expirations[permissionType.ordinal()] == 0
+                    || expirations[permissionType.ordinal()] > now) {
+                return (principal.granted() & bit) != 0;
+            }
+        }
+        return open && permissionType == PermissionType.READ;
+    }
+
+    /**
+     * Get the epoch millisecond at which the list was read from the database; permission writes
+     * applied since then do not change it.
+     *
+     * @return The load time
+     */
+    public long loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Get a copy of this list with a permission created or updated.
+     *
+     * @param permission The permission as stored
+     * @return The new list
+     */
+    public DocumentAcl with(DocumentPermission permission) {
+        DocumentAcl acl = without(permission.getPartyId(), permission.getPermissionType());
+        Map<UUID, Principal> updated = new HashMap<>(acl.principals);
+        Principal principal = updated.get(permission.getPartyId());
+        int granted = principal != null ? principal.granted() : 0;
+        int denied = principal != null ? principal.denied() : 0;
+        if (Boolean.TRUE.equals(permission.getIsGranted())) {
+            granted |= bit(permission.getPermissionType());
+        } else {
+            denied |= bit(permission.getPermissionType());
+        }
+        long[] expirations = principal != null ? principal.expirations() : null;
+        if (permission.getExpirationDate() != null) {
+            expirations = expirations != null
+                    ? Arrays.copyOf(expirations, expirations.length)
+                    : new long[PermissionType.values().length];
+            expirations[permission.getPermissionType().ordinal()] =
+                    permission.getExpirationDate().toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        updated.put(permission.getPartyId(), new Principal(granted, denied, expirations));
+        return new DocumentAcl(updated, open, loadedAt);
+    }
+
+    /**
+     * Get a copy of this list with the permission of a principal and type removed.
+     *
+     * @param principalId The principal ID
+     * @param permissionType The permission type
+     * @return The new list
+     */
+    public DocumentAcl without(UUID principalId, PermissionType permissionType) {
+        Principal principal = principals.get(principalId);
+        int bit = bit(permissionType);
+        if (principal == null || ((principal.granted() | principal.denied()) & bit) == 0) {
+            return this;
+        }
+        Map<UUID, Principal> updated = new HashMap<>(principals);
+        int granted = principal.granted() & ~bit;
+        int denied = principal.denied() & ~bit;
+        if ((granted | denied) == 0) {
+            updated.remove(principalId);
+        } else {
+            long[] expirations = principal.expirations();
+            if (expirations != null) {
+                expirations = Arrays.copyOf(expirations, expirations.length);
+                expirations[permissionType.ordinal()] = 0;
+            }
+            updated.put(principalId, new Principal(granted, denied, expirations));
+        }
+        return new DocumentAcl(updated, open, loadedAt);
+    }
+
+    private static int bit(PermissionType permissionType) {
+        return 1 << permissionType.ordinal();
+    }
+}
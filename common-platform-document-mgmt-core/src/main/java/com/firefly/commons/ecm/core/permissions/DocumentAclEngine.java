@@ -0,0 +1,210 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.permissions;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentChangedEvent;
+import com.firefly.commons.ecm.core.events.DocumentPermissionChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
+import com.firefly.commons.ecm.models.entities.DocumentPermission;
+import com.firefly.commons.ecm.models.repositories.DocumentPermissionRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates document permissions from the {@code document_permissions} table, for deployments without
+ * an ECM PermissionPort.
+ *
+ * The permissions of a document are loaded on first use, together with whether the document is at one of
+ * the open security levels, and compiled into a {@link DocumentAcl}, after which checks are answered from
+ * memory. A document whose security level changes is reloaded on its next check. Writes made through this
+ * instance are applied to the loaded lists once committed. Lists are reloaded once older than the
+ * configured staleness, which bounds how long a write made on another instance goes unseen.
+ */
+@Component
+public class DocumentAclEngine {
+
+    private final DocumentPermissionRepository repository;
+    private final DocumentRepository documentRepository;
+    private final EcmIntegrationProperties.PermissionDefaults properties;
+    private final Clock clock;
+    private final Map<UUID, DocumentAcl> acls;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public DocumentAclEngine(DocumentPermissionRepository repository, DocumentRepository documentRepository,
+                             EcmIntegrationProperties properties) {
+        this(repository, documentRepository, properties, Clock.systemUTC());
+    }
+
+    DocumentAclEngine(DocumentPermissionRepository repository, DocumentRepository documentRepository,
+                      EcmIntegrationProperties properties, Clock clock) {
+        this.repository = repository;
+        this.documentRepository = documentRepository;
+        this.properties = properties.getPermissions();
+        this.clock = clock;
+        int maxDocuments = this.properties.getAclCacheMaxDocuments();
+        this.acls = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, DocumentAcl> eldest) {
+                return size() > maxDocuments;
+            }
+        });
+    }
+
+    /**
+     * Check whether a principal holds a permission on a document.
+     *
+     * @param documentId The document ID
+     * @param principalId The principal ID
+     * @param permissionType The permission type
+     * @return A Mono emitting whether the permission is granted
+     */
+    public Mono<Boolean> hasPermission(UUID documentId, UUID principalId, PermissionType permissionType) {
+        return getAcls(List.of(documentId))
+                .map(loaded -> loaded.get(documentId).isGranted(principalId, permissionType, clock.millis()));
+    }
+
+    /**
+     * Get the access control lists of documents, loading the missing or stale ones with one query.
+     *
+     * @param documentIds The document IDs
+     * @return A Mono emitting the list of every requested document
+     */
+    public Mono<Map<UUID, DocumentAcl>> getAcls(Collection<UUID> documentIds) {
+        long now = clock.millis();
+        long maxStaleness = properties.getAclMaxStaleness().toMillis();
+        Map<UUID, DocumentAcl> found = new HashMap<>();
+        Set<UUID> missing = new LinkedHashSet<>();
+        for (UUID documentId : documentIds) {
+            DocumentAcl acl = acls.get(documentId);
+            if (acl != null && now - acl.loadedAt() < maxStaleness) {
+                found.put(documentId, acl);
+            } else {
+                missing.add(documentId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Mono.just(found);
+        }
+        return Mono.defer(() -> {
+            long loadGeneration = generation.get();
+            String[] openLevels = properties.getOpenSecurityLevels().toArray(String[]::new);
+            return Mono.zip(
+                            repository.findByDocumentIdIn(missing).collectMultimap(DocumentPermission::getDocumentId),
+                            documentRepository.findIdsAtSecurityLevels(missing, openLevels).collect(Collectors.toSet()))
+                    .map(loaded -> {
+                        Map<UUID, Collection<DocumentPermission>> permissions = loaded.getT1();
+                        Set<UUID> open = loaded.getT2();
+                        for (UUID documentId : missing) {
+                            DocumentAcl acl = DocumentAcl.of(permissions.getOrDefault(documentId, List.of()),
+                                    open.contains(documentId), now);
+                            found.put(documentId, acl);
+                            store(documentId, acl, loadGeneration);
+                        }
+                        return found;
+                    });
+        });
+    }
+
+    private void store(UUID documentId, DocumentAcl acl, long loadGeneration) {
+        synchronized (acls) {
+            // A permission was written while loading: the loaded list may predate it, so let the next check reload
+            if (generation.get() == loadGeneration) {
+                acls.put(documentId, acl);
+            }
+        }
+    }
+
+    /**
+     * Apply a created or updated permission to the loaded list of its document.
+     *
+     * @param permission The permission as stored
+     */
+    public void apply(DocumentPermission permission) {
+        synchronized (acls) {
+            generation.incrementAndGet();
+            acls.computeIfPresent(permission.getDocumentId(), (documentId, acl) -> acl.with(permission));
+        }
+    }
+
+    /**
+     * Remove a deleted permission, or the previous state of an updated one, from the loaded list of its document.
+     *
+     * @param permission The permission as it was stored
+     */
+    public void remove(DocumentPermission permission) {
+        synchronized (acls) {
+            generation.incrementAndGet();
+            acls.computeIfPresent(permission.getDocumentId(),
+                    (documentId, acl) -> acl.without(permission.getPartyId(), permission.getPermissionType()));
+        }
+    }
+
+    @EventListener
+    public void onPermissionChanged(DocumentPermissionChangedEvent event) {
+        if (event.getPrevious() != null) {
+            remove(event.getPrevious());
+        }
+        if (event.getChangeType() == EntityChangeType.DELETED) {
+            remove(event.getPermission());
+        } else {
+            apply(event.getPermission());
+        }
+    }
+
+    @EventListener
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        // Of the document itself, only its security level is part of its list
+        if (event.getChangeType() == EntityChangeType.CREATED
+                || (event.getChangeType() == EntityChangeType.UPDATED && event.getPrevious() != null
+                && Objects.equals(event.getPrevious().getSecurityLevel(), event.getDocument().getSecurityLevel()))) {
+            return;
+        }
+        synchronized (acls) {
+            generation.incrementAndGet();
+            acls.remove(event.getDocument().getId());
+        }
+    }
+
+    /**
+     * Get the number of documents whose list is loaded.
+     *
+     * @return The number of documents
+     */
+    public int size() {
+        return acls.size();
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.permissions;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentChangedEvent;
+import com.firefly.commons.ecm.core.events.DocumentPermissionChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of permission check decisions keyed by document, principal and permission type.
+ *
+ * Both granted and denied decisions are cached, each with its own TTL, and no entry outlives the next
+ * expiration of the principal's permissions on the document. Entries are dropped by the permission
+ * service once the transaction creating, updating or deleting a permission of the same document and
+ * principal has completed, and every entry of a document is dropped when its security level changes or
+ * it is deleted. A decision loaded while the entries are dropped is not cached, so that a check that read
+ * the permissions from before the commit cannot store its decision.
+ */
+@Component
+public class PermissionDecisionCache {
+
+    /**
+     * Outcome of a permission check.
+     *
+     * @param granted Whether the permission is granted
+     * @param validUntil Instant at which the outcome may change on its own (a permission expires), or null
+     */
+    public record Decision(boolean granted, Instant validUntil) {
+    }
+
+    private record Key(UUID documentId, UUID principalId, PermissionType permissionType) {
+    }
+
+    private record Entry(boolean granted, Instant loadedAt, Instant expiresAt) {
+    }
+
+    private final EcmIntegrationProperties.PermissionDefaults properties;
+    private final Clock clock;
+    private final Map<Key, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expirations;
+    private final Counter invalidations;
+    private final Timer hitAge;
+
+    @Autowired
+    public PermissionDecisionCache(EcmIntegrationProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), Clock.systemUTC());
+    }
+
+    PermissionDecisionCache(EcmIntegrationProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties.getPermissions();
+        this.clock = clock;
+        int maxEntries = this.properties.getDecisionCacheMaxEntries();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.expirations = lookups(meterRegistry, "expired");
+        this.invalidations = Counter.builder("ecm.permission.decision.cache.invalidations")
+                .description("Cached permission decisions dropped because a permission or its document changed")
+                .register(meterRegistry);
+        this.hitAge = Timer.builder("ecm.permission.decision.cache.age")
+                .description("Age of the permission decisions served from the cache")
+                .register(meterRegistry);
+        Gauge.builder("ecm.permission.decision.cache.size", entries, Map::size)
+                .description("Number of cached permission decisions")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("ecm.permission.decision.cache.lookups")
+                .description("Permission decision cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a decision from the cache, or load and cache it.
+     *
+     * @param documentId The document ID
+     * @param principalId The principal ID
+     * @param permissionType The permission type
+     * @param loader Mono loading the decision on a miss; it is subscribed to once per miss
+     * @return A Mono emitting whether the permission is granted
+     */
+    public Mono<Boolean> get(UUID documentId, UUID principalId, PermissionType permissionType, Mono<Decision> loader) {
+        if (!Boolean.TRUE.equals(properties.getDecisionCacheEnabled())) {
+            return loader.map(Decision::granted);
+        }
+        Key key = new Key(documentId, principalId, permissionType);
+        return Mono.defer(() -> {
+            Instant now = clock.instant();
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now.isBefore(entry.expiresAt())) {
+                    hits.increment();
+                    hitAge.record(Duration.between(entry.loadedAt(), now));
+                    return Mono.just(entry.granted());
+                }
+                entries.remove(key, entry);
+                expirations.increment();
+            } else {
+                misses.increment();
+            }
+            long loadGeneration = generation.get();
+            return loader.map(decision -> {
+                store(key, decision, loadGeneration);
+                return decision.granted();
+            });
+        });
+    }
+
+    private void store(Key key, Decision decision, long loadGeneration) {
+        Instant now = clock.instant();
+        Duration ttl = decision.granted()
+                ? properties.getDecisionCachePositiveTtl()
+                : properties.getDecisionCacheNegativeTtl();
+        Instant expiresAt = now.plus(ttl);
+        if (decision.validUntil() != null && decision.validUntil().isBefore(expiresAt)) {
+            expiresAt = decision.validUntil();
+        }
+        if (!now.isBefore(expiresAt)) {
+            return;
+        }
+        Entry entry = new Entry(decision.granted(), now, expiresAt);
+        synchronized (entries) {
+            // A permission changed while the decision was loading: it may predate the change
+            if (generation.get() == loadGeneration) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Drop the cached decisions of a principal on a document, for every permission type.
+     *
+     * @param documentId The document ID
+     * @param principalId The principal ID
+     */
+    public void invalidate(UUID documentId, UUID principalId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            for (PermissionType permissionType : PermissionType.values()) {
+                if (entries.remove(new Key(documentId, principalId, permissionType)) != null) {
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the cached decisions of every principal on a document.
+     *
+     * @param documentId The document ID
+     */
+    public void invalidate(UUID documentId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().documentId().equals(documentId)) {
+                    keys.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onPermissionChanged(DocumentPermissionChangedEvent event) {
+        if (event.getPrevious() != null) {
+            invalidate(event.getPrevious().getDocumentId(), event.getPrevious().getPartyId());
+        }
+        invalidate(event.getPermission().getDocumentId(), event.getPermission().getPartyId());
+    }
+
+    @EventListener
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        // Of the document itself, only its security level takes part in a decision
+        if (event.getChangeType() == EntityChangeType.CREATED
+                || (event.getChangeType() == EntityChangeType.UPDATED && event.getPrevious() != null
+                && Objects.equals(event.getPrevious().getSecurityLevel(), event.getDocument().getSecurityLevel()))) {
+            return;
+        }
+        invalidate(event.getDocument().getId());
+    }
+
+    /**
+     * Get the number of cached decisions.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+}
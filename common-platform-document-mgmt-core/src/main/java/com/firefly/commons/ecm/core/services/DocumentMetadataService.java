@@ -20,7 +20,10 @@ package com.firefly.commons.ecm.core.services;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentMetadataDTO;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataRangeQueryDTO;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataValueDTO;
 import reactor.core.publisher.Mono;
+import java.util.Map;
 import java.util.UUID;
 /**
  * Service interface for managing DocumentMetadata entities in the Enterprise Content Management system.
@@ -66,4 +69,64 @@ public interface DocumentMetadataService {
      * @return A Mono completing when the document metadata is deleted
      */
     Mono<Void> delete(UUID id);
+
+    /**
+     * Get the metadata entry of a document with the given key.
+     *
+     * @param documentId The document ID
+     * @param key The metadata key
+     * @return A Mono emitting the metadata entry if found, or empty if not found
+     */
+    Mono<DocumentMetadataDTO> getByKey(UUID documentId, String key);
+
+    /**
+     * List the metadata of a document, in key order.
+     *
+     * @param documentId The document ID
+     * @param page The zero-based page number (0 when null)
+     * @param size The page size (the configured default when null, capped at the configured maximum)
+     * @return A Mono emitting a page of the document's metadata
+     */
+    Mono<PaginationResponse<DocumentMetadataDTO>> listByDocument(UUID documentId, Integer page, Integer size);
+
+    /**
+     * Update the metadata entry of a document with the given key.
+     *
+     * @param documentId The document ID
+     * @param key The metadata key
+     * @param documentMetadata The new values of the entry
+     * @return A Mono emitting the updated metadata entry, or an error if the document has no entry with this key
+     */
+    Mono<DocumentMetadataDTO> updateByKey(UUID documentId, String key, DocumentMetadataDTO documentMetadata);
+
+    /**
+     * Delete the metadata entry of a document with the given key.
+     *
+     * @param documentId The document ID
+     * @param key The metadata key
+     * @return A Mono completing when the entry is deleted, or an error if the document has no entry with this key
+     */
+    Mono<Void> deleteByKey(UUID documentId, String key);
+
+    /**
+     * Insert or update many metadata entries of a document in one statement.
+     *
+     * @param documentId The document ID
+     * @param entries The metadata values by key
+     * @param replace Whether the document's other non-system metadata keys are deleted
+     * @return A Mono emitting the written entries by key, or an error if the document does not exist or a key
+     *         holds system metadata
+     */
+    Mono<Map<String, DocumentMetadataDTO>> upsertAll(UUID documentId, Map<String, MetadataValueDTO> entries, boolean replace);
+
+    /**
+     * Find the documents whose typed metadata value for a key satisfies a comparison, e.g. invoice_amount GT 10000.
+     * The comparison is an index range scan over the typed values of the key.
+     *
+     * @param rangeQuery The tenant, key, value type, comparison and values
+     * @param page The zero-based page number (0 when null)
+     * @param size The page size (the configured default when null, capped at the configured maximum)
+     * @return A Mono emitting a page of document IDs in value order
+     */
+    Mono<PaginationResponse<UUID>> findDocumentIdsByMetadataRange(MetadataRangeQueryDTO rangeQuery, Integer page, Integer size);
 }
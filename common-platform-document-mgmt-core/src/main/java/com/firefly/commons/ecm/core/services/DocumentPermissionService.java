@@ -20,7 +20,10 @@ package com.firefly.commons.ecm.core.services;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentPermissionDTO;
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
 import reactor.core.publisher.Mono;
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 /**
  * Service interface for managing DocumentPermission entities in the Enterprise Content Management system.
@@ -68,7 +71,20 @@ public interface DocumentPermissionService {
     Mono<Void> delete(UUID id);
 
     /**
-     * Check if a principal has a permission on a document via ECM PermissionPort.
+     * Check if a principal has a permission on a document, via the ECM PermissionPort when one is
+     * configured and from the stored document permissions otherwise.
      */
     Mono<Boolean> hasPermission(UUID documentId, UUID principalId, com.firefly.commons.ecm.interfaces.enums.PermissionType permissionType);
+
+    /**
+     * Check several permissions of a principal on several documents at once. Every requested permission
+     * type is checked on every requested document; duplicates are checked once.
+     *
+     * @param principalId The principal ID
+     * @param documentIds The document IDs
+     * @param permissionTypes The permission types
+     * @return A Mono emitting, per document, whether each permission type is granted
+     */
+    Mono<Map<UUID, Map<PermissionType, Boolean>>> hasPermissions(UUID principalId, Collection<UUID> documentIds,
+                                                                  Collection<PermissionType> permissionTypes);
 }
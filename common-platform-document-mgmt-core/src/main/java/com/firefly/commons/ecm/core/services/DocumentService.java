@@ -20,6 +20,8 @@ package com.firefly.commons.ecm.core.services;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentDTO;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentPageDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentProjection;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.codec.multipart.FilePart;
 import reactor.core.publisher.Flux;
@@ -108,4 +110,18 @@ public interface DocumentService {
      * @return A Mono emitting document content metadata
      */
     Mono<DocumentDTO> getContentMetadata(UUID documentId);
+
+    /**
+     * List the documents of a folder ordered by name, one keyset page at a time.
+     *
+     * @param folderId The folder ID
+     * @param recursive Whether documents of all descendant folders are included
+     * @param projection How much of each document is returned (FULL when null)
+     * @param cursor Optional cursor returned with the previous page
+     * @param size Optional page size
+     * @param principalId Optional principal whose readable documents are listed; all documents when null
+     * @return A Mono emitting the page and the cursor of the next one
+     */
+    Mono<DocumentPageDTO> listByFolder(UUID folderId, boolean recursive, DocumentProjection projection, String cursor, Integer size,
+                                       UUID principalId);
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services;
+
+import com.firefly.commons.ecm.interfaces.dtos.SimilarDocumentDTO;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+/**
+ * Service interface for near-duplicate document detection.
+ */
+public interface DocumentSimilarityService {
+
+    /**
+     * Find documents of the same tenant whose content is similar to the given document.
+     * Candidates are the documents sharing at least one LSH bucket with it; they are then
+     * ranked by the similarity estimated from their MinHash signatures.
+     *
+     * @param documentId The document ID
+     * @param minSimilarity Optional minimum estimated Jaccard similarity (0 to 1)
+     * @param limit Optional maximum number of results
+     * @return A Flux emitting the similar documents, most similar first; empty when the document
+     *         has no signature yet
+     */
+    Flux<SimilarDocumentDTO> findSimilar(UUID documentId, Double minSimilarity, Integer limit);
+}
@@ -19,6 +19,8 @@ package com.firefly.commons.ecm.core.services;
 
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentTagBulkRequestDTO;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentTagBulkResultDTO;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentTagDTO;
 import reactor.core.publisher.Mono;
 import java.util.UUID;
@@ -66,4 +68,45 @@ public interface DocumentTagService {
      * @return A Mono completing when the document tag is deleted
      */
     Mono<Void> delete(UUID id);
+
+    /**
+     * Remove a tag from a document.
+     *
+     * @param documentId The document ID
+     * @param tagId The tag ID
+     * @return A Mono completing when the tag is removed, or failing if the document does not have the tag
+     */
+    Mono<Void> removeTag(UUID documentId, UUID tagId);
+
+    /**
+     * Add a set of tags to every selected document. The documents are written in batches of one
+     * statement each; tags already assigned are skipped.
+     *
+     * @param request The tenant, the tags and either the document IDs or a folder whose subtree is selected
+     * @return A Mono emitting the number of selected documents and of assignments added
+     */
+    Mono<DocumentTagBulkResultDTO> tagDocuments(DocumentTagBulkRequestDTO request);
+
+    /**
+     * Remove a set of tags from every selected document. The documents are written in batches of one
+     * statement each.
+     *
+     * @param request The tenant, the tags and either the document IDs or a folder whose subtree is selected
+     * @return A Mono emitting the number of selected documents and of assignments removed
+     */
+    Mono<DocumentTagBulkResultDTO> untagDocuments(DocumentTagBulkRequestDTO request);
+
+    /**
+     * Find the documents whose tags satisfy a boolean tag expression, such as
+     * {@code KYC AND 2024 AND NOT archived}. Tags are referenced by name or ID; unknown tags
+     * match no document. The expression is evaluated against the tenant's in-memory tag index, or in SQL
+     * when the tenant has too many documents to be indexed.
+     *
+     * @param tenantId The tenant ID
+     * @param expression The tag expression (AND, OR, NOT, parentheses and double-quoted names)
+     * @param page Optional zero-based page number
+     * @param size Optional page size
+     * @return A Mono emitting a page of matching document IDs
+     */
+    Mono<PaginationResponse<UUID>> findDocumentIdsByTagExpression(String tenantId, String expression, Integer page, Integer size);
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services;
+
+import com.firefly.commons.ecm.interfaces.dtos.FolderJobDTO;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+/**
+ * Service interface for background recursive folder delete and copy jobs.
+ */
+public interface FolderJobService {
+
+    /**
+     * Start a background job deleting a folder, all of its subfolders, their documents and the stored content.
+     *
+     * @param folderId The folder ID
+     * @return A Mono emitting the created job, before any of the subtree is processed
+     */
+    Mono<FolderJobDTO> startDelete(UUID folderId);
+
+    /**
+     * Start a background job copying a folder, all of its subfolders, their documents and the stored content.
+     *
+     * @param folderId The folder ID
+     * @param targetParentFolderId The folder to create the copy in, or null to create it at the root
+     * @param name Optional name of the copy (the folder name by default, suffixed when copied next to itself)
+     * @return A Mono emitting the created job, before any of the subtree is processed
+     */
+    Mono<FolderJobDTO> startCopy(UUID folderId, UUID targetParentFolderId, String name);
+
+    /**
+     * Get the state and progress of a job.
+     *
+     * @param jobId The job ID
+     * @return A Mono emitting the job if found, or empty if not found
+     */
+    Mono<FolderJobDTO> getJob(UUID jobId);
+}
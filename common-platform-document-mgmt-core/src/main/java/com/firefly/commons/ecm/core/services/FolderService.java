@@ -19,7 +19,10 @@ package com.firefly.commons.ecm.core.services;
 
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentDTO;
 import com.firefly.commons.ecm.interfaces.dtos.FolderDTO;
+import com.firefly.commons.ecm.interfaces.dtos.FolderStatsDTO;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.util.UUID;
 /**
@@ -66,4 +69,80 @@ public interface FolderService {
      * @return A Mono completing when the folder is deleted
      */
     Mono<Void> delete(UUID id);
+
+    /**
+     * Move a folder under another parent. The paths of the whole subtree are rewritten in one statement
+     * under the tenant's hierarchy lock.
+     *
+     * @param folderId The folder ID
+     * @param parentFolderId The new parent folder ID, or null to make the folder a root folder
+     * @return A Mono emitting the moved folder, or an error if the move would create a cycle
+     */
+    Mono<FolderDTO> move(UUID folderId, UUID parentFolderId);
+
+    /**
+     * Rename a folder. The name paths of the whole subtree are rewritten in one statement
+     * under the tenant's hierarchy lock.
+     *
+     * @param folderId The folder ID
+     * @param name The new folder name
+     * @return A Mono emitting the renamed folder
+     */
+    Mono<FolderDTO> rename(UUID folderId, String name);
+
+    /**
+     * Get the rollup statistics of a folder: the documents and bytes directly in it and in its whole subtree.
+     * Served from the incrementally maintained statistics table in constant time.
+     *
+     * @param folderId The folder ID
+     * @return A Mono emitting the folder statistics
+     */
+    Mono<FolderStatsDTO> getStats(UUID folderId);
+
+    /**
+     * Get the descendants of a folder in depth-first order, using the materialized folder paths.
+     *
+     * @param folderId The folder ID
+     * @param maxDepth Optional maximum depth below the folder (1 for direct children, unlimited when null)
+     * @param page Optional zero-based page number
+     * @param size Optional page size
+     * @return A Mono emitting a page of descendant folders
+     */
+    Mono<PaginationResponse<FolderDTO>> getDescendants(UUID folderId, Integer maxDepth, Integer page, Integer size);
+
+    /**
+     * Get the ancestors of a folder (its breadcrumbs), from the root down to its parent.
+     *
+     * @param folderId The folder ID
+     * @return A Flux emitting the ancestor folders, root first
+     */
+    Flux<FolderDTO> getAncestors(UUID folderId);
+
+    /**
+     * Get the documents of a folder and of all its descendant folders, ordered by name.
+     *
+     * @param folderId The folder ID
+     * @param page Optional zero-based page number
+     * @param size Optional page size
+     * @return A Mono emitting a page of documents
+     */
+    Mono<PaginationResponse<DocumentDTO>> getSubtreeDocuments(UUID folderId, Integer page, Integer size);
+
+    /**
+     * Resolve a folder name path such as {@code /Contracts/2024} to its folder.
+     *
+     * @param tenantId The tenant ID
+     * @param path The name path (leading, trailing and repeated slashes are ignored)
+     * @return A Mono emitting the folder, or an error if no folder has that path
+     */
+    Mono<FolderDTO> resolvePath(String tenantId, String path);
+
+    /**
+     * Get the breadcrumbs of a folder: its ancestors from the root down, followed by the folder itself.
+     *
+     * @param tenantId The tenant ID
+     * @param folderId The folder ID
+     * @return A Flux emitting the breadcrumb folders, root first
+     */
+    Flux<FolderDTO> getBreadcrumbs(String tenantId, UUID folderId);
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services;
+
+import com.firefly.commons.ecm.interfaces.dtos.MetadataSchemaDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import reactor.core.publisher.Mono;
+/**
+ * Service interface for managing the metadata schema templates that validate document metadata
+ * per tenant and document type.
+ */
+public interface MetadataSchemaService {
+
+    /**
+     * Get the metadata schema template of a tenant and document type.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type
+     * @return A Mono emitting the template, with no fields when none is defined
+     */
+    Mono<MetadataSchemaDTO> getSchema(String tenantId, DocumentType documentType);
+
+    /**
+     * Replace the metadata schema template of a tenant and document type. The template is compiled
+     * first, so an invalid template is rejected and the current one is kept.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type
+     * @param schema The new template
+     * @return A Mono emitting the stored template
+     */
+    Mono<MetadataSchemaDTO> replaceSchema(String tenantId, DocumentType documentType, MetadataSchemaDTO schema);
+
+    /**
+     * Delete the metadata schema template of a tenant and document type, so that their metadata is no longer validated.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type
+     * @return A Mono completing when the template is deleted
+     */
+    Mono<Void> deleteSchema(String tenantId, DocumentType documentType);
+}
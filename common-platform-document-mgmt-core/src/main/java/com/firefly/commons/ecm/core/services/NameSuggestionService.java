@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.services;
+
+import com.firefly.commons.ecm.interfaces.dtos.NameSuggestionDTO;
+import com.firefly.commons.ecm.interfaces.enums.NameSuggestionType;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+/**
+ * Service interface for document and folder name autocomplete.
+ */
+public interface NameSuggestionService {
+
+    /**
+     * Suggest documents and folders whose name matches the typed query.
+     * Prefix matches come first, ranked shortest name first; for longer queries they are
+     * complemented by trigram (substring) matches.
+     *
+     * @param tenantId The tenant ID
+     * @param query The text typed so far
+     * @param folderId Optional folder restricting suggestions to its direct children
+     * @param type Optional kind of entity to suggest (documents, folders or both when null)
+     * @param limit Optional maximum number of suggestions
+     * @return A Flux emitting the ranked suggestions
+     */
+    Flux<NameSuggestionDTO> suggest(String tenantId, String query, UUID folderId, NameSuggestionType type, Integer limit);
+}
@@ -20,6 +20,7 @@ package com.firefly.commons.ecm.core.services;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
 import com.firefly.commons.ecm.interfaces.dtos.TagDTO;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.util.UUID;
 /**
@@ -66,4 +67,13 @@ public interface TagService {
      * @return A Mono completing when the tag is deleted
      */
     Mono<Void> delete(UUID id);
+
+    /**
+     * Get the most used tags of a tenant, from their maintained usage counts.
+     *
+     * @param tenantId The tenant ID
+     * @param limit Optional maximum number of tags
+     * @return A Flux emitting the tags by decreasing usage count, then by name
+     */
+    Flux<TagDTO> findTopTags(String tenantId, Integer limit);
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.services;
+
+import com.firefly.commons.ecm.interfaces.dtos.VersionRetentionPolicyDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import reactor.core.publisher.Mono;
+/**
+ * Service interface for managing the version retention policies that decide which document versions
+ * are pruned, per tenant and document type.
+ */
+public interface VersionRetentionPolicyService {
+
+    /**
+     * Get the version retention policy of a tenant and document type, or the tenant's default policy.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type, or null for the default policy
+     * @return A Mono emitting the policy
+     */
+    Mono<VersionRetentionPolicyDTO> getPolicy(String tenantId, DocumentType documentType);
+
+    /**
+     * Create or replace the version retention policy of a tenant and document type, or the tenant's default policy.
+     * Versions it no longer keeps are pruned by the next pruning run.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type, or null for the default policy
+     * @param policy The new policy
+     * @return A Mono emitting the stored policy
+     */
+    Mono<VersionRetentionPolicyDTO> replacePolicy(String tenantId, DocumentType documentType, VersionRetentionPolicyDTO policy);
+
+    /**
+     * Delete the version retention policy of a tenant and document type, or the tenant's default policy.
+     * Documents left without a policy keep all their versions.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type, or null for the default policy
+     * @return A Mono completing when the policy is deleted
+     */
+    Mono<Void> deletePolicy(String tenantId, DocumentType documentType);
+}
@@ -21,18 +21,39 @@ import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.filters.FilterUtils;
 import com.firefly.common.core.queries.PaginationResponse;
 
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.index.DocumentMetadataCache;
 import com.firefly.commons.ecm.core.mappers.DocumentMetadataMapper;
+import com.firefly.commons.ecm.core.metadata.MetadataSchemaRegistry;
+import com.firefly.commons.ecm.core.metadata.MetadataSchemaValidator;
+import com.firefly.commons.ecm.core.metadata.TypedMetadataValues;
 import com.firefly.commons.ecm.core.services.DocumentMetadataService;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentMetadataDTO;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataRangeQueryDTO;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataValueDTO;
+import com.firefly.commons.ecm.interfaces.enums.MetadataComparison;
+import com.firefly.commons.ecm.interfaces.enums.MetadataValueType;
 import com.firefly.commons.ecm.models.entities.DocumentMetadata;
 import com.firefly.commons.ecm.models.repositories.DocumentMetadataRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
 import com.firefly.core.ecm.service.EcmPortProvider;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 /**
  * Implementation of the DocumentMetadataService interface.
@@ -52,6 +73,21 @@ public class DocumentMetadataServiceImpl implements DocumentMetadataService {
     @Autowired
     private EcmPortProvider ecmPortProvider;
 
+    @Autowired
+    private EcmIntegrationProperties properties;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentMetadataCache metadataCache;
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Autowired
+    private MetadataSchemaRegistry schemaRegistry;
+
     @Override
     public Mono<DocumentMetadataDTO> getById(UUID id) {
         return repository.findById(id)
@@ -79,7 +115,21 @@ public class DocumentMetadataServiceImpl implements DocumentMetadataService {
                     // Preserve created info
                     entityToUpdate.setCreatedAt(existingEntity.getCreatedAt());
                     entityToUpdate.setCreatedBy(existingEntity.getCreatedBy());
-                    return repository.save(entityToUpdate);
+                    boolean sameDocument = Objects.equals(entityToUpdate.getDocumentId(), existingEntity.getDocumentId());
+                    boolean moved = !sameDocument || !Objects.equals(entityToUpdate.getKey(), existingEntity.getKey());
+                    return incrementMetadataVersion(existingEntity.getDocumentId())
+                            .flatMap(existingValidator -> (moved
+                                    ? checkRemovable(existingValidator, existingEntity.getKey())
+                                    : Mono.<Void>empty())
+                                    .then(sameDocument
+                                            ? Mono.just(existingValidator)
+                                            : incrementMetadataVersion(entityToUpdate.getDocumentId())))
+                            .flatMap(validator -> applySchema(validator, entityToUpdate))
+                            .flatMap(repository::save)
+                            .doFinally(signal -> {
+                                metadataCache.invalidate(existingEntity.getDocumentId());
+                                metadataCache.invalidate(entityToUpdate.getDocumentId());
+                            });
                 })
                 .map(mapper::toDTO);
     }
@@ -92,7 +142,10 @@ public class DocumentMetadataServiceImpl implements DocumentMetadataService {
         documentMetadata.setId(null);
 
         DocumentMetadata entity = mapper.toEntity(documentMetadata);
-        return repository.save(entity)
+        return incrementMetadataVersion(entity.getDocumentId())
+                .flatMap(validator -> applySchema(validator, entity))
+                .flatMap(repository::save)
+                .doFinally(signal -> metadataCache.invalidate(entity.getDocumentId()))
                 .doOnSuccess(savedEntity -> log.info("Document metadata created successfully with ID: {}", savedEntity.getId()))
                 .doOnError(error -> log.error("Failed to create document metadata: {}", error.getMessage(), error))
                 // Note: ECM metadata integration would be implemented here if needed
@@ -109,9 +162,291 @@ public class DocumentMetadataServiceImpl implements DocumentMetadataService {
                     log.info("Deleting document metadata: {} for document ID: {}", entity.getKey(), entity.getDocumentId());
 
                     // Note: ECM metadata removal would be implemented here if needed
-                    return repository.delete(entity)
+                    return incrementMetadataVersion(entity.getDocumentId())
+                            .flatMap(validator -> checkRemovable(validator, entity.getKey()))
+                            .then(Mono.defer(() -> repository.delete(entity)))
+                            .doFinally(signal -> metadataCache.invalidate(entity.getDocumentId()))
+                            .then()
                             .doOnSuccess(result -> log.info("Document metadata deleted successfully: {}", id))
                             .doOnError(error -> log.error("Failed to delete document metadata {}: {}", id, error.getMessage(), error));
                 });
     }
+
+    @Override
+    public Mono<DocumentMetadataDTO> getByKey(UUID documentId, String key) {
+        if (metadataCache.isEnabled()) {
+            return metadataCache.get(documentId)
+                    .flatMap(metadata -> Mono.justOrEmpty(metadata.stream()
+                            .filter(entry -> entry.getKey().equals(key))
+                            .findFirst()))
+                    .map(mapper::toDTO);
+        }
+        return repository.findByDocumentIdAndKey(documentId, key)
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<PaginationResponse<DocumentMetadataDTO>> listByDocument(UUID documentId, Integer page, Integer size) {
+        EcmIntegrationProperties.MetadataDefaults metadata = properties.getMetadata();
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? metadata.getDefaultPageSize() : Math.min(size, metadata.getMaxPageSize());
+
+        if (metadataCache.isEnabled()) {
+            return metadataCache.get(documentId)
+                    .map(entries -> {
+                        long offset = (long) pageNumber * pageSize;
+                        List<DocumentMetadataDTO> content = entries.stream()
+                                .skip(offset)
+                                .limit(pageSize)
+                                .map(mapper::toDTO)
+                                .toList();
+                        int totalPages = (entries.size() + pageSize - 1) / pageSize;
+                        return new PaginationResponse<>(content, (long) entries.size(), totalPages, pageNumber);
+                    });
+        }
+        return Mono.zip(
+                        repository.findPageByDocumentId(documentId, pageSize, (long) pageNumber * pageSize)
+                                .map(mapper::toDTO)
+                                .collectList(),
+                        repository.countByDocumentId(documentId))
+                .map(tuple -> {
+                    int totalPages = (int) ((tuple.getT2() + pageSize - 1) / pageSize);
+                    return new PaginationResponse<>(tuple.getT1(), tuple.getT2(), totalPages, pageNumber);
+                });
+    }
+
+    @Override
+    public Mono<DocumentMetadataDTO> updateByKey(UUID documentId, String key, DocumentMetadataDTO documentMetadata) {
+        return repository.findByDocumentIdAndKey(documentId, key)
+                .switchIfEmpty(Mono.error(new RuntimeException("Document metadata not found for document ID: " + documentId + " and key: " + key)))
+                .zipWhen(existingEntity -> incrementMetadataVersion(documentId))
+                .flatMap(tuple -> {
+                    DocumentMetadata existingEntity = tuple.getT1();
+                    DocumentMetadata entityToUpdate = mapper.toEntity(documentMetadata);
+                    entityToUpdate.setId(existingEntity.getId());
+                    entityToUpdate.setDocumentId(documentId);
+                    entityToUpdate.setKey(key);
+                    if (entityToUpdate.getTenantId() == null) {
+                        entityToUpdate.setTenantId(existingEntity.getTenantId());
+                    }
+                    // Without a version from the caller, update the current row rather than failing the optimistic lock
+                    if (entityToUpdate.getVersion() == null) {
+                        entityToUpdate.setVersion(existingEntity.getVersion());
+                    }
+                    // Preserve created info
+                    entityToUpdate.setCreatedAt(existingEntity.getCreatedAt());
+                    entityToUpdate.setCreatedBy(existingEntity.getCreatedBy());
+                    return applySchema(tuple.getT2(), entityToUpdate)
+                            .flatMap(repository::save);
+                })
+                .doFinally(signal -> metadataCache.invalidate(documentId))
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<Void> deleteByKey(UUID documentId, String key) {
+        log.debug("Deleting document metadata: {} for document ID: {}", key, documentId);
+
+        return incrementMetadataVersion(documentId)
+                .flatMap(validator -> checkRemovable(validator, key))
+                .then(Mono.defer(() -> repository.deleteByDocumentIdAndKey(documentId, key)))
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(new RuntimeException("Document metadata not found for document ID: " + documentId + " and key: " + key))
+                        : Mono.<Void>empty())
+                .doFinally(signal -> metadataCache.invalidate(documentId))
+                .doOnSuccess(result -> log.info("Document metadata deleted successfully: {} for document ID: {}", key, documentId));
+    }
+
+    @Override
+    public Mono<Map<String, DocumentMetadataDTO>> upsertAll(UUID documentId, Map<String, MetadataValueDTO> entries, boolean replace) {
+        if (documentId == null) {
+            return Mono.error(new IllegalArgumentException("Document ID is required for a bulk metadata upsert"));
+        }
+        if (entries == null) {
+            return Mono.error(new IllegalArgumentException("Metadata entries are required for a bulk metadata upsert"));
+        }
+        int maxEntries = properties.getMetadata().getMaxBulkEntries();
+        if (entries.size() > maxEntries) {
+            return Mono.error(new IllegalArgumentException(
+                    "Bulk metadata upsert has " + entries.size() + " entries, more than the maximum of " + maxEntries));
+        }
+
+        for (String key : entries.keySet()) {
+            if (key == null || key.isBlank()) {
+                return Mono.error(new IllegalArgumentException("Metadata keys cannot be blank"));
+            }
+        }
+
+        String[] keys = entries.keySet().toArray(String[]::new);
+        return documentRepository.incrementMetadataVersion(documentId)
+                .switchIfEmpty(Mono.error(new RuntimeException("Document not found with ID: " + documentId)))
+                .flatMap(document -> repository.findSystemEntries(documentId, keys)
+                        .map(DocumentMetadata::getKey)
+                        .collectList()
+                        .flatMap(systemKeys -> systemKeys.isEmpty()
+                                ? schemaRegistry.forDocument(document)
+                                : Mono.<MetadataSchemaValidator>error(new IllegalArgumentException(
+                                        "System metadata cannot be written: " + String.join(", ", systemKeys)))))
+                .flatMap(validator -> upsertAll(documentId, entries, replace, validator))
+                .doFinally(signal -> metadataCache.invalidate(documentId))
+                .doOnSuccess(written -> log.info("Upserted {} metadata entries for document ID: {}", written.size(), documentId));
+    }
+
+    private Mono<Map<String, DocumentMetadataDTO>> upsertAll(UUID documentId, Map<String, MetadataValueDTO> entries,
+                                                             boolean replace, MetadataSchemaValidator validator) {
+        // A replace writes the complete metadata of the document, so required keys must all be present
+        Map<String, String> submitted = new HashMap<>();
+        entries.forEach((key, value) -> submitted.put(key, value != null ? value.getValue() : null));
+        List<String> errors = new ArrayList<>();
+        if (replace) {
+            errors.addAll(validator.validateAll(submitted));
+        } else {
+            submitted.forEach((key, value) -> validator.validate(key, value, errors));
+        }
+        if (!errors.isEmpty()) {
+            return Mono.error(schemaViolation(errors));
+        }
+
+        int size = entries.size();
+        String[] keys = new String[size];
+        String[] values = new String[size];
+        String[] types = new String[size];
+        Boolean[] searchable = new Boolean[size];
+        String[] numbers = new String[size];
+        String[] timestamps = new String[size];
+        Boolean[] booleans = new Boolean[size];
+        int i = 0;
+        for (Map.Entry<String, MetadataValueDTO> entry : entries.entrySet()) {
+            MetadataValueDTO value = entry.getValue();
+            keys[i] = entry.getKey();
+            values[i] = value != null ? value.getValue() : null;
+            types[i] = value != null ? value.getType() : null;
+            searchable[i] = value != null ? value.getIsSearchable() : null;
+            if (types[i] == null && validator.typeOf(keys[i]) != null) {
+                types[i] = validator.typeOf(keys[i]).name();
+            }
+            DocumentMetadata typed = TypedMetadataValues.apply(DocumentMetadata.builder().value(values[i]).type(types[i]).build());
+            numbers[i] = typed.getValueNumber() != null ? typed.getValueNumber().toPlainString() : null;
+            timestamps[i] = typed.getValueTimestamp() != null ? typed.getValueTimestamp().toString() : null;
+            booleans[i] = typed.getValueBoolean();
+            i++;
+        }
+
+        log.debug("Upserting {} metadata entries for document ID: {} (replace: {})", size, documentId, replace);
+        return repository.upsertAll(documentId, keys, values, types, searchable, numbers, timestamps, booleans, replace)
+                .collectMap(DocumentMetadata::getKey, mapper::toDTO, LinkedHashMap::new);
+    }
+
+    @Override
+    public Mono<PaginationResponse<UUID>> findDocumentIdsByMetadataRange(MetadataRangeQueryDTO rangeQuery, Integer page, Integer size) {
+        Criteria criteria;
+        try {
+            criteria = rangeCriteria(rangeQuery);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        EcmIntegrationProperties.MetadataDefaults metadata = properties.getMetadata();
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? metadata.getDefaultPageSize() : Math.min(size, metadata.getMaxPageSize());
+        String column = typedProperty(rangeQuery.getValueType());
+
+        // Ordered like the partial index of the value type, so a page is read straight from the index range
+        Query pageQuery = Query.query(criteria)
+                .sort(Sort.by(column, "documentId"))
+                .limit(pageSize)
+                .offset((long) pageNumber * pageSize);
+        return Mono.zip(
+                        entityTemplate.select(DocumentMetadata.class)
+                                .matching(pageQuery)
+                                .all()
+                                .map(DocumentMetadata::getDocumentId)
+                                .collectList(),
+                        entityTemplate.count(Query.query(criteria), DocumentMetadata.class))
+                .map(tuple -> {
+                    int totalPages = (int) ((tuple.getT2() + pageSize - 1) / pageSize);
+                    return new PaginationResponse<>(tuple.getT1(), tuple.getT2(), totalPages, pageNumber);
+                });
+    }
+
+    /**
+     * Build the criteria of a range query: tenant, key and one comparison on the typed column, which
+     * together match the leading columns of that column's partial index.
+     */
+    static Criteria rangeCriteria(MetadataRangeQueryDTO rangeQuery) {
+        if (rangeQuery == null || rangeQuery.getTenantId() == null || rangeQuery.getTenantId().isBlank()) {
+            throw new IllegalArgumentException("Tenant ID is required for metadata range queries");
+        }
+        if (rangeQuery.getKey() == null || rangeQuery.getKey().isBlank()) {
+            throw new IllegalArgumentException("Metadata key is required for metadata range queries");
+        }
+        if (rangeQuery.getValueType() == null || rangeQuery.getComparison() == null) {
+            throw new IllegalArgumentException("Value type and comparison are required for metadata range queries");
+        }
+        MetadataValueType type = rangeQuery.getValueType();
+        MetadataComparison comparison = rangeQuery.getComparison();
+        if (type == MetadataValueType.BOOLEAN && comparison != MetadataComparison.EQ) {
+            throw new IllegalArgumentException("Boolean metadata can only be compared with EQ");
+        }
+        Object value = TypedMetadataValues.parse(type, rangeQuery.getValue());
+
+        Criteria.CriteriaStep column = Criteria.where("tenantId").is(rangeQuery.getTenantId())
+                .and("key").is(rangeQuery.getKey())
+                .and(typedProperty(type));
+        return switch (comparison) {
+            case EQ -> column.is(value);
+            case GT -> column.greaterThan(value);
+            case GTE -> column.greaterThanOrEquals(value);
+            case LT -> column.lessThan(value);
+            case LTE -> column.lessThanOrEquals(value);
+            case BETWEEN -> column.between(value, TypedMetadataValues.parse(type, rangeQuery.getUpperValue()));
+        };
+    }
+
+    private static String typedProperty(MetadataValueType type) {
+        return switch (type) {
+            case NUMBER -> "valueNumber";
+            case TIMESTAMP -> "valueTimestamp";
+            case BOOLEAN -> "valueBoolean";
+        };
+    }
+
+    /**
+     * Check an entry against the schema template of its document, then fill its metadata type from the
+     * template when the caller gave none and derive its typed values.
+     */
+    private static Mono<DocumentMetadata> applySchema(MetadataSchemaValidator validator, DocumentMetadata entity) {
+        List<String> errors = validator.validate(entity.getKey(), entity.getValue());
+        if (!errors.isEmpty()) {
+            return Mono.error(schemaViolation(errors));
+        }
+        MetadataValueType type = validator.typeOf(entity.getKey());
+        if (entity.getType() == null && type != null) {
+            entity.setType(type.name());
+        }
+        return Mono.just(TypedMetadataValues.apply(entity));
+    }
+
+    private static Mono<Void> checkRemovable(MetadataSchemaValidator validator, String key) {
+        return validator.isRemovable(key)
+                ? Mono.empty()
+                : Mono.error(schemaViolation(List.of("Metadata " + key + " is required")));
+    }
+
+    private static IllegalArgumentException schemaViolation(List<String> errors) {
+        return new IllegalArgumentException("Metadata does not match the schema of its document type: " + String.join("; ", errors));
+    }
+
+    /**
+     * Increment the metadata version of a document ahead of a write to its metadata, so that cached metadata is
+     * reloaded, and get the schema template of the document from the tenant and type returned by the same statement.
+     * A failed write rolls the increment back with the rest of the transaction.
+     */
+    private Mono<MetadataSchemaValidator> incrementMetadataVersion(UUID documentId) {
+        if (documentId == null) {
+            return Mono.just(MetadataSchemaValidator.NONE);
+        }
+        return documentRepository.incrementMetadataVersion(documentId)
+                .flatMap(schemaRegistry::forDocument)
+                .defaultIfEmpty(MetadataSchemaValidator.NONE);
+    }
 }
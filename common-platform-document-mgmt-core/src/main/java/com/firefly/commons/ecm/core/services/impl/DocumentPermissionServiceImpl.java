@@ -20,24 +20,49 @@ package com.firefly.commons.ecm.core.services.impl;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.filters.FilterUtils;
 import com.firefly.common.core.queries.PaginationResponse;
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
 import com.firefly.commons.ecm.core.mappers.DocumentPermissionMapper;
+import com.firefly.commons.ecm.core.permissions.DocumentAcl;
+import com.firefly.commons.ecm.core.permissions.DocumentAclEngine;
+import com.firefly.commons.ecm.core.permissions.PermissionDecisionCache;
 import com.firefly.commons.ecm.core.services.DocumentPermissionService;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentPermissionDTO;
 import com.firefly.commons.ecm.interfaces.enums.PermissionType;
 import com.firefly.commons.ecm.models.entities.DocumentPermission;
 import com.firefly.commons.ecm.models.repositories.DocumentPermissionRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
 import com.firefly.core.ecm.service.EcmPortProvider;
 import com.firefly.core.ecm.port.security.PermissionPort;
 import com.firefly.core.ecm.domain.enums.security.ResourceType;
 import com.firefly.core.ecm.domain.enums.security.PrincipalType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 /**
  * Implementation of the DocumentPermissionService interface.
+ *
+ * Checks follow the rule of permission-aware listings: an unexpired permission of the principal decides,
+ * granted or denied, and without one READ is granted on documents at one of the open security levels.
  */
 @Service
 @Transactional
@@ -46,12 +71,24 @@ public class DocumentPermissionServiceImpl implements DocumentPermissionService
     @Autowired
     private DocumentPermissionRepository repository;
 
+    @Autowired
+    private DocumentRepository documentRepository;
+
     @Autowired
     private DocumentPermissionMapper mapper;
 
     @Autowired
     private EcmPortProvider ecmPortProvider;
 
+    @Autowired
+    private PermissionDecisionCache decisionCache;
+
+    @Autowired
+    private DocumentAclEngine aclEngine;
+
+    @Autowired
+    private EcmIntegrationProperties properties;
+
     @Override
     public Mono<DocumentPermissionDTO> getById(UUID id) {
         return repository.findById(id)
@@ -98,8 +135,15 @@ public class DocumentPermissionServiceImpl implements DocumentPermissionService
                     entityToUpdate.setCreatedAt(existingEntity.getCreatedAt());
                     entityToUpdate.setCreatedBy(existingEntity.getCreatedBy());
 
-                    return portUpdate.onErrorResume(err -> Mono.empty())
-                            .then(repository.save(entityToUpdate));
+                    return invalidateAfterCompletion(portUpdate.onErrorResume(err -> Mono.empty())
+                            .then(repository.save(entityToUpdate))
+                            .flatMap(saved -> afterCommit(() -> {
+                                aclEngine.remove(existingEntity);
+                                aclEngine.apply(saved);
+                            }).thenReturn(saved)), () -> {
+                                decisionCache.invalidate(existingEntity.getDocumentId(), existingEntity.getPartyId());
+                                decisionCache.invalidate(documentPermission.getDocumentId(), documentPermission.getPartyId());
+                            });
                 })
                 .map(mapper::toDTO);
     }
@@ -110,16 +154,54 @@ public class DocumentPermissionServiceImpl implements DocumentPermissionService
         documentPermission.setId(null);
 
         // Grant permission via ECM port if available
-        return ecmPortProvider.getPermissionPort()
-                .map(port -> grantViaPort(port, documentPermission)
-                        .onErrorResume(err -> Mono.empty()) // continue even if ECM fails
-                        .then(saveLocal(documentPermission)))
-                .orElseGet(() -> saveLocal(documentPermission));
+        return invalidateAfterCompletion(ecmPortProvider.getPermissionPort()
+                        .map(port -> grantViaPort(port, documentPermission)
+                                .onErrorResume(err -> Mono.empty()) // continue even if ECM fails
+                                .then(saveLocal(documentPermission)))
+                        .orElseGet(() -> saveLocal(documentPermission)),
+                () -> decisionCache.invalidate(documentPermission.getDocumentId(), documentPermission.getPartyId()));
+    }
+
+    /**
+     * Run a permission write, then drop cached decisions once its transaction has committed or rolled back.
+     * Dropped any earlier, a decision loaded before the commit would read the previous permissions and be
+     * cached again. The port may have changed even when the transaction rolled back, so both outcomes drop.
+     */
+    private <T> Mono<T> invalidateAfterCompletion(Mono<T> write, Runnable invalidation) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(synchronizationManager -> {
+                    synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCompletion(int status) {
+                            return Mono.fromRunnable(invalidation);
+                        }
+                    });
+                    return write;
+                })
+                .onErrorResume(NoTransactionException.class, error -> write.doFinally(signal -> invalidation.run()));
     }
 
     private Mono<DocumentPermissionDTO> saveLocal(DocumentPermissionDTO dto) {
         DocumentPermission entity = mapper.toEntity(dto);
-        return repository.save(entity).map(mapper::toDTO);
+        return repository.save(entity)
+                .flatMap(saved -> afterCommit(() -> aclEngine.apply(saved)).thenReturn(saved))
+                .map(mapper::toDTO);
+    }
+
+    /**
+     * Apply a permission write to the in-memory lists once its transaction has committed, so that no check
+     * answers from a write that may still roll back.
+     */
+    private Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(action);
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, error -> Mono.fromRunnable(action))
+                .then();
     }
 
     private Mono<Void> grantViaPort(PermissionPort port, DocumentPermissionDTO dto) {
@@ -148,20 +230,140 @@ public class DocumentPermissionServiceImpl implements DocumentPermissionService
                             .map(port -> port.revokePermission(id)
                                     .onErrorResume(err -> Mono.empty()))
                             .orElse(Mono.empty());
-                    return portDelete.then(repository.delete(entity));
+                    return invalidateAfterCompletion(portDelete.then(repository.delete(entity))
+                                    .then(Mono.defer(() -> afterCommit(() -> aclEngine.remove(entity)))),
+                            () -> decisionCache.invalidate(entity.getDocumentId(), entity.getPartyId()));
                 });
     }
 
     @Override
     public Mono<Boolean> hasPermission(UUID documentId, UUID principalId, com.firefly.commons.ecm.interfaces.enums.PermissionType permissionType) {
         return ecmPortProvider.getPermissionPort()
-                .map(port -> port.hasPermission(
-                        documentId,
-                        ResourceType.DOCUMENT,
-                        principalId,
-                        PrincipalType.USER,
-                        com.firefly.core.ecm.domain.enums.security.PermissionType.valueOf(permissionType.name())
-                ))
-                .orElse(Mono.error(new RuntimeException("ECM PermissionPort is not configured")));
+                .map(port -> decisionCache.get(documentId, principalId, permissionType,
+                        loadDecision(port, documentId, principalId, permissionType)))
+                .orElseGet(() -> aclEngine.hasPermission(documentId, principalId, permissionType));
+    }
+
+    private Mono<Boolean> checkViaPort(PermissionPort port, UUID documentId, UUID principalId,
+                                       com.firefly.commons.ecm.interfaces.enums.PermissionType permissionType) {
+        return port.hasPermission(
+                documentId,
+                ResourceType.DOCUMENT,
+                principalId,
+                PrincipalType.USER,
+                com.firefly.core.ecm.domain.enums.security.PermissionType.valueOf(permissionType.name())
+        );
+    }
+
+    private Mono<PermissionDecisionCache.Decision> loadDecision(PermissionPort port, UUID documentId, UUID principalId,
+                                                                 com.firefly.commons.ecm.interfaces.enums.PermissionType permissionType) {
+        Mono<Boolean> granted = openToPrincipal(principalId, List.of(documentId), permissionType == PermissionType.READ)
+                .flatMap(open -> open.contains(documentId)
+                        ? Mono.just(true)
+                        : checkViaPort(port, documentId, principalId, permissionType));
+        // The decision may change on its own once one of the principal's permissions expires
+        Mono<Optional<LocalDateTime>> nextExpiration = repository
+                .findNextExpiration(documentId, principalId, LocalDateTime.now(ZoneOffset.UTC))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+        return Mono.zip(granted, nextExpiration)
+                .map(tuple -> new PermissionDecisionCache.Decision(
+                        tuple.getT1(),
+                        tuple.getT2().map(expiration -> expiration.toInstant(ZoneOffset.UTC)).orElse(null)));
+    }
+
+    @Override
+    public Mono<Map<UUID, Map<PermissionType, Boolean>>> hasPermissions(UUID principalId, Collection<UUID> documentIds,
+                                                                         Collection<PermissionType> permissionTypes) {
+        if (principalId == null || documentIds == null || documentIds.isEmpty()
+                || permissionTypes == null || permissionTypes.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Principal ID, document IDs and permission types are required"));
+        }
+        Set<UUID> documents = new LinkedHashSet<>(documentIds);
+        Set<PermissionType> types = new LinkedHashSet<>(permissionTypes);
+        if (documents.contains(null) || types.contains(null)) {
+            return Mono.error(new IllegalArgumentException("Document IDs and permission types cannot contain null"));
+        }
+        int maxChecks = properties.getPermissions().getMaxBatchChecks();
+        if ((long) documents.size() * types.size() > maxChecks) {
+            return Mono.error(new IllegalArgumentException("A batch cannot check more than " + maxChecks
+                    + " document and permission type pairs"));
+        }
+
+        return ecmPortProvider.getPermissionPort()
+                .map(port -> checkBatchViaPort(port, principalId, documents, types))
+                .orElseGet(() -> aclEngine.getAcls(documents)
+                        .map(acls -> checkBatchLocally(principalId, documents, types, acls)));
+    }
+
+    private Mono<Map<UUID, Map<PermissionType, Boolean>>> checkBatchViaPort(PermissionPort port, UUID principalId,
+                                                                             Set<UUID> documents, Set<PermissionType> types) {
+        // One query over the party index loads every active grant of the principal on the documents
+        return Mono.zip(
+                        repository.findActiveByPartyIdAndDocumentIds(principalId, documents, LocalDateTime.now(ZoneOffset.UTC))
+                                .collectMultimap(DocumentPermission::getDocumentId),
+                        openToPrincipal(principalId, documents, types.contains(PermissionType.READ)))
+                .flatMap(loaded -> decideViaPort(port, principalId, documents, types, loaded.getT1(), loaded.getT2()));
+    }
+
+    /**
+     * Find the documents a principal may read without a permission, when READ is checked at all.
+     */
+    private Mono<Set<UUID>> openToPrincipal(UUID principalId, Collection<UUID> documentIds, boolean checksRead) {
+        if (!checksRead) {
+            return Mono.just(Set.of());
+        }
+        String[] openLevels = properties.getPermissions().getOpenSecurityLevels().toArray(String[]::new);
+        return documentRepository.findOpenToPrincipal(documentIds, principalId, openLevels)
+                .collect(Collectors.toSet());
+    }
+
+    private Mono<Map<UUID, Map<PermissionType, Boolean>>> decideViaPort(PermissionPort port, UUID principalId,
+                                                                         Set<UUID> documents, Set<PermissionType> types,
+                                                                         Map<UUID, Collection<DocumentPermission>> grants,
+                                                                         Set<UUID> open) {
+        // PermissionPort has no bulk check: uncached decisions are fetched concurrently, one call each
+        return Flux.fromIterable(documents)
+                .flatMap(documentId -> {
+                    Instant validUntil = nextExpiration(grants.getOrDefault(documentId, List.of()));
+                    return Flux.fromIterable(types)
+                            .map(type -> Tuples.of(documentId, type, decisionCache.get(documentId, principalId, type,
+                                    (type == PermissionType.READ && open.contains(documentId)
+                                            ? Mono.just(true)
+                                            : checkViaPort(port, documentId, principalId, type))
+                                            .map(granted -> new PermissionDecisionCache.Decision(granted, validUntil)))));
+                })
+                .flatMap(check -> check.getT3().map(granted -> Tuples.of(check.getT1(), check.getT2(), granted)),
+                        properties.getPermissions().getBatchCheckConcurrency())
+                .collect(() -> decisionMap(documents),
+                        (decisions, decision) -> decisions.get(decision.getT1()).put(decision.getT2(), decision.getT3()));
+    }
+
+    private Map<UUID, Map<PermissionType, Boolean>> checkBatchLocally(UUID principalId, Set<UUID> documents,
+                                                                      Set<PermissionType> types, Map<UUID, DocumentAcl> acls) {
+        long now = System.currentTimeMillis();
+        Map<UUID, Map<PermissionType, Boolean>> decisions = decisionMap(documents);
+        for (UUID documentId : documents) {
+            DocumentAcl acl = acls.get(documentId);
+            for (PermissionType type : types) {
+                decisions.get(documentId).put(type, acl.isGranted(principalId, type, now));
+            }
+        }
+        return decisions;
+    }
+
+    private static Map<UUID, Map<PermissionType, Boolean>> decisionMap(Set<UUID> documents) {
+        Map<UUID, Map<PermissionType, Boolean>> decisions = new LinkedHashMap<>();
+        documents.forEach(documentId -> decisions.put(documentId, new EnumMap<>(PermissionType.class)));
+        return decisions;
+    }
+
+    private static Instant nextExpiration(Collection<DocumentPermission> grants) {
+        return grants.stream()
+                .map(DocumentPermission::getExpirationDate)
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .map(expiration -> expiration.toInstant(ZoneOffset.UTC))
+                .orElse(null);
     }
 }
@@ -21,34 +21,57 @@ import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.filters.FilterUtils;
 import com.firefly.common.core.queries.PaginationResponse;
 
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentChangedEvent;
+import com.firefly.commons.ecm.core.events.DocumentContentStoredEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.index.DocumentMetadataCache;
 import com.firefly.commons.ecm.core.mappers.DocumentMapper;
 import com.firefly.commons.ecm.core.mappers.EcmDomainMapper;
 import com.firefly.commons.ecm.core.services.DocumentService;
+import com.firefly.commons.ecm.core.versioning.VersionNumberAllocator;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentDTO;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentPageDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentProjection;
 import com.firefly.commons.ecm.models.entities.Document;
 import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import com.firefly.commons.ecm.models.repositories.FolderStatsRepository;
 import com.firefly.core.ecm.service.EcmPortProvider;
 import com.firefly.core.ecm.port.document.DocumentContentPort;
 import com.firefly.core.ecm.port.document.DocumentVersionPort;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 /**
  * Implementation of the DocumentService interface.
  * Provides comprehensive document management with ECM port integration.
+ * Folder rollup statistics are updated by deltas in the transaction of each document change, and the
+ * change is published to the in-memory indexes once that transaction has committed.
  */
 @Service
 @Transactional
 @Slf4j
 public class DocumentServiceImpl implements DocumentService {
 
+    private static final UUID FIRST_PAGE_ID = new UUID(0L, 0L);
+
     @Autowired
     private DocumentRepository repository;
 
@@ -61,6 +84,24 @@ public class DocumentServiceImpl implements DocumentService {
     @Autowired
     private EcmDomainMapper ecmDomainMapper;
 
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private FolderStatsRepository folderStatsRepository;
+
+    @Autowired
+    private EcmIntegrationProperties properties;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DocumentMetadataCache metadataCache;
+
+    @Autowired
+    private VersionNumberAllocator versionNumberAllocator;
+
     @Override
     public Mono<DocumentDTO> getById(UUID id) {
         return repository.findById(id)
@@ -88,7 +129,10 @@ public class DocumentServiceImpl implements DocumentService {
                     // Preserve created info
                     entityToUpdate.setCreatedAt(existingEntity.getCreatedAt());
                     entityToUpdate.setCreatedBy(existingEntity.getCreatedBy());
-                    return repository.save(entityToUpdate);
+                    return repository.save(entityToUpdate)
+                            .flatMap(savedEntity -> updateFolderStats(existingEntity, savedEntity).thenReturn(savedEntity))
+                            .flatMap(savedEntity -> publishAfterCommit(
+                                    new DocumentChangedEvent(EntityChangeType.UPDATED, savedEntity, existingEntity)).thenReturn(savedEntity));
                 })
                 .map(mapper::toDTO);
     }
@@ -102,7 +146,10 @@ public class DocumentServiceImpl implements DocumentService {
 
         Document entity = mapper.toEntity(document);
         return repository.save(entity)
+                .flatMap(savedEntity -> updateFolderStats(null, savedEntity).thenReturn(savedEntity))
                 .doOnSuccess(savedEntity -> log.info("Document created successfully with ID: {}", savedEntity.getId()))
+                .flatMap(savedEntity -> publishAfterCommit(
+                        new DocumentChangedEvent(EntityChangeType.CREATED, savedEntity, null)).thenReturn(savedEntity))
                 .doOnError(error -> log.error("Failed to create document: {}", error.getMessage(), error))
                 .map(mapper::toDTO);
     }
@@ -124,15 +171,18 @@ public class DocumentServiceImpl implements DocumentService {
                                         .doOnSuccess(result -> log.debug("Document content deleted from ECM storage"))
                                         .doOnError(error -> log.warn("Failed to delete document content from ECM storage: {}", error.getMessage()))
                                         .onErrorComplete() // Continue even if content deletion fails
-                                        .then(repository.delete(entity));
+                                        .then(Mono.defer(() -> deleteRow(entity)));
                             })
-                            .orElse(repository.delete(entity))
+                            .orElse(Mono.defer(() -> deleteRow(entity)))
+                            .then(Mono.defer(() -> updateFolderStats(entity, null)))
                             .then(Mono.defer(() ->
                                     ecmPortProvider.getDocumentSearchPort()
                                             .map(searchPort -> searchPort.removeFromIndex(java.util.UUID.fromString(entity.getId().toString()))
                                                     .onErrorResume(err -> Mono.empty()))
                                             .orElse(Mono.empty())
                             ))
+                            .then(Mono.defer(() -> publishAfterCommit(
+                                    new DocumentChangedEvent(EntityChangeType.DELETED, entity, null))))
                             .doOnSuccess(result -> log.info("Document deleted successfully: {}", entity.getId()))
                             .doOnError(error -> log.error("Failed to delete document {}: {}", entity.getId(), error.getMessage(), error));
                 });
@@ -152,6 +202,12 @@ public class DocumentServiceImpl implements DocumentService {
 
                     // Upload content using ECM port if available
                     java.util.UUID documentUuid = java.util.UUID.fromString(document.getId().toString());
+                    // Folder and size before the upload, for the folder statistics delta
+                    Document previous = Document.builder()
+                            .folderId(document.getFolderId())
+                            .fileSize(document.getFileSize())
+                            .tenantId(document.getTenantId())
+                            .build();
 
                     return ecmPortProvider.getDocumentContentPort()
                             .map(port -> {
@@ -176,7 +232,10 @@ public class DocumentServiceImpl implements DocumentService {
                                             String mimeType = filePart.headers().getContentType() != null
                                                     ? filePart.headers().getContentType().toString()
                                                     : "application/octet-stream";
-                                            return port.storeContent(documentUuid, contentBytes, mimeType);
+                                            document.setFileSize((long) contentBytes.length);
+                                            return port.storeContent(documentUuid, contentBytes, mimeType)
+                                                    .flatMap(storagePath -> publishAfterCommit(
+                                                            new DocumentContentStoredEvent(document, mimeType)).thenReturn(storagePath));
                                         })
                                         .flatMap(storagePath -> {
                                     log.debug("Content stored successfully at path: {}", storagePath);
@@ -188,6 +247,7 @@ public class DocumentServiceImpl implements DocumentService {
                                             filePart.headers().getContentType().toString() : null);
                                     // Save updated document metadata
                                     return repository.save(document)
+                                            .flatMap(savedDoc -> updateFolderStats(previous, savedDoc).thenReturn(savedDoc))
                                             .flatMap(savedDoc -> {
                                                 // Index document in search if available
                                                 return ecmPortProvider.getDocumentSearchPort()
@@ -216,6 +276,62 @@ public class DocumentServiceImpl implements DocumentService {
                 .map(mapper::toDTO);
     }
 
+    /**
+     * Delete a document row; its tag assignments go with it and the usage counts of its tags are decreased.
+     */
+    /**
+     * Publish a document change once its transaction has committed, so that the in-memory tag, name,
+     * similarity and permission indexes never hold a change that may still roll back.
+     */
+    private Mono<Void> publishAfterCommit(Object event) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(() -> eventPublisher.publishEvent(event));
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, error -> Mono.fromRunnable(() -> eventPublisher.publishEvent(event)))
+                .then();
+    }
+
+    private Mono<Void> deleteRow(Document entity) {
+        return repository.deleteWithTagCounts(List.of(entity.getId()))
+                .flatMap(deleted -> deleted > 0
+                        ? Mono.<Void>empty()
+                        : Mono.error(new RuntimeException("Document not found with ID: " + entity.getId())));
+    }
+
+    /**
+     * Apply the folder statistics delta of a document change: the document leaves the previous folder
+     * and enters the new one, or changes size within the same folder.
+     */
+    private Mono<Void> updateFolderStats(Document previous, Document current) {
+        UUID previousFolderId = previous != null ? previous.getFolderId() : null;
+        UUID folderId = current != null ? current.getFolderId() : null;
+        long previousSize = previous != null && previous.getFileSize() != null ? previous.getFileSize() : 0L;
+        long size = current != null && current.getFileSize() != null ? current.getFileSize() : 0L;
+        String tenantId = current != null ? current.getTenantId() : previous != null ? previous.getTenantId() : null;
+
+        Mono<Integer> delta;
+        if (Objects.equals(previousFolderId, folderId)) {
+            if (folderId == null || previousSize == size) {
+                return Mono.empty();
+            }
+            delta = folderStatsRepository.applyDelta(folderId, 0, size - previousSize, 0, size - previousSize);
+        } else {
+            Mono<Integer> leave = previousFolderId == null ? Mono.empty()
+                    : folderStatsRepository.applyDelta(previousFolderId, -1, -previousSize, -1, -previousSize);
+            Mono<Integer> enter = folderId == null ? Mono.empty()
+                    : folderStatsRepository.applyDelta(folderId, 1, size, 1, size);
+            delta = leave.then(enter);
+        }
+        // Shared hierarchy lock: the ancestor chains must not be rewritten by a folder move meanwhile
+        return folderRepository.lockHierarchyShared(tenantId)
+                .then(delta)
+                .then();
+    }
+
     @Override
     public Flux<DataBuffer> downloadContent(UUID documentId) {
         log.debug("Downloading content for document ID: {}", documentId);
@@ -253,10 +369,9 @@ public class DocumentServiceImpl implements DocumentService {
                 .switchIfEmpty(Mono.error(new RuntimeException("Document not found with ID: " + documentId)))
                 .flatMap(document -> {
                     log.info("Creating version for document: {} (ID: {}), current version: {}",
-                            document.getName(), document.getId(), document.getVersion());
+                            document.getName(), document.getId(), document.getVersionNumber());
                     
                     java.util.UUID documentUuid = java.util.UUID.fromString(document.getId().toString());
-                    Integer nextVersionNumber = (document.getVersion() == null ? 0 : document.getVersion().intValue()) + 1;
                     
                     // Use ECM port for version management if available
                     return ecmPortProvider.getDocumentVersionPort()
@@ -278,7 +393,10 @@ public class DocumentServiceImpl implements DocumentService {
                                             }
                                             return bytes;
                                         })
-                                        .flatMap(contentBytes -> {
+                                        .zipWhen(contentBytes -> allocateVersionNumber(documentId))
+                                        .flatMap(allocated -> {
+                                            byte[] contentBytes = allocated.getT1();
+                                            long nextVersionNumber = allocated.getT2();
                                             // Create ECM DocumentVersion domain object
                                             String mimeType = filePart.headers().getContentType() != null
                                                     ? filePart.headers().getContentType().toString()
@@ -288,7 +406,7 @@ public class DocumentServiceImpl implements DocumentService {
                                                 com.firefly.core.ecm.domain.model.document.DocumentVersion.builder()
                                                     .id(java.util.UUID.randomUUID())
                                                     .documentId(documentUuid)
-                                                    .versionNumber(nextVersionNumber)
+                                                    .versionNumber((int) nextVersionNumber)
                                                     .versionLabel(String.format("v%d", nextVersionNumber))
                                                     .comment(versionComment != null ? versionComment : "Version created")
                                                     .size((long) contentBytes.length)
@@ -306,29 +424,12 @@ public class DocumentServiceImpl implements DocumentService {
                                                     .doOnSuccess(createdVersion -> 
                                                         log.debug("ECM version created with ID: {}, storage path: {}", 
                                                                 createdVersion.getId(), createdVersion.getStoragePath()))
-                                                    .flatMap(createdVersion -> {
-                                                        // Update document with new version information
-                                                        document.setVersion(nextVersionNumber.longValue());
-                                                        document.setFileName(filePart.filename());
-                                                        document.setMimeType(mimeType);
-                                                        document.setStoragePath(createdVersion.getStoragePath());
-                                                        
-                                                        return repository.save(document)
-                                                                .flatMap(savedDoc -> {
-                                                                    // Index updated document in search if available
-                                                                    return ecmPortProvider.getDocumentSearchPort()
-                                                                            .map(searchPort -> searchPort.indexDocument(ecmDomainMapper.toEcmDocument(savedDoc))
-                                                                                    .onErrorResume(err -> {
-                                                                                        log.warn("Indexing failed for document {}: {}", savedDoc.getId(), err.getMessage());
-                                                                                        return Mono.empty();
-                                                                                    })
-                                                                                    .thenReturn(savedDoc))
-                                                                            .orElse(Mono.just(savedDoc));
-                                                                })
-                                                                .doOnSuccess(savedDoc -> 
-                                                                    log.info("Document version {} created successfully for document ID: {}", 
-                                                                            nextVersionNumber, savedDoc.getId()));
-                                                    });
+                                                    // Point the document at the new version
+                                                    .flatMap(createdVersion -> applyVersion(documentId, nextVersionNumber,
+                                                            filePart.filename(), mimeType, createdVersion.getStoragePath()))
+                                                    .doOnSuccess(savedDoc -> 
+                                                        log.info("Document version {} created successfully for document ID: {}", 
+                                                                nextVersionNumber, documentId));
                                         })
                                         .doOnError(error -> {
                                             log.error("Failed to create version for document ID {}: {}", 
@@ -339,28 +440,116 @@ public class DocumentServiceImpl implements DocumentService {
                                 // Fallback: simple version increment without ECM versioning
                                 Mono.defer(() -> {
                                     log.warn("Creating version without ECM - DocumentVersionPort not available");
-                                    document.setVersion(nextVersionNumber.longValue());
-                                    document.setFileName(filePart.filename());
-                                    document.setMimeType(filePart.headers().getContentType() != null ? 
-                                            filePart.headers().getContentType().toString() : null);
-                                    return repository.save(document)
-                                            .flatMap(savedDoc -> ecmPortProvider.getDocumentSearchPort()
-                                                    .map(searchPort -> searchPort.indexDocument(ecmDomainMapper.toEcmDocument(savedDoc))
-                                                            .onErrorResume(err -> Mono.empty())
-                                                            .thenReturn(savedDoc))
-                                                    .orElse(Mono.just(savedDoc)))
+                                    String mimeType = filePart.headers().getContentType() != null ? 
+                                            filePart.headers().getContentType().toString() : null;
+                                    return allocateVersionNumber(documentId)
+                                            .flatMap(nextVersionNumber -> applyVersion(documentId, nextVersionNumber,
+                                                    filePart.filename(), mimeType, null))
                                             .doOnSuccess(savedDoc -> 
-                                                log.debug("Document version incremented locally (no ECM) for ID: {}", savedDoc.getId()));
+                                                log.debug("Document version incremented locally (no ECM) for ID: {}", documentId));
                                 })
                             );
                 })
                 .map(mapper::toDTO);
     }
 
+    /**
+     * Allocate the next version number of a document from its version counter, which is separate from the
+     * optimistic-lock version, so concurrent uploads of the same document all get distinct numbers.
+     */
+    private Mono<Long> allocateVersionNumber(UUID documentId) {
+        return versionNumberAllocator.allocate(documentId)
+                .switchIfEmpty(Mono.error(new RuntimeException("Document not found with ID: " + documentId)));
+    }
+
+    /**
+     * Point a document at a new version and index it. When a concurrent upload has already applied a higher
+     * version, the document is left as it is and returned unchanged.
+     */
+    private Mono<Document> applyVersion(UUID documentId, long versionNumber, String fileName, String mimeType,
+                                        String storagePath) {
+        return repository.applyVersion(documentId, versionNumber, fileName, mimeType, storagePath)
+                .flatMap(savedDoc -> {
+                    // Index updated document in search if available
+                    return ecmPortProvider.getDocumentSearchPort()
+                            .map(searchPort -> searchPort.indexDocument(ecmDomainMapper.toEcmDocument(savedDoc))
+                                    .onErrorResume(err -> {
+                                        log.warn("Indexing failed for document {}: {}", savedDoc.getId(), err.getMessage());
+                                        return Mono.empty();
+                                    })
+                                    .thenReturn(savedDoc))
+                            .orElse(Mono.just(savedDoc));
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.debug("Version {} of document {} superseded by a concurrent upload", versionNumber, documentId);
+                    return repository.findById(documentId);
+                }));
+    }
+
     @Override
     public Mono<DocumentDTO> getContentMetadata(UUID documentId) {
         return repository.findById(documentId)
                 .switchIfEmpty(Mono.error(new RuntimeException("Document not found with ID: " + documentId)))
                 .map(mapper::toDTO);
     }
+
+    @Override
+    public Mono<DocumentPageDTO> listByFolder(UUID folderId, boolean recursive, DocumentProjection projection, String cursor, Integer size,
+                                              UUID principalId) {
+        EcmIntegrationProperties.FolderDefaults folders = properties.getFolders();
+        int pageSize = size == null || size <= 0 ? folders.getDefaultPageSize() : Math.min(size, folders.getMaxPageSize());
+        boolean summary = projection == DocumentProjection.SUMMARY;
+
+        String afterName = "";
+        UUID afterId = FIRST_PAGE_ID;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf(':');
+                afterId = UUID.fromString(decoded.substring(0, separator));
+                afterName = decoded.substring(separator + 1);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                return Mono.error(new IllegalArgumentException("Invalid document page cursor: " + cursor));
+            }
+        }
+        String name = afterName;
+        UUID id = afterId;
+
+        // Readability is part of the query, so pages stay full however few documents the principal may read
+        String[] openLevels = properties.getPermissions().getOpenSecurityLevels().toArray(String[]::new);
+
+        // One extra row tells whether another page follows
+        int limit = pageSize + 1;
+        Flux<Document> rows;
+        if (recursive) {
+            rows = summary
+                    ? repository.findSummaryPageInSubtree(folderId, name, id, principalId, openLevels, limit)
+                    : repository.findPageInSubtree(folderId, name, id, principalId, openLevels, limit);
+        } else {
+            rows = summary
+                    ? repository.findSummaryPageInFolder(folderId, name, id, principalId, openLevels, limit)
+                    : repository.findPageInFolder(folderId, name, id, principalId, openLevels, limit);
+        }
+
+        return folderRepository.existsById(folderId)
+                .flatMap(exists -> exists
+                        ? rows.collectList()
+                        : Mono.error(new RuntimeException("Folder not found with ID: " + folderId)))
+                .map(documents -> {
+                    boolean hasMore = documents.size() > pageSize;
+                    List<Document> page = hasMore ? documents.subList(0, pageSize) : documents;
+                    Document last = page.isEmpty() ? null : page.get(page.size() - 1);
+                    // Listed documents are usually opened next
+                    metadataCache.warm(page.stream().map(Document::getId).toList());
+                    return DocumentPageDTO.builder()
+                            .content(page.stream().map(mapper::toDTO).toList())
+                            .nextCursor(hasMore ? encodeCursor(last) : null)
+                            .build();
+                });
+    }
+
+    private static String encodeCursor(Document last) {
+        String value = last.getId() + ":" + last.getName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -31,6 +31,7 @@ import com.firefly.commons.ecm.interfaces.dtos.SignatureRequestDTO;
 import com.firefly.commons.ecm.interfaces.enums.SignatureStatus;
 import com.firefly.commons.ecm.models.entities.DocumentSignature;
 import com.firefly.commons.ecm.models.repositories.DocumentSignatureRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentVersionRepository;
 import com.firefly.core.ecm.service.EcmPortProvider;
 import com.firefly.core.ecm.port.esignature.SignatureRequestPort;
 import com.firefly.core.ecm.port.esignature.SignatureEnvelopePort;
@@ -58,6 +59,9 @@ public class DocumentSignatureServiceImpl implements DocumentSignatureService {
     @Autowired
     private DocumentSignatureRepository repository;
 
+    @Autowired
+    private DocumentVersionRepository versionRepository;
+
     @Autowired
     private DocumentSignatureMapper mapper;
 
@@ -100,7 +104,7 @@ public class DocumentSignatureServiceImpl implements DocumentSignatureService {
                     // Preserve created info
                     entityToUpdate.setCreatedAt(existingEntity.getCreatedAt());
                     entityToUpdate.setCreatedBy(existingEntity.getCreatedBy());
-                    return repository.save(entityToUpdate);
+                    return lockVersion(entityToUpdate).then(Mono.defer(() -> repository.save(entityToUpdate)));
                 })
                 .map(mapper::toDTO);
     }
@@ -111,10 +115,25 @@ public class DocumentSignatureServiceImpl implements DocumentSignatureService {
         documentSignature.setId(null);
 
         DocumentSignature entity = mapper.toEntity(documentSignature);
-        return repository.save(entity)
+        return lockVersion(entity)
+                .then(Mono.defer(() -> repository.save(entity)))
                 .map(mapper::toDTO);
     }
 
+    /**
+     * Keep the signed version from being pruned until the signature commits. A version already claimed by
+     * the version pruning is about to be deleted and cannot be signed.
+     */
+    private Mono<Void> lockVersion(DocumentSignature signature) {
+        if (signature.getDocumentVersionId() == null) {
+            return Mono.empty();
+        }
+        return versionRepository.lockUnpruned(signature.getDocumentVersionId())
+                .switchIfEmpty(Mono.error(new IllegalStateException(
+                        "Document version " + signature.getDocumentVersionId() + " does not exist or is being pruned")))
+                .then();
+    }
+
     @Override
     public Mono<Void> delete(UUID id) {
         return repository.findById(id)
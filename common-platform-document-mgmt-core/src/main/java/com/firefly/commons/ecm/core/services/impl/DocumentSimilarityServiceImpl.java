@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services.impl;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.index.MinHasher;
+import com.firefly.commons.ecm.core.services.DocumentSimilarityService;
+import com.firefly.commons.ecm.interfaces.dtos.SimilarDocumentDTO;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentSimilaritySignatureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+
+import java.util.Comparator;
+import java.util.UUID;
+/**
+ * Implementation of the DocumentSimilarityService interface.
+ * Answers through the LSH bucket index, so only the documents colliding with the query
+ * document in some band are read and scored.
+ */
+@Service
+@Transactional
+@Slf4j
+public class DocumentSimilarityServiceImpl implements DocumentSimilarityService {
+
+    @Autowired
+    private DocumentSimilaritySignatureRepository signatureRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private MinHasher minHasher;
+
+    @Autowired
+    private EcmIntegrationProperties properties;
+
+    @Override
+    public Flux<SimilarDocumentDTO> findSimilar(UUID documentId, Double minSimilarity, Integer limit) {
+        EcmIntegrationProperties.SimilarityDefaults similarity = properties.getSimilarity();
+        double threshold = minSimilarity != null ? minSimilarity : similarity.getDefaultMinSimilarity();
+        if (threshold < 0.0 || threshold > 1.0) {
+            return Flux.error(new IllegalArgumentException("Minimum similarity must be between 0 and 1"));
+        }
+        int effectiveLimit = limit == null || limit <= 0
+                ? similarity.getDefaultLimit()
+                : Math.min(limit, similarity.getMaxLimit());
+
+        return signatureRepository.findById(documentId)
+                .flatMapMany(source -> {
+                    int[] values = MinHasher.decode(source.getSignature());
+                    return signatureRepository.findCandidates(source.getTenantId(), documentId,
+                                    minHasher.bandNumbers(), minHasher.bucketHashes(values), similarity.getMaxCandidates())
+                            .map(candidate -> SimilarDocumentDTO.builder()
+                                    .documentId(candidate.getDocumentId())
+                                    .similarity(MinHasher.similarity(values, MinHasher.decode(candidate.getSignature())))
+                                    .build())
+                            .filter(candidate -> candidate.getSimilarity() >= threshold)
+                            .sort(Comparator.comparing(SimilarDocumentDTO::getSimilarity).reversed())
+                            .take(effectiveLimit);
+                })
+                .collectList()
+                .flatMapMany(results -> documentRepository.findAllById(results.stream().map(SimilarDocumentDTO::getDocumentId).toList())
+                        .collectMap(Document::getId)
+                        .flatMapIterable(documents -> results.stream()
+                                .filter(result -> documents.containsKey(result.getDocumentId()))
+                                .map(result -> withDocument(result, documents.get(result.getDocumentId())))
+                                .toList()))
+                .doOnComplete(() -> log.debug("Similar documents resolved for document ID: {}", documentId));
+    }
+
+    private static SimilarDocumentDTO withDocument(SimilarDocumentDTO result, Document document) {
+        result.setName(document.getName());
+        result.setFolderId(document.getFolderId());
+        return result;
+    }
+}
@@ -20,29 +20,93 @@ package com.firefly.commons.ecm.core.services.impl;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.filters.FilterUtils;
 import com.firefly.common.core.queries.PaginationResponse;
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentTagChangedEvent;
+import com.firefly.commons.ecm.core.events.DocumentTagsChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.index.TagBitmapIndex;
+import com.firefly.commons.ecm.core.index.TagBitmapIndexRegistry;
+import com.firefly.commons.ecm.core.index.TagDictionaryCache;
+import com.firefly.commons.ecm.core.index.TagExpression;
 import com.firefly.commons.ecm.core.mappers.DocumentTagMapper;
 import com.firefly.commons.ecm.core.services.DocumentTagService;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentTagBulkRequestDTO;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentTagBulkResultDTO;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentTagDTO;
+import com.firefly.commons.ecm.models.entities.Document;
 import com.firefly.commons.ecm.models.entities.DocumentTag;
+import com.firefly.commons.ecm.models.entities.Tag;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
 import com.firefly.commons.ecm.models.repositories.DocumentTagRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import com.firefly.commons.ecm.models.repositories.TagRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 /**
  * Implementation of the DocumentTagService interface.
+ * Tag assignments are published as events once committed, so that the in-memory tag index stays current.
  */
 @Service
 @Transactional
+@Slf4j
 public class DocumentTagServiceImpl implements DocumentTagService {
 
+    private static final UUID FIRST_DOCUMENT_ID = new UUID(0L, 0L);
+
     @Autowired
     private DocumentTagRepository repository;
 
     @Autowired
     private DocumentTagMapper mapper;
 
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private TagBitmapIndexRegistry tagIndexRegistry;
+
+    @Autowired
+    private TagDictionaryCache tagDictionaryCache;
+
+    @Autowired
+    private EcmIntegrationProperties properties;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
     @Override
     public Mono<DocumentTagDTO> getById(UUID id) {
         return repository.findById(id)
@@ -70,7 +134,14 @@ public class DocumentTagServiceImpl implements DocumentTagService {
                     // Preserve created info
                     entityToUpdate.setCreatedAt(existingEntity.getCreatedAt());
                     entityToUpdate.setCreatedBy(existingEntity.getCreatedBy());
-                    return repository.save(entityToUpdate);
+                    return repository.save(entityToUpdate)
+                            .flatMap(saved -> Objects.equals(saved.getTagId(), existingEntity.getTagId())
+                                    ? Mono.just(saved)
+                                    : tagRepository.adjustUsageCount(existingEntity.getTagId(), -1)
+                                            .then(tagRepository.adjustUsageCount(saved.getTagId(), 1))
+                                            .thenReturn(saved))
+                            .flatMap(saved -> publishAfterCommit(
+                                    new DocumentTagChangedEvent(EntityChangeType.UPDATED, saved, existingEntity)).thenReturn(saved));
                 })
                 .map(mapper::toDTO);
     }
@@ -82,6 +153,9 @@ public class DocumentTagServiceImpl implements DocumentTagService {
 
         DocumentTag entity = mapper.toEntity(documentTag);
         return repository.save(entity)
+                .flatMap(saved -> tagRepository.adjustUsageCount(saved.getTagId(), 1).thenReturn(saved))
+                .flatMap(saved -> publishAfterCommit(
+                        new DocumentTagChangedEvent(EntityChangeType.CREATED, saved, null)).thenReturn(saved))
                 .map(mapper::toDTO);
     }
 
@@ -89,6 +163,320 @@ public class DocumentTagServiceImpl implements DocumentTagService {
     public Mono<Void> delete(UUID id) {
         return repository.findById(id)
                 .switchIfEmpty(Mono.error(new RuntimeException("Document tag not found with ID: " + id)))
-                .flatMap(entity -> repository.delete(entity));
+                .flatMap(entity -> repository.delete(entity)
+                        .then(tagRepository.adjustUsageCount(entity.getTagId(), -1))
+                        .then(Mono.defer(() -> publishAfterCommit(
+                                new DocumentTagChangedEvent(EntityChangeType.DELETED, entity, null)))));
+    }
+
+    @Override
+    public Mono<Void> removeTag(UUID documentId, UUID tagId) {
+        return repository.deleteByDocumentIdAndTagId(documentId, tagId)
+                .collectList()
+                .flatMap(deleted -> {
+                    if (deleted.isEmpty()) {
+                        return Mono.error(new RuntimeException("Document tag not found for document ID: " + documentId + " and tag ID: " + tagId));
+                    }
+                    return Flux.fromIterable(deleted)
+                            .concatMap(entity -> publishAfterCommit(
+                                    new DocumentTagChangedEvent(EntityChangeType.DELETED, entity, null)))
+                            .then();
+                });
+    }
+
+    @Override
+    public Mono<DocumentTagBulkResultDTO> tagDocuments(DocumentTagBulkRequestDTO request) {
+        return applyInBatches(request, EntityChangeType.CREATED,
+                (documentIds, tagIds) -> repository.insertAssignments(request.getTenantId(), documentIds, tagIds));
+    }
+
+    @Override
+    public Mono<DocumentTagBulkResultDTO> untagDocuments(DocumentTagBulkRequestDTO request) {
+        return applyInBatches(request, EntityChangeType.DELETED,
+                (documentIds, tagIds) -> repository.deleteAssignments(request.getTenantId(), documentIds, tagIds));
+    }
+
+    /**
+     * Run one tag or untag statement per batch of selected documents, and publish one event per batch
+     * with the assignments it actually changed.
+     */
+    private Mono<DocumentTagBulkResultDTO> applyInBatches(DocumentTagBulkRequestDTO request, EntityChangeType changeType,
+                                                           BiFunction<List<UUID>, List<UUID>, Flux<DocumentTag>> statement) {
+        EcmIntegrationProperties.TagDefaults tags = properties.getTags();
+        try {
+            validateBulkRequest(request, tags);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        AtomicLong selected = new AtomicLong();
+        AtomicLong affected = new AtomicLong();
+
+        return requireFolderOfTenant(request)
+                .then(Mono.defer(() -> resolveBulkTagIds(request)))
+                .flatMap(tagIds -> applyInBatches(request, changeType, statement, tags, tagIds, selected, affected))
+                .then(Mono.fromCallable(() -> DocumentTagBulkResultDTO.builder()
+                        .selectedDocuments(selected.get())
+                        .affectedAssignments(affected.get())
+                        .build()))
+                .doOnSuccess(result -> log.info("Bulk {} on {} documents of tenant {}: {} assignments changed",
+                        changeType == EntityChangeType.DELETED ? "untag" : "tag",
+                        result.getSelectedDocuments(), request.getTenantId(), result.getAffectedAssignments()));
+    }
+
+    private Mono<Void> applyInBatches(DocumentTagBulkRequestDTO request, EntityChangeType changeType,
+                                      BiFunction<List<UUID>, List<UUID>, Flux<DocumentTag>> statement,
+                                      EcmIntegrationProperties.TagDefaults tags, List<UUID> tagIds,
+                                      AtomicLong selected, AtomicLong affected) {
+        return selectDocumentBatches(request, tags)
+                .concatMap(batch -> {
+                    if (selected.addAndGet(batch.size()) > tags.getMaxBulkDocuments()) {
+                        return Mono.error(new IllegalArgumentException(
+                                "Bulk tag request selects more than the maximum of " + tags.getMaxBulkDocuments() + " documents"));
+                    }
+                    return statement.apply(batch, tagIds)
+                            .collectList()
+                            .flatMap(changed -> {
+                                affected.addAndGet(changed.size());
+                                return changed.isEmpty()
+                                        ? Mono.<Void>empty()
+                                        : publishAfterCommit(new DocumentTagsChangedEvent(changeType, changed));
+                            });
+                })
+                .then();
+    }
+
+    /**
+     * Check that the folder a bulk request selects belongs to the request's tenant, so that its documents
+     * are never assigned another tenant's tags.
+     */
+    private Mono<Void> requireFolderOfTenant(DocumentTagBulkRequestDTO request) {
+        if (request.getFolderId() == null) {
+            return Mono.empty();
+        }
+        return folderRepository.findById(request.getFolderId())
+                .switchIfEmpty(Mono.error(new RuntimeException("Folder not found with ID: " + request.getFolderId())))
+                .flatMap(folder -> request.getTenantId().equals(folder.getTenantId())
+                        ? Mono.<Void>empty()
+                        : Mono.<Void>error(new IllegalArgumentException("Folder " + request.getFolderId()
+                                + " does not belong to tenant " + request.getTenantId())));
+    }
+
+    /**
+     * Resolve the tags of a bulk request: its tag IDs and the IDs of its tag names, which must all exist in the tenant.
+     */
+    private Mono<List<UUID>> resolveBulkTagIds(DocumentTagBulkRequestDTO request) {
+        Set<UUID> tagIds = new LinkedHashSet<>(request.getTagIds() != null ? request.getTagIds() : List.of());
+        Set<String> names = new LinkedHashSet<>(request.getTagNames() != null ? request.getTagNames() : List.of());
+        return resolveTagNames(request.getTenantId(), names)
+                .flatMap(byName -> {
+                    List<String> unknown = names.stream().filter(name -> !byName.containsKey(name)).toList();
+                    if (!unknown.isEmpty()) {
+                        return Mono.error(new IllegalArgumentException("Unknown tags in tenant " + request.getTenantId() + ": " + unknown));
+                    }
+                    names.forEach(name -> tagIds.add(byName.get(name)));
+                    return Mono.just(List.copyOf(tagIds));
+                });
+    }
+
+    private static void validateBulkRequest(DocumentTagBulkRequestDTO request, EcmIntegrationProperties.TagDefaults tags) {
+        if (request == null || request.getTenantId() == null || request.getTenantId().isBlank()) {
+            throw new IllegalArgumentException("Tenant ID is required for bulk tag requests");
+        }
+        int tagCount = (request.getTagIds() != null ? request.getTagIds().size() : 0)
+                + (request.getTagNames() != null ? request.getTagNames().size() : 0);
+        if (tagCount == 0
+                || (request.getTagIds() != null && request.getTagIds().contains(null))
+                || (request.getTagNames() != null && request.getTagNames().contains(null))) {
+            throw new IllegalArgumentException("Tag IDs or names are required for bulk tag requests");
+        }
+        if (tagCount > tags.getMaxBulkTags()) {
+            throw new IllegalArgumentException("Bulk tag request has " + tagCount
+                    + " tags, more than the maximum of " + tags.getMaxBulkTags());
+        }
+        boolean byIds = request.getDocumentIds() != null && !request.getDocumentIds().isEmpty();
+        if (byIds == (request.getFolderId() != null)) {
+            throw new IllegalArgumentException("Bulk tag requests select documents by either document IDs or folder ID");
+        }
+        if (byIds && request.getDocumentIds().contains(null)) {
+            throw new IllegalArgumentException("Document IDs cannot be null");
+        }
+    }
+
+    /**
+     * Select the documents of a bulk request in batches: the given IDs, or the documents of the folder
+     * subtree walked in ID order.
+     */
+    private Flux<List<UUID>> selectDocumentBatches(DocumentTagBulkRequestDTO request, EcmIntegrationProperties.TagDefaults tags) {
+        int batchSize = tags.getBulkBatchSize();
+        if (request.getFolderId() == null) {
+            return Flux.fromIterable(new LinkedHashSet<>(request.getDocumentIds()))
+                    .buffer(batchSize);
+        }
+        return subtreeBatch(request.getFolderId(), FIRST_DOCUMENT_ID, batchSize)
+                .expand(batch -> batch.size() < batchSize
+                        ? Mono.empty()
+                        : subtreeBatch(request.getFolderId(), batch.get(batch.size() - 1), batchSize))
+                .filter(batch -> !batch.isEmpty());
+    }
+
+    private Mono<List<UUID>> subtreeBatch(UUID folderId, UUID afterId, int batchSize) {
+        return documentRepository.findSubtreeBatch(folderId, afterId, batchSize)
+                .map(Document::getId)
+                .collectList();
+    }
+
+    @Override
+    public Mono<PaginationResponse<UUID>> findDocumentIdsByTagExpression(String tenantId, String expression, Integer page, Integer size) {
+        if (tenantId == null || tenantId.isBlank()) {
+            return Mono.error(new IllegalArgumentException("Tenant ID is required for tag queries"));
+        }
+        TagExpression parsed;
+        try {
+            parsed = TagExpression.parse(expression);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        EcmIntegrationProperties.TagIndexDefaults tagIndex = properties.getTagIndex();
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? tagIndex.getDefaultPageSize() : Math.min(size, tagIndex.getMaxPageSize());
+
+        long offset = (long) pageNumber * pageSize;
+        return Mono.zip(tagIndexRegistry.getIndex(tenantId).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                        resolveTagTerms(tenantId, parsed.terms()))
+                .flatMap(tuple -> tuple.getT1()
+                        .map(index -> Mono.just(index.query(parsed, tuple.getT2(), offset, pageSize)))
+                        .orElseGet(() -> queryTagExpression(tenantId, parsed, tuple.getT2(), offset, pageSize)))
+                .map(result -> {
+                    int totalPages = (int) ((result.total() + pageSize - 1) / pageSize);
+                    return new PaginationResponse<>(result.documentIds(), result.total(), totalPages, pageNumber);
+                });
+    }
+
+    /**
+     * Evaluate a tag expression in the database, for tenants too large for the in-memory tag index.
+     * Each term becomes an EXISTS over document_tags bound to the tag IDs it resolved to; matches are paged in ID order.
+     */
+    private Mono<TagBitmapIndex.TagQueryResult> queryTagExpression(String tenantId, TagExpression expression,
+                                                                   Map<String, Collection<UUID>> tagIdsByTerm,
+                                                                   long offset, int limit) {
+        Map<String, UUID[]> tagIds = new LinkedHashMap<>();
+        String condition = expression.toSql(term -> {
+            Collection<UUID> resolved = tagIdsByTerm.get(term);
+            if (resolved == null || resolved.isEmpty()) {
+                return "FALSE";
+            }
+            String parameter = "tagIds" + tagIds.size();
+            tagIds.put(parameter, resolved.toArray(UUID[]::new));
+            return "EXISTS (SELECT 1 FROM document_tags dt WHERE dt.document_id = d.id AND dt.tag_id = ANY(:" + parameter + "))";
+        });
+        String from = " FROM documents d WHERE d.tenant_id = :tenantId AND " + condition;
+        DatabaseClient client = entityTemplate.getDatabaseClient();
+        Mono<List<UUID>> page = bindTagQuery(client.sql("SELECT d.id" + from + " ORDER BY d.id LIMIT :limit OFFSET :offset"),
+                tenantId, tagIds)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(row -> row.get("id", UUID.class))
+                .all()
+                .collectList();
+        Mono<Long> total = bindTagQuery(client.sql("SELECT count(*)" + from), tenantId, tagIds)
+                .map(row -> row.get(0, Long.class))
+                .one();
+        return Mono.zip(page, total)
+                .map(tuple -> new TagBitmapIndex.TagQueryResult(tuple.getT1(), tuple.getT2()));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindTagQuery(DatabaseClient.GenericExecuteSpec spec, String tenantId,
+                                                                  Map<String, UUID[]> tagIds) {
+        DatabaseClient.GenericExecuteSpec bound = spec.bind("tenantId", tenantId);
+        for (Map.Entry<String, UUID[]> entry : tagIds.entrySet()) {
+            bound = bound.bind(entry.getKey(), entry.getValue());
+        }
+        return bound;
+    }
+
+    /**
+     * Resolve expression terms to tag IDs: terms that are UUIDs are used as tag IDs,
+     * the others are looked up by tag name within the tenant.
+     */
+    private Mono<Map<String, Collection<UUID>>> resolveTagTerms(String tenantId, Set<String> terms) {
+        Map<String, Collection<UUID>> resolved = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (String term : terms) {
+            UUID tagId = parseTagId(term);
+            if (tagId != null) {
+                resolved.put(term, List.of(tagId));
+            } else {
+                names.add(term);
+            }
+        }
+        if (names.isEmpty()) {
+            return Mono.just(resolved);
+        }
+        return resolveTagNames(tenantId, names)
+                .map(byName -> {
+                    byName.forEach((name, tagId) -> resolved.put(name, List.of(tagId)));
+                    return resolved;
+                });
+    }
+
+    /**
+     * Look up tag names within a tenant, from its in-memory tag dictionary when it is cached. Names the
+     * dictionary misses are looked up in the database, since they may have been created on another
+     * instance since it was loaded.
+     *
+     * @return The IDs of the names that exist, by name
+     */
+    private Mono<Map<String, UUID>> resolveTagNames(String tenantId, Collection<String> names) {
+        if (names.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return tagDictionaryCache.getDictionary(tenantId)
+                .flatMap(dictionary -> {
+                    Map<String, UUID> byName = new HashMap<>();
+                    List<String> missed = new ArrayList<>();
+                    for (String name : names) {
+                        UUID tagId = dictionary.idOf(name);
+                        if (tagId != null) {
+                            byName.put(name, tagId);
+                        } else {
+                            missed.add(name);
+                        }
+                    }
+                    if (missed.isEmpty()) {
+                        return Mono.just(byName);
+                    }
+                    return tagRepository.findByTenantIdAndNameIn(tenantId, missed)
+                            .doOnNext(tag -> byName.put(tag.getName(), tag.getId()))
+                            .then(Mono.just(byName));
+                })
+                .switchIfEmpty(Mono.defer(() -> tagRepository.findByTenantIdAndNameIn(tenantId, names)
+                        .collectMap(Tag::getName, Tag::getId)));
+    }
+
+    /**
+     * Publish a tag assignment change once its transaction has committed, so that the in-memory tag
+     * index never holds an assignment that may still roll back.
+     */
+    private Mono<Void> publishAfterCommit(Object event) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(() -> eventPublisher.publishEvent(event));
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, error -> Mono.fromRunnable(() -> eventPublisher.publishEvent(event)))
+                .then();
+    }
+
+    private static UUID parseTagId(String term) {
+        if (term.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(term);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services.impl;
+
+import com.firefly.commons.ecm.core.maintenance.FolderJobRunner;
+import com.firefly.commons.ecm.core.mappers.FolderJobMapper;
+import com.firefly.commons.ecm.core.services.FolderJobService;
+import com.firefly.commons.ecm.interfaces.dtos.FolderJobDTO;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobPhase;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobStatus;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobType;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.entities.FolderJob;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.FolderJobRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+import java.util.UUID;
+/**
+ * Implementation of the FolderJobService interface.
+ * Jobs are persisted here and processed by the {@link FolderJobRunner} of any instance.
+ */
+@Service
+@Transactional
+public class FolderJobServiceImpl implements FolderJobService {
+
+    @Autowired
+    private FolderJobRepository repository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private FolderJobMapper mapper;
+
+    @Autowired
+    private FolderJobRunner folderJobRunner;
+
+    @Override
+    public Mono<FolderJobDTO> startDelete(UUID folderId) {
+        return requireIdleFolder(folderId)
+                .flatMap(folder -> createJob(FolderJob.builder()
+                        .tenantId(folder.getTenantId())
+                        .jobType(FolderJobType.DELETE)
+                        .phase(FolderJobPhase.DOCUMENTS)
+                        .folderId(folderId)))
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<FolderJobDTO> startCopy(UUID folderId, UUID targetParentFolderId, String name) {
+        if (name != null && (name.isBlank() || name.contains("/"))) {
+            return Mono.error(new IllegalArgumentException("Folder name must be non-empty and cannot contain '/'"));
+        }
+        return requireIdleFolder(folderId)
+                .flatMap(folder -> validateTarget(folder, targetParentFolderId)
+                        .then(Mono.defer(() -> targetParentFolderId == null ? Mono.empty() : requireNoActiveJob(targetParentFolderId)))
+                        .then(Mono.defer(() -> createJob(FolderJob.builder()
+                                .tenantId(folder.getTenantId())
+                                .jobType(FolderJobType.COPY)
+                                .phase(FolderJobPhase.FOLDERS)
+                                .folderId(folderId)
+                                .targetParentFolderId(targetParentFolderId)
+                                .targetName(name != null ? name.trim()
+                                        : Objects.equals(folder.getParentFolderId(), targetParentFolderId)
+                                        ? folder.getName() + " (Copy)" : null)))))
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<FolderJobDTO> getJob(UUID jobId) {
+        return repository.findById(jobId)
+                .map(mapper::toDTO);
+    }
+
+    /**
+     * Find a folder no unfinished job overlaps. The tenant's exclusive hierarchy lock is held until the new job
+     * commits, so concurrent requests on the same branch cannot both pass the check.
+     */
+    private Mono<Folder> requireIdleFolder(UUID folderId) {
+        return folderRepository.findById(folderId)
+                .switchIfEmpty(Mono.error(new RuntimeException("Folder not found with ID: " + folderId)))
+                .flatMap(folder -> folderRepository.lockHierarchy(folder.getTenantId())
+                        .then(requireNoActiveJob(folderId))
+                        .thenReturn(folder));
+    }
+
+    private Mono<Void> requireNoActiveJob(UUID folderId) {
+        return repository.existsActiveInHierarchy(folderId)
+                .flatMap(active -> active
+                        ? Mono.error(new IllegalStateException("A job is already in progress on folder " + folderId
+                                + ", one of its ancestors or one of its descendants"))
+                        : Mono.empty());
+    }
+
+    /**
+     * Reject copies into another tenant or into the copied subtree itself, which the copy would keep walking.
+     */
+    private Mono<Void> validateTarget(Folder folder, UUID targetParentFolderId) {
+        if (targetParentFolderId == null) {
+            return Mono.empty();
+        }
+        return folderRepository.findById(targetParentFolderId)
+                .switchIfEmpty(Mono.error(new RuntimeException("Parent folder not found with ID: " + targetParentFolderId)))
+                .flatMap(target -> {
+                    if (!Objects.equals(target.getTenantId(), folder.getTenantId())) {
+                        return Mono.error(new IllegalArgumentException("Parent folder belongs to another tenant: " + targetParentFolderId));
+                    }
+                    if (target.getId().equals(folder.getId())
+                            || (target.getIdPath() != null && target.getIdPath().contains("/" + folder.getId() + "/"))) {
+                        return Mono.error(new IllegalArgumentException("Folder cannot be copied into its own subtree: " + folder.getId()));
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<FolderJob> createJob(FolderJob.FolderJobBuilder builder) {
+        FolderJob draft = builder.build();
+        return Mono.zip(folderRepository.countDescendants(draft.getFolderId(), Integer.MAX_VALUE / 2),
+                        documentRepository.countInSubtree(draft.getFolderId()))
+                .flatMap(counts -> repository.save(builder
+                        .status(FolderJobStatus.PENDING)
+                        .totalFolders(counts.getT1() + 1)
+                        .totalDocuments(counts.getT2())
+                        .processedFolders(0L)
+                        .processedDocuments(0L)
+                        .failedDocuments(0L)
+                        .build()))
+                .flatMap(this::pollAfterCommit);
+    }
+
+    /**
+     * Let the runner of this instance claim the job as soon as it is committed, rather than on its next poll.
+     */
+    private Mono<FolderJob> pollAfterCommit(FolderJob job) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(folderJobRunner::poll);
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, error -> Mono.fromRunnable(folderJobRunner::poll))
+                .thenReturn(job);
+    }
+}
@@ -20,18 +20,41 @@ package com.firefly.commons.ecm.core.services.impl;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.filters.FilterUtils;
 import com.firefly.common.core.queries.PaginationResponse;
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.events.FolderChangedEvent;
+import com.firefly.commons.ecm.core.index.FolderTree;
+import com.firefly.commons.ecm.core.index.FolderTreeCache;
+import com.firefly.commons.ecm.core.mappers.DocumentMapper;
 import com.firefly.commons.ecm.core.mappers.FolderMapper;
+import com.firefly.commons.ecm.core.mappers.FolderStatsMapper;
 import com.firefly.commons.ecm.core.services.FolderService;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentDTO;
 import com.firefly.commons.ecm.interfaces.dtos.FolderDTO;
+import com.firefly.commons.ecm.interfaces.dtos.FolderStatsDTO;
 import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
 import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import com.firefly.commons.ecm.models.repositories.FolderStatsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 /**
  * Implementation of the FolderService interface.
+ * Folder paths (id_path, depth and the name path) are maintained here on create and update,
+ * so that subtree and ancestor lookups are single indexed queries. Path resolution and breadcrumbs
+ * are served from the in-memory {@link FolderTreeCache}, falling back to the database.
  */
 @Service
 @Transactional
@@ -43,6 +66,27 @@ public class FolderServiceImpl implements FolderService {
     @Autowired
     private FolderMapper mapper;
 
+    @Autowired
+    private FolderStatsRepository folderStatsRepository;
+
+    @Autowired
+    private FolderStatsMapper folderStatsMapper;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentMapper documentMapper;
+
+    @Autowired
+    private EcmIntegrationProperties properties;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FolderTreeCache folderTreeCache;
+
     @Override
     public Mono<FolderDTO> getById(UUID id) {
         return repository.findById(id)
@@ -70,18 +114,52 @@ public class FolderServiceImpl implements FolderService {
                     // Preserve created info
                     entityToUpdate.setCreatedAt(existingEntity.getCreatedAt());
                     entityToUpdate.setCreatedBy(existingEntity.getCreatedBy());
-                    return repository.save(entityToUpdate);
+                    // Paths are maintained by the service
+                    entityToUpdate.setPath(existingEntity.getPath());
+                    entityToUpdate.setIdPath(existingEntity.getIdPath());
+                    entityToUpdate.setDepth(existingEntity.getDepth());
+
+                    boolean renamed = !Objects.equals(existingEntity.getName(), entityToUpdate.getName());
+                    if (renamed && !isValidName(entityToUpdate.getName())) {
+                        return Mono.error(invalidName());
+                    }
+                    boolean relocated = renamed
+                            || !Objects.equals(existingEntity.getParentFolderId(), entityToUpdate.getParentFolderId());
+                    if (!relocated) {
+                        return repository.save(entityToUpdate)
+                                .flatMap(savedEntity -> folderTreeCache.publishChange(savedEntity.getTenantId()).thenReturn(savedEntity))
+                                .flatMap(savedEntity -> publishAfterCommit(
+                                        new FolderChangedEvent(EntityChangeType.UPDATED, savedEntity, existingEntity)).thenReturn(savedEntity));
+                    }
+                    // Save the other attributes first, then move and rename through the subtree rewrite
+                    UUID parentFolderId = entityToUpdate.getParentFolderId();
+                    String name = renamed ? entityToUpdate.getName().trim() : entityToUpdate.getName();
+                    entityToUpdate.setParentFolderId(existingEntity.getParentFolderId());
+                    entityToUpdate.setName(existingEntity.getName());
+                    return repository.save(entityToUpdate)
+                            .flatMap(savedEntity -> relocate(savedEntity.getId(), parentFolderId, name))
+                            .flatMap(savedEntity -> publishAfterCommit(
+                                    new FolderChangedEvent(EntityChangeType.UPDATED, savedEntity, existingEntity)).thenReturn(savedEntity));
                 })
                 .map(mapper::toDTO);
     }
 
     @Override
     public Mono<FolderDTO> create(FolderDTO folder) {
+        if (!isValidName(folder.getName())) {
+            return Mono.error(invalidName());
+        }
         // Ensure ID is null for create operation
         folder.setId(null);
 
         Folder entity = mapper.toEntity(folder);
+        entity.setName(entity.getName().trim());
         return repository.save(entity)
+                .flatMap(savedEntity -> repository.lockHierarchyShared(savedEntity.getTenantId())
+                        .then(repository.assignPaths(savedEntity.getId())))
+                .flatMap(savedEntity -> folderTreeCache.publishChange(savedEntity.getTenantId()).thenReturn(savedEntity))
+                .flatMap(savedEntity -> publishAfterCommit(
+                        new FolderChangedEvent(EntityChangeType.CREATED, savedEntity, null)).thenReturn(savedEntity))
                 .map(mapper::toDTO);
     }
 
@@ -89,6 +167,250 @@ public class FolderServiceImpl implements FolderService {
     public Mono<Void> delete(UUID id) {
         return repository.findById(id)
                 .switchIfEmpty(Mono.error(new RuntimeException("Folder not found with ID: " + id)))
-                .flatMap(entity -> repository.delete(entity));
+                .flatMap(existing -> repository.lockHierarchy(existing.getTenantId())
+                        .then(requireFolder(id)))
+                // The subtree leaves its ancestors' totals; children become root folders with their own totals
+                .flatMap(entity -> shiftStats(entity, null)
+                        .then(repository.delete(entity))
+                        .then(detachChildren(entity))
+                        .then(folderTreeCache.publishChange(entity.getTenantId()))
+                        .then(Mono.defer(() -> publishAfterCommit(
+                                new FolderChangedEvent(EntityChangeType.DELETED, entity, null)))));
+    }
+
+    @Override
+    public Mono<FolderDTO> move(UUID folderId, UUID parentFolderId) {
+        return requireFolder(folderId)
+                .flatMap(existing -> relocate(folderId, parentFolderId, existing.getName())
+                        .flatMap(moved -> publishAfterCommit(
+                                new FolderChangedEvent(EntityChangeType.UPDATED, moved, existing)).thenReturn(moved)))
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<FolderDTO> rename(UUID folderId, String name) {
+        if (!isValidName(name)) {
+            return Mono.error(invalidName());
+        }
+        return requireFolder(folderId)
+                .flatMap(existing -> relocate(folderId, existing.getParentFolderId(), name.trim())
+                        .flatMap(renamed -> publishAfterCommit(
+                                new FolderChangedEvent(EntityChangeType.UPDATED, renamed, existing)).thenReturn(renamed)))
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<FolderStatsDTO> getStats(UUID folderId) {
+        return folderStatsRepository.findById(folderId)
+                .map(folderStatsMapper::toDTO)
+                // Folders without documents anywhere below them have no statistics row yet
+                .switchIfEmpty(Mono.defer(() -> requireFolder(folderId)
+                        .map(folder -> FolderStatsDTO.builder()
+                                .folderId(folderId)
+                                .directDocumentCount(0L)
+                                .directBytes(0L)
+                                .totalDocumentCount(0L)
+                                .totalBytes(0L)
+                                .build())));
+    }
+
+    @Override
+    public Mono<PaginationResponse<FolderDTO>> getDescendants(UUID folderId, Integer maxDepth, Integer page, Integer size) {
+        int depth = maxDepth == null || maxDepth <= 0 ? Integer.MAX_VALUE / 2 : maxDepth;
+        int pageNumber = resolvePage(page);
+        int pageSize = resolvePageSize(size);
+
+        return requireFolder(folderId)
+                .flatMap(folder -> Mono.zip(
+                        repository.findDescendants(folderId, depth, pageSize, (long) pageNumber * pageSize)
+                                .map(mapper::toDTO)
+                                .collectList(),
+                        repository.countDescendants(folderId, depth)))
+                .map(tuple -> toPage(tuple.getT1(), tuple.getT2(), pageNumber, pageSize));
+    }
+
+    @Override
+    public Flux<FolderDTO> getAncestors(UUID folderId) {
+        return requireFolder(folderId)
+                .flatMapMany(folder -> repository.findAncestors(folderId))
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<PaginationResponse<DocumentDTO>> getSubtreeDocuments(UUID folderId, Integer page, Integer size) {
+        int pageNumber = resolvePage(page);
+        int pageSize = resolvePageSize(size);
+
+        return requireFolder(folderId)
+                .flatMap(folder -> Mono.zip(
+                        documentRepository.findInSubtree(folderId, pageSize, (long) pageNumber * pageSize)
+                                .map(documentMapper::toDTO)
+                                .collectList(),
+                        documentRepository.countInSubtree(folderId)))
+                .map(tuple -> toPage(tuple.getT1(), tuple.getT2(), pageNumber, pageSize));
+    }
+
+    @Override
+    public Mono<FolderDTO> resolvePath(String tenantId, String path) {
+        if (path == null || path.isBlank()) {
+            return Mono.error(new IllegalArgumentException("Path cannot be empty"));
+        }
+        String normalized = FolderTree.normalizePath(path);
+        return folderTreeCache.getTree(tenantId)
+                .map(tree -> Optional.ofNullable(tree.resolve(normalized)))
+                .switchIfEmpty(Mono.defer(() -> repository.findByTenantIdAndPath(tenantId, normalized).map(Optional::of)))
+                .flatMap(Mono::justOrEmpty)
+                .switchIfEmpty(Mono.error(new RuntimeException("Folder not found with path: " + normalized)))
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Flux<FolderDTO> getBreadcrumbs(String tenantId, UUID folderId) {
+        Mono<List<Folder>> fromDatabase = Mono.defer(() -> requireFolder(folderId)
+                .flatMap(folder -> repository.findAncestors(folderId)
+                        .concatWith(Mono.just(folder))
+                        .collectList()));
+        return folderTreeCache.getTree(tenantId)
+                .map(tree -> tree.breadcrumbs(folderId))
+                .filter(trail -> !trail.isEmpty())
+                .switchIfEmpty(fromDatabase)
+                .flatMapMany(Flux::fromIterable)
+                .map(mapper::toDTO);
+    }
+
+    private Mono<Folder> requireFolder(UUID folderId) {
+        return repository.findById(folderId)
+                .switchIfEmpty(Mono.error(new RuntimeException("Folder not found with ID: " + folderId)));
+    }
+
+    /**
+     * Move and/or rename a folder under the tenant's exclusive hierarchy lock. The folder and its
+     * new parent are read again once the lock is held, so that concurrent moves cannot create a cycle,
+     * and the whole subtree is then rewritten by one statement.
+     */
+    private Mono<Folder> relocate(UUID folderId, UUID parentFolderId, String name) {
+        return requireFolder(folderId)
+                .flatMap(current -> repository.lockHierarchy(current.getTenantId())
+                        .then(requireFolder(folderId)))
+                .flatMap(folder -> findParent(folder, parentFolderId)
+                        .flatMap(parent -> shiftStats(folder, parentFolderId)
+                                .then(rewritePaths(folder, parent.orElse(null), name))))
+                .flatMap(moved -> folderTreeCache.publishChange(moved.getTenantId()).thenReturn(moved));
+    }
+
+    /**
+     * Load the new parent of a folder, rejecting parents of another tenant and moves into the folder's own subtree.
+     */
+    private Mono<Optional<Folder>> findParent(Folder folder, UUID parentFolderId) {
+        if (parentFolderId == null) {
+            return Mono.just(Optional.empty());
+        }
+        return repository.findById(parentFolderId)
+                .switchIfEmpty(Mono.error(new RuntimeException("Parent folder not found with ID: " + parentFolderId)))
+                .flatMap(parent -> {
+                    if (!Objects.equals(parent.getTenantId(), folder.getTenantId())) {
+                        return Mono.error(new IllegalArgumentException("Parent folder belongs to another tenant: " + parentFolderId));
+                    }
+                    if (parent.getId().equals(folder.getId())
+                            || (parent.getIdPath() != null && parent.getIdPath().contains("/" + folder.getId() + "/"))) {
+                        return Mono.error(new IllegalArgumentException("Folder cannot be moved into its own subtree: " + folder.getId()));
+                    }
+                    return Mono.just(Optional.of(parent));
+                });
+    }
+
+    /**
+     * Move the subtree totals of a folder from the ancestors of its current parent to those of its new parent.
+     * Called under the exclusive hierarchy lock, which document deltas wait for.
+     */
+    private Mono<Void> shiftStats(Folder folder, UUID parentFolderId) {
+        if (Objects.equals(folder.getParentFolderId(), parentFolderId)) {
+            return Mono.empty();
+        }
+        return folderStatsRepository.findById(folder.getId())
+                .filter(stats -> stats.getTotalDocumentCount() != 0 || stats.getTotalBytes() != 0)
+                .flatMap(stats -> {
+                    long count = stats.getTotalDocumentCount();
+                    long bytes = stats.getTotalBytes();
+                    Mono<Integer> leave = folder.getParentFolderId() == null ? Mono.empty()
+                            : folderStatsRepository.applyDelta(folder.getParentFolderId(), 0, 0, -count, -bytes);
+                    Mono<Integer> enter = parentFolderId == null ? Mono.empty()
+                            : folderStatsRepository.applyDelta(parentFolderId, 0, 0, count, bytes);
+                    return leave.then(enter);
+                })
+                .then();
+    }
+
+    /**
+     * Re-root the subtrees below a deleted folder, whose children the database turned into root folders.
+     */
+    private Mono<Integer> detachChildren(Folder folder) {
+        if (folder.getIdPath() == null || folder.getPath() == null) {
+            return Mono.just(0);
+        }
+        return repository.detachSubtreePaths(folder.getIdPath(), folder.getPath(),
+                folder.getDepth() != null ? folder.getDepth() : 0);
+    }
+
+    /**
+     * Set the parent and name of a folder and rewrite the paths of the folder and of all its descendants in one statement.
+     */
+    private Mono<Folder> rewritePaths(Folder folder, Folder parent, String name) {
+        if (folder.getIdPath() == null) {
+            folder.setParentFolderId(parent != null ? parent.getId() : null);
+            folder.setName(name);
+            return repository.save(folder)
+                    .flatMap(saved -> repository.assignPaths(saved.getId()));
+        }
+        String newIdPath = (parent != null && parent.getIdPath() != null ? parent.getIdPath() : "/") + folder.getId() + "/";
+        String newPath = (parent != null && parent.getPath() != null ? parent.getPath() : "") + "/" + name;
+        int newDepth = parent != null && parent.getDepth() != null ? parent.getDepth() + 1 : 0;
+        int previousDepth = folder.getDepth() != null ? folder.getDepth() : 0;
+        String previousPath = folder.getPath() != null ? folder.getPath() : "";
+
+        return repository.moveSubtree(folder.getId(), parent != null ? parent.getId() : null, name,
+                        folder.getIdPath(), newIdPath, previousPath, newPath, newDepth - previousDepth)
+                .then(repository.findById(folder.getId()));
+    }
+
+    private int resolvePage(Integer page) {
+        return page == null || page < 0 ? 0 : page;
+    }
+
+    private int resolvePageSize(Integer size) {
+        EcmIntegrationProperties.FolderDefaults folders = properties.getFolders();
+        return size == null || size <= 0 ? folders.getDefaultPageSize() : Math.min(size, folders.getMaxPageSize());
+    }
+
+    /**
+     * Check a new folder name, which becomes a segment of the materialized path of the folder and its subtree.
+     */
+    /**
+     * Publish a folder change once its transaction has committed, so that the in-memory folder trees and
+     * name indexes never serve a move, rename or delete that may still roll back.
+     */
+    private Mono<Void> publishAfterCommit(FolderChangedEvent event) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(() -> eventPublisher.publishEvent(event));
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, error -> Mono.fromRunnable(() -> eventPublisher.publishEvent(event)))
+                .then();
+    }
+
+    private static boolean isValidName(String name) {
+        return name != null && !name.isBlank() && !name.contains("/");
+    }
+
+    private static IllegalArgumentException invalidName() {
+        return new IllegalArgumentException("Folder name must be non-empty and cannot contain '/'");
+    }
+
+    private static <T> PaginationResponse<T> toPage(List<T> content, long total, int page, int size) {
+        int totalPages = (int) ((total + size - 1) / size);
+        return new PaginationResponse<>(content, total, totalPages, page);
     }
 }
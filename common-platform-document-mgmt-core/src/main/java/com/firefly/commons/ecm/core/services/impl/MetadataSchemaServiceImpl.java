@@ -0,0 +1,119 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services.impl;
+
+import com.firefly.commons.ecm.core.mappers.MetadataSchemaFieldMapper;
+import com.firefly.commons.ecm.core.metadata.MetadataSchemaRegistry;
+import com.firefly.commons.ecm.core.metadata.MetadataSchemaValidator;
+import com.firefly.commons.ecm.core.services.MetadataSchemaService;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataSchemaDTO;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataSchemaFieldDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import com.firefly.commons.ecm.models.entities.MetadataSchemaField;
+import com.firefly.commons.ecm.models.repositories.MetadataSchemaFieldRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+/**
+ * Implementation of the MetadataSchemaService interface.
+ * Stores metadata schema templates and drops their compiled validators when they change.
+ */
+@Service
+@Transactional
+@Slf4j
+public class MetadataSchemaServiceImpl implements MetadataSchemaService {
+
+    @Autowired
+    private MetadataSchemaFieldRepository repository;
+
+    @Autowired
+    private MetadataSchemaFieldMapper mapper;
+
+    @Autowired
+    private MetadataSchemaRegistry schemaRegistry;
+
+    @Override
+    public Mono<MetadataSchemaDTO> getSchema(String tenantId, DocumentType documentType) {
+        if (tenantId == null || tenantId.isBlank() || documentType == null) {
+            return Mono.error(new IllegalArgumentException("Tenant ID and document type are required for a metadata schema"));
+        }
+        return repository.findByTenantIdAndDocumentType(tenantId, documentType)
+                .map(mapper::toDTO)
+                .collectList()
+                .map(fields -> toSchema(tenantId, documentType, fields));
+    }
+
+    @Override
+    public Mono<MetadataSchemaDTO> replaceSchema(String tenantId, DocumentType documentType, MetadataSchemaDTO schema) {
+        if (tenantId == null || tenantId.isBlank() || documentType == null) {
+            return Mono.error(new IllegalArgumentException("Tenant ID and document type are required for a metadata schema"));
+        }
+        List<MetadataSchemaField> fields = (schema != null && schema.getFields() != null ? schema.getFields() : List.<MetadataSchemaFieldDTO>of())
+                .stream()
+                .map(field -> {
+                    MetadataSchemaField entity = mapper.toEntity(field);
+                    entity.setId(null);
+                    entity.setVersion(null);
+                    entity.setTenantId(tenantId);
+                    entity.setDocumentType(documentType);
+                    if (entity.getIsRequired() == null) {
+                        entity.setIsRequired(Boolean.FALSE);
+                    }
+                    return entity;
+                })
+                .toList();
+        try {
+            MetadataSchemaValidator.compile(fields);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
+        log.debug("Replacing metadata schema of tenant {} and type {} with {} fields", tenantId, documentType, fields.size());
+        return repository.deleteByTenantIdAndDocumentType(tenantId, documentType)
+                .thenMany(repository.saveAll(fields))
+                .map(mapper::toDTO)
+                .collectList()
+                .map(saved -> toSchema(tenantId, documentType, saved))
+                .doFinally(signal -> schemaRegistry.invalidate(tenantId, documentType))
+                .doOnSuccess(saved -> log.info("Metadata schema of tenant {} and type {} replaced with {} fields",
+                        tenantId, documentType, saved.getFields().size()));
+    }
+
+    @Override
+    public Mono<Void> deleteSchema(String tenantId, DocumentType documentType) {
+        if (tenantId == null || tenantId.isBlank() || documentType == null) {
+            return Mono.error(new IllegalArgumentException("Tenant ID and document type are required for a metadata schema"));
+        }
+        return repository.deleteByTenantIdAndDocumentType(tenantId, documentType)
+                .doFinally(signal -> schemaRegistry.invalidate(tenantId, documentType))
+                .doOnSuccess(deleted -> log.info("Metadata schema of tenant {} and type {} deleted ({} fields)", tenantId, documentType, deleted))
+                .then();
+    }
+
+    private static MetadataSchemaDTO toSchema(String tenantId, DocumentType documentType, List<MetadataSchemaFieldDTO> fields) {
+        return MetadataSchemaDTO.builder()
+                .tenantId(tenantId)
+                .documentType(documentType)
+                .fields(fields)
+                .build();
+    }
+}
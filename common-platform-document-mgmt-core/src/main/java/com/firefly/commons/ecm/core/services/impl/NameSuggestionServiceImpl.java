@@ -0,0 +1,145 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.services.impl;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.index.NamePrefixIndex;
+import com.firefly.commons.ecm.core.index.NameSuggestionIndexRegistry;
+import com.firefly.commons.ecm.core.services.NameSuggestionService;
+import com.firefly.commons.ecm.interfaces.dtos.NameSuggestionDTO;
+import com.firefly.commons.ecm.interfaces.enums.NameSuggestionType;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+/**
+ * Implementation of the NameSuggestionService interface.
+ * Hot tenants are answered from the in-memory prefix index, everyone else from the
+ * prefix and trigram indexes on documents.name and folders.name.
+ */
+@Service
+@Slf4j
+public class NameSuggestionServiceImpl implements NameSuggestionService {
+
+    private static final int MIN_CANDIDATE_WINDOW = 50;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private NameSuggestionIndexRegistry indexRegistry;
+
+    @Autowired
+    private EcmIntegrationProperties properties;
+
+    @Override
+    public Flux<NameSuggestionDTO> suggest(String tenantId, String query, UUID folderId, NameSuggestionType type, Integer limit) {
+        if (tenantId == null || tenantId.isBlank()) {
+            return Flux.error(new IllegalArgumentException("Tenant ID is required for name suggestions"));
+        }
+        String normalized = query == null ? "" : NamePrefixIndex.normalize(query.trim());
+        if (normalized.isEmpty()) {
+            return Flux.empty();
+        }
+        int effectiveLimit = resolveLimit(limit);
+
+        // Folder-scoped lookups always use the (folder_id, name) index; only tenant-wide ones are kept in memory
+        NamePrefixIndex index = folderId == null ? indexRegistry.lookup(tenantId) : null;
+        Mono<List<NameSuggestionDTO>> prefixMatches = index != null
+                ? Mono.just(index.findByPrefix(normalized, type, effectiveLimit, candidateWindow(effectiveLimit)))
+                : findPrefixMatches(tenantId, normalized, folderId, type, effectiveLimit);
+
+        return prefixMatches.flatMapMany(matches -> Flux.fromIterable(matches)
+                .concatWith(findSimilarityMatches(tenantId, normalized, folderId, type, effectiveLimit, matches)));
+    }
+
+    private Mono<List<NameSuggestionDTO>> findPrefixMatches(String tenantId, String normalized, UUID folderId,
+                                                            NameSuggestionType type, int limit) {
+        String pattern = escapeLike(normalized) + "%";
+        int window = candidateWindow(limit);
+
+        Flux<NameSuggestionDTO> documents = type == NameSuggestionType.FOLDER ? Flux.empty()
+                : (folderId == null
+                        ? documentRepository.findNamePrefixMatches(tenantId, pattern, window, limit)
+                        : documentRepository.findNamePrefixMatchesInFolder(tenantId, folderId, pattern, window, limit))
+                        .map(NameSuggestionIndexRegistry::toSuggestion);
+        Flux<NameSuggestionDTO> folders = type == NameSuggestionType.DOCUMENT ? Flux.empty()
+                : (folderId == null
+                        ? folderRepository.findNamePrefixMatches(tenantId, pattern, window, limit)
+                        : folderRepository.findNamePrefixMatchesInFolder(tenantId, folderId, pattern, window, limit))
+                        .map(NameSuggestionIndexRegistry::toSuggestion);
+
+        return Flux.merge(documents, folders)
+                .collectSortedList(NamePrefixIndex.RANKING)
+                .map(matches -> matches.size() > limit ? matches.subList(0, limit) : matches);
+    }
+
+    private Flux<NameSuggestionDTO> findSimilarityMatches(String tenantId, String normalized, UUID folderId,
+                                                          NameSuggestionType type, int limit,
+                                                          List<NameSuggestionDTO> prefixMatches) {
+        int remaining = limit - prefixMatches.size();
+        if (remaining <= 0 || normalized.length() < properties.getSearch().getTrigramMinLength()) {
+            return Flux.empty();
+        }
+        Set<UUID> seen = prefixMatches.stream().map(NameSuggestionDTO::getId).collect(Collectors.toSet());
+
+        Flux<NameSuggestionDTO> documents = type == NameSuggestionType.FOLDER ? Flux.empty()
+                : (folderId == null
+                        ? documentRepository.findNameSimilarityMatches(tenantId, normalized, limit)
+                        : documentRepository.findNameSimilarityMatchesInFolder(tenantId, folderId, normalized, limit))
+                        .map(NameSuggestionIndexRegistry::toSuggestion);
+        Flux<NameSuggestionDTO> folders = type == NameSuggestionType.DOCUMENT ? Flux.empty()
+                : (folderId == null
+                        ? folderRepository.findNameSimilarityMatches(tenantId, normalized, limit)
+                        : folderRepository.findNameSimilarityMatchesInFolder(tenantId, folderId, normalized, limit))
+                        .map(NameSuggestionIndexRegistry::toSuggestion);
+
+        return documents.concatWith(folders)
+                .filter(suggestion -> seen.add(suggestion.getId()))
+                .take(remaining)
+                .doOnError(error -> log.warn("Trigram name suggestions failed for tenant {}: {}", tenantId, error.getMessage()))
+                .onErrorResume(error -> Flux.empty());
+    }
+
+    private int resolveLimit(Integer limit) {
+        EcmIntegrationProperties.SearchDefaults search = properties.getSearch();
+        if (limit == null || limit <= 0) {
+            return search.getSuggestionLimit();
+        }
+        return Math.min(limit, search.getMaxSuggestionLimit());
+    }
+
+    private static int candidateWindow(int limit) {
+        return Math.max(limit * 5, MIN_CANDIDATE_WINDOW);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
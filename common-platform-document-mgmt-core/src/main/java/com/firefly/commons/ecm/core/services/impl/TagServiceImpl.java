@@ -20,18 +20,27 @@ package com.firefly.commons.ecm.core.services.impl;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.filters.FilterUtils;
 import com.firefly.common.core.queries.PaginationResponse;
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.events.TagChangedEvent;
 import com.firefly.commons.ecm.core.mappers.TagMapper;
 import com.firefly.commons.ecm.core.services.TagService;
 import com.firefly.commons.ecm.interfaces.dtos.TagDTO;
 import com.firefly.commons.ecm.models.entities.Tag;
 import com.firefly.commons.ecm.models.repositories.TagRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.util.UUID;
 /**
  * Implementation of the TagService interface.
+ * Tag writes are published as events once committed, so that the in-memory tag dictionaries stay current.
  */
 @Service
 @Transactional
@@ -43,6 +52,12 @@ public class TagServiceImpl implements TagService {
     @Autowired
     private TagMapper mapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EcmIntegrationProperties properties;
+
     @Override
     public Mono<TagDTO> getById(UUID id) {
         return repository.findById(id)
@@ -70,7 +85,9 @@ public class TagServiceImpl implements TagService {
                     // Preserve created info
                     entityToUpdate.setCreatedAt(existingEntity.getCreatedAt());
                     entityToUpdate.setCreatedBy(existingEntity.getCreatedBy());
-                    return repository.save(entityToUpdate);
+                    return repository.save(entityToUpdate)
+                            .flatMap(saved -> publishAfterCommit(
+                                    new TagChangedEvent(EntityChangeType.UPDATED, saved, existingEntity)).thenReturn(saved));
                 })
                 .map(mapper::toDTO);
     }
@@ -82,6 +99,8 @@ public class TagServiceImpl implements TagService {
 
         Tag entity = mapper.toEntity(tag);
         return repository.save(entity)
+                .flatMap(saved -> publishAfterCommit(
+                        new TagChangedEvent(EntityChangeType.CREATED, saved, null)).thenReturn(saved))
                 .map(mapper::toDTO);
     }
 
@@ -89,6 +108,35 @@ public class TagServiceImpl implements TagService {
     public Mono<Void> delete(UUID id) {
         return repository.findById(id)
                 .switchIfEmpty(Mono.error(new RuntimeException("Tag not found with ID: " + id)))
-                .flatMap(entity -> repository.delete(entity));
+                .flatMap(entity -> repository.delete(entity)
+                        .then(Mono.defer(() -> publishAfterCommit(
+                                new TagChangedEvent(EntityChangeType.DELETED, entity, null)))));
+    }
+
+    /**
+     * Publish a tag change once its transaction has committed, so that no tag dictionary holds a write
+     * that may still roll back.
+     */
+    private Mono<Void> publishAfterCommit(TagChangedEvent event) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(() -> eventPublisher.publishEvent(event));
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, error -> Mono.fromRunnable(() -> eventPublisher.publishEvent(event)))
+                .then();
+    }
+
+    @Override
+    public Flux<TagDTO> findTopTags(String tenantId, Integer limit) {
+        if (tenantId == null || tenantId.isBlank()) {
+            return Flux.error(new IllegalArgumentException("Tenant ID is required for tag listings"));
+        }
+        EcmIntegrationProperties.TagDefaults tags = properties.getTags();
+        int size = limit == null || limit <= 0 ? tags.getTopDefaultLimit() : Math.min(limit, tags.getTopMaxLimit());
+        return repository.findTopByTenantId(tenantId, size)
+                .map(mapper::toDTO);
     }
 }
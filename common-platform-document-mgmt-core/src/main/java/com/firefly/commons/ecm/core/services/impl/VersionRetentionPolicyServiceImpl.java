@@ -0,0 +1,107 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.services.impl;
+
+import com.firefly.commons.ecm.core.mappers.VersionRetentionPolicyMapper;
+import com.firefly.commons.ecm.core.services.VersionRetentionPolicyService;
+import com.firefly.commons.ecm.interfaces.dtos.VersionRetentionPolicyDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import com.firefly.commons.ecm.models.entities.VersionRetentionPolicy;
+import com.firefly.commons.ecm.models.repositories.VersionRetentionPolicyRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+/**
+ * Implementation of the VersionRetentionPolicyService interface.
+ * Stores the version retention policies applied by the version pruner.
+ */
+@Service
+@Transactional
+@Slf4j
+public class VersionRetentionPolicyServiceImpl implements VersionRetentionPolicyService {
+
+    @Autowired
+    private VersionRetentionPolicyRepository repository;
+
+    @Autowired
+    private VersionRetentionPolicyMapper mapper;
+
+    @Override
+    public Mono<VersionRetentionPolicyDTO> getPolicy(String tenantId, DocumentType documentType) {
+        if (tenantId == null || tenantId.isBlank()) {
+            return Mono.error(new IllegalArgumentException("Tenant ID is required for a version retention policy"));
+        }
+        return findPolicy(tenantId, documentType)
+                .switchIfEmpty(Mono.error(new RuntimeException(
+                        "Version retention policy not found for tenant " + tenantId + " and type " + documentType)))
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<VersionRetentionPolicyDTO> replacePolicy(String tenantId, DocumentType documentType, VersionRetentionPolicyDTO policy) {
+        if (tenantId == null || tenantId.isBlank()) {
+            return Mono.error(new IllegalArgumentException("Tenant ID is required for a version retention policy"));
+        }
+        if (policy == null || (policy.getKeepLast() == null && policy.getKeepDays() == null
+                && !Boolean.TRUE.equals(policy.getKeepMajorVersions()))) {
+            return Mono.error(new IllegalArgumentException(
+                    "A version retention policy needs at least one of keepLast, keepDays or keepMajorVersions"));
+        }
+        if (policy.getKeepLast() != null && policy.getKeepLast() < 1) {
+            return Mono.error(new IllegalArgumentException("keepLast must be at least 1: " + policy.getKeepLast()));
+        }
+        if (policy.getKeepDays() != null && policy.getKeepDays() < 0) {
+            return Mono.error(new IllegalArgumentException("keepDays must not be negative: " + policy.getKeepDays()));
+        }
+
+        return findPolicy(tenantId, documentType)
+                .defaultIfEmpty(VersionRetentionPolicy.builder().tenantId(tenantId).documentType(documentType).build())
+                .flatMap(entity -> {
+                    entity.setKeepLast(policy.getKeepLast());
+                    entity.setKeepMajorVersions(Boolean.TRUE.equals(policy.getKeepMajorVersions()));
+                    entity.setKeepDays(policy.getKeepDays());
+                    return repository.save(entity);
+                })
+                .map(mapper::toDTO)
+                .doOnSuccess(saved -> log.info("Version retention policy of tenant {} and type {} replaced: keep last {}, major {}, days {}",
+                        tenantId, documentType, saved.getKeepLast(), saved.getKeepMajorVersions(), saved.getKeepDays()));
+    }
+
+    @Override
+    public Mono<Void> deletePolicy(String tenantId, DocumentType documentType) {
+        if (tenantId == null || tenantId.isBlank()) {
+            return Mono.error(new IllegalArgumentException("Tenant ID is required for a version retention policy"));
+        }
+        Mono<Integer> deleted = documentType == null
+                ? repository.deleteDefaultByTenantId(tenantId)
+                : repository.deleteByTenantIdAndDocumentType(tenantId, documentType);
+        return deleted
+                .doOnSuccess(count -> log.info("Version retention policy of tenant {} and type {} deleted ({} policies)",
+                        tenantId, documentType, count))
+                .then();
+    }
+
+    private Mono<VersionRetentionPolicy> findPolicy(String tenantId, DocumentType documentType) {
+        return documentType == null
+                ? repository.findDefaultByTenantId(tenantId)
+                : repository.findByTenantIdAndDocumentType(tenantId, documentType);
+    }
+}
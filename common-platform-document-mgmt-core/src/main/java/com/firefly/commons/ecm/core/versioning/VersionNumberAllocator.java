@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.versioning;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.UUID;
+
+/**
+ * Allocates the version numbers of documents from their dedicated version counter.
+ *
+ * Each allocation advances the counter in one statement of its own transaction, so the row lock it takes
+ * is released before the version content is uploaded and concurrent uploads of one document queue only on
+ * the increment. Transient failures (lock timeouts, deadlocks, serialization failures) are retried a bounded
+ * number of times with backoff. A number whose upload fails afterwards is not reused, which leaves a gap.
+ */
+@Slf4j
+@Component
+public class VersionNumberAllocator {
+
+    private final DocumentRepository documentRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final EcmIntegrationProperties.DocumentDefaults properties;
+
+    public VersionNumberAllocator(DocumentRepository documentRepository,
+                                  ReactiveTransactionManager transactionManager,
+                                  EcmIntegrationProperties properties) {
+        this.documentRepository = documentRepository;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager,
+                new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        this.properties = properties.getDocument();
+    }
+
+    /**
+     * Allocate the next version number of a document.
+     *
+     * @param documentId The document ID
+     * @return A Mono emitting the allocated version number, or empty if the document does not exist
+     */
+    public Mono<Long> allocate(UUID documentId) {
+        return Mono.defer(() -> documentRepository.allocateVersionNumber(documentId))
+                .as(transactionalOperator::transactional)
+                .retryWhen(Retry.backoff(properties.getVersionAllocationMaxRetries(),
+                                properties.getVersionAllocationRetryBackoff())
+                        .filter(TransientDataAccessException.class::isInstance)
+                        .doBeforeRetry(signal -> log.debug("Retrying version number allocation for document {} after: {}",
+                                documentId, signal.failure().getMessage()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+}
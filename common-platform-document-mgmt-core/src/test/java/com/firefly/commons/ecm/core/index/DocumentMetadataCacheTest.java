@@ -0,0 +1,159 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.DocumentMetadata;
+import com.firefly.commons.ecm.models.repositories.DocumentMetadataRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentMetadataCacheTest {
+
+    @Mock
+    private DocumentMetadataRepository metadataRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private EcmIntegrationProperties properties;
+    private DocumentMetadataCache cache;
+
+    private final UUID documentId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        properties = new EcmIntegrationProperties();
+        cache = new DocumentMetadataCache(properties, metadataRepository, documentRepository, new SimpleMeterRegistry());
+    }
+
+    private DocumentMetadata entry(UUID documentId, String key, String value) {
+        return DocumentMetadata.builder().documentId(documentId).key(key).value(value).build();
+    }
+
+    @Test
+    void servesCachedMetadataUntilTheVersionChanges() {
+        when(documentRepository.findMetadataVersion(documentId)).thenReturn(Mono.just(1L), Mono.just(1L), Mono.just(1L),
+                Mono.just(2L), Mono.just(2L));
+        when(metadataRepository.findAllByDocumentId(documentId)).thenReturn(
+                Flux.just(entry(documentId, "owner", "alice")),
+                Flux.just(entry(documentId, "owner", "bob")));
+
+        StepVerifier.create(cache.get(documentId).map(rows -> rows.get(0).getValue()))
+                .expectNext("alice")
+                .verifyComplete();
+        StepVerifier.create(cache.get(documentId).map(rows -> rows.get(0).getValue()))
+                .expectNext("alice")
+                .verifyComplete();
+        // Another instance wrote the metadata: the new version is seen before the cached entry is served
+        StepVerifier.create(cache.get(documentId).map(rows -> rows.get(0).getValue()))
+                .expectNext("bob")
+                .verifyComplete();
+
+        verify(metadataRepository, times(2)).findAllByDocumentId(documentId);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        Sinks.One<DocumentMetadata> rows = Sinks.one();
+        when(documentRepository.findMetadataVersion(documentId)).thenReturn(Mono.just(1L));
+        when(metadataRepository.findAllByDocumentId(documentId)).thenReturn(rows.asMono().flux());
+
+        StepVerifier.create(Mono.zip(cache.get(documentId), cache.get(documentId)))
+                .then(() -> rows.tryEmitValue(entry(documentId, "owner", "alice")))
+                .assertNext(both -> {
+                    assertEquals("alice", both.getT1().get(0).getValue());
+                    assertEquals("alice", both.getT2().get(0).getValue());
+                })
+                .verifyComplete();
+
+        verify(metadataRepository, times(1)).findAllByDocumentId(documentId);
+    }
+
+    @Test
+    void evictsLeastRecentlyReadDocumentsBeyondTheByteLimit() {
+        properties.getMetadata().setCacheMaxBytes(1024L);
+        UUID otherId = UUID.randomUUID();
+        when(documentRepository.findMetadataVersion(documentId)).thenReturn(Mono.just(1L));
+        when(documentRepository.findMetadataVersion(otherId)).thenReturn(Mono.just(1L));
+        when(metadataRepository.findAllByDocumentId(documentId)).thenReturn(Flux.just(entry(documentId, "notes", "x".repeat(200))));
+        when(metadataRepository.findAllByDocumentId(otherId)).thenReturn(Flux.just(entry(otherId, "notes", "y".repeat(200))));
+
+        StepVerifier.create(cache.get(documentId)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.get(otherId)).expectNextCount(1).verifyComplete();
+
+        assertEquals(1, cache.size());
+        assertTrue(cache.bytes() <= 1024L);
+    }
+
+    @Test
+    void warmLoadsManyDocumentsWithOneQuery() {
+        UUID otherId = UUID.randomUUID();
+        when(documentRepository.findMetadataVersions(anyCollection())).thenReturn(Flux.just(
+                Document.builder().id(documentId).metadataVersion(3L).build(),
+                Document.builder().id(otherId).metadataVersion(1L).build()));
+        when(metadataRepository.findAllByDocumentIdIn(anyCollection())).thenReturn(Flux.just(entry(documentId, "owner", "alice")));
+        when(documentRepository.findMetadataVersion(documentId)).thenReturn(Mono.just(3L));
+        when(documentRepository.findMetadataVersion(otherId)).thenReturn(Mono.just(1L));
+
+        cache.warm(List.of(documentId, otherId));
+
+        assertEquals(2, cache.size());
+        StepVerifier.create(cache.get(documentId).map(rows -> rows.get(0).getValue()))
+                .expectNext("alice")
+                .verifyComplete();
+        StepVerifier.create(cache.get(otherId))
+                .expectNext(List.of())
+                .verifyComplete();
+        verify(metadataRepository, never()).findAllByDocumentId(documentId);
+        verify(metadataRepository, never()).findAllByDocumentId(otherId);
+    }
+
+    @Test
+    void invalidateDropsTheEntry() {
+        when(documentRepository.findMetadataVersion(documentId)).thenReturn(Mono.just(1L));
+        when(metadataRepository.findAllByDocumentId(documentId)).thenReturn(Flux.just(entry(documentId, "owner", "alice")));
+
+        StepVerifier.create(cache.get(documentId)).expectNextCount(1).verifyComplete();
+        cache.invalidate(documentId);
+
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.bytes());
+    }
+}
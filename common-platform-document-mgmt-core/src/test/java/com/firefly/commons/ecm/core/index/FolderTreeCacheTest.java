@@ -0,0 +1,88 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FolderTreeCacheTest {
+
+    private static final String TENANT = "tenant-1";
+
+    @Mock
+    private FolderRepository folderRepository;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    private FolderTreeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        EcmIntegrationProperties properties = new EcmIntegrationProperties();
+        properties.getFolders().setTreeCacheMaxFoldersPerTenant(2);
+        cache = new FolderTreeCache(folderRepository, connectionFactory, properties);
+    }
+
+    @Test
+    void getTree_LoadsTenantOnce() {
+        when(folderRepository.countByTenantId(TENANT)).thenReturn(Mono.just(1L));
+        when(folderRepository.findByTenantId(TENANT)).thenReturn(Flux.just(Folder.builder()
+                .id(UUID.randomUUID()).name("Contracts").path("/Contracts").tenantId(TENANT).build()));
+
+        StepVerifier.create(cache.getTree(TENANT))
+                .expectNextMatches(tree -> tree.size() == 1)
+                .verifyComplete();
+        StepVerifier.create(cache.getTree(TENANT))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(folderRepository, times(1)).countByTenantId(TENANT);
+    }
+
+    @Test
+    void getTree_TenantAboveLimit_IsEmptyAndNotRecounted() {
+        when(folderRepository.countByTenantId(TENANT)).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(cache.getTree(TENANT))
+                .verifyComplete();
+        StepVerifier.create(cache.getTree(TENANT))
+                .verifyComplete();
+
+        verify(folderRepository, times(1)).countByTenantId(TENANT);
+        verify(folderRepository, never()).findByTenantId(TENANT);
+    }
+}
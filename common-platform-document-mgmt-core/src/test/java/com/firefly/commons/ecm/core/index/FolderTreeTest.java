@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.models.entities.Folder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FolderTreeTest {
+
+    private final UUID contractsId = UUID.randomUUID();
+    private final UUID yearId = UUID.randomUUID();
+    private final UUID clientId = UUID.randomUUID();
+    private final UUID archiveId = UUID.randomUUID();
+
+    @Test
+    void resolve_FindsFoldersByNormalizedPath() {
+        FolderTree tree = loadedTree();
+
+        assertEquals(clientId, tree.resolve(FolderTree.normalizePath("Contracts//2024/Acme/")).getId());
+        assertEquals(contractsId, tree.resolve("/Contracts").getId());
+        assertNull(tree.resolve("/Contracts/2023"));
+        assertEquals("/", FolderTree.normalizePath("//"));
+    }
+
+    @Test
+    void breadcrumbs_ReturnsRootFirstEndingWithFolder() {
+        FolderTree tree = loadedTree();
+
+        assertEquals(List.of(contractsId, yearId, clientId), ids(tree.breadcrumbs(clientId)));
+        assertEquals(List.of(contractsId), ids(tree.breadcrumbs(contractsId)));
+        assertTrue(tree.breadcrumbs(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void put_MovedFolderRewritesDescendantPaths() {
+        FolderTree tree = loadedTree();
+
+        tree.put(folder(yearId, "2024", archiveId, "/Archive/2024", "/" + archiveId + "/" + yearId + "/", 1));
+
+        assertNull(tree.resolve("/Contracts/2024/Acme"));
+        Folder client = tree.resolve("/Archive/2024/Acme");
+        assertEquals(clientId, client.getId());
+        assertEquals("/" + archiveId + "/" + yearId + "/" + clientId + "/", client.getIdPath());
+        assertEquals(2, client.getDepth());
+        assertEquals(List.of(archiveId, yearId, clientId), ids(tree.breadcrumbs(clientId)));
+    }
+
+    @Test
+    void remove_ReRootsChildren() {
+        FolderTree tree = loadedTree();
+
+        tree.remove(contractsId);
+
+        assertNull(tree.get(contractsId));
+        assertEquals(yearId, tree.resolve("/2024").getId());
+        assertEquals(clientId, tree.resolve("/2024/Acme").getId());
+        assertEquals(List.of(yearId, clientId), ids(tree.breadcrumbs(clientId)));
+    }
+
+    @Test
+    void apply_QueuesMutationsUntilReady() {
+        FolderTree tree = new FolderTree();
+        tree.put(folder(contractsId, "Contracts", null, "/Contracts", "/" + contractsId + "/", 0));
+        tree.apply(loading -> loading.remove(contractsId));
+
+        assertEquals(contractsId, tree.resolve("/Contracts").getId());
+        tree.markReady();
+        assertNull(tree.resolve("/Contracts"));
+    }
+
+    private FolderTree loadedTree() {
+        FolderTree tree = new FolderTree();
+        tree.put(folder(clientId, "Acme", yearId, "/Contracts/2024/Acme", "/" + contractsId + "/" + yearId + "/" + clientId + "/", 2));
+        tree.put(folder(yearId, "2024", contractsId, "/Contracts/2024", "/" + contractsId + "/" + yearId + "/", 1));
+        tree.put(folder(contractsId, "Contracts", null, "/Contracts", "/" + contractsId + "/", 0));
+        tree.put(folder(archiveId, "Archive", null, "/Archive", "/" + archiveId + "/", 0));
+        tree.markReady();
+        return tree;
+    }
+
+    private static Folder folder(UUID id, String name, UUID parentFolderId, String path, String idPath, int depth) {
+        return Folder.builder()
+                .id(id)
+                .name(name)
+                .parentFolderId(parentFolderId)
+                .path(path)
+                .idPath(idPath)
+                .depth(depth)
+                .tenantId("tenant-1")
+                .build();
+    }
+
+    private static List<UUID> ids(List<Folder> folders) {
+        return folders.stream().map(Folder::getId).toList();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHasherTest {
+
+    private static final String CONTRACT = "This service agreement is entered into by the supplier and the customer. "
+            + "The supplier shall deliver the services described in schedule one within thirty days of signature. "
+            + "Payment is due within sixty days of the invoice date and late payments accrue interest at two percent. "
+            + "Either party may terminate the agreement with ninety days written notice to the other party. "
+            + "This agreement is governed by the laws of Spain and disputes are settled by the courts of Madrid.";
+
+    private final MinHasher minHasher = new MinHasher(128, 16, 5, 1024 * 1024);
+
+    @Test
+    void signature_WithNearDuplicateText_EstimatesHighSimilarityAndSharesBuckets() {
+        int[] original = text(CONTRACT);
+        int[] rescan = text(CONTRACT.replace("ninety days", "ninety (90) days").toUpperCase());
+        int[] unrelated = text("Quarterly report on warehouse inventory levels, shipping delays and seasonal demand "
+                + "forecasts for the northern distribution centres, prepared by the logistics team.");
+
+        assertTrue(MinHasher.similarity(original, rescan) > 0.7);
+        assertTrue(MinHasher.similarity(original, unrelated) < 0.1);
+
+        long[] originalBuckets = minHasher.bandHashes(original);
+        long[] rescanBuckets = minHasher.bandHashes(rescan);
+        assertTrue(IntStream.range(0, 16).anyMatch(band -> originalBuckets[band] == rescanBuckets[band]));
+    }
+
+    @Test
+    void signature_WithBinaryContent_IsDeterministic() {
+        byte[] content = new byte[10_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31 % 251);
+        }
+        MinHasher.Signature first = minHasher.signature(content, "application/octet-stream");
+        MinHasher.Signature second = minHasher.signature(Arrays.copyOf(content, content.length), "application/octet-stream");
+
+        assertEquals(content.length - 7, first.shingleCount());
+        assertArrayEquals(first.values(), second.values());
+        assertEquals(1.0, MinHasher.similarity(first.values(), second.values()));
+    }
+
+    @Test
+    void encode_RoundTripsSignatureValues() {
+        int[] values = text(CONTRACT);
+        assertArrayEquals(values, MinHasher.decode(MinHasher.encode(values)));
+        assertEquals(0, minHasher.signature(new byte[0], "text/plain").shingleCount());
+    }
+
+    @Test
+    void constructor_WithBandsNotDividingHashes_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new MinHasher(128, 12, 5, 1024));
+    }
+
+    private int[] text(String content) {
+        return minHasher.signature(content.getBytes(StandardCharsets.UTF_8), "text/plain").values();
+    }
+}
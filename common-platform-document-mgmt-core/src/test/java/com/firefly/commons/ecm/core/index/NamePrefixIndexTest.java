@@ -0,0 +1,79 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.interfaces.dtos.NameSuggestionDTO;
+import com.firefly.commons.ecm.interfaces.enums.NameSuggestionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NamePrefixIndexTest {
+
+    @Test
+    void findByPrefix_RanksShortestNameFirstAndFiltersByType() {
+        NamePrefixIndex index = new NamePrefixIndex();
+        index.put(entry("Contract 2024 final.pdf", NameSuggestionType.DOCUMENT));
+        index.put(entry("contract.pdf", NameSuggestionType.DOCUMENT));
+        index.put(entry("Contracts", NameSuggestionType.FOLDER));
+        index.put(entry("Invoice.pdf", NameSuggestionType.DOCUMENT));
+
+        List<NameSuggestionDTO> all = index.findByPrefix("contr", null, 10, 50);
+        assertEquals(List.of("Contracts", "contract.pdf", "Contract 2024 final.pdf"),
+                all.stream().map(NameSuggestionDTO::getName).toList());
+
+        List<NameSuggestionDTO> documents = index.findByPrefix("contr", NameSuggestionType.DOCUMENT, 1, 50);
+        assertEquals(1, documents.size());
+        assertEquals("contract.pdf", documents.get(0).getName());
+    }
+
+    @Test
+    void put_WithRenamedEntity_ReplacesPreviousKey() {
+        NamePrefixIndex index = new NamePrefixIndex();
+        NameSuggestionDTO original = entry("draft.docx", NameSuggestionType.DOCUMENT);
+        index.put(original);
+        index.put(NameSuggestionDTO.builder().id(original.getId()).name("final.docx").type(NameSuggestionType.DOCUMENT).build());
+
+        assertTrue(index.findByPrefix("draft", null, 10, 50).isEmpty());
+        assertEquals(1, index.findByPrefix("final", null, 10, 50).size());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void apply_BeforeReady_QueuesMutationsUntilLoadCompletes() {
+        NamePrefixIndex index = new NamePrefixIndex();
+        NameSuggestionDTO deleted = entry("obsolete.txt", NameSuggestionType.DOCUMENT);
+        index.put(deleted);
+        index.apply(target -> target.remove(deleted.getId()));
+
+        assertEquals(1, index.size());
+
+        index.markReady();
+
+        assertTrue(index.isReady());
+        assertEquals(0, index.size());
+    }
+
+    private static NameSuggestionDTO entry(String name, NameSuggestionType type) {
+        return NameSuggestionDTO.builder().id(UUID.randomUUID()).name(name).type(type).build();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NameSuggestionIndexRegistryTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private FolderRepository folderRepository;
+
+    private NameSuggestionIndexRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        EcmIntegrationProperties properties = new EcmIntegrationProperties();
+        properties.getSearch().setHotTenantThreshold(2);
+        properties.getSearch().setMaxHotTenants(1);
+        properties.getSearch().setMaxTrackedTenants(2);
+        properties.getSearch().setMaxIndexedNamesPerTenant(10);
+        registry = new NameSuggestionIndexRegistry(documentRepository, folderRepository, properties);
+    }
+
+    private void stubTenant(String tenantId, long names) {
+        when(documentRepository.countByTenantId(tenantId)).thenReturn(Mono.just(names));
+        when(folderRepository.countByTenantId(tenantId)).thenReturn(Mono.just(0L));
+        if (names <= 10) {
+            when(documentRepository.findNameEntriesByTenantId(tenantId)).thenReturn(Flux.just(
+                    Document.builder().id(UUID.randomUUID()).name("contract.pdf").tenantId(tenantId).build()));
+            when(folderRepository.findNameEntriesByTenantId(tenantId)).thenReturn(Flux.just(
+                    Folder.builder().id(UUID.randomUUID()).name("Contracts").tenantId(tenantId).build()));
+        }
+    }
+
+    @Test
+    void lookup_BelowThreshold_ServesFromDatabase() {
+        assertNull(registry.lookup("tenant-1"));
+
+        verifyNoInteractions(documentRepository, folderRepository);
+    }
+
+    @Test
+    void lookup_AtThreshold_LoadsIndex() {
+        stubTenant("tenant-1", 1);
+
+        assertNull(registry.lookup("tenant-1"));
+        assertNull(registry.lookup("tenant-1"));
+        NamePrefixIndex index = registry.lookup("tenant-1");
+
+        assertNotNull(index);
+        assertEquals(2, index.size());
+        verify(documentRepository, times(1)).findNameEntriesByTenantId("tenant-1");
+    }
+
+    @Test
+    void lookup_TenantAboveNameLimit_IsNotIndexed() {
+        stubTenant("tenant-1", 11);
+
+        registry.lookup("tenant-1");
+        registry.lookup("tenant-1");
+
+        assertNull(registry.lookup("tenant-1"));
+        verify(documentRepository, never()).findNameEntriesByTenantId("tenant-1");
+    }
+
+    @Test
+    void lookup_BeyondMaxHotTenants_EvictsLeastRecentlyUsed() {
+        stubTenant("tenant-1", 1);
+        stubTenant("tenant-2", 1);
+
+        registry.lookup("tenant-1");
+        registry.lookup("tenant-1");
+        registry.lookup("tenant-2");
+        registry.lookup("tenant-2");
+
+        assertNotNull(registry.lookup("tenant-2"));
+        assertNull(registry.lookup("tenant-1"));
+    }
+
+    @Test
+    void lookup_BeyondMaxTrackedTenants_DropsLeastRecentlyCountedTenant() {
+        registry.lookup("tenant-1");
+        registry.lookup("tenant-2");
+        registry.lookup("tenant-3");
+        // tenant-1 was dropped, so this request counts as its first again
+        registry.lookup("tenant-1");
+
+        verifyNoInteractions(documentRepository, folderRepository);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.DocumentTag;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentTagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TagBitmapIndexRegistryTest {
+
+    private static final String TENANT = "tenant-1";
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentTagRepository documentTagRepository;
+
+    private TagBitmapIndexRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        EcmIntegrationProperties properties = new EcmIntegrationProperties();
+        properties.getTagIndex().setMaxDocumentsPerTenant(2);
+        registry = new TagBitmapIndexRegistry(documentRepository, documentTagRepository, properties);
+    }
+
+    @Test
+    void getIndex_BuildsTenantOnceWithinLimit() {
+        UUID documentId = UUID.randomUUID();
+        UUID tagId = UUID.randomUUID();
+        when(documentRepository.countByTenantId(TENANT)).thenReturn(Mono.just(1L));
+        when(documentRepository.findIdEntriesByTenantId(TENANT)).thenReturn(Flux.just(Document.builder().id(documentId).build()));
+        when(documentTagRepository.findTagEntriesByTenantId(TENANT))
+                .thenReturn(Flux.just(DocumentTag.builder().documentId(documentId).tagId(tagId).build()));
+
+        StepVerifier.create(registry.getIndex(TENANT))
+                .expectNextMatches(index -> index.size() == 1)
+                .verifyComplete();
+        StepVerifier.create(registry.getIndex(TENANT))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(documentRepository, times(1)).countByTenantId(TENANT);
+    }
+
+    @Test
+    void getIndex_TenantAboveLimit_IsEmptyAndNotRecounted() {
+        when(documentRepository.countByTenantId(TENANT)).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(registry.getIndex(TENANT))
+                .verifyComplete();
+        StepVerifier.create(registry.getIndex(TENANT))
+                .verifyComplete();
+
+        verify(documentRepository, times(1)).countByTenantId(TENANT);
+        verify(documentRepository, never()).findIdEntriesByTenantId(TENANT);
+    }
+}
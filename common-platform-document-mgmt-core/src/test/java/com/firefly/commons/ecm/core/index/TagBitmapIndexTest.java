@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TagBitmapIndexTest {
+
+    private final UUID kyc = UUID.randomUUID();
+    private final UUID year2024 = UUID.randomUUID();
+    private final UUID archived = UUID.randomUUID();
+    private final Map<String, List<UUID>> terms = Map.of(
+            "KYC", List.of(kyc), "2024", List.of(year2024), "archived", List.of(archived));
+
+    @Test
+    void query_EvaluatesAndOrNotExpressions() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        UUID untagged = UUID.randomUUID();
+        TagBitmapIndex index = readyIndex();
+        index.tag(first, kyc);
+        index.tag(first, year2024);
+        index.tag(second, kyc);
+        index.tag(second, year2024);
+        index.tag(second, archived);
+        index.tag(third, year2024);
+        index.addDocument(untagged);
+
+        assertEquals(List.of(first), ids(index, "KYC AND 2024 AND NOT archived"));
+        assertEquals(List.of(first, second, third), ids(index, "KYC or 2024"));
+        assertEquals(List.of(third, untagged), ids(index, "NOT (KYC OR archived)"));
+        assertEquals(List.of(), ids(index, "KYC AND unknown"));
+
+        index.untag(second, archived);
+        index.removeDocument(first);
+        assertEquals(List.of(second), ids(index, "KYC AND 2024 AND NOT archived"));
+    }
+
+    @Test
+    void query_ReturnsRequestedPageAndTotal() {
+        TagBitmapIndex index = readyIndex();
+        for (int i = 0; i < 25; i++) {
+            index.tag(UUID.randomUUID(), kyc);
+        }
+
+        TagBitmapIndex.TagQueryResult page = index.query(TagExpression.parse("KYC"), terms, 20, 10);
+        assertEquals(25, page.total());
+        assertEquals(5, page.documentIds().size());
+        assertTrue(index.query(TagExpression.parse("KYC"), terms, 30, 10).documentIds().isEmpty());
+    }
+
+    @Test
+    void writeTo_RoundTripsThroughSnapshot() throws IOException {
+        UUID document = UUID.randomUUID();
+        TagBitmapIndex index = readyIndex();
+        index.tag(document, kyc);
+        index.tag(UUID.randomUUID(), archived);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        TagBitmapIndex restored = TagBitmapIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertTrue(restored.isReady());
+        assertEquals(2, restored.size());
+        assertEquals(List.of(document), ids(restored, "KYC AND NOT archived"));
+    }
+
+    @Test
+    void parse_RejectsMalformedExpressionsAndCollectsTerms() {
+        assertEquals(Set.of("tax return", "invoice"), TagExpression.parse("\"tax return\" OR NOT invoice").terms());
+        assertThrows(IllegalArgumentException.class, () -> TagExpression.parse("KYC AND"));
+        assertThrows(IllegalArgumentException.class, () -> TagExpression.parse("(KYC OR 2024"));
+        assertThrows(IllegalArgumentException.class, () -> TagExpression.parse("KYC 2024"));
+        assertThrows(IllegalArgumentException.class, () -> TagExpression.parse(" "));
+    }
+
+    @Test
+    void toSql_ParenthesizesEveryOperator() {
+        assertEquals("(t:KYC AND (t:2024 OR (NOT t:archived)))",
+                TagExpression.parse("KYC AND (2024 OR NOT archived)").toSql(term -> "t:" + term));
+        assertEquals("t:KYC", TagExpression.parse("(KYC)").toSql(term -> "t:" + term));
+    }
+
+    private static TagBitmapIndex readyIndex() {
+        TagBitmapIndex index = new TagBitmapIndex();
+        index.markReady();
+        return index;
+    }
+
+    private List<UUID> ids(TagBitmapIndex index, String expression) {
+        return index.query(TagExpression.parse(expression), terms, 0, 100).documentIds();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.index;
+
+import com.firefly.commons.ecm.interfaces.dtos.TagDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TagDictionaryTest {
+
+    private final UUID kycId = UUID.randomUUID();
+    private final UUID archivedId = UUID.randomUUID();
+
+    @Test
+    void idOf_ResolvesNamesCaseSensitively() {
+        TagDictionary dictionary = loadedDictionary();
+
+        assertEquals(kycId, dictionary.idOf("KYC"));
+        assertNull(dictionary.idOf("kyc"));
+        assertNull(dictionary.idOf(null));
+        assertEquals("archived", dictionary.get(archivedId).getName());
+    }
+
+    @Test
+    void put_RenamedTagReleasesItsOldName() {
+        TagDictionary dictionary = loadedDictionary();
+
+        dictionary.put(tag(kycId, "Know Your Customer"));
+
+        assertNull(dictionary.idOf("KYC"));
+        assertEquals(kycId, dictionary.idOf("Know Your Customer"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void remove_DropsNameAndId() {
+        TagDictionary dictionary = loadedDictionary();
+
+        dictionary.remove(archivedId);
+
+        assertNull(dictionary.idOf("archived"));
+        assertNull(dictionary.get(archivedId));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    void put_InternsNames() {
+        TagDictionary first = new TagDictionary();
+        TagDictionary second = new TagDictionary();
+        first.put(tag(kycId, new String("KYC")));
+        second.put(tag(UUID.randomUUID(), new String("KYC")));
+
+        assertSame(first.get(kycId).getName(), second.get(second.idOf("KYC")).getName());
+    }
+
+    private TagDictionary loadedDictionary() {
+        TagDictionary dictionary = new TagDictionary();
+        dictionary.put(tag(kycId, "KYC"));
+        dictionary.put(tag(archivedId, "archived"));
+        return dictionary;
+    }
+
+    private static TagDTO tag(UUID id, String name) {
+        return TagDTO.builder().id(id).name(name).tenantId("tenant-1").build();
+    }
+}
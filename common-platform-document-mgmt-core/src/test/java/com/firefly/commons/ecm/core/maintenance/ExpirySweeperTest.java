@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExpirySweeperTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static class FakeSweeper extends ExpirySweeper<Integer> {
+
+        private final AtomicInteger remaining;
+        private final List<Integer> published = new ArrayList<>();
+        private int batches;
+
+        FakeSweeper(int expired, int batchSize, SimpleMeterRegistry meterRegistry) {
+            super("fake", settings(batchSize), meterRegistry);
+            this.remaining = new AtomicInteger(expired);
+        }
+
+        private static EcmIntegrationProperties.SweeperSettings settings(int batchSize) {
+            EcmIntegrationProperties.SweeperSettings settings = new EcmIntegrationProperties.SweeperSettings();
+            settings.setBatchSize(batchSize);
+            return settings;
+        }
+
+        @Override
+        protected Flux<Integer> sweepBatch(int limit) {
+            batches++;
+            int claimed = Math.min(limit, remaining.get());
+            remaining.addAndGet(-claimed);
+            return Flux.range(0, claimed);
+        }
+
+        @Override
+        protected Mono<Double> measureLagSeconds() {
+            return Mono.just(remaining.get() > 0 ? 42.4 : 0.0);
+        }
+
+        @Override
+        protected void publish(Integer row) {
+            published.add(row);
+        }
+    }
+
+    @Test
+    void sweepsBatchesUntilOneComesBackShort() {
+        FakeSweeper sweeper = new FakeSweeper(25, 10, meterRegistry);
+
+        StepVerifier.create(sweeper.sweep())
+                .expectNext(25L)
+                .verifyComplete();
+
+        assertEquals(3, sweeper.batches);
+        assertEquals(25, sweeper.published.size());
+        assertEquals(25.0, meterRegistry.get("ecm.sweeper.swept").tag("sweeper", "fake").counter().count());
+        assertEquals(0.0, meterRegistry.get("ecm.sweeper.lag").tag("sweeper", "fake").gauge().value());
+    }
+
+    @Test
+    void fullLastBatchIsFollowedByAnEmptyOne() {
+        FakeSweeper sweeper = new FakeSweeper(20, 10, meterRegistry);
+
+        StepVerifier.create(sweeper.sweep())
+                .expectNext(20L)
+                .verifyComplete();
+
+        assertEquals(3, sweeper.batches);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.index.FolderTreeCache;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobPhase;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobStatus;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobType;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.DocumentVersion;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.entities.FolderJob;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentVersionRepository;
+import com.firefly.commons.ecm.models.repositories.FolderJobRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import com.firefly.commons.ecm.models.repositories.FolderStatsRepository;
+import com.firefly.core.ecm.port.document.DocumentContentPort;
+import com.firefly.core.ecm.port.document.DocumentVersionPort;
+import com.firefly.core.ecm.service.EcmPortProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.ReactiveTransaction;
+import org.springframework.transaction.ReactiveTransactionManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FolderJobRunner.
+ */
+@ExtendWith(MockitoExtension.class)
+class FolderJobRunnerTest {
+
+    private static final UUID FIRST_DOCUMENT_ID = new UUID(0L, 0L);
+    private static final String TENANT_ID = "tenant-1";
+
+    @Mock
+    private FolderJobRepository jobRepository;
+
+    @Mock
+    private FolderRepository folderRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentVersionRepository versionRepository;
+
+    @Mock
+    private FolderStatsRepository folderStatsRepository;
+
+    @Mock
+    private EcmPortProvider ecmPortProvider;
+
+    @Mock
+    private DocumentContentPort contentPort;
+
+    @Mock
+    private DocumentVersionPort versionPort;
+
+    @Mock
+    private FolderTreeCache folderTreeCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ReactiveTransactionManager transactionManager;
+
+    @Mock
+    private ReactiveTransaction transaction;
+
+    private FolderJobRunner runner;
+
+    private final Folder root = Folder.builder()
+            .id(UUID.randomUUID())
+            .name("Contracts")
+            .idPath("/00000001/")
+            .tenantId(TENANT_ID)
+            .build();
+    private final Document first = document(100L);
+    private final Document second = document(200L);
+    private final Document third = document(300L);
+
+    @BeforeEach
+    void setUp() {
+        runner = new FolderJobRunner(jobRepository, folderRepository, documentRepository, versionRepository,
+                folderStatsRepository, ecmPortProvider, folderTreeCache, eventPublisher, transactionManager,
+                new EcmIntegrationProperties());
+        when(transactionManager.getReactiveTransaction(any())).thenReturn(Mono.just(transaction));
+        when(transactionManager.commit(transaction)).thenReturn(Mono.empty());
+        when(jobRepository.save(any(FolderJob.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    private Document document(long fileSize) {
+        return Document.builder()
+                .id(UUID.randomUUID())
+                .name("document-" + fileSize)
+                .folderId(root.getId())
+                .fileSize(fileSize)
+                .storagePath("/content/" + fileSize)
+                .tenantId(TENANT_ID)
+                .build();
+    }
+
+    private FolderJob job(FolderJobType type) {
+        return FolderJob.builder()
+                .id(UUID.randomUUID())
+                .tenantId(TENANT_ID)
+                .jobType(type)
+                .status(FolderJobStatus.RUNNING)
+                .phase(FolderJobPhase.DOCUMENTS)
+                .folderId(root.getId())
+                .totalFolders(1L)
+                .totalDocuments(3L)
+                .processedFolders(0L)
+                .processedDocuments(0L)
+                .failedDocuments(0L)
+                .build();
+    }
+
+    private void givenClaimed(FolderJob job) {
+        when(jobRepository.claimNext(anyString(), anyLong())).thenReturn(Mono.just(job), Mono.empty());
+        when(folderRepository.findById(root.getId())).thenReturn(Mono.just(root));
+    }
+
+    private void givenContentDeleted(Document document) {
+        when(versionRepository.findByDocumentId(document.getId())).thenReturn(Flux.empty());
+        when(contentPort.deleteContent(document.getId())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void poll_DeleteResumedAfterLostLease_ContinuesFromTheSavedCursorAndCompletes() {
+        // The previous owner deleted the first document and saved its cursor before its lease expired
+        FolderJob job = job(FolderJobType.DELETE);
+        job.setDocumentCursor(first.getId());
+        job.setProcessedDocuments(1L);
+        givenClaimed(job);
+        DocumentVersion version = DocumentVersion.builder().id(UUID.randomUUID()).documentId(second.getId()).build();
+
+        when(documentRepository.findSubtreeBatch(root.getId(), first.getId(), 200))
+                .thenReturn(Flux.just(second, third));
+        when(documentRepository.findSubtreeBatch(root.getId(), third.getId(), 200)).thenReturn(Flux.empty());
+        when(ecmPortProvider.getDocumentVersionPort()).thenReturn(Optional.of(versionPort));
+        when(ecmPortProvider.getDocumentContentPort()).thenReturn(Optional.of(contentPort));
+        when(ecmPortProvider.getDocumentSearchPort()).thenReturn(Optional.empty());
+        when(versionRepository.findByDocumentId(second.getId())).thenReturn(Flux.just(version));
+        when(versionPort.deleteVersion(version.getId())).thenReturn(Mono.empty());
+        when(contentPort.deleteContent(second.getId())).thenReturn(Mono.empty());
+        givenContentDeleted(third);
+        when(folderRepository.lockHierarchyShared(TENANT_ID)).thenReturn(Mono.empty());
+        when(documentRepository.deleteWithTagCounts(List.of(second.getId(), third.getId()))).thenReturn(Mono.just(2));
+        when(folderStatsRepository.applyDelta(root.getId(), -2L, -500L, -2L, -500L)).thenReturn(Mono.just(1));
+        when(jobRepository.renewLease(eq(job.getId()), anyString(), anyLong())).thenReturn(Mono.just(1));
+        when(folderRepository.lockHierarchy(TENANT_ID)).thenReturn(Mono.empty());
+        when(documentRepository.countInSubtree(root.getId())).thenReturn(Mono.just(0L));
+        when(folderRepository.deleteSubtree(root.getIdPath())).thenReturn(Flux.just(root));
+        when(folderTreeCache.publishChange(TENANT_ID)).thenReturn(Mono.empty());
+        when(jobRepository.deleteItems(job.getId())).thenReturn(Mono.just(0));
+
+        runner.poll();
+
+        assertEquals(FolderJobStatus.COMPLETED, job.getStatus());
+        assertNull(job.getErrorMessage());
+        assertEquals(3L, job.getProcessedDocuments());
+        assertEquals(1L, job.getProcessedFolders());
+        verify(documentRepository, never()).findSubtreeBatch(root.getId(), FIRST_DOCUMENT_ID, 200);
+        verify(contentPort, never()).deleteContent(first.getId());
+    }
+
+    @Test
+    void poll_LeaseLostDuringBatch_StopsWithoutFinishingTheJob() {
+        FolderJob job = job(FolderJobType.DELETE);
+        givenClaimed(job);
+
+        when(documentRepository.findSubtreeBatch(root.getId(), FIRST_DOCUMENT_ID, 200)).thenReturn(Flux.just(first));
+        when(ecmPortProvider.getDocumentVersionPort()).thenReturn(Optional.of(versionPort));
+        when(ecmPortProvider.getDocumentContentPort()).thenReturn(Optional.of(contentPort));
+        when(ecmPortProvider.getDocumentSearchPort()).thenReturn(Optional.empty());
+        givenContentDeleted(first);
+        when(folderRepository.lockHierarchyShared(TENANT_ID)).thenReturn(Mono.empty());
+        when(documentRepository.deleteWithTagCounts(List.of(first.getId()))).thenReturn(Mono.just(1));
+        when(folderStatsRepository.applyDelta(root.getId(), -1L, -100L, -1L, -100L)).thenReturn(Mono.just(1));
+        // Another instance claimed the job after its lease expired
+        when(jobRepository.renewLease(eq(job.getId()), anyString(), anyLong())).thenReturn(Mono.just(0));
+
+        runner.poll();
+
+        assertEquals(FolderJobStatus.RUNNING, job.getStatus());
+        assertEquals(first.getId(), job.getDocumentCursor());
+        verify(documentRepository, times(1)).findSubtreeBatch(any(), any(), anyInt());
+        verify(folderRepository, never()).lockHierarchy(any());
+        verify(jobRepository, never()).deleteItems(any());
+        verify(jobRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void poll_DeleteWithContentFailure_KeepsTheDocumentAndFoldersAndFails() {
+        FolderJob job = job(FolderJobType.DELETE);
+        givenClaimed(job);
+        DocumentVersion version = DocumentVersion.builder().id(UUID.randomUUID()).documentId(first.getId()).build();
+
+        when(documentRepository.findSubtreeBatch(root.getId(), FIRST_DOCUMENT_ID, 200)).thenReturn(Flux.just(first, second));
+        when(documentRepository.findSubtreeBatch(root.getId(), second.getId(), 200)).thenReturn(Flux.empty());
+        when(ecmPortProvider.getDocumentVersionPort()).thenReturn(Optional.of(versionPort));
+        when(ecmPortProvider.getDocumentContentPort()).thenReturn(Optional.of(contentPort));
+        when(ecmPortProvider.getDocumentSearchPort()).thenReturn(Optional.empty());
+        when(versionRepository.findByDocumentId(first.getId())).thenReturn(Flux.just(version));
+        when(versionPort.deleteVersion(version.getId())).thenReturn(Mono.error(new RuntimeException("Storage unavailable")));
+        givenContentDeleted(second);
+        when(folderRepository.lockHierarchyShared(TENANT_ID)).thenReturn(Mono.empty());
+        when(documentRepository.deleteWithTagCounts(List.of(second.getId()))).thenReturn(Mono.just(1));
+        when(folderStatsRepository.applyDelta(root.getId(), -1L, -200L, -1L, -200L)).thenReturn(Mono.just(1));
+        when(jobRepository.renewLease(eq(job.getId()), anyString(), anyLong())).thenReturn(Mono.just(1));
+        when(folderRepository.lockHierarchy(TENANT_ID)).thenReturn(Mono.empty());
+        when(documentRepository.countInSubtree(root.getId())).thenReturn(Mono.just(1L));
+        when(transactionManager.rollback(transaction)).thenReturn(Mono.empty());
+        when(jobRepository.findById(job.getId())).thenReturn(Mono.just(job));
+        when(jobRepository.deleteItems(job.getId())).thenReturn(Mono.just(0));
+
+        runner.poll();
+
+        assertEquals(FolderJobStatus.FAILED, job.getStatus());
+        assertEquals("Content of 1 documents could not be deleted; their folders were kept", job.getErrorMessage());
+        assertEquals(1L, job.getProcessedDocuments());
+        assertEquals(1L, job.getFailedDocuments());
+        verify(contentPort, never()).deleteContent(first.getId());
+        verify(folderRepository, never()).deleteSubtree(any());
+    }
+
+    @Test
+    void poll_CopyResumedWithFailedContent_ReusesExistingCopiesAndFails() {
+        // The folders were copied and the first document's row and content by a previous run
+        FolderJob job = job(FolderJobType.COPY);
+        UUID targetRootId = UUID.randomUUID();
+        job.setTargetFolderId(targetRootId);
+        job.setProcessedFolders(1L);
+        givenClaimed(job);
+        Document existingCopy = Document.builder()
+                .id(UUID.randomUUID())
+                .folderId(targetRootId)
+                .storagePath("/content/copy")
+                .tenantId(TENANT_ID)
+                .build();
+        UUID newCopyId = UUID.randomUUID();
+
+        when(documentRepository.findSubtreeBatch(root.getId(), FIRST_DOCUMENT_ID, 200)).thenReturn(Flux.just(first, second));
+        when(documentRepository.findSubtreeBatch(root.getId(), second.getId(), 200)).thenReturn(Flux.empty());
+        when(jobRepository.findItemTarget(job.getId(), first.getId())).thenReturn(Mono.just(existingCopy.getId()));
+        when(documentRepository.findById(existingCopy.getId())).thenReturn(Mono.just(existingCopy));
+        when(jobRepository.findItemTarget(job.getId(), second.getId())).thenReturn(Mono.empty());
+        when(jobRepository.findItemTarget(job.getId(), root.getId())).thenReturn(Mono.just(targetRootId));
+        when(folderRepository.lockHierarchyShared(TENANT_ID)).thenReturn(Mono.empty());
+        when(documentRepository.save(any(Document.class))).thenAnswer(invocation -> {
+            Document copy = invocation.getArgument(0);
+            copy.setId(newCopyId);
+            return Mono.just(copy);
+        });
+        when(jobRepository.insertItem(job.getId(), second.getId(), newCopyId)).thenReturn(Mono.just(1));
+        when(folderStatsRepository.applyDelta(targetRootId, 1L, 200L, 1L, 200L)).thenReturn(Mono.just(1));
+        when(ecmPortProvider.getDocumentContentPort()).thenReturn(Optional.of(contentPort));
+        when(contentPort.getContentStream(second.getId())).thenReturn(Flux.error(new RuntimeException("Storage unavailable")));
+        when(jobRepository.renewLease(eq(job.getId()), anyString(), anyLong())).thenReturn(Mono.just(1));
+        when(jobRepository.deleteItems(job.getId())).thenReturn(Mono.just(0));
+
+        runner.poll();
+
+        assertEquals(FolderJobStatus.FAILED, job.getStatus());
+        assertEquals("1 documents could not be copied", job.getErrorMessage());
+        assertEquals(1L, job.getProcessedDocuments());
+        assertEquals(1L, job.getFailedDocuments());
+        assertEquals(second.getId(), job.getDocumentCursor());
+        verify(documentRepository, times(1)).save(any(Document.class));
+        verify(contentPort, never()).getContentStream(first.getId());
+        verify(contentPort, never()).storeContent(any(), any(), any());
+    }
+}
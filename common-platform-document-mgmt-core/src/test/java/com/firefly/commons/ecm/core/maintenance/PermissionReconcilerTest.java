@@ -0,0 +1,146 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
+import com.firefly.commons.ecm.models.entities.DocumentPermission;
+import com.firefly.commons.ecm.models.repositories.DocumentPermissionRepository;
+import com.firefly.core.ecm.domain.enums.security.PrincipalType;
+import com.firefly.core.ecm.domain.enums.security.ResourceType;
+import com.firefly.core.ecm.domain.model.security.Permission;
+import com.firefly.core.ecm.port.security.PermissionPort;
+import com.firefly.core.ecm.service.EcmPortProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PermissionReconcilerTest {
+
+    @Mock
+    private DocumentPermissionRepository repository;
+
+    @Mock
+    private EcmPortProvider ecmPortProvider;
+
+    @Mock
+    private PermissionPort permissionPort;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PermissionReconciler reconciler;
+
+    private final DocumentPermission inSync = permission(PermissionType.READ);
+    private final DocumentPermission missing = permission(PermissionType.WRITE);
+
+    @BeforeEach
+    void setUp() {
+        EcmIntegrationProperties properties = new EcmIntegrationProperties();
+        properties.getPermissions().setReconcileMaxCallsPerSecond(1000);
+        reconciler = new PermissionReconciler(repository, ecmPortProvider, properties, meterRegistry);
+        when(ecmPortProvider.getPermissionPort()).thenReturn(Optional.of(permissionPort));
+        when(repository.findBatchByTenantId(eq("tenant-1"), any(UUID.class), eq(500)))
+                .thenReturn(Flux.just(inSync, missing));
+        when(repository.deleteReconcileDigestsOlderThan(eq("tenant-1"), anyLong())).thenReturn(Mono.just(0));
+    }
+
+    private static DocumentPermission permission(PermissionType type) {
+        return DocumentPermission.builder()
+                .id(UUID.randomUUID())
+                .documentId(UUID.randomUUID())
+                .partyId(UUID.randomUUID())
+                .permissionType(type)
+                .isGranted(true)
+                .tenantId("tenant-1")
+                .version(0L)
+                .build();
+    }
+
+    private void stubCheck(DocumentPermission permission, boolean granted) {
+        when(permissionPort.hasPermission(eq(permission.getDocumentId()), eq(ResourceType.DOCUMENT), eq(permission.getPartyId()),
+                eq(PrincipalType.USER), any())).thenReturn(Mono.just(granted));
+    }
+
+    @Test
+    void changedBatch_IsCheckedRepairedAndRecorded() {
+        when(repository.findReconcileDigest(eq("tenant-1"), eq(inSync.getId()), anyLong())).thenReturn(Mono.empty());
+        stubCheck(inSync, true);
+        stubCheck(missing, false);
+        when(permissionPort.grantPermission(any(Permission.class))).thenReturn(Mono.just(mock(Permission.class)));
+        when(repository.saveReconcileDigest(eq("tenant-1"), eq(inSync.getId()), anyString())).thenReturn(Mono.just(1));
+
+        StepVerifier.create(reconciler.reconcile("tenant-1"))
+                .expectNext(1L)
+                .verifyComplete();
+
+        ArgumentCaptor<Permission> repair = ArgumentCaptor.forClass(Permission.class);
+        verify(permissionPort).grantPermission(repair.capture());
+        assertEquals(missing.getId(), repair.getValue().getId());
+        assertEquals(1.0, meterRegistry.get("ecm.permission.reconcile.drift").tag("kind", "missing").counter().count());
+        verify(repository).saveReconcileDigest(eq("tenant-1"), eq(inSync.getId()), anyString());
+    }
+
+    @Test
+    void unchangedBatch_IsSkippedWithoutCallingTheProvider() {
+        String digest = PermissionReconciler.digest(List.of(inSync, missing), Instant.now());
+        when(repository.findReconcileDigest(eq("tenant-1"), eq(inSync.getId()), anyLong())).thenReturn(Mono.just(digest));
+
+        StepVerifier.create(reconciler.reconcile("tenant-1"))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verifyNoInteractions(permissionPort);
+        assertEquals(1.0, meterRegistry.get("ecm.permission.reconcile.skipped.batches").counter().count());
+    }
+
+    @Test
+    void failedRepair_LeavesTheBatchUnrecorded() {
+        when(repository.findReconcileDigest(eq("tenant-1"), eq(inSync.getId()), anyLong())).thenReturn(Mono.empty());
+        stubCheck(inSync, true);
+        stubCheck(missing, false);
+        when(permissionPort.grantPermission(any(Permission.class))).thenReturn(Mono.error(new RuntimeException("down")));
+
+        StepVerifier.create(reconciler.reconcile("tenant-1"))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(repository, never()).saveReconcileDigest(any(), any(), any());
+        assertTrue(meterRegistry.get("ecm.permission.reconcile.failed").counter().count() > 0);
+        assertFalse(meterRegistry.get("ecm.permission.reconcile.repaired").counter().count() > 0);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.maintenance;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.entities.DocumentVersion;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentVersionRepository;
+import com.firefly.commons.ecm.models.repositories.VersionRetentionPolicyRepository;
+import com.firefly.core.ecm.port.document.DocumentVersionPort;
+import com.firefly.core.ecm.service.EcmPortProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for VersionPruner.
+ */
+@ExtendWith(MockitoExtension.class)
+class VersionPrunerTest {
+
+    private static final UUID FIRST_DOCUMENT_ID = new UUID(0L, 0L);
+    private static final long CLAIM_TIMEOUT_SECONDS = 3600L;
+
+    @Mock
+    private DocumentVersionRepository versionRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private VersionRetentionPolicyRepository policyRepository;
+
+    @Mock
+    private EcmPortProvider ecmPortProvider;
+
+    @Mock
+    private DocumentVersionPort versionPort;
+
+    private VersionPruner pruner;
+
+    private final UUID documentId = new UUID(1L, 1L);
+    private final DocumentVersion first = version(1);
+    private final DocumentVersion second = version(2);
+
+    @BeforeEach
+    void setUp() {
+        EcmIntegrationProperties properties = new EcmIntegrationProperties();
+        properties.getVersions().setPruneBatchSize(3);
+        pruner = new VersionPruner(versionRepository, documentRepository, policyRepository, ecmPortProvider, properties);
+    }
+
+    private DocumentVersion version(int number) {
+        return DocumentVersion.builder()
+                .id(new UUID(0L, number))
+                .documentId(documentId)
+                .versionNumber(number)
+                .tenantId("tenant-1")
+                .build();
+    }
+
+    @Test
+    void prune_ClaimsThenDeletesContentThenClaimedRows() {
+        when(documentRepository.findIdBatch("tenant-1", FIRST_DOCUMENT_ID, 3)).thenReturn(Flux.just(documentId));
+        when(versionRepository.claimPrunable(List.of(documentId), CLAIM_TIMEOUT_SECONDS))
+                .thenReturn(Flux.just(first, second));
+        when(ecmPortProvider.getDocumentVersionPort()).thenReturn(Optional.of(versionPort));
+        when(versionPort.deleteVersion(any(UUID.class))).thenReturn(Mono.empty());
+        when(versionRepository.deleteClaimed(Set.of(first.getId(), second.getId()))).thenReturn(Mono.just(2));
+
+        StepVerifier.create(pruner.prune("tenant-1"))
+                .expectNext(2L)
+                .verifyComplete();
+
+        // The claim is its own statement: content is deleted after it committed, the rows last
+        InOrder inOrder = inOrder(versionRepository, versionPort);
+        inOrder.verify(versionRepository).claimPrunable(List.of(documentId), CLAIM_TIMEOUT_SECONDS);
+        inOrder.verify(versionPort, times(2)).deleteVersion(any(UUID.class));
+        inOrder.verify(versionRepository).deleteClaimed(Set.of(first.getId(), second.getId()));
+        verify(versionRepository, never()).releaseClaimed(anyCollection());
+    }
+
+    @Test
+    void prune_ContentDeletionFailure_ReleasesTheVersionAndKeepsItsRow() {
+        when(documentRepository.findIdBatch("tenant-1", FIRST_DOCUMENT_ID, 3)).thenReturn(Flux.just(documentId));
+        when(versionRepository.claimPrunable(List.of(documentId), CLAIM_TIMEOUT_SECONDS))
+                .thenReturn(Flux.just(first, second));
+        when(ecmPortProvider.getDocumentVersionPort()).thenReturn(Optional.of(versionPort));
+        when(versionPort.deleteVersion(first.getId())).thenReturn(Mono.error(new RuntimeException("storage unavailable")));
+        when(versionPort.deleteVersion(second.getId())).thenReturn(Mono.empty());
+        when(versionRepository.releaseClaimed(List.of(first.getId()))).thenReturn(Mono.just(1));
+        when(versionRepository.deleteClaimed(Set.of(second.getId()))).thenReturn(Mono.just(1));
+
+        StepVerifier.create(pruner.prune("tenant-1"))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void prune_FullBatch_ContinuesAfterTheLastDocument() {
+        List<UUID> batch = List.of(documentId, new UUID(1L, 2L), new UUID(1L, 3L));
+        UUID lastDocumentId = new UUID(1L, 4L);
+        when(documentRepository.findIdBatch("tenant-1", FIRST_DOCUMENT_ID, 3)).thenReturn(Flux.fromIterable(batch));
+        when(documentRepository.findIdBatch("tenant-1", batch.get(2), 3)).thenReturn(Flux.just(lastDocumentId));
+        when(versionRepository.claimPrunable(batch, CLAIM_TIMEOUT_SECONDS)).thenReturn(Flux.just(first));
+        when(versionRepository.claimPrunable(List.of(lastDocumentId), CLAIM_TIMEOUT_SECONDS)).thenReturn(Flux.just(second));
+        when(ecmPortProvider.getDocumentVersionPort()).thenReturn(Optional.empty());
+        when(versionRepository.deleteClaimed(anyCollection()))
+                .thenAnswer(inv -> Mono.just(inv.<Set<UUID>>getArgument(0).size()));
+
+        StepVerifier.create(pruner.prune("tenant-1"))
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(versionRepository).deleteClaimed(Set.of(first.getId()));
+        verify(versionRepository).deleteClaimed(Set.of(second.getId()));
+        verify(documentRepository, times(2)).findIdBatch(eq("tenant-1"), any(UUID.class), anyInt());
+    }
+
+    @Test
+    void prune_NothingPrunable_DeletesNothing() {
+        when(documentRepository.findIdBatch("tenant-1", FIRST_DOCUMENT_ID, 3)).thenReturn(Flux.just(documentId));
+        when(versionRepository.claimPrunable(List.of(documentId), CLAIM_TIMEOUT_SECONDS)).thenReturn(Flux.empty());
+
+        StepVerifier.create(pruner.prune("tenant-1"))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(versionRepository, never()).deleteClaimed(anyCollection());
+        verifyNoInteractions(ecmPortProvider);
+    }
+
+    @Test
+    void prune_TenantWithoutDocuments_ClaimsNothing() {
+        when(documentRepository.findIdBatch("tenant-1", FIRST_DOCUMENT_ID, 3)).thenReturn(Flux.empty());
+
+        StepVerifier.create(pruner.prune("tenant-1"))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(versionRepository, never()).claimPrunable(anyCollection(), anyLong());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.metadata;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.MetadataSchemaField;
+import com.firefly.commons.ecm.models.repositories.MetadataSchemaFieldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MetadataSchemaRegistryTest {
+
+    private static final String TENANT = "tenant-1";
+
+    @Mock
+    private MetadataSchemaFieldRepository schemaFieldRepository;
+
+    private MetadataSchemaRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetadataSchemaRegistry(schemaFieldRepository, new EcmIntegrationProperties());
+    }
+
+    private static MetadataSchemaField required(String key) {
+        return MetadataSchemaField.builder().key(key).isRequired(true).build();
+    }
+
+    @Test
+    void forDocument_CompilesTemplateOnceForTenantAndType() {
+        when(schemaFieldRepository.findByTenantIdAndDocumentType(TENANT, DocumentType.CONTRACT))
+                .thenReturn(Flux.just(required("contract-number")));
+        Document document = Document.builder().tenantId(TENANT).documentType(DocumentType.CONTRACT).build();
+
+        StepVerifier.create(registry.forDocument(document))
+                .expectNextMatches(validator -> !validator.isRemovable("contract-number"))
+                .verifyComplete();
+        StepVerifier.create(registry.forDocument(document))
+                .expectNextMatches(validator -> !validator.isRemovable("contract-number"))
+                .verifyComplete();
+
+        verify(schemaFieldRepository, times(1)).findByTenantIdAndDocumentType(TENANT, DocumentType.CONTRACT);
+    }
+
+    @Test
+    void invalidate_DuringLoad_DoesNotCacheTheLoadedTemplate() {
+        when(schemaFieldRepository.findByTenantIdAndDocumentType(TENANT, DocumentType.CONTRACT)).thenReturn(
+                Flux.defer(() -> {
+                    registry.invalidate(TENANT, DocumentType.CONTRACT);
+                    return Flux.just(required("contract-number"));
+                }),
+                Flux.just(required("amount")));
+
+        StepVerifier.create(registry.forTemplate(TENANT, DocumentType.CONTRACT))
+                .expectNextMatches(validator -> !validator.isRemovable("contract-number"))
+                .verifyComplete();
+        StepVerifier.create(registry.forTemplate(TENANT, DocumentType.CONTRACT))
+                .expectNextMatches(validator -> validator.isRemovable("contract-number") && !validator.isRemovable("amount"))
+                .verifyComplete();
+
+        verify(schemaFieldRepository, times(2)).findByTenantIdAndDocumentType(TENANT, DocumentType.CONTRACT);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.metadata;
+
+import com.firefly.commons.ecm.interfaces.enums.MetadataValueType;
+import com.firefly.commons.ecm.models.entities.MetadataSchemaField;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetadataSchemaValidatorTest {
+
+    private static final MetadataSchemaValidator INVOICE = MetadataSchemaValidator.compile(List.of(
+            field("invoice_number", true, null, "INV-[0-9]{6}", null),
+            field("amount", true, "NUMBER", null, null),
+            field("currency", false, null, null, new String[]{"EUR", "USD"})));
+
+    @Test
+    void acceptsValidValuesAndUnknownKeys() {
+        assertTrue(INVOICE.validate("invoice_number", "INV-000042").isEmpty());
+        assertTrue(INVOICE.validate("amount", "1250.00").isEmpty());
+        assertTrue(INVOICE.validate("currency", "EUR").isEmpty());
+        assertTrue(INVOICE.validate("notes", "anything").isEmpty());
+    }
+
+    @Test
+    void reportsEveryViolatedRule() {
+        assertEquals(1, INVOICE.validate("invoice_number", "INV-42").size());
+        assertEquals(1, INVOICE.validate("amount", "a lot").size());
+        assertEquals(1, INVOICE.validate("currency", "GBP").size());
+        assertEquals(1, INVOICE.validate("amount", null).size());
+    }
+
+    @Test
+    void completeMetadataMustHaveRequiredKeys() {
+        List<String> errors = INVOICE.validateAll(Map.of("invoice_number", "INV-000042", "currency", "USD"));
+
+        assertEquals(List.of("Metadata amount is required"), errors);
+        assertEquals(List.of("amount", "invoice_number"), INVOICE.getRequiredKeys());
+        assertFalse(INVOICE.isRemovable("amount"));
+        assertTrue(INVOICE.isRemovable("currency"));
+    }
+
+    @Test
+    void exposesTypeOfKeys() {
+        assertEquals(MetadataValueType.NUMBER, INVOICE.typeOf("amount"));
+        assertNull(INVOICE.typeOf("currency"));
+        assertNull(INVOICE.typeOf("notes"));
+    }
+
+    @Test
+    void compileRejectsInvalidTemplates() {
+        assertSame(MetadataSchemaValidator.NONE, MetadataSchemaValidator.compile(List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> MetadataSchemaValidator.compile(List.of(field("code", false, null, "[A-Z", null))));
+        assertThrows(IllegalArgumentException.class,
+                () -> MetadataSchemaValidator.compile(List.of(field("code", false, "MONEY", null, null))));
+        assertThrows(IllegalArgumentException.class,
+                () -> MetadataSchemaValidator.compile(List.of(field("code", false, null, null, null), field("code", true, null, null, null))));
+    }
+
+    private static MetadataSchemaField field(String key, boolean required, String valueType, String pattern, String[] allowedValues) {
+        return MetadataSchemaField.builder()
+                .key(key)
+                .isRequired(required)
+                .valueType(valueType)
+                .pattern(pattern)
+                .allowedValues(allowedValues)
+                .build();
+    }
+}
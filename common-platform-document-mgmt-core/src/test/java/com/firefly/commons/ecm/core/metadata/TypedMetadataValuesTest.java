@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.metadata;
+
+import com.firefly.commons.ecm.interfaces.enums.MetadataValueType;
+import com.firefly.commons.ecm.models.entities.DocumentMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TypedMetadataValuesTest {
+
+    @Test
+    void typeNamesAreCaseInsensitive() {
+        assertEquals(MetadataValueType.NUMBER, TypedMetadataValues.typeOf(" amount "));
+        assertEquals(MetadataValueType.TIMESTAMP, TypedMetadataValues.typeOf("Date"));
+        assertEquals(MetadataValueType.BOOLEAN, TypedMetadataValues.typeOf("bool"));
+        assertNull(TypedMetadataValues.typeOf("STRING"));
+        assertNull(TypedMetadataValues.typeOf(null));
+    }
+
+    @Test
+    void parsesTimestampForms() {
+        Instant midnight = Instant.parse("2024-03-01T00:00:00Z");
+        assertEquals(midnight, TypedMetadataValues.parseTimestamp("2024-03-01"));
+        assertEquals(midnight, TypedMetadataValues.parseTimestamp("2024-03-01T00:00:00Z"));
+        assertEquals(midnight, TypedMetadataValues.parseTimestamp("2024-03-01 00:00"));
+        assertEquals(midnight, TypedMetadataValues.parseTimestamp("2024-03-01T01:00:00+01:00"));
+        assertEquals(midnight, TypedMetadataValues.parseTimestamp("2024-02-29T19:00:00-05:00"));
+        assertThrows(IllegalArgumentException.class, () -> TypedMetadataValues.parseTimestamp("2024-02-30"));
+        assertThrows(IllegalArgumentException.class, () -> TypedMetadataValues.parseTimestamp("March 1"));
+    }
+
+    @Test
+    void applySetsOnlyTheColumnOfTheType() {
+        DocumentMetadata amount = TypedMetadataValues.apply(DocumentMetadata.builder().type("NUMBER").value(" 1e3 ").build());
+        assertEquals(0, new BigDecimal("1000").compareTo(amount.getValueNumber()));
+        assertNull(amount.getValueTimestamp());
+        assertNull(amount.getValueBoolean());
+
+        DocumentMetadata flag = TypedMetadataValues.apply(DocumentMetadata.builder().type("BOOLEAN").value("TRUE").build());
+        assertEquals(Boolean.TRUE, flag.getValueBoolean());
+        assertNull(flag.getValueNumber());
+    }
+
+    @Test
+    void applyKeepsUnparseableValuesAsTextOnly() {
+        DocumentMetadata metadata = DocumentMetadata.builder()
+                .type("NUMBER").value("n/a").valueNumber(BigDecimal.ONE).build();
+
+        TypedMetadataValues.apply(metadata);
+
+        assertNull(metadata.getValueNumber());
+        assertEquals("n/a", metadata.getValue());
+    }
+}
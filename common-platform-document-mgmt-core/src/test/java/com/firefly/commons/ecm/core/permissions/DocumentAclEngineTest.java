@@ -0,0 +1,154 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.permissions;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
+import com.firefly.commons.ecm.interfaces.enums.SecurityLevel;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.DocumentPermission;
+import com.firefly.commons.ecm.models.repositories.DocumentPermissionRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentAclEngineTest {
+
+    @Mock
+    private DocumentPermissionRepository repository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private DocumentAclEngine engine;
+
+    private final UUID documentId = UUID.randomUUID();
+    private final UUID principalId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        engine = new DocumentAclEngine(repository, documentRepository, new EcmIntegrationProperties());
+    }
+
+    private DocumentPermission read(boolean granted) {
+        return DocumentPermission.builder()
+                .documentId(documentId)
+                .partyId(principalId)
+                .permissionType(PermissionType.READ)
+                .isGranted(granted)
+                .build();
+    }
+
+    private Document document(SecurityLevel securityLevel) {
+        return Document.builder().id(documentId).securityLevel(securityLevel).build();
+    }
+
+    @Test
+    void loadsOnceAndAppliesWritesIncrementally() {
+        when(repository.findByDocumentIdIn(anyCollection())).thenReturn(Flux.just(read(true)));
+        when(documentRepository.findIdsAtSecurityLevels(anyCollection(), any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(engine.hasPermission(documentId, principalId, PermissionType.READ))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(engine.hasPermission(documentId, principalId, PermissionType.WRITE))
+                .expectNext(false)
+                .verifyComplete();
+
+        engine.apply(read(false));
+
+        StepVerifier.create(engine.hasPermission(documentId, principalId, PermissionType.READ))
+                .expectNext(false)
+                .verifyComplete();
+        verify(repository, times(1)).findByDocumentIdIn(anyCollection());
+    }
+
+    @Test
+    void documentsWithoutPermissionsAreLoadedAsEmptyLists() {
+        UUID other = UUID.randomUUID();
+        when(repository.findByDocumentIdIn(anyCollection())).thenReturn(Flux.just(read(true)));
+        when(documentRepository.findIdsAtSecurityLevels(anyCollection(), any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(engine.getAcls(List.of(documentId, other)))
+                .assertNext(acls -> {
+                    assertEquals(2, acls.size());
+                    assertEquals(false, acls.get(other).isGranted(principalId, PermissionType.READ, 0));
+                })
+                .verifyComplete();
+        assertEquals(2, engine.size());
+    }
+
+    @Test
+    void openDocumentsAreReadableUntilAPermissionDecidesOtherwise() {
+        when(repository.findByDocumentIdIn(anyCollection())).thenReturn(Flux.empty());
+        when(documentRepository.findIdsAtSecurityLevels(anyCollection(), any())).thenReturn(Flux.just(documentId));
+
+        StepVerifier.create(engine.hasPermission(documentId, principalId, PermissionType.READ))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(engine.hasPermission(documentId, principalId, PermissionType.WRITE))
+                .expectNext(false)
+                .verifyComplete();
+
+        engine.apply(read(false));
+
+        StepVerifier.create(engine.hasPermission(documentId, principalId, PermissionType.READ))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void securityLevelChangesReloadTheList() {
+        when(repository.findByDocumentIdIn(anyCollection())).thenReturn(Flux.empty());
+        when(documentRepository.findIdsAtSecurityLevels(anyCollection(), any()))
+                .thenReturn(Flux.empty(), Flux.just(documentId));
+
+        StepVerifier.create(engine.hasPermission(documentId, principalId, PermissionType.READ))
+                .expectNext(false)
+                .verifyComplete();
+
+        engine.onDocumentChanged(new DocumentChangedEvent(EntityChangeType.UPDATED,
+                document(SecurityLevel.CONFIDENTIAL), document(SecurityLevel.CONFIDENTIAL)));
+        assertEquals(1, engine.size());
+        engine.onDocumentChanged(new DocumentChangedEvent(EntityChangeType.UPDATED,
+                document(SecurityLevel.PUBLIC), document(SecurityLevel.CONFIDENTIAL)));
+        assertEquals(0, engine.size());
+
+        StepVerifier.create(engine.hasPermission(documentId, principalId, PermissionType.READ))
+                .expectNext(true)
+                .verifyComplete();
+        verify(repository, times(2)).findByDocumentIdIn(anyCollection());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.permissions;
+
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
+import com.firefly.commons.ecm.models.entities.DocumentPermission;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentAclTest {
+
+    private final UUID documentId = UUID.randomUUID();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    private DocumentPermission permission(UUID partyId, PermissionType type, boolean granted, LocalDateTime expiration) {
+        return DocumentPermission.builder()
+                .documentId(documentId)
+                .partyId(partyId)
+                .permissionType(type)
+                .isGranted(granted)
+                .expirationDate(expiration)
+                .build();
+    }
+
+    @Test
+    void grantsArePerPrincipalAndType() {
+        DocumentAcl acl = DocumentAcl.of(List.of(
+                permission(alice, PermissionType.READ, true, null),
+                permission(alice, PermissionType.WRITE, false, null),
+                permission(bob, PermissionType.DELETE, true, null)), 0);
+
+        assertTrue(acl.isGranted(alice, PermissionType.READ, 0));
+        assertFalse(acl.isGranted(alice, PermissionType.WRITE, 0));
+        assertFalse(acl.isGranted(alice, PermissionType.DELETE, 0));
+        assertTrue(acl.isGranted(bob, PermissionType.DELETE, 0));
+        assertFalse(acl.isGranted(UUID.randomUUID(), PermissionType.READ, 0));
+    }
+
+    @Test
+    void expiredGrantsAreIgnored() {
+        LocalDateTime expiration = LocalDateTime.of(2024, 1, 1, 0, 0);
+        long expiresAt = expiration.toInstant(ZoneOffset.UTC).toEpochMilli();
+        DocumentAcl acl = DocumentAcl.of(List.of(
+                permission(alice, PermissionType.READ, true, expiration),
+                permission(alice, PermissionType.WRITE, true, null)), 0);
+
+        assertTrue(acl.isGranted(alice, PermissionType.READ, expiresAt - 1));
+        assertFalse(acl.isGranted(alice, PermissionType.READ, expiresAt));
+        assertTrue(acl.isGranted(alice, PermissionType.WRITE, expiresAt));
+    }
+
+    @Test
+    void writesProduceNewListsAndLeaveTheOriginalUnchanged() {
+        DocumentAcl acl = DocumentAcl.of(List.of(permission(alice, PermissionType.READ, true, null)), 0);
+
+        DocumentAcl denied = acl.with(permission(alice, PermissionType.READ, false, null));
+        DocumentAcl revoked = acl.without(alice, PermissionType.READ);
+
+        assertTrue(acl.isGranted(alice, PermissionType.READ, 0));
+        assertFalse(denied.isGranted(alice, PermissionType.READ, 0));
+        assertFalse(revoked.isGranted(alice, PermissionType.READ, 0));
+        assertSame(revoked, revoked.without(bob, PermissionType.READ));
+    }
+
+    @Test
+    void openDocumentsGrantReadOnlyWithoutAnUnexpiredPermission() {
+        LocalDateTime expiration = LocalDateTime.of(2024, 1, 1, 0, 0);
+        long expiresAt = expiration.toInstant(ZoneOffset.UTC).toEpochMilli();
+        DocumentAcl acl = DocumentAcl.of(List.of(permission(alice, PermissionType.READ, false, expiration)), true, 0);
+
+        assertFalse(acl.isGranted(alice, PermissionType.READ, expiresAt - 1));
+        assertTrue(acl.isGranted(alice, PermissionType.READ, expiresAt));
+        assertTrue(acl.isGranted(bob, PermissionType.READ, 0));
+        assertFalse(acl.isGranted(bob, PermissionType.WRITE, 0));
+        assertTrue(acl.without(alice, PermissionType.READ).isGranted(alice, PermissionType.READ, 0));
+    }
+}
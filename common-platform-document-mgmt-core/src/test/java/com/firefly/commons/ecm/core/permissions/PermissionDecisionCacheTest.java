@@ -0,0 +1,190 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.permissions;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
+import com.firefly.commons.ecm.interfaces.enums.SecurityLevel;
+import com.firefly.commons.ecm.models.entities.Document;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PermissionDecisionCacheTest {
+
+    private final UUID documentId = UUID.randomUUID();
+    private final UUID principalId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MutableClock clock;
+    private PermissionDecisionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        cache = new PermissionDecisionCache(new EcmIntegrationProperties(), meterRegistry, clock);
+    }
+
+    private Mono<PermissionDecisionCache.Decision> loader(boolean granted, Instant validUntil) {
+        return Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+            return new PermissionDecisionCache.Decision(granted, validUntil);
+        });
+    }
+
+    private void check(boolean loaded, boolean expected) {
+        StepVerifier.create(cache.get(documentId, principalId, PermissionType.READ, loader(loaded, null)))
+                .expectNext(expected)
+                .verifyComplete();
+    }
+
+    @Test
+    void servesPositiveAndNegativeDecisionsUntilTheirTtl() {
+        check(true, true);
+        check(false, true);
+        assertEquals(1, loads.get());
+
+        clock.advance(Duration.ofMinutes(5));
+        check(false, false);
+        assertEquals(2, loads.get());
+
+        clock.advance(Duration.ofSeconds(59));
+        check(true, false);
+        assertEquals(2, loads.get());
+        clock.advance(Duration.ofSeconds(1));
+        check(true, true);
+        assertEquals(3, loads.get());
+
+        assertEquals(2.0, meterRegistry.get("ecm.permission.decision.cache.lookups").tag("result", "hit").counter().count());
+        assertEquals(2.0, meterRegistry.get("ecm.permission.decision.cache.lookups").tag("result", "expired").counter().count());
+    }
+
+    @Test
+    void entriesDoNotOutliveThePermissionExpiration() {
+        Instant expiration = clock.instant().plus(Duration.ofSeconds(30));
+        StepVerifier.create(cache.get(documentId, principalId, PermissionType.READ, loader(true, expiration)))
+                .expectNext(true)
+                .verifyComplete();
+
+        clock.advance(Duration.ofSeconds(30));
+        check(false, false);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateDropsEveryPermissionTypeOfThePrincipal() {
+        check(true, true);
+        StepVerifier.create(cache.get(documentId, principalId, PermissionType.WRITE, loader(true, null)))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(cache.get(documentId, UUID.randomUUID(), PermissionType.READ, loader(true, null)))
+                .expectNext(true)
+                .verifyComplete();
+
+        cache.invalidate(documentId, principalId);
+
+        assertEquals(1, cache.size());
+        check(false, false);
+    }
+
+    @Test
+    void securityLevelChangeDropsTheDecisionsOfTheDocument() {
+        check(true, true);
+        StepVerifier.create(cache.get(documentId, UUID.randomUUID(), PermissionType.READ, loader(true, null)))
+                .expectNext(true)
+                .verifyComplete();
+
+        cache.onDocumentChanged(new DocumentChangedEvent(EntityChangeType.UPDATED,
+                document(SecurityLevel.PUBLIC), document(SecurityLevel.PUBLIC)));
+        assertEquals(2, cache.size());
+
+        cache.onDocumentChanged(new DocumentChangedEvent(EntityChangeType.UPDATED,
+                document(SecurityLevel.CONFIDENTIAL), document(SecurityLevel.PUBLIC)));
+        assertEquals(0, cache.size());
+        check(false, false);
+    }
+
+    @Test
+    void deletionDropsTheDecisionsOfTheDocument() {
+        check(true, true);
+
+        cache.onDocumentChanged(new DocumentChangedEvent(EntityChangeType.DELETED, document(SecurityLevel.PUBLIC), null));
+
+        assertEquals(0, cache.size());
+        check(false, false);
+    }
+
+    private Document document(SecurityLevel securityLevel) {
+        return Document.builder().id(documentId).securityLevel(securityLevel).build();
+    }
+
+    @Test
+    void decisionLoadedDuringAChangeIsNotCached() {
+        Mono<PermissionDecisionCache.Decision> racing = Mono.fromCallable(() -> {
+            cache.invalidate(documentId, principalId);
+            return new PermissionDecisionCache.Decision(true, null);
+        });
+        StepVerifier.create(cache.get(documentId, principalId, PermissionType.READ, racing))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertEquals(0, cache.size());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
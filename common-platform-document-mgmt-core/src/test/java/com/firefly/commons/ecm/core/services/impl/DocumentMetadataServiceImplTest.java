@@ -0,0 +1,410 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services.impl;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.index.DocumentMetadataCache;
+import com.firefly.commons.ecm.core.mappers.DocumentMetadataMapper;
+import com.firefly.commons.ecm.core.metadata.MetadataSchemaRegistry;
+import com.firefly.commons.ecm.core.metadata.MetadataSchemaValidator;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentMetadataDTO;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataRangeQueryDTO;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataValueDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import com.firefly.commons.ecm.interfaces.enums.MetadataComparison;
+import com.firefly.commons.ecm.interfaces.enums.MetadataValueType;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.DocumentMetadata;
+import com.firefly.commons.ecm.models.entities.MetadataSchemaField;
+import com.firefly.commons.ecm.models.repositories.DocumentMetadataRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DocumentMetadataServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class DocumentMetadataServiceImplTest {
+
+    @Mock
+    private DocumentMetadataRepository repository;
+
+    @Mock
+    private DocumentMetadataMapper mapper;
+
+    @Mock
+    private EcmIntegrationProperties properties;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentMetadataCache metadataCache;
+
+    @Mock
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Mock
+    private MetadataSchemaRegistry schemaRegistry;
+
+    @InjectMocks
+    private DocumentMetadataServiceImpl metadataService;
+
+    private static final UUID DOCUMENT_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    private static final UUID METADATA_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440010");
+    private static final String KEY = "contract-number";
+    private static final Document DOCUMENT = Document.builder()
+            .id(DOCUMENT_ID).tenantId("tenant-1").documentType(DocumentType.CONTRACT).build();
+
+    @Test
+    void getByKey_UsesIndexedLookup() {
+        DocumentMetadata entity = metadata("C-2024-001", 3L);
+        DocumentMetadataDTO dto = DocumentMetadataDTO.builder().id(METADATA_ID).documentId(DOCUMENT_ID).key(KEY).value("C-2024-001").build();
+        when(repository.findByDocumentIdAndKey(DOCUMENT_ID, KEY)).thenReturn(Mono.just(entity));
+        when(mapper.toDTO(entity)).thenReturn(dto);
+
+        StepVerifier.create(metadataService.getByKey(DOCUMENT_ID, KEY))
+                .expectNext(dto)
+                .verifyComplete();
+
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    void listByDocument_ReturnsPageScopedToDocument() {
+        EcmIntegrationProperties.MetadataDefaults defaults = new EcmIntegrationProperties.MetadataDefaults();
+        defaults.setMaxPageSize(2);
+        when(properties.getMetadata()).thenReturn(defaults);
+        DocumentMetadata entity = metadata("C-2024-001", 0L);
+        DocumentMetadataDTO dto = DocumentMetadataDTO.builder().id(METADATA_ID).build();
+        when(repository.findPageByDocumentId(DOCUMENT_ID, 2, 2L)).thenReturn(Flux.just(entity));
+        when(repository.countByDocumentId(DOCUMENT_ID)).thenReturn(Mono.just(3L));
+        when(mapper.toDTO(entity)).thenReturn(dto);
+
+        StepVerifier.create(metadataService.listByDocument(DOCUMENT_ID, 1, 50))
+                .assertNext(page -> {
+                    assertEquals(1, page.getContent().size());
+                    assertEquals(3L, page.getTotalElements());
+                    assertEquals(2, page.getTotalPages());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void updateByKey_KeepsIdentityAndVersionOfExistingEntry() {
+        DocumentMetadata existing = metadata("C-2024-001", 3L);
+        existing.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        DocumentMetadataDTO request = DocumentMetadataDTO.builder().value("C-2024-002").build();
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(schemaRegistry.forDocument(DOCUMENT)).thenReturn(Mono.just(MetadataSchemaValidator.NONE));
+        when(repository.findByDocumentIdAndKey(DOCUMENT_ID, KEY)).thenReturn(Mono.just(existing));
+        when(mapper.toEntity(request)).thenReturn(DocumentMetadata.builder().value("C-2024-002").build());
+        when(repository.save(any(DocumentMetadata.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mapper.toDTO(any(DocumentMetadata.class))).thenReturn(DocumentMetadataDTO.builder().build());
+
+        StepVerifier.create(metadataService.updateByKey(DOCUMENT_ID, KEY, request))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ArgumentCaptor<DocumentMetadata> saved = ArgumentCaptor.forClass(DocumentMetadata.class);
+        verify(repository).save(saved.capture());
+        assertEquals(METADATA_ID, saved.getValue().getId());
+        assertEquals(KEY, saved.getValue().getKey());
+        assertEquals(3L, saved.getValue().getVersion());
+        assertEquals("tenant-1", saved.getValue().getTenantId());
+        assertEquals(existing.getCreatedAt(), saved.getValue().getCreatedAt());
+        verify(metadataCache).invalidate(DOCUMENT_ID);
+    }
+
+    @Test
+    void updateByKey_MissingEntryFails() {
+        when(repository.findByDocumentIdAndKey(DOCUMENT_ID, KEY)).thenReturn(Mono.empty());
+
+        StepVerifier.create(metadataService.updateByKey(DOCUMENT_ID, KEY, DocumentMetadataDTO.builder().build()))
+                .expectError(RuntimeException.class)
+                .verify();
+
+        verify(repository, never()).save(any());
+        verify(documentRepository, never()).incrementMetadataVersion(any());
+    }
+
+    @Test
+    void deleteByKey_MissingEntryFails() {
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(schemaRegistry.forDocument(DOCUMENT)).thenReturn(Mono.just(MetadataSchemaValidator.NONE));
+        when(repository.deleteByDocumentIdAndKey(DOCUMENT_ID, KEY)).thenReturn(Mono.just(0));
+
+        StepVerifier.create(metadataService.deleteByKey(DOCUMENT_ID, KEY))
+                .expectError(RuntimeException.class)
+                .verify();
+
+        verify(metadataCache).invalidate(DOCUMENT_ID);
+    }
+
+    @Test
+    void deleteByKey_DeletesEntry() {
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(schemaRegistry.forDocument(DOCUMENT)).thenReturn(Mono.just(MetadataSchemaValidator.NONE));
+        when(repository.deleteByDocumentIdAndKey(DOCUMENT_ID, KEY)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(metadataService.deleteByKey(DOCUMENT_ID, KEY))
+                .verifyComplete();
+
+        verify(metadataCache).invalidate(DOCUMENT_ID);
+    }
+
+    @Test
+    void getByKey_ServedFromCacheWhenEnabled() {
+        DocumentMetadata entity = metadata("C-2024-001", 0L);
+        DocumentMetadataDTO dto = DocumentMetadataDTO.builder().key(KEY).build();
+        when(metadataCache.isEnabled()).thenReturn(true);
+        when(metadataCache.get(DOCUMENT_ID)).thenReturn(Mono.just(List.of(
+                DocumentMetadata.builder().documentId(DOCUMENT_ID).key("a-first-key").build(), entity)));
+        when(mapper.toDTO(entity)).thenReturn(dto);
+
+        StepVerifier.create(metadataService.getByKey(DOCUMENT_ID, KEY))
+                .expectNext(dto)
+                .verifyComplete();
+
+        verify(repository, never()).findByDocumentIdAndKey(any(), any());
+    }
+
+    @Test
+    void upsertAll_WritesAllEntriesInOneStatement() {
+        when(properties.getMetadata()).thenReturn(new EcmIntegrationProperties.MetadataDefaults());
+        Map<String, MetadataValueDTO> entries = new LinkedHashMap<>();
+        entries.put(KEY, MetadataValueDTO.builder().value("C-2024-001").type("STRING").build());
+        entries.put("signed-on", MetadataValueDTO.builder().value("2024-03-01").type("DATE").isSearchable(false).build());
+        DocumentMetadata contract = metadata("C-2024-001", 0L);
+        DocumentMetadata signedOn = DocumentMetadata.builder().documentId(DOCUMENT_ID).key("signed-on").value("2024-03-01").build();
+        DocumentMetadataDTO contractDTO = DocumentMetadataDTO.builder().key(KEY).build();
+        DocumentMetadataDTO signedOnDTO = DocumentMetadataDTO.builder().key("signed-on").build();
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(schemaRegistry.forDocument(DOCUMENT)).thenReturn(Mono.just(MetadataSchemaValidator.NONE));
+        when(repository.findSystemEntries(eq(DOCUMENT_ID), aryEq(new String[]{KEY, "signed-on"}))).thenReturn(Flux.empty());
+        when(repository.upsertAll(eq(DOCUMENT_ID), aryEq(new String[]{KEY, "signed-on"}), aryEq(new String[]{"C-2024-001", "2024-03-01"}),
+                aryEq(new String[]{"STRING", "DATE"}), aryEq(new Boolean[]{null, false}),
+                aryEq(new String[]{null, null}), aryEq(new String[]{null, "2024-03-01T00:00:00Z"}), aryEq(new Boolean[]{null, null}),
+                eq(true)))
+                .thenReturn(Flux.just(contract, signedOn));
+        when(mapper.toDTO(contract)).thenReturn(contractDTO);
+        when(mapper.toDTO(signedOn)).thenReturn(signedOnDTO);
+
+        StepVerifier.create(metadataService.upsertAll(DOCUMENT_ID, entries, true))
+                .assertNext(written -> {
+                    assertEquals(2, written.size());
+                    assertEquals(contractDTO, written.get(KEY));
+                    assertEquals(signedOnDTO, written.get("signed-on"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void upsertAll_TooManyEntriesFails() {
+        EcmIntegrationProperties.MetadataDefaults defaults = new EcmIntegrationProperties.MetadataDefaults();
+        defaults.setMaxBulkEntries(1);
+        when(properties.getMetadata()).thenReturn(defaults);
+        Map<String, MetadataValueDTO> entries = Map.of(
+                "a", MetadataValueDTO.builder().value("1").build(),
+                "b", MetadataValueDTO.builder().value("2").build());
+
+        StepVerifier.create(metadataService.upsertAll(DOCUMENT_ID, entries, false))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(repository, never()).upsertAll(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void upsertAll_MissingDocumentFails() {
+        when(properties.getMetadata()).thenReturn(new EcmIntegrationProperties.MetadataDefaults());
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.empty());
+        Map<String, MetadataValueDTO> entries = Map.of(KEY, MetadataValueDTO.builder().value("C-2024-001").build());
+
+        StepVerifier.create(metadataService.upsertAll(DOCUMENT_ID, entries, false))
+                .expectErrorMatches(error -> error.getMessage().equals("Document not found with ID: " + DOCUMENT_ID))
+                .verify();
+
+        verify(repository, never()).upsertAll(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void upsertAll_SystemKeyFails() {
+        when(properties.getMetadata()).thenReturn(new EcmIntegrationProperties.MetadataDefaults());
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(repository.findSystemEntries(eq(DOCUMENT_ID), aryEq(new String[]{"ecm.checksum"}))).thenReturn(Flux.just(
+                DocumentMetadata.builder().documentId(DOCUMENT_ID).key("ecm.checksum").isSystemMetadata(true).build()));
+        Map<String, MetadataValueDTO> entries = Map.of("ecm.checksum", MetadataValueDTO.builder().value("forged").build());
+
+        StepVerifier.create(metadataService.upsertAll(DOCUMENT_ID, entries, false))
+                .expectErrorMatches(error -> error instanceof IllegalArgumentException
+                        && error.getMessage().contains("ecm.checksum"))
+                .verify();
+
+        verify(repository, never()).upsertAll(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean());
+        verifyNoInteractions(schemaRegistry);
+    }
+
+    @Test
+    void updateByKey_StoresTypedValue() {
+        DocumentMetadata existing = metadata("100", 1L);
+        DocumentMetadataDTO request = DocumentMetadataDTO.builder().value("12500.50").type("AMOUNT").build();
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(schemaRegistry.forDocument(DOCUMENT)).thenReturn(Mono.just(MetadataSchemaValidator.NONE));
+        when(repository.findByDocumentIdAndKey(DOCUMENT_ID, KEY)).thenReturn(Mono.just(existing));
+        when(mapper.toEntity(request)).thenReturn(DocumentMetadata.builder().value("12500.50").type("AMOUNT").build());
+        when(repository.save(any(DocumentMetadata.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mapper.toDTO(any(DocumentMetadata.class))).thenReturn(DocumentMetadataDTO.builder().build());
+
+        StepVerifier.create(metadataService.updateByKey(DOCUMENT_ID, KEY, request))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ArgumentCaptor<DocumentMetadata> saved = ArgumentCaptor.forClass(DocumentMetadata.class);
+        verify(repository).save(saved.capture());
+        assertEquals(new BigDecimal("12500.50"), saved.getValue().getValueNumber());
+    }
+
+    @Test
+    void findDocumentIdsByMetadataRange_RejectsOrderingOnBooleans() {
+        MetadataRangeQueryDTO rangeQuery = MetadataRangeQueryDTO.builder()
+                .tenantId("tenant-1").key("approved").valueType(MetadataValueType.BOOLEAN)
+                .comparison(MetadataComparison.GT).value("true").build();
+
+        StepVerifier.create(metadataService.findDocumentIdsByMetadataRange(rangeQuery, 0, 20))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(entityTemplate);
+    }
+
+    @Test
+    void findDocumentIdsByMetadataRange_RejectsValuesOfAnotherType() {
+        MetadataRangeQueryDTO rangeQuery = MetadataRangeQueryDTO.builder()
+                .tenantId("tenant-1").key("invoice_amount").valueType(MetadataValueType.NUMBER)
+                .comparison(MetadataComparison.BETWEEN).value("10000").upperValue("a lot").build();
+
+        StepVerifier.create(metadataService.findDocumentIdsByMetadataRange(rangeQuery, 0, 20))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(entityTemplate);
+    }
+
+    @Test
+    void create_RejectsValueNotMatchingSchema() {
+        DocumentMetadataDTO request = DocumentMetadataDTO.builder().documentId(DOCUMENT_ID).key(KEY).value("2024/001").build();
+        when(mapper.toEntity(request)).thenReturn(DocumentMetadata.builder().documentId(DOCUMENT_ID).key(KEY).value("2024/001").build());
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(schemaRegistry.forDocument(DOCUMENT)).thenReturn(Mono.just(contractSchema()));
+
+        StepVerifier.create(metadataService.create(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void updateByKey_TakesTypeFromSchema() {
+        DocumentMetadata existing = DocumentMetadata.builder().id(METADATA_ID).documentId(DOCUMENT_ID).key("amount").value("100").version(1L).build();
+        DocumentMetadataDTO request = DocumentMetadataDTO.builder().value("250.75").build();
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(schemaRegistry.forDocument(DOCUMENT)).thenReturn(Mono.just(contractSchema()));
+        when(repository.findByDocumentIdAndKey(DOCUMENT_ID, "amount")).thenReturn(Mono.just(existing));
+        when(mapper.toEntity(request)).thenReturn(DocumentMetadata.builder().value("250.75").build());
+        when(repository.save(any(DocumentMetadata.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mapper.toDTO(any(DocumentMetadata.class))).thenReturn(DocumentMetadataDTO.builder().build());
+
+        StepVerifier.create(metadataService.updateByKey(DOCUMENT_ID, "amount", request))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ArgumentCaptor<DocumentMetadata> saved = ArgumentCaptor.forClass(DocumentMetadata.class);
+        verify(repository).save(saved.capture());
+        assertEquals("NUMBER", saved.getValue().getType());
+        assertEquals(new BigDecimal("250.75"), saved.getValue().getValueNumber());
+    }
+
+    @Test
+    void deleteByKey_RejectsRequiredKey() {
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(schemaRegistry.forDocument(DOCUMENT)).thenReturn(Mono.just(contractSchema()));
+
+        StepVerifier.create(metadataService.deleteByKey(DOCUMENT_ID, KEY))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(repository, never()).deleteByDocumentIdAndKey(any(), any());
+    }
+
+    @Test
+    void upsertAll_ReplaceWithoutRequiredKeyFails() {
+        when(properties.getMetadata()).thenReturn(new EcmIntegrationProperties.MetadataDefaults());
+        when(documentRepository.incrementMetadataVersion(DOCUMENT_ID)).thenReturn(Mono.just(DOCUMENT));
+        when(schemaRegistry.forDocument(DOCUMENT)).thenReturn(Mono.just(contractSchema()));
+        when(repository.findSystemEntries(eq(DOCUMENT_ID), aryEq(new String[]{"amount"}))).thenReturn(Flux.empty());
+        Map<String, MetadataValueDTO> entries = Map.of("amount", MetadataValueDTO.builder().value("10").build());
+
+        StepVerifier.create(metadataService.upsertAll(DOCUMENT_ID, entries, true))
+                .expectErrorMatches(error -> error instanceof IllegalArgumentException
+                        && error.getMessage().contains("Metadata " + KEY + " is required"))
+                .verify();
+
+        verify(repository, never()).upsertAll(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    private static MetadataSchemaValidator contractSchema() {
+        return MetadataSchemaValidator.compile(List.of(
+                MetadataSchemaField.builder().key(KEY).isRequired(true).pattern("C-[0-9]{4}-[0-9]{3}").build(),
+                MetadataSchemaField.builder().key("amount").valueType("NUMBER").build()));
+    }
+
+    private static DocumentMetadata metadata(String value, Long version) {
+        return DocumentMetadata.builder()
+                .id(METADATA_ID)
+                .documentId(DOCUMENT_ID)
+                .key(KEY)
+                .value(value)
+                .tenantId("tenant-1")
+                .version(version)
+                .build();
+    }
+}
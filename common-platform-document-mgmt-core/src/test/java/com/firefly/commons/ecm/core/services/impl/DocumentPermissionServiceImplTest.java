@@ -16,26 +16,38 @@
 
 package com.firefly.commons.ecm.core.services.impl;
 
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
 import com.firefly.commons.ecm.core.mappers.DocumentPermissionMapper;
+import com.firefly.commons.ecm.core.permissions.DocumentAcl;
+import com.firefly.commons.ecm.core.permissions.DocumentAclEngine;
+import com.firefly.commons.ecm.core.permissions.PermissionDecisionCache;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentPermissionDTO;
 import com.firefly.commons.ecm.interfaces.enums.PermissionType;
 import com.firefly.commons.ecm.models.entities.DocumentPermission;
 import com.firefly.commons.ecm.models.repositories.DocumentPermissionRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
 import com.firefly.core.ecm.domain.model.security.Permission;
 import com.firefly.core.ecm.port.security.PermissionPort;
 import com.firefly.core.ecm.service.EcmPortProvider;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +56,9 @@ class DocumentPermissionServiceImplTest {
     @Mock
     private DocumentPermissionRepository repository;
 
+    @Mock
+    private DocumentRepository documentRepository;
+
     @Mock
     private DocumentPermissionMapper mapper;
 
@@ -53,6 +68,15 @@ class DocumentPermissionServiceImplTest {
     @Mock
     private PermissionPort permissionPort;
 
+    @Mock
+    private PermissionDecisionCache decisionCache;
+
+    @Mock
+    private DocumentAclEngine aclEngine;
+
+    @Mock
+    private EcmIntegrationProperties properties;
+
     @InjectMocks
     private DocumentPermissionServiceImpl service;
 
@@ -82,5 +106,134 @@ class DocumentPermissionServiceImplTest {
 
         verify(permissionPort).grantPermission(any(Permission.class));
         verify(repository).save(entity);
+        verify(decisionCache).invalidate(docId, partyId);
+        verify(aclEngine).apply(saved);
+    }
+
+    @Test
+    void create_InvalidatesCachedDecisionsOnlyOnceTheWriteIsDone() {
+        UUID docId = UUID.randomUUID();
+        UUID partyId = UUID.randomUUID();
+        DocumentPermissionDTO dto = DocumentPermissionDTO.builder()
+                .documentId(docId)
+                .partyId(partyId)
+                .permissionType(PermissionType.READ)
+                .isGranted(true)
+                .build();
+        DocumentPermission entity = DocumentPermission.builder().build();
+        DocumentPermission saved = DocumentPermission.builder().id(UUID.randomUUID()).build();
+        DocumentPermissionDTO savedDto = DocumentPermissionDTO.builder().id(saved.getId()).build();
+
+        when(ecmPortProvider.getPermissionPort()).thenReturn(Optional.empty());
+        when(mapper.toEntity(dto)).thenReturn(entity);
+        when(repository.save(entity)).thenReturn(Mono.just(saved));
+        when(mapper.toDTO(saved)).thenReturn(savedDto);
+
+        StepVerifier.create(service.create(dto))
+                .expectNext(savedDto)
+                .verifyComplete();
+
+        InOrder inOrder = inOrder(repository, decisionCache);
+        inOrder.verify(repository).save(entity);
+        inOrder.verify(decisionCache).invalidate(docId, partyId);
+    }
+
+    @Test
+    void delete_InvalidatesCachedDecisions() {
+        UUID id = UUID.randomUUID();
+        DocumentPermission entity = DocumentPermission.builder()
+                .id(id)
+                .documentId(UUID.randomUUID())
+                .partyId(UUID.randomUUID())
+                .build();
+
+        when(repository.findById(id)).thenReturn(Mono.just(entity));
+        when(ecmPortProvider.getPermissionPort()).thenReturn(Optional.empty());
+        when(repository.delete(entity)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.delete(id))
+                .verifyComplete();
+
+        verify(decisionCache).invalidate(entity.getDocumentId(), entity.getPartyId());
+        verify(aclEngine).remove(entity);
+    }
+
+    @Test
+    void hasPermissions_WithoutPort_EvaluatesStoredPermissionsInMemory() {
+        UUID principalId = UUID.randomUUID();
+        UUID granted = UUID.randomUUID();
+        UUID denied = UUID.randomUUID();
+        DocumentPermission read = DocumentPermission.builder()
+                .documentId(granted).partyId(principalId).permissionType(PermissionType.READ).isGranted(true).build();
+        DocumentPermission deniedRead = DocumentPermission.builder()
+                .documentId(denied).partyId(principalId).permissionType(PermissionType.READ).isGranted(false).build();
+
+        when(properties.getPermissions()).thenReturn(new EcmIntegrationProperties.PermissionDefaults());
+        when(ecmPortProvider.getPermissionPort()).thenReturn(Optional.empty());
+        when(aclEngine.getAcls(anyCollection())).thenReturn(Mono.just(Map.of(
+                granted, DocumentAcl.of(List.of(read), 0),
+                denied, DocumentAcl.of(List.of(deniedRead), 0))));
+
+        StepVerifier.create(service.hasPermissions(principalId, List.of(granted, denied, granted),
+                        List.of(PermissionType.READ, PermissionType.WRITE, PermissionType.READ)))
+                .assertNext(decisions -> {
+                    assertEquals(2, decisions.size());
+                    assertEquals(Map.of(PermissionType.READ, true, PermissionType.WRITE, false), decisions.get(granted));
+                    assertEquals(Map.of(PermissionType.READ, false, PermissionType.WRITE, false), decisions.get(denied));
+                })
+                .verifyComplete();
+
+        verify(aclEngine).getAcls(anyCollection());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void hasPermission_WithoutPort_UsesAclEngine() {
+        UUID docId = UUID.randomUUID();
+        UUID principalId = UUID.randomUUID();
+
+        when(ecmPortProvider.getPermissionPort()).thenReturn(Optional.empty());
+        when(aclEngine.hasPermission(docId, principalId, PermissionType.READ)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.hasPermission(docId, principalId, PermissionType.READ))
+                .expectNext(true)
+                .verifyComplete();
+
+        verifyNoInteractions(decisionCache);
+    }
+
+    @Test
+    void hasPermissions_TooManyChecks_IsRejected() {
+        EcmIntegrationProperties.PermissionDefaults defaults = new EcmIntegrationProperties.PermissionDefaults();
+        defaults.setMaxBatchChecks(1);
+        when(properties.getPermissions()).thenReturn(defaults);
+
+        StepVerifier.create(service.hasPermissions(UUID.randomUUID(), List.of(UUID.randomUUID()),
+                        List.of(PermissionType.READ, PermissionType.WRITE)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void hasPermission_WithPort_ReadOnOpenDocumentWithoutPermission_IsGrantedWithoutThePort() {
+        UUID docId = UUID.randomUUID();
+        UUID principalId = UUID.randomUUID();
+
+        when(ecmPortProvider.getPermissionPort()).thenReturn(Optional.of(permissionPort));
+        when(properties.getPermissions()).thenReturn(new EcmIntegrationProperties.PermissionDefaults());
+        when(documentRepository.findOpenToPrincipal(eq(List.of(docId)), eq(principalId), any()))
+                .thenReturn(Flux.just(docId));
+        when(repository.findNextExpiration(eq(docId), eq(principalId), any())).thenReturn(Mono.empty());
+        when(decisionCache.get(eq(docId), eq(principalId), eq(PermissionType.READ), any()))
+                .thenAnswer(inv -> inv.<Mono<PermissionDecisionCache.Decision>>getArgument(3)
+                        .map(PermissionDecisionCache.Decision::granted));
+
+        StepVerifier.create(service.hasPermission(docId, principalId, PermissionType.READ))
+                .expectNext(true)
+                .verifyComplete();
+
+        verifyNoInteractions(permissionPort);
     }
-}
\ No newline at end of file
+}
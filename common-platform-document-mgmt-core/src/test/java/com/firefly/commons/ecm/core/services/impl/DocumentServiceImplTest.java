@@ -16,11 +16,18 @@
 
 package com.firefly.commons.ecm.core.services.impl;
 
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.index.DocumentMetadataCache;
 import com.firefly.commons.ecm.core.mappers.DocumentMapper;
 import com.firefly.commons.ecm.core.mappers.EcmDomainMapper;
+import com.firefly.commons.ecm.core.versioning.VersionNumberAllocator;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentDTO;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentPageDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentProjection;
 import com.firefly.commons.ecm.models.entities.Document;
 import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import com.firefly.commons.ecm.models.repositories.FolderStatsRepository;
 import com.firefly.core.ecm.port.document.DocumentSearchPort;
 import com.firefly.core.ecm.service.EcmPortProvider;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,16 +36,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -62,6 +78,24 @@ class DocumentServiceImplTest {
     @Mock
     private DocumentSearchPort searchPort;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FolderRepository folderRepository;
+
+    @Mock
+    private FolderStatsRepository folderStatsRepository;
+
+    @Mock
+    private EcmIntegrationProperties properties;
+
+    @Mock
+    private DocumentMetadataCache metadataCache;
+
+    @Mock
+    private VersionNumberAllocator versionNumberAllocator;
+
     @InjectMocks
     private DocumentServiceImpl service;
 
@@ -89,7 +123,10 @@ class DocumentServiceImplTest {
         when(filePart.headers()).thenReturn(headers);
 
         when(repository.findById(docId)).thenReturn(Mono.just(entity));
-        when(repository.save(any(Document.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        when(versionNumberAllocator.allocate(docId)).thenReturn(Mono.just(1L));
+        when(repository.applyVersion(docId, 1L, "contract-v2.pdf", "application/pdf", null))
+                .thenReturn(Mono.just(Document.builder().id(docId).fileName("contract-v2.pdf").mimeType("application/pdf")
+                        .version(1L).versionNumber(1L).build()));
         when(ecmPortProvider.getDocumentVersionPort()).thenReturn(Optional.empty());
         when(ecmPortProvider.getDocumentSearchPort()).thenReturn(Optional.of(searchPort));
         when(searchPort.indexDocument(any())).thenReturn(Mono.empty());
@@ -100,6 +137,7 @@ class DocumentServiceImplTest {
                     .fileName(d.getFileName())
                     .mimeType(d.getMimeType())
                     .version(d.getVersion())
+                    .versionNumber(d.getVersionNumber())
                     .build();
         });
 
@@ -109,12 +147,207 @@ class DocumentServiceImplTest {
         // Then
         StepVerifier.create(result)
                 .assertNext(dto -> {
-                    assert dto.getVersion() == 1L;
+                    assert dto.getVersionNumber() == 1L;
                     assert "contract-v2.pdf".equals(dto.getFileName());
                     assert "application/pdf".equals(dto.getMimeType());
                 })
                 .verifyComplete();
 
         verify(searchPort).indexDocument(any());
+        verify(repository, never()).save(any(Document.class));
+    }
+
+    @Test
+    void createVersion_ConcurrentWriters_AllSucceedWithDistinctVersionNumbers() {
+        // Given: one document, a shared version counter and the conditional current-version update
+        int writers = 50;
+        AtomicLong counter = new AtomicLong();
+        AtomicLong current = new AtomicLong();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        when(filePart.filename()).thenReturn("contract-v2.pdf");
+        when(filePart.headers()).thenReturn(headers);
+
+        when(repository.findById(docId)).thenAnswer(inv -> Mono.just(versionOf(current.get())));
+        when(versionNumberAllocator.allocate(docId)).thenAnswer(inv -> Mono.fromCallable(counter::incrementAndGet));
+        when(repository.applyVersion(eq(docId), anyLong(), any(), any(), isNull())).thenAnswer(inv -> {
+            long versionNumber = inv.getArgument(1);
+            return Mono.fromCallable(() -> current.accumulateAndGet(versionNumber, Math::max) == versionNumber
+                    ? versionOf(versionNumber)
+                    : null);
+        });
+        when(ecmPortProvider.getDocumentVersionPort()).thenReturn(Optional.empty());
+        when(ecmPortProvider.getDocumentSearchPort()).thenReturn(Optional.empty());
+        when(mapper.toDTO(any(Document.class))).thenAnswer(inv -> {
+            Document d = inv.getArgument(0);
+            return DocumentDTO.builder().id(d.getId()).versionNumber(d.getVersionNumber()).build();
+        });
+
+        // When
+        List<DocumentDTO> results = Flux.range(0, writers)
+                .flatMap(i -> service.createVersion(docId, filePart, "v" + i).subscribeOn(Schedulers.parallel()), writers)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        // Then
+        assert results != null && results.size() == writers;
+        assert counter.get() == writers;
+        assert current.get() == writers;
+        verify(versionNumberAllocator, times(writers)).allocate(docId);
+        verify(repository, never()).save(any(Document.class));
+    }
+
+    private Document versionOf(long versionNumber) {
+        return Document.builder().id(docId).name("contract.pdf").fileName("contract-v2.pdf").versionNumber(versionNumber).build();
+    }
+
+    @Test
+    void createVersion_DocumentDeletedBeforeAllocation_Fails() {
+        HttpHeaders headers = new HttpHeaders();
+        when(filePart.headers()).thenReturn(headers);
+        when(repository.findById(docId)).thenReturn(Mono.just(entity));
+        when(ecmPortProvider.getDocumentVersionPort()).thenReturn(Optional.empty());
+        when(versionNumberAllocator.allocate(docId)).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.createVersion(docId, filePart, "v2"))
+                .expectErrorMessage("Document not found with ID: " + docId)
+                .verify();
+        verify(repository, never()).applyVersion(any(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void delete_RemovesRowAndTagUsageCountsInOneStatement() {
+        UUID folderId = UUID.randomUUID();
+        Document existing = Document.builder().id(docId).name("contract.pdf").folderId(folderId)
+                .fileSize(100L).tenantId("tenant-1").build();
+        when(repository.findById(docId)).thenReturn(Mono.just(existing));
+        when(ecmPortProvider.getDocumentContentPort()).thenReturn(Optional.empty());
+        when(ecmPortProvider.getDocumentSearchPort()).thenReturn(Optional.empty());
+        when(repository.deleteWithTagCounts(List.of(docId))).thenReturn(Mono.just(1));
+        when(folderRepository.lockHierarchyShared("tenant-1")).thenReturn(Mono.empty());
+        when(folderStatsRepository.applyDelta(folderId, -1, -100, -1, -100)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(service.delete(docId))
+                .verifyComplete();
+
+        verify(repository).deleteWithTagCounts(List.of(docId));
+        verify(repository, never()).delete(any(Document.class));
+    }
+
+    @Test
+    void update_MovedDocument_MovesFolderStatistics() {
+        UUID sourceFolderId = UUID.randomUUID();
+        UUID targetFolderId = UUID.randomUUID();
+        Document existing = Document.builder().id(docId).name("contract.pdf").folderId(sourceFolderId)
+                .fileSize(2048L).tenantId("tenant-1").build();
+        Document moved = Document.builder().id(docId).name("contract.pdf").folderId(targetFolderId)
+                .fileSize(2048L).tenantId("tenant-1").build();
+        DocumentDTO movedDTO = DocumentDTO.builder().id(docId).folderId(targetFolderId).build();
+
+        when(repository.findById(docId)).thenReturn(Mono.just(existing));
+        when(mapper.toEntity(movedDTO)).thenReturn(moved);
+        when(repository.save(moved)).thenReturn(Mono.just(moved));
+        when(folderRepository.lockHierarchyShared("tenant-1")).thenReturn(Mono.empty());
+        when(folderStatsRepository.applyDelta(sourceFolderId, -1, -2048, -1, -2048)).thenReturn(Mono.just(2));
+        when(folderStatsRepository.applyDelta(targetFolderId, 1, 2048, 1, 2048)).thenReturn(Mono.just(3));
+        when(mapper.toDTO(moved)).thenReturn(movedDTO);
+
+        StepVerifier.create(service.update(movedDTO))
+                .expectNext(movedDTO)
+                .verifyComplete();
+
+        verify(folderStatsRepository).applyDelta(sourceFolderId, -1, -2048, -1, -2048);
+        verify(folderStatsRepository).applyDelta(targetFolderId, 1, 2048, 1, 2048);
+    }
+
+    @Test
+    void update_SameFolderAndSize_LeavesFolderStatisticsUntouched() {
+        UUID folderId = UUID.randomUUID();
+        Document existing = Document.builder().id(docId).name("contract.pdf").folderId(folderId).fileSize(10L).build();
+        Document renamed = Document.builder().id(docId).name("contract-v2.pdf").folderId(folderId).fileSize(10L).build();
+        DocumentDTO renamedDTO = DocumentDTO.builder().id(docId).name("contract-v2.pdf").folderId(folderId).build();
+
+        when(repository.findById(docId)).thenReturn(Mono.just(existing));
+        when(mapper.toEntity(renamedDTO)).thenReturn(renamed);
+        when(repository.save(renamed)).thenReturn(Mono.just(renamed));
+        when(mapper.toDTO(renamed)).thenReturn(renamedDTO);
+
+        StepVerifier.create(service.update(renamedDTO))
+                .expectNext(renamedDTO)
+                .verifyComplete();
+
+        verifyNoInteractions(folderStatsRepository);
+    }
+
+    @Test
+    void listByFolder_ReturnsKeysetPagesLinkedByCursor() {
+        // Given
+        UUID folderId = UUID.randomUUID();
+        Document first = Document.builder().id(UUID.randomUUID()).name("a.pdf").folderId(folderId).build();
+        Document second = Document.builder().id(UUID.randomUUID()).name("b.pdf").folderId(folderId).build();
+        Document third = Document.builder().id(UUID.randomUUID()).name("c.pdf").folderId(folderId).build();
+
+        when(properties.getFolders()).thenReturn(new EcmIntegrationProperties.FolderDefaults());
+        when(properties.getPermissions()).thenReturn(new EcmIntegrationProperties.PermissionDefaults());
+        when(folderRepository.existsById(folderId)).thenReturn(Mono.just(true));
+        when(repository.findSummaryPageInFolder(eq(folderId), eq(""), any(UUID.class), isNull(), any(String[].class), eq(3)))
+                .thenReturn(Flux.just(first, second, third));
+        when(repository.findSummaryPageInFolder(eq(folderId), eq("b.pdf"), eq(second.getId()), isNull(), any(String[].class), eq(3)))
+                .thenReturn(Flux.just(third));
+        when(mapper.toDTO(any(Document.class))).thenAnswer(inv -> {
+            Document d = inv.getArgument(0);
+            return DocumentDTO.builder().id(d.getId()).name(d.getName()).build();
+        });
+
+        // When
+        DocumentPageDTO firstPage = service.listByFolder(folderId, false, DocumentProjection.SUMMARY, null, 2, null).block();
+
+        // Then
+        assert firstPage != null;
+        assert firstPage.getContent().size() == 2;
+        assert "b.pdf".equals(firstPage.getContent().get(1).getName());
+        assert firstPage.getNextCursor() != null;
+
+        StepVerifier.create(service.listByFolder(folderId, false, DocumentProjection.SUMMARY, firstPage.getNextCursor(), 2, null))
+                .assertNext(page -> {
+                    assert page.getContent().size() == 1;
+                    assert "c.pdf".equals(page.getContent().get(0).getName());
+                    assert page.getNextCursor() == null;
+                })
+                .verifyComplete();
+        verify(repository, never()).findPageInFolder(any(), any(), any(), any(), any(), anyInt());
+        verify(metadataCache).warm(List.of(first.getId(), second.getId()));
+        verify(metadataCache).warm(List.of(third.getId()));
+    }
+
+    @Test
+    void listByFolder_WithPrincipal_PushesReadabilityIntoTheQuery() {
+        UUID folderId = UUID.randomUUID();
+        UUID principalId = UUID.randomUUID();
+        Document readable = Document.builder().id(UUID.randomUUID()).name("a.pdf").folderId(folderId).build();
+
+        when(properties.getFolders()).thenReturn(new EcmIntegrationProperties.FolderDefaults());
+        when(properties.getPermissions()).thenReturn(new EcmIntegrationProperties.PermissionDefaults());
+        when(folderRepository.existsById(folderId)).thenReturn(Mono.just(true));
+        when(repository.findPageInSubtree(eq(folderId), eq(""), any(UUID.class), eq(principalId),
+                eq(new String[]{"PUBLIC"}), eq(51)))
+                .thenReturn(Flux.just(readable));
+        when(mapper.toDTO(readable)).thenReturn(DocumentDTO.builder().id(readable.getId()).build());
+
+        StepVerifier.create(service.listByFolder(folderId, true, null, null, null, principalId))
+                .assertNext(page -> {
+                    assert page.getContent().size() == 1;
+                    assert page.getNextCursor() == null;
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void listByFolder_WithInvalidCursor_Fails() {
+        when(properties.getFolders()).thenReturn(new EcmIntegrationProperties.FolderDefaults());
+
+        StepVerifier.create(service.listByFolder(UUID.randomUUID(), true, null, "not-a-cursor", null, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
     }
 }
@@ -27,6 +27,7 @@ import com.firefly.commons.ecm.interfaces.enums.SignatureType;
 import com.firefly.commons.ecm.interfaces.enums.SignatureFormat;
 import com.firefly.commons.ecm.models.entities.DocumentSignature;
 import com.firefly.commons.ecm.models.repositories.DocumentSignatureRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentVersionRepository;
 import com.firefly.core.ecm.service.EcmPortProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -53,6 +54,9 @@ class DocumentSignatureServiceImplTest {
     @Mock
     private DocumentSignatureRepository repository;
 
+    @Mock
+    private DocumentVersionRepository versionRepository;
+
     @Mock
     private DocumentSignatureMapper mapper;
 
@@ -188,6 +192,32 @@ class DocumentSignatureServiceImplTest {
         verify(repository).save(inputEntity);
     }
 
+    @Test
+    void create_ShouldLockTheSignedVersion_BeforeSaving() {
+        when(mapper.toEntity(testDocumentSignatureDTO)).thenReturn(testDocumentSignature);
+        when(versionRepository.lockUnpruned(TEST_VERSION_ID)).thenReturn(Mono.just(TEST_VERSION_ID));
+        when(repository.save(testDocumentSignature)).thenReturn(Mono.just(testDocumentSignature));
+        when(mapper.toDTO(testDocumentSignature)).thenReturn(testDocumentSignatureDTO);
+
+        StepVerifier.create(documentSignatureService.create(testDocumentSignatureDTO))
+                .expectNext(testDocumentSignatureDTO)
+                .verifyComplete();
+
+        verify(versionRepository).lockUnpruned(TEST_VERSION_ID);
+    }
+
+    @Test
+    void create_ShouldReturnError_WhenTheVersionIsBeingPruned() {
+        when(mapper.toEntity(testDocumentSignatureDTO)).thenReturn(testDocumentSignature);
+        when(versionRepository.lockUnpruned(TEST_VERSION_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(documentSignatureService.create(testDocumentSignatureDTO))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(repository, never()).save(any(DocumentSignature.class));
+    }
+
     @Test
     void update_ShouldUpdateDocumentSignature_WhenSignatureExists() {
         // Given
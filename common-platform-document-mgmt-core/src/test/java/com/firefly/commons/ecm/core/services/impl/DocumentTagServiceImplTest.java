@@ -0,0 +1,313 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services.impl;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.core.events.DocumentTagChangedEvent;
+import com.firefly.commons.ecm.core.events.DocumentTagsChangedEvent;
+import com.firefly.commons.ecm.core.events.EntityChangeType;
+import com.firefly.commons.ecm.core.index.TagDictionary;
+import com.firefly.commons.ecm.core.index.TagDictionaryCache;
+import com.firefly.commons.ecm.core.mappers.DocumentTagMapper;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentTagBulkRequestDTO;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentTagDTO;
+import com.firefly.commons.ecm.interfaces.dtos.TagDTO;
+import com.firefly.commons.ecm.models.entities.Document;
+import com.firefly.commons.ecm.models.entities.DocumentTag;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.entities.Tag;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.DocumentTagRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import com.firefly.commons.ecm.models.repositories.TagRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DocumentTagServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class DocumentTagServiceImplTest {
+
+    @Mock
+    private DocumentTagRepository repository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private FolderRepository folderRepository;
+
+    @Mock
+    private EcmIntegrationProperties properties;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private TagDictionaryCache tagDictionaryCache;
+
+    @Mock
+    private DocumentTagMapper mapper;
+
+    @InjectMocks
+    private DocumentTagServiceImpl documentTagService;
+
+    private static final String TENANT_ID = "tenant-1";
+    private static final UUID TAG_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440100");
+    private static final UUID FOLDER_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440200");
+    private static final UUID DOC_1 = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    private static final UUID DOC_2 = UUID.fromString("550e8400-e29b-41d4-a716-446655440002");
+    private static final UUID DOC_3 = UUID.fromString("550e8400-e29b-41d4-a716-446655440003");
+
+    @Test
+    void tagDocuments_WritesOneStatementAndEventPerBatch() {
+        when(properties.getTags()).thenReturn(tagDefaults(2));
+        when(repository.insertAssignments(TENANT_ID, List.of(DOC_1, DOC_2), List.of(TAG_ID)))
+                .thenReturn(Flux.just(assignment(DOC_1), assignment(DOC_2)));
+        when(repository.insertAssignments(TENANT_ID, List.of(DOC_3), List.of(TAG_ID)))
+                .thenReturn(Flux.empty());
+        DocumentTagBulkRequestDTO request = DocumentTagBulkRequestDTO.builder()
+                .tenantId(TENANT_ID).tagIds(List.of(TAG_ID)).documentIds(List.of(DOC_1, DOC_2, DOC_3, DOC_1)).build();
+
+        StepVerifier.create(documentTagService.tagDocuments(request))
+                .assertNext(result -> {
+                    assertEquals(3L, result.getSelectedDocuments());
+                    assertEquals(2L, result.getAffectedAssignments());
+                })
+                .verifyComplete();
+
+        // The second batch changed nothing, so only the first publishes an event
+        ArgumentCaptor<DocumentTagsChangedEvent> event = ArgumentCaptor.forClass(DocumentTagsChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(EntityChangeType.CREATED, event.getValue().getChangeType());
+        assertEquals(2, event.getValue().getDocumentTags().size());
+    }
+
+    @Test
+    void untagDocuments_WalksFolderSubtreeInBatches() {
+        when(properties.getTags()).thenReturn(tagDefaults(2));
+        when(folderRepository.findById(FOLDER_ID)).thenReturn(Mono.just(folder(TENANT_ID)));
+        when(documentRepository.findSubtreeBatch(eq(FOLDER_ID), any(UUID.class), eq(2)))
+                .thenReturn(Flux.just(document(DOC_1), document(DOC_2)))
+                .thenReturn(Flux.just(document(DOC_3)));
+        when(repository.deleteAssignments(eq(TENANT_ID), any(), eq(List.of(TAG_ID))))
+                .thenReturn(Flux.just(assignment(DOC_1)))
+                .thenReturn(Flux.just(assignment(DOC_3)));
+        DocumentTagBulkRequestDTO request = DocumentTagBulkRequestDTO.builder()
+                .tenantId(TENANT_ID).tagIds(List.of(TAG_ID)).folderId(FOLDER_ID).build();
+
+        StepVerifier.create(documentTagService.untagDocuments(request))
+                .assertNext(result -> {
+                    assertEquals(3L, result.getSelectedDocuments());
+                    assertEquals(2L, result.getAffectedAssignments());
+                })
+                .verifyComplete();
+
+        verify(documentRepository).findSubtreeBatch(FOLDER_ID, DOC_2, 2);
+        verify(eventPublisher, times(2)).publishEvent(any(DocumentTagsChangedEvent.class));
+    }
+
+    @Test
+    void tagDocuments_FolderOfAnotherTenantFails() {
+        when(properties.getTags()).thenReturn(tagDefaults(2));
+        when(folderRepository.findById(FOLDER_ID)).thenReturn(Mono.just(folder("tenant-2")));
+        DocumentTagBulkRequestDTO request = DocumentTagBulkRequestDTO.builder()
+                .tenantId(TENANT_ID).tagIds(List.of(TAG_ID)).folderId(FOLDER_ID).build();
+
+        StepVerifier.create(documentTagService.tagDocuments(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(documentRepository, repository, eventPublisher);
+    }
+
+    @Test
+    void tagDocuments_RequiresExactlyOneSelection() {
+        when(properties.getTags()).thenReturn(tagDefaults(2));
+        DocumentTagBulkRequestDTO request = DocumentTagBulkRequestDTO.builder()
+                .tenantId(TENANT_ID).tagIds(List.of(TAG_ID)).documentIds(List.of(DOC_1)).folderId(FOLDER_ID).build();
+
+        StepVerifier.create(documentTagService.tagDocuments(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(repository, documentRepository, eventPublisher);
+    }
+
+    @Test
+    void tagDocuments_StopsAboveMaximumDocuments() {
+        EcmIntegrationProperties.TagDefaults defaults = tagDefaults(2);
+        defaults.setMaxBulkDocuments(2);
+        when(properties.getTags()).thenReturn(defaults);
+        when(folderRepository.findById(FOLDER_ID)).thenReturn(Mono.just(folder(TENANT_ID)));
+        when(documentRepository.findSubtreeBatch(eq(FOLDER_ID), any(UUID.class), anyInt()))
+                .thenReturn(Flux.just(document(DOC_1), document(DOC_2)))
+                .thenReturn(Flux.just(document(DOC_3)));
+        when(repository.insertAssignments(eq(TENANT_ID), any(), any())).thenReturn(Flux.empty());
+        DocumentTagBulkRequestDTO request = DocumentTagBulkRequestDTO.builder()
+                .tenantId(TENANT_ID).tagIds(List.of(TAG_ID)).folderId(FOLDER_ID).build();
+
+        StepVerifier.create(documentTagService.tagDocuments(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(repository, times(1)).insertAssignments(any(), any(), any());
+    }
+
+    @Test
+    void tagDocuments_ResolvesTagNamesFromDictionary() {
+        when(properties.getTags()).thenReturn(tagDefaults(10));
+        TagDictionary dictionary = new TagDictionary();
+        dictionary.put(TagDTO.builder().id(TAG_ID).name("KYC").tenantId(TENANT_ID).build());
+        when(tagDictionaryCache.getDictionary(TENANT_ID)).thenReturn(Mono.just(dictionary));
+        when(repository.insertAssignments(TENANT_ID, List.of(DOC_1), List.of(TAG_ID))).thenReturn(Flux.just(assignment(DOC_1)));
+        DocumentTagBulkRequestDTO request = DocumentTagBulkRequestDTO.builder()
+                .tenantId(TENANT_ID).tagNames(List.of("KYC")).documentIds(List.of(DOC_1)).build();
+
+        StepVerifier.create(documentTagService.tagDocuments(request))
+                .assertNext(result -> assertEquals(1L, result.getAffectedAssignments()))
+                .verifyComplete();
+
+        verifyNoInteractions(tagRepository);
+    }
+
+    @Test
+    void tagDocuments_LooksUpNamesMissingFromDictionary() {
+        UUID otherTagId = UUID.randomUUID();
+        when(properties.getTags()).thenReturn(tagDefaults(10));
+        TagDictionary dictionary = new TagDictionary();
+        dictionary.put(TagDTO.builder().id(TAG_ID).name("KYC").tenantId(TENANT_ID).build());
+        when(tagDictionaryCache.getDictionary(TENANT_ID)).thenReturn(Mono.just(dictionary));
+        when(tagRepository.findByTenantIdAndNameIn(TENANT_ID, List.of("archived")))
+                .thenReturn(Flux.just(Tag.builder().id(otherTagId).name("archived").tenantId(TENANT_ID).build()));
+        when(repository.insertAssignments(TENANT_ID, List.of(DOC_1), List.of(TAG_ID, otherTagId)))
+                .thenReturn(Flux.just(assignment(DOC_1)));
+        DocumentTagBulkRequestDTO request = DocumentTagBulkRequestDTO.builder()
+                .tenantId(TENANT_ID).tagNames(List.of("KYC", "archived")).documentIds(List.of(DOC_1)).build();
+
+        StepVerifier.create(documentTagService.tagDocuments(request))
+                .assertNext(result -> assertEquals(1L, result.getAffectedAssignments()))
+                .verifyComplete();
+    }
+
+    @Test
+    void tagDocuments_UnknownTagNameFails() {
+        when(properties.getTags()).thenReturn(tagDefaults(10));
+        when(tagDictionaryCache.getDictionary(TENANT_ID)).thenReturn(Mono.empty());
+        when(tagRepository.findByTenantIdAndNameIn(eq(TENANT_ID), any())).thenReturn(Flux.empty());
+        DocumentTagBulkRequestDTO request = DocumentTagBulkRequestDTO.builder()
+                .tenantId(TENANT_ID).tagNames(List.of("archived")).documentIds(List.of(DOC_1)).build();
+
+        StepVerifier.create(documentTagService.tagDocuments(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(repository, never()).insertAssignments(any(), any(), any());
+    }
+
+    @Test
+    void create_IncrementsUsageCountOfTag() {
+        DocumentTagDTO request = DocumentTagDTO.builder().documentId(DOC_1).tagId(TAG_ID).tenantId(TENANT_ID).build();
+        DocumentTag entity = assignment(DOC_1);
+        when(mapper.toEntity(request)).thenReturn(entity);
+        when(repository.save(entity)).thenReturn(Mono.just(entity));
+        when(tagRepository.adjustUsageCount(TAG_ID, 1)).thenReturn(Mono.just(1));
+        when(mapper.toDTO(entity)).thenReturn(request);
+
+        StepVerifier.create(documentTagService.create(request))
+                .expectNext(request)
+                .verifyComplete();
+
+        verify(tagRepository).adjustUsageCount(TAG_ID, 1);
+        verify(eventPublisher).publishEvent(any(DocumentTagChangedEvent.class));
+    }
+
+    @Test
+    void delete_DecrementsUsageCountOfTag() {
+        UUID id = UUID.randomUUID();
+        DocumentTag entity = assignment(DOC_1);
+        when(repository.findById(id)).thenReturn(Mono.just(entity));
+        when(repository.delete(entity)).thenReturn(Mono.empty());
+        when(tagRepository.adjustUsageCount(TAG_ID, -1)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(documentTagService.delete(id))
+                .verifyComplete();
+
+        verify(tagRepository).adjustUsageCount(TAG_ID, -1);
+    }
+
+    @Test
+    void removeTag_DeletesAssignmentByDocumentAndTag() {
+        when(repository.deleteByDocumentIdAndTagId(DOC_1, TAG_ID)).thenReturn(Flux.just(assignment(DOC_1)));
+
+        StepVerifier.create(documentTagService.removeTag(DOC_1, TAG_ID))
+                .verifyComplete();
+
+        verify(eventPublisher).publishEvent(any(DocumentTagChangedEvent.class));
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    void removeTag_MissingAssignmentFails() {
+        when(repository.deleteByDocumentIdAndTagId(DOC_1, TAG_ID)).thenReturn(Flux.empty());
+
+        StepVerifier.create(documentTagService.removeTag(DOC_1, TAG_ID))
+                .expectError(RuntimeException.class)
+                .verify();
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static EcmIntegrationProperties.TagDefaults tagDefaults(int batchSize) {
+        EcmIntegrationProperties.TagDefaults defaults = new EcmIntegrationProperties.TagDefaults();
+        defaults.setBulkBatchSize(batchSize);
+        return defaults;
+    }
+
+    private static DocumentTag assignment(UUID documentId) {
+        return DocumentTag.builder().documentId(documentId).tagId(TAG_ID).tenantId(TENANT_ID).build();
+    }
+
+    private static Folder folder(String tenantId) {
+        return Folder.builder().id(FOLDER_ID).tenantId(tenantId).build();
+    }
+
+    private static Document document(UUID id) {
+        return Document.builder().id(id).tenantId(TENANT_ID).build();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services.impl;
+
+import com.firefly.commons.ecm.core.maintenance.FolderJobRunner;
+import com.firefly.commons.ecm.core.mappers.FolderJobMapper;
+import com.firefly.commons.ecm.interfaces.dtos.FolderJobDTO;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobPhase;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobStatus;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobType;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.entities.FolderJob;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import com.firefly.commons.ecm.models.repositories.FolderJobRepository;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FolderJobServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class FolderJobServiceImplTest {
+
+    @Mock
+    private FolderJobRepository repository;
+
+    @Mock
+    private FolderRepository folderRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private FolderJobMapper mapper;
+
+    @Mock
+    private FolderJobRunner folderJobRunner;
+
+    @InjectMocks
+    private FolderJobServiceImpl folderJobService;
+
+    private static final UUID CONTRACTS_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    private static final UUID YEAR_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440002");
+
+    private final Folder contracts = Folder.builder().id(CONTRACTS_ID).name("Contracts").tenantId("tenant-1")
+            .idPath("/" + CONTRACTS_ID + "/").depth(0).build();
+    private final Folder year = Folder.builder().id(YEAR_ID).name("2024").parentFolderId(CONTRACTS_ID).tenantId("tenant-1")
+            .idPath("/" + CONTRACTS_ID + "/" + YEAR_ID + "/").depth(1).build();
+
+    @Test
+    void startDelete_PersistsPendingJobWithSubtreeTotals() {
+        FolderJobDTO jobDTO = FolderJobDTO.builder().jobType(FolderJobType.DELETE).build();
+        when(folderRepository.findById(CONTRACTS_ID)).thenReturn(Mono.just(contracts));
+        when(folderRepository.lockHierarchy("tenant-1")).thenReturn(Mono.empty());
+        when(repository.existsActiveInHierarchy(CONTRACTS_ID)).thenReturn(Mono.just(false));
+        when(folderRepository.countDescendants(eq(CONTRACTS_ID), anyInt())).thenReturn(Mono.just(4L));
+        when(documentRepository.countInSubtree(CONTRACTS_ID)).thenReturn(Mono.just(250L));
+        when(repository.save(any(FolderJob.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mapper.toDTO(any(FolderJob.class))).thenReturn(jobDTO);
+
+        StepVerifier.create(folderJobService.startDelete(CONTRACTS_ID))
+                .expectNext(jobDTO)
+                .verifyComplete();
+
+        ArgumentCaptor<FolderJob> saved = ArgumentCaptor.forClass(FolderJob.class);
+        verify(repository).save(saved.capture());
+        assertEquals(FolderJobStatus.PENDING, saved.getValue().getStatus());
+        assertEquals(FolderJobPhase.DOCUMENTS, saved.getValue().getPhase());
+        assertEquals(5L, saved.getValue().getTotalFolders());
+        assertEquals(250L, saved.getValue().getTotalDocuments());
+        verify(folderJobRunner).poll();
+    }
+
+    @Test
+    void startDelete_WithJobInProgress_ReturnsError() {
+        when(folderRepository.findById(CONTRACTS_ID)).thenReturn(Mono.just(contracts));
+        when(folderRepository.lockHierarchy("tenant-1")).thenReturn(Mono.empty());
+        when(repository.existsActiveInHierarchy(CONTRACTS_ID)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(folderJobService.startDelete(CONTRACTS_ID))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void startCopy_ChildOfFolderBeingDeleted_ReturnsErrorUnderTheHierarchyLock() {
+        // A recursive delete of Contracts is running: copying its child 2024 overlaps it
+        when(folderRepository.findById(YEAR_ID)).thenReturn(Mono.just(year));
+        when(folderRepository.lockHierarchy("tenant-1")).thenReturn(Mono.empty());
+        when(repository.existsActiveInHierarchy(YEAR_ID)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(folderJobService.startCopy(YEAR_ID, null, "2024 archive"))
+                .expectErrorSatisfies(error -> {
+                    assertEquals(IllegalStateException.class, error.getClass());
+                    assertEquals("A job is already in progress on folder " + YEAR_ID
+                            + ", one of its ancestors or one of its descendants", error.getMessage());
+                })
+                .verify();
+
+        InOrder inOrder = inOrder(folderRepository, repository);
+        inOrder.verify(folderRepository).lockHierarchy("tenant-1");
+        inOrder.verify(repository).existsActiveInHierarchy(YEAR_ID);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void startCopy_IntoFolderWithJobInProgress_ReturnsError() {
+        UUID archiveId = UUID.randomUUID();
+        Folder archive = Folder.builder().id(archiveId).name("Archive").tenantId("tenant-1")
+                .idPath("/" + archiveId + "/").depth(0).build();
+        when(folderRepository.findById(YEAR_ID)).thenReturn(Mono.just(year));
+        when(folderRepository.findById(archiveId)).thenReturn(Mono.just(archive));
+        when(folderRepository.lockHierarchy("tenant-1")).thenReturn(Mono.empty());
+        when(repository.existsActiveInHierarchy(YEAR_ID)).thenReturn(Mono.just(false));
+        when(repository.existsActiveInHierarchy(archiveId)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(folderJobService.startCopy(YEAR_ID, archiveId, null))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void startCopy_IntoOwnSubtree_ReturnsError() {
+        when(folderRepository.findById(CONTRACTS_ID)).thenReturn(Mono.just(contracts));
+        when(folderRepository.findById(YEAR_ID)).thenReturn(Mono.just(year));
+        when(folderRepository.lockHierarchy("tenant-1")).thenReturn(Mono.empty());
+        when(repository.existsActiveInHierarchy(CONTRACTS_ID)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(folderJobService.startCopy(CONTRACTS_ID, YEAR_ID, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(repository, never()).save(any());
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.core.services.impl;
+
+import com.firefly.commons.ecm.core.events.FolderChangedEvent;
+import com.firefly.commons.ecm.core.index.FolderTreeCache;
+import com.firefly.commons.ecm.core.mappers.FolderMapper;
+import com.firefly.commons.ecm.interfaces.dtos.FolderDTO;
+import com.firefly.commons.ecm.models.entities.Folder;
+import com.firefly.commons.ecm.models.entities.FolderStats;
+import com.firefly.commons.ecm.models.repositories.FolderRepository;
+import com.firefly.commons.ecm.models.repositories.FolderStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FolderServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class FolderServiceImplTest {
+
+    @Mock
+    private FolderRepository repository;
+
+    @Mock
+    private FolderMapper mapper;
+
+    @Mock
+    private FolderStatsRepository folderStatsRepository;
+
+    @Mock
+    private FolderTreeCache folderTreeCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private FolderServiceImpl folderService;
+
+    private static final String TENANT_ID = "tenant-1";
+    private static final UUID CONTRACTS_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    private static final UUID YEAR_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440002");
+    private static final UUID ARCHIVE_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440003");
+
+    private Folder contracts;
+    private Folder year;
+    private Folder archive;
+
+    @BeforeEach
+    void setUp() {
+        contracts = folder(CONTRACTS_ID, "Contracts", null, "/Contracts", "/" + CONTRACTS_ID + "/", 0);
+        year = folder(YEAR_ID, "2024", CONTRACTS_ID, "/Contracts/2024", "/" + CONTRACTS_ID + "/" + YEAR_ID + "/", 1);
+        archive = folder(ARCHIVE_ID, "Archive", null, "/Archive", "/" + ARCHIVE_ID + "/", 0);
+    }
+
+    @Test
+    void move_RewritesSubtreeInOneStatementUnderLock() {
+        Folder moved = folder(YEAR_ID, "2024", ARCHIVE_ID, "/Archive/2024", "/" + ARCHIVE_ID + "/" + YEAR_ID + "/", 1);
+        FolderDTO movedDTO = FolderDTO.builder().id(YEAR_ID).parentFolderId(ARCHIVE_ID).path("/Archive/2024").build();
+        when(repository.findById(YEAR_ID)).thenReturn(Mono.just(year), Mono.just(year), Mono.just(year), Mono.just(moved));
+        when(repository.findById(ARCHIVE_ID)).thenReturn(Mono.just(archive));
+        when(repository.lockHierarchy(TENANT_ID)).thenReturn(Mono.empty());
+        when(folderStatsRepository.findById(YEAR_ID)).thenReturn(Mono.just(FolderStats.builder()
+                .folderId(YEAR_ID).totalDocumentCount(5L).totalBytes(500L).build()));
+        when(folderStatsRepository.applyDelta(CONTRACTS_ID, 0, 0, -5, -500)).thenReturn(Mono.just(1));
+        when(folderStatsRepository.applyDelta(ARCHIVE_ID, 0, 0, 5, 500)).thenReturn(Mono.just(1));
+        when(repository.moveSubtree(YEAR_ID, ARCHIVE_ID, "2024",
+                "/" + CONTRACTS_ID + "/" + YEAR_ID + "/", "/" + ARCHIVE_ID + "/" + YEAR_ID + "/",
+                "/Contracts/2024", "/Archive/2024", 0)).thenReturn(Mono.just(3));
+        when(folderTreeCache.publishChange(TENANT_ID)).thenReturn(Mono.empty());
+        when(mapper.toDTO(moved)).thenReturn(movedDTO);
+
+        StepVerifier.create(folderService.move(YEAR_ID, ARCHIVE_ID))
+                .expectNext(movedDTO)
+                .verifyComplete();
+
+        verify(repository).lockHierarchy(TENANT_ID);
+        verify(folderStatsRepository).applyDelta(CONTRACTS_ID, 0, 0, -5, -500);
+        verify(folderStatsRepository).applyDelta(ARCHIVE_ID, 0, 0, 5, 500);
+        verify(eventPublisher).publishEvent(any(FolderChangedEvent.class));
+    }
+
+    @Test
+    void move_IntoOwnSubtree_ReturnsError() {
+        when(repository.findById(CONTRACTS_ID)).thenReturn(Mono.just(contracts));
+        when(repository.findById(YEAR_ID)).thenReturn(Mono.just(year));
+        when(repository.lockHierarchy(TENANT_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(folderService.move(CONTRACTS_ID, YEAR_ID))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(repository, never()).moveSubtree(any(), any(), anyString(), anyString(), anyString(), anyString(), anyString(), anyInt());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void move_ToRoot_ShortensPathsAndDepth() {
+        Folder moved = folder(YEAR_ID, "2024", null, "/2024", "/" + YEAR_ID + "/", 0);
+        FolderDTO movedDTO = FolderDTO.builder().id(YEAR_ID).path("/2024").build();
+        when(repository.findById(YEAR_ID)).thenReturn(Mono.just(year), Mono.just(year), Mono.just(year), Mono.just(moved));
+        when(repository.lockHierarchy(TENANT_ID)).thenReturn(Mono.empty());
+        when(folderStatsRepository.findById(YEAR_ID)).thenReturn(Mono.just(FolderStats.builder()
+                .folderId(YEAR_ID).totalDocumentCount(5L).totalBytes(500L).build()));
+        when(folderStatsRepository.applyDelta(CONTRACTS_ID, 0, 0, -5, -500)).thenReturn(Mono.just(1));
+        when(repository.moveSubtree(YEAR_ID, null, "2024",
+                "/" + CONTRACTS_ID + "/" + YEAR_ID + "/", "/" + YEAR_ID + "/",
+                "/Contracts/2024", "/2024", -1)).thenReturn(Mono.just(2));
+        when(folderTreeCache.publishChange(TENANT_ID)).thenReturn(Mono.empty());
+        when(mapper.toDTO(moved)).thenReturn(movedDTO);
+
+        StepVerifier.create(folderService.move(YEAR_ID, null))
+                .expectNext(movedDTO)
+                .verifyComplete();
+
+        verify(folderStatsRepository).applyDelta(CONTRACTS_ID, 0, 0, -5, -500);
+        verify(folderStatsRepository, never()).applyDelta(isNull(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void move_UnderNestedFolder_DeepensPathsAndDepth() {
+        Folder moved = folder(ARCHIVE_ID, "Archive", YEAR_ID, "/Contracts/2024/Archive",
+                "/" + CONTRACTS_ID + "/" + YEAR_ID + "/" + ARCHIVE_ID + "/", 2);
+        FolderDTO movedDTO = FolderDTO.builder().id(ARCHIVE_ID).path("/Contracts/2024/Archive").build();
+        when(repository.findById(ARCHIVE_ID)).thenReturn(Mono.just(archive), Mono.just(archive), Mono.just(archive), Mono.just(moved));
+        when(repository.findById(YEAR_ID)).thenReturn(Mono.just(year));
+        when(repository.lockHierarchy(TENANT_ID)).thenReturn(Mono.empty());
+        when(folderStatsRepository.findById(ARCHIVE_ID)).thenReturn(Mono.empty());
+        when(repository.moveSubtree(ARCHIVE_ID, YEAR_ID, "Archive",
+                "/" + ARCHIVE_ID + "/", "/" + CONTRACTS_ID + "/" + YEAR_ID + "/" + ARCHIVE_ID + "/",
+                "/Archive", "/Contracts/2024/Archive", 2)).thenReturn(Mono.just(1));
+        when(folderTreeCache.publishChange(TENANT_ID)).thenReturn(Mono.empty());
+        when(mapper.toDTO(moved)).thenReturn(movedDTO);
+
+        StepVerifier.create(folderService.move(ARCHIVE_ID, YEAR_ID))
+                .expectNext(movedDTO)
+                .verifyComplete();
+
+        verify(folderStatsRepository, never()).applyDelta(any(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void move_IntoItself_ReturnsError() {
+        when(repository.findById(YEAR_ID)).thenReturn(Mono.just(year));
+        when(repository.lockHierarchy(TENANT_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(folderService.move(YEAR_ID, YEAR_ID))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(repository, never()).moveSubtree(any(), any(), anyString(), anyString(), anyString(), anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void move_UnderFolderOfAnotherTenant_ReturnsError() {
+        Folder foreign = folder(ARCHIVE_ID, "Archive", null, "/Archive", "/" + ARCHIVE_ID + "/", 0);
+        foreign.setTenantId("tenant-2");
+        when(repository.findById(YEAR_ID)).thenReturn(Mono.just(year));
+        when(repository.findById(ARCHIVE_ID)).thenReturn(Mono.just(foreign));
+        when(repository.lockHierarchy(TENANT_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(folderService.move(YEAR_ID, ARCHIVE_ID))
+                .expectErrorMatches(error -> error instanceof IllegalArgumentException
+                        && error.getMessage().contains("another tenant"))
+                .verify();
+
+        verify(repository, never()).moveSubtree(any(), any(), anyString(), anyString(), anyString(), anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void rename_KeepsIdPathsAndDepth() {
+        Folder renamed = folder(YEAR_ID, "2025", CONTRACTS_ID, "/Contracts/2025", "/" + CONTRACTS_ID + "/" + YEAR_ID + "/", 1);
+        FolderDTO renamedDTO = FolderDTO.builder().id(YEAR_ID).name("2025").path("/Contracts/2025").build();
+        when(repository.findById(YEAR_ID)).thenReturn(Mono.just(year), Mono.just(year), Mono.just(year), Mono.just(renamed));
+        when(repository.findById(CONTRACTS_ID)).thenReturn(Mono.just(contracts));
+        when(repository.lockHierarchy(TENANT_ID)).thenReturn(Mono.empty());
+        when(repository.moveSubtree(YEAR_ID, CONTRACTS_ID, "2025",
+                "/" + CONTRACTS_ID + "/" + YEAR_ID + "/", "/" + CONTRACTS_ID + "/" + YEAR_ID + "/",
+                "/Contracts/2024", "/Contracts/2025", 0)).thenReturn(Mono.just(1));
+        when(folderTreeCache.publishChange(TENANT_ID)).thenReturn(Mono.empty());
+        when(mapper.toDTO(renamed)).thenReturn(renamedDTO);
+
+        StepVerifier.create(folderService.rename(YEAR_ID, " 2025 "))
+                .expectNext(renamedDTO)
+                .verifyComplete();
+
+        verifyNoInteractions(folderStatsRepository);
+    }
+
+    @Test
+    void rename_WithSlash_ReturnsError() {
+        StepVerifier.create(folderService.rename(YEAR_ID, "2024/Q1"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void update_RenameWithSlash_ReturnsError() {
+        FolderDTO request = FolderDTO.builder().id(YEAR_ID).name("2024/Q1").parentFolderId(CONTRACTS_ID).build();
+        when(repository.findById(YEAR_ID)).thenReturn(Mono.just(year));
+        when(mapper.toEntity(request)).thenReturn(folder(YEAR_ID, "2024/Q1", CONTRACTS_ID, null, null, 0));
+
+        StepVerifier.create(folderService.update(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(repository, never()).save(any());
+        verify(repository, never()).lockHierarchy(anyString());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void create_WithSlash_ReturnsError() {
+        FolderDTO request = FolderDTO.builder().name("2024/Q1").parentFolderId(CONTRACTS_ID).tenantId(TENANT_ID).build();
+
+        StepVerifier.create(folderService.create(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(repository, eventPublisher);
+    }
+
+    @Test
+    void create_BlankName_ReturnsError() {
+        FolderDTO request = FolderDTO.builder().name("  ").tenantId(TENANT_ID).build();
+
+        StepVerifier.create(folderService.create(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(repository, eventPublisher);
+    }
+
+    private static Folder folder(UUID id, String name, UUID parentFolderId, String path, String idPath, int depth) {
+        return Folder.builder()
+                .id(id)
+                .name(name)
+                .parentFolderId(parentFolderId)
+                .path(path)
+                .idPath(idPath)
+                .depth(depth)
+                .tenantId(TENANT_ID)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.core.versioning;
+
+import com.firefly.commons.ecm.core.config.EcmIntegrationProperties;
+import com.firefly.commons.ecm.models.repositories.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.ReactiveTransaction;
+import org.springframework.transaction.ReactiveTransactionManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for VersionNumberAllocator.
+ */
+@ExtendWith(MockitoExtension.class)
+class VersionNumberAllocatorTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private ReactiveTransactionManager transactionManager;
+
+    @Mock
+    private ReactiveTransaction transaction;
+
+    private final UUID documentId = UUID.randomUUID();
+    private VersionNumberAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        EcmIntegrationProperties properties = new EcmIntegrationProperties();
+        properties.getDocument().setVersionAllocationMaxRetries(3);
+        properties.getDocument().setVersionAllocationRetryBackoff(Duration.ofMillis(1));
+        allocator = new VersionNumberAllocator(documentRepository, transactionManager, properties);
+        when(transactionManager.getReactiveTransaction(any())).thenReturn(Mono.just(transaction));
+    }
+
+    @Test
+    void allocate_ParallelWriters_GetContiguousDistinctNumbers() {
+        // Given: a shared counter whose increments fail transiently every seventh call, as under lock contention
+        int writers = 50;
+        AtomicLong counter = new AtomicLong();
+        AtomicInteger calls = new AtomicInteger();
+        when(transactionManager.commit(transaction)).thenReturn(Mono.empty());
+        when(transactionManager.rollback(transaction)).thenReturn(Mono.empty());
+        when(documentRepository.allocateVersionNumber(documentId)).thenAnswer(inv -> Mono.defer(() ->
+                calls.incrementAndGet() % 7 == 0
+                        ? Mono.error(new CannotAcquireLockException("lock timeout"))
+                        : Mono.just(counter.incrementAndGet())));
+
+        // When
+        List<Long> numbers = Flux.range(0, writers)
+                .flatMap(i -> allocator.allocate(documentId).subscribeOn(Schedulers.parallel()), writers)
+                .collectSortedList()
+                .block(Duration.ofSeconds(10));
+
+        // Then: every writer succeeds, no number is handed out twice and none is skipped
+        assertEquals(LongStream.rangeClosed(1, writers).boxed().toList(), numbers);
+    }
+
+    @Test
+    void allocate_PersistentTransientFailure_FailsAfterBoundedRetries() {
+        when(transactionManager.rollback(transaction)).thenReturn(Mono.empty());
+        when(documentRepository.allocateVersionNumber(documentId))
+                .thenReturn(Mono.error(new CannotAcquireLockException("lock timeout")));
+
+        StepVerifier.create(allocator.allocate(documentId))
+                .expectError(CannotAcquireLockException.class)
+                .verify(Duration.ofSeconds(5));
+
+        // The first attempt and three retries
+        verify(documentRepository, times(4)).allocateVersionNumber(documentId);
+    }
+
+    @Test
+    void allocate_NonTransientFailure_IsNotRetried() {
+        when(transactionManager.rollback(transaction)).thenReturn(Mono.empty());
+        when(documentRepository.allocateVersionNumber(documentId))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("constraint")));
+
+        StepVerifier.create(allocator.allocate(documentId))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+
+        verify(documentRepository, times(1)).allocateVersionNumber(documentId);
+    }
+
+    @Test
+    void allocate_MissingDocument_CompletesEmpty() {
+        when(transactionManager.commit(transaction)).thenReturn(Mono.empty());
+        when(documentRepository.allocateVersionNumber(documentId)).thenReturn(Mono.empty());
+
+        StepVerifier.create(allocator.allocate(documentId))
+                .verifyComplete();
+    }
+}
@@ -127,6 +127,9 @@ public class DocumentDTO {
     @Schema(description = "Version number for optimistic locking")
     private Long version;
 
+    @Schema(description = "Number of the current content version of the document", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long versionNumber;
+
     @Schema(description = "Checksum of the document file for integrity verification")
     private String checksum;
 }
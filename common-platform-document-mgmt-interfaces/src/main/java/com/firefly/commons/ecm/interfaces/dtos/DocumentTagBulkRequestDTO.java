@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.interfaces.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+/**
+ * Data Transfer Object for adding or removing a set of tags on many documents in one request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Bulk tag or untag request: the tags are added to or removed from every selected document")
+public class DocumentTagBulkRequestDTO {
+
+    @Schema(description = "Tenant of the documents and tags")
+    private String tenantId;
+
+    @Schema(description = "IDs of the tags to add or remove")
+    private List<UUID> tagIds;
+
+    @Schema(description = "Names of the tags to add or remove, in addition to tagIds")
+    private List<String> tagNames;
+
+    @Schema(description = "IDs of the selected documents; exclusive with folderId")
+    private List<UUID> documentIds;
+
+    @Schema(description = "Folder whose documents, including those of its descendant folders, are selected; exclusive with documentIds")
+    private UUID folderId;
+}
@@ -53,9 +53,14 @@ public class FolderDTO {
     @Schema(description = "ID of the parent folder")
     private UUID parentFolderId;
 
-    @Schema(description = "Path of the folder in the folder hierarchy")
+    @Schema(description = "Path of folder names from the root down to the folder, maintained by the service")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private String path;
 
+    @Schema(description = "Depth of the folder in the folder hierarchy (0 for root folders), maintained by the service")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer depth;
+
     @Schema(description = "Security level of the folder")
     private SecurityLevel securityLevel;
 
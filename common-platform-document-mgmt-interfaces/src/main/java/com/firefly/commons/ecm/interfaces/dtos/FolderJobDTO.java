@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.interfaces.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobPhase;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobStatus;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+/**
+ * Data Transfer Object for the state and progress of a background folder job.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Folder job data transfer object")
+public class FolderJobDTO {
+
+    @Schema(description = "Unique identifier of the job")
+    private UUID id;
+
+    @Schema(description = "Tenant that owns the folder")
+    private String tenantId;
+
+    @Schema(description = "Kind of job")
+    private FolderJobType jobType;
+
+    @Schema(description = "Status of the job")
+    private FolderJobStatus status;
+
+    @Schema(description = "Phase the job is in")
+    private FolderJobPhase phase;
+
+    @Schema(description = "ID of the folder being deleted or copied")
+    private UUID folderId;
+
+    @Schema(description = "ID of the folder the copy is created in (absent for a copy at the root)")
+    private UUID targetParentFolderId;
+
+    @Schema(description = "Name of the copied folder")
+    private String targetName;
+
+    @Schema(description = "ID of the folder created by the copy")
+    private UUID targetFolderId;
+
+    @Schema(description = "Number of folders in the subtree when the job was created")
+    private Long totalFolders;
+
+    @Schema(description = "Number of documents in the subtree when the job was created")
+    private Long totalDocuments;
+
+    @Schema(description = "Number of folders processed so far")
+    private Long processedFolders;
+
+    @Schema(description = "Number of documents processed so far")
+    private Long processedDocuments;
+
+    @Schema(description = "Number of documents whose content could not be deleted or copied")
+    private Long failedDocuments;
+
+    @Schema(description = "Reason the job failed")
+    private String errorMessage;
+
+    @Schema(description = "Creation timestamp")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Time the job was first picked up")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Time of the last progress update")
+    private LocalDateTime updatedAt;
+
+    @Schema(description = "Time the job finished")
+    private LocalDateTime completedAt;
+}
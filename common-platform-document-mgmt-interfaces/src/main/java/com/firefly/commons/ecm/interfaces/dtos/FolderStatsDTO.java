@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.interfaces.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+/**
+ * Data Transfer Object for the rollup statistics of a folder.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Folder statistics data transfer object")
+public class FolderStatsDTO {
+
+    @Schema(description = "ID of the folder")
+    private UUID folderId;
+
+    @Schema(description = "Number of documents directly in the folder")
+    private Long directDocumentCount;
+
+    @Schema(description = "Total size in bytes of the documents directly in the folder")
+    private Long directBytes;
+
+    @Schema(description = "Number of documents in the folder and all its subfolders")
+    private Long totalDocumentCount;
+
+    @Schema(description = "Total size in bytes of the documents in the folder and all its subfolders")
+    private Long totalBytes;
+
+    @Schema(description = "Time of the last change to the statistics")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.interfaces.dtos;
+
+import com.firefly.commons.ecm.interfaces.enums.MetadataComparison;
+import com.firefly.commons.ecm.interfaces.enums.MetadataValueType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a range query on typed metadata values.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Range query on the typed values of one metadata key, e.g. invoice_amount GT 10000")
+public class MetadataRangeQueryDTO {
+
+    @Schema(description = "Tenant ID")
+    private String tenantId;
+
+    @Schema(description = "Metadata key", example = "invoice_amount")
+    private String key;
+
+    @Schema(description = "Typed form of the values compared")
+    private MetadataValueType valueType;
+
+    @Schema(description = "Comparison applied to the values")
+    private MetadataComparison comparison;
+
+    @Schema(description = "Value compared with (lower bound for BETWEEN)", example = "10000")
+    private String value;
+
+    @Schema(description = "Upper bound, for BETWEEN only")
+    private String upperValue;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.interfaces.dtos;
+
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the metadata schema template of a tenant and document type.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Metadata schema template validating the metadata of one tenant's documents of one type")
+public class MetadataSchemaDTO {
+
+    @Schema(description = "Tenant the template belongs to")
+    private String tenantId;
+
+    @Schema(description = "Document type the template applies to", example = "INVOICE")
+    private DocumentType documentType;
+
+    @Schema(description = "Rules by metadata key")
+    private List<MetadataSchemaFieldDTO> fields;
+}
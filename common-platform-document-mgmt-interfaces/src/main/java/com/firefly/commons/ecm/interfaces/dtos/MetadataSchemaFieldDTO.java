@@ -0,0 +1,52 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.interfaces.dtos;
+
+import com.firefly.commons.ecm.interfaces.enums.MetadataValueType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the rule of one metadata key in a metadata schema template.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Rule of one metadata key in a metadata schema template")
+public class MetadataSchemaFieldDTO {
+
+    @Schema(description = "Metadata key the rule applies to", example = "invoice_number")
+    private String key;
+
+    @Schema(description = "Whether every document of the type must have the key (false when omitted)")
+    private Boolean isRequired;
+
+    @Schema(description = "Typed form the value must parse as; free text when omitted", example = "NUMBER")
+    private MetadataValueType valueType;
+
+    @Schema(description = "Regular expression the whole value must match", example = "INV-[0-9]{6}")
+    private String pattern;
+
+    @Schema(description = "Values the metadata may take; any value when omitted")
+    private List<String> allowedValues;
+}
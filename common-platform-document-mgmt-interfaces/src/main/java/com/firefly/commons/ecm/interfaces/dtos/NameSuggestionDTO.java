@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.interfaces.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.firefly.commons.ecm.interfaces.enums.NameSuggestionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+/**
+ * Data Transfer Object for a single document or folder name suggestion.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Name suggestion data transfer object used by autocomplete")
+public class NameSuggestionDTO {
+
+    @Schema(description = "ID of the suggested document or folder")
+    private UUID id;
+
+    @Schema(description = "Name of the suggested document or folder")
+    private String name;
+
+    @Schema(description = "Kind of entity the suggestion refers to")
+    private NameSuggestionType type;
+
+    @Schema(description = "ID of the folder containing the suggested document, or the parent of the suggested folder")
+    private UUID parentFolderId;
+}
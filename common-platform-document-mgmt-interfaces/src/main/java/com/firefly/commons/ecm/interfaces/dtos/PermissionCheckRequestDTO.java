@@ -0,0 +1,46 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.interfaces.dtos;
+
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+/**
+ * Data Transfer Object for a batch permission check.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Batch permission check request: every permission type is checked on every document")
+public class PermissionCheckRequestDTO {
+
+    @Schema(description = "ID of the principal whose permissions are checked")
+    private UUID principalId;
+
+    @Schema(description = "IDs of the documents to check")
+    private List<UUID> documentIds;
+
+    @Schema(description = "Permission types to check on each document")
+    private List<PermissionType> permissionTypes;
+}
@@ -72,4 +72,7 @@ public class TagDTO {
 
     @Schema(description = "Version number for optimistic locking")
     private Long version;
+
+    @Schema(description = "Number of documents carrying the tag", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long usageCount;
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.interfaces.dtos;
+
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the version retention policy of a tenant, for one document type or by default.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Version retention policy deciding which versions of one tenant's documents are pruned; " +
+        "a version is kept while any of its rules keeps it, and the newest version of a document is always kept")
+public class VersionRetentionPolicyDTO {
+
+    @Schema(description = "Tenant the policy belongs to")
+    private String tenantId;
+
+    @Schema(description = "Document type the policy applies to, or null for the tenant's default policy", example = "CONTRACT")
+    private DocumentType documentType;
+
+    @Schema(description = "Number of most recent versions of each document kept", example = "10")
+    private Integer keepLast;
+
+    @Schema(description = "Whether every major version is kept")
+    private Boolean keepMajorVersions;
+
+    @Schema(description = "Age in days under which versions are kept", example = "90")
+    private Integer keepDays;
+}
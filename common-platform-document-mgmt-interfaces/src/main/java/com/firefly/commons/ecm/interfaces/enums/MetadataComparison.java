@@ -0,0 +1,52 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.interfaces.enums;
+
+/**
+ * Enum representing the comparisons of a metadata range query.
+ */
+public enum MetadataComparison {
+    /**
+     * Equal to the value
+     */
+    EQ,
+
+    /**
+     * Greater than the value
+     */
+    GT,
+
+    /**
+     * Greater than or equal to the value
+     */
+    GTE,
+
+    /**
+     * Less than the value
+     */
+    LT,
+
+    /**
+     * Less than or equal to the value
+     */
+    LTE,
+
+    /**
+     * Between the value and the upper value, both included
+     */
+    BETWEEN
+}
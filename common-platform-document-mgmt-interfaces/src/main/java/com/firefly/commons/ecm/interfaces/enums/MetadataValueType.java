@@ -0,0 +1,37 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.interfaces.enums;
+
+/**
+ * Enum representing the typed forms in which metadata values are stored and range-queried.
+ */
+public enum MetadataValueType {
+    /**
+     * Decimal number (metadata types NUMBER, NUMERIC, DECIMAL, INTEGER, LONG, DOUBLE, AMOUNT, ...)
+     */
+    NUMBER,
+
+    /**
+     * Point in time (metadata types DATE, DATETIME, TIMESTAMP, ...); ISO-8601 dates are taken at midnight UTC
+     */
+    TIMESTAMP,
+
+    /**
+     * true or false (metadata types BOOLEAN, BOOL)
+     */
+    BOOLEAN
+}
@@ -127,4 +127,26 @@ public class Document {
 
     @Column("checksum")
     private String checksum;
+
+    /**
+     * Incremented by every write to the document's metadata; never written through the entity
+     */
+    @ReadOnlyProperty
+    @Column("metadata_version")
+    private Long metadataVersion;
+
+    /**
+     * Last version number allocated to the document, advanced atomically by each new version;
+     * never written through the entity
+     */
+    @ReadOnlyProperty
+    @Column("version_counter")
+    private Long versionCounter;
+
+    /**
+     * Number of the version the document currently points to; never written through the entity
+     */
+    @ReadOnlyProperty
+    @Column("current_version_number")
+    private Long versionNumber;
 }
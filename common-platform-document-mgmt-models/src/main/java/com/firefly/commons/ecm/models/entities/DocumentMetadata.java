@@ -25,6 +25,8 @@ import org.springframework.data.annotation.*;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -54,6 +56,24 @@ public class DocumentMetadata {
     @Column("metadata_type")
     private String type;
 
+    /**
+     * The value as a number, when the type names a number and the value parses as one
+     */
+    @Column("value_number")
+    private BigDecimal valueNumber;
+
+    /**
+     * The value as a timestamp, when the type names a date or timestamp and the value parses as one
+     */
+    @Column("value_timestamp")
+    private Instant valueTimestamp;
+
+    /**
+     * The value as a boolean, when the type names a boolean and the value is true or false
+     */
+    @Column("value_boolean")
+    private Boolean valueBoolean;
+
     @Column("is_searchable")
     private Boolean isSearchable;
 
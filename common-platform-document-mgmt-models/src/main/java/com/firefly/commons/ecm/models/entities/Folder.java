@@ -54,6 +54,12 @@ public class Folder {
     @Column("path")
     private String path;
 
+    @Column("id_path")
+    private String idPath;
+
+    @Column("depth")
+    private Integer depth;
+
     @Column("security_level")
     private SecurityLevel securityLevel;
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.models.entities;
+
+import com.firefly.commons.ecm.interfaces.enums.FolderJobPhase;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobStatus;
+import com.firefly.commons.ecm.interfaces.enums.FolderJobType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.*;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+/**
+ * Entity representing a background recursive folder delete or copy job.
+ * The lease columns are written by the claiming queries only.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("folder_jobs")
+public class FolderJob {
+
+    @Id
+    @Column("id")
+    private UUID id;
+
+    @Column("tenant_id")
+    private String tenantId;
+
+    @Column("job_type")
+    private FolderJobType jobType;
+
+    @Column("status")
+    private FolderJobStatus status;
+
+    @Column("phase")
+    private FolderJobPhase phase;
+
+    @Column("folder_id")
+    private UUID folderId;
+
+    @Column("target_parent_folder_id")
+    private UUID targetParentFolderId;
+
+    @Column("target_name")
+    private String targetName;
+
+    @Column("target_folder_id")
+    private UUID targetFolderId;
+
+    @Column("folder_cursor")
+    private String folderCursor;
+
+    @Column("document_cursor")
+    private UUID documentCursor;
+
+    @Column("total_folders")
+    private Long totalFolders;
+
+    @Column("total_documents")
+    private Long totalDocuments;
+
+    @Column("processed_folders")
+    private Long processedFolders;
+
+    @Column("processed_documents")
+    private Long processedDocuments;
+
+    @Column("failed_documents")
+    private Long failedDocuments;
+
+    @Column("error_message")
+    private String errorMessage;
+
+    @ReadOnlyProperty
+    @Column("lease_owner")
+    private String leaseOwner;
+
+    @ReadOnlyProperty
+    @Column("lease_until")
+    private LocalDateTime leaseUntil;
+
+    @CreatedDate
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @CreatedBy
+    @Column("created_by")
+    private String createdBy;
+
+    @LastModifiedDate
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column("started_at")
+    private LocalDateTime startedAt;
+
+    @Column("completed_at")
+    private LocalDateTime completedAt;
+
+    @Version
+    private Long version;
+}
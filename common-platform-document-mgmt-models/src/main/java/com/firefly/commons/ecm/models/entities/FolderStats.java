@@ -0,0 +1,62 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.models.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing the rollup statistics of a folder: the documents and bytes stored directly in it
+ * and in its whole subtree. Rows are maintained through delta upserts keyed by the folder ID.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("folder_stats")
+public class FolderStats {
+
+    @Id
+    @Column("folder_id")
+    private UUID folderId;
+
+    @Column("tenant_id")
+    private String tenantId;
+
+    @Column("direct_document_count")
+    private Long directDocumentCount;
+
+    @Column("direct_bytes")
+    private Long directBytes;
+
+    @Column("total_document_count")
+    private Long totalDocumentCount;
+
+    @Column("total_bytes")
+    private Long totalBytes;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
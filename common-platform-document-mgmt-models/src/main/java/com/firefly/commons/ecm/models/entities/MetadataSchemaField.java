@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.models.entities;
+
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.*;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing the rule for one metadata key in the metadata schema template of a tenant and document type.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("metadata_schema_fields")
+public class MetadataSchemaField {
+
+    @Id
+    @Column("id")
+    private UUID id;
+
+    @Column("tenant_id")
+    private String tenantId;
+
+    @Column("document_type")
+    private DocumentType documentType;
+
+    @Column("metadata_key")
+    private String key;
+
+    @Column("is_required")
+    private Boolean isRequired;
+
+    /**
+     * Name of a MetadataValueType the value must parse as, or null for free text
+     */
+    @Column("value_type")
+    private String valueType;
+
+    /**
+     * Regular expression the whole value must match, or null
+     */
+    @Column("value_pattern")
+    private String pattern;
+
+    /**
+     * Values the metadata may take, or null for any value
+     */
+    @Column("allowed_values")
+    private String[] allowedValues;
+
+    @CreatedDate
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @CreatedBy
+    @Column("created_by")
+    private String createdBy;
+
+    @LastModifiedDate
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    @LastModifiedBy
+    @Column("updated_by")
+    private String updatedBy;
+
+    @Version
+    private Long version;
+}
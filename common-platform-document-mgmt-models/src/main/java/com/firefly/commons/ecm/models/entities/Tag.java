@@ -74,4 +74,11 @@ public class Tag {
 
     @Version
     private Long version;
+
+    /**
+     * Number of documents carrying the tag, maintained by the tag assignment statements; never written through the entity
+     */
+    @ReadOnlyProperty
+    @Column("usage_count")
+    private Long usageCount;
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.models.entities;
+
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.*;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing the version retention policy of a tenant, for one document type or, without one,
+ * for the tenant's documents of every type without a policy of their own.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("version_retention_policies")
+public class VersionRetentionPolicy {
+
+    @Id
+    @Column("id")
+    private UUID id;
+
+    @Column("tenant_id")
+    private String tenantId;
+
+    /**
+     * Document type the policy applies to, or null for the tenant's default policy
+     */
+    @Column("document_type")
+    private DocumentType documentType;
+
+    /**
+     * Number of most recent versions kept, or null to keep only the newest one by this rule
+     */
+    @Column("keep_last")
+    private Integer keepLast;
+
+    @Column("keep_major_versions")
+    private Boolean keepMajorVersions;
+
+    /**
+     * Age in days under which versions are kept, or null for no age rule
+     */
+    @Column("keep_days")
+    private Integer keepDays;
+
+    @CreatedDate
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @CreatedBy
+    @Column("created_by")
+    private String createdBy;
+
+    @LastModifiedDate
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    @LastModifiedBy
+    @Column("updated_by")
+    private String updatedBy;
+
+    @Version
+    private Long version;
+}
@@ -18,8 +18,13 @@
 package com.firefly.commons.ecm.models.repositories;
 
 import com.firefly.commons.ecm.models.entities.DocumentMetadata;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.UUID;
 
 
@@ -29,4 +34,110 @@ import java.util.UUID;
 @Repository
 public interface DocumentMetadataRepository extends BaseRepository<DocumentMetadata, UUID> {
 
+    /**
+     * Find the metadata entry of a document with the given key, through the uk_document_metadata_key index.
+     *
+     * @param documentId The document ID
+     * @param key The metadata key
+     * @return A Mono emitting the metadata entry, or empty if the document has no entry with this key
+     */
+    @Query("SELECT * FROM document_metadata WHERE document_id = :documentId AND metadata_key = :key")
+    Mono<DocumentMetadata> findByDocumentIdAndKey(UUID documentId, String key);
+
+    /**
+     * Find all the metadata of a document, in key order.
+     *
+     * @param documentId The document ID
+     * @return A Flux emitting the metadata entries
+     */
+    @Query("SELECT * FROM document_metadata WHERE document_id = :documentId ORDER BY metadata_key")
+    Flux<DocumentMetadata> findAllByDocumentId(UUID documentId);
+
+    /**
+     * Find all the metadata of many documents, grouped by document and in key order.
+     *
+     * @param documentIds The document IDs
+     * @return A Flux emitting the metadata entries
+     */
+    @Query("SELECT * FROM document_metadata WHERE document_id IN (:documentIds) ORDER BY document_id, metadata_key")
+    Flux<DocumentMetadata> findAllByDocumentIdIn(Collection<UUID> documentIds);
+
+    /**
+     * Find a page of the metadata of a document, in key order.
+     *
+     * @param documentId The document ID
+     * @param limit The maximum number of entries to return
+     * @param offset The number of entries to skip
+     * @return A Flux emitting the metadata entries
+     */
+    @Query("SELECT * FROM document_metadata WHERE document_id = :documentId " +
+            "ORDER BY metadata_key LIMIT :limit OFFSET :offset")
+    Flux<DocumentMetadata> findPageByDocumentId(UUID documentId, int limit, long offset);
+
+    /**
+     * Count the metadata entries of a document.
+     *
+     * @param documentId The document ID
+     * @return A Mono emitting the number of entries
+     */
+    @Query("SELECT count(*) FROM document_metadata WHERE document_id = :documentId")
+    Mono<Long> countByDocumentId(UUID documentId);
+
+    /**
+     * Find the keys among the given ones that hold system metadata of a document, which writes must not change.
+     *
+     * @param documentId The document ID
+     * @param keys The metadata keys
+     * @return A Flux emitting the system metadata entries with those keys
+     */
+    @Query("SELECT * FROM document_metadata WHERE document_id = :documentId AND is_system_metadata = TRUE " +
+            "AND metadata_key = ANY(:keys) ORDER BY metadata_key")
+    Flux<DocumentMetadata> findSystemEntries(UUID documentId, String[] keys);
+
+    /**
+     * Delete the metadata entry of a document with the given key.
+     *
+     * @param documentId The document ID
+     * @param key The metadata key
+     * @return A Mono emitting the number of deleted entries (0 or 1)
+     */
+    @Modifying
+    @Query("DELETE FROM document_metadata WHERE document_id = :documentId AND metadata_key = :key")
+    Mono<Integer> deleteByDocumentIdAndKey(UUID documentId, String key);
+
+    /**
+     * Insert or update many metadata entries of a document in one statement, against the uk_document_metadata_key
+     * index. The arrays are read position by position, one entry per key. New entries take the tenant of the document,
+     * so nothing is written when the document does not exist. System metadata is never overwritten.
+     * With replace, the document's other non-system entries are deleted by the same statement.
+     *
+     * @param documentId The document ID
+     * @param keys The metadata keys
+     * @param values The metadata values
+     * @param types The metadata types
+     * @param searchable Whether each entry is searchable (true when null)
+     * @param numbers The values as numbers, in plain decimal text, or null
+     * @param timestamps The values as ISO-8601 instants, or null
+     * @param booleans The values as booleans, or null
+     * @param replace Whether the document's entries with other keys are deleted
+     * @return A Flux emitting the inserted and updated entries
+     */
+    @Query("WITH removed AS (DELETE FROM document_metadata WHERE :replace AND document_id = :documentId " +
+            "AND is_system_metadata IS NOT TRUE AND metadata_key <> ALL(:keys)), " +
+            "INSERT INTO document_metadata (document_id, metadata_key, metadata_value, metadata_type, is_searchable, " +
+            "is_system_metadata, tenant_id, value_number, value_timestamp, value_boolean) " +
+            "SELECT d.id, e.metadata_key, e.metadata_value, e.metadata_type, COALESCE(e.is_searchable, TRUE), FALSE, d.tenant_id, " +
+            "CAST(e.value_number AS numeric), CAST(e.value_timestamp AS timestamptz), e.value_boolean " +
+            "FROM documents d CROSS JOIN unnest(:keys, :values, :types, :searchable, :numbers, :timestamps, :booleans) " +
+            "AS e(metadata_key, metadata_value, metadata_type, is_searchable, value_number, value_timestamp, value_boolean) " +
+            "WHERE d.id = :documentId " +
+            "ON CONFLICT (document_id, metadata_key) DO UPDATE SET metadata_value = EXCLUDED.metadata_value, " +
+            "metadata_type = EXCLUDED.metadata_type, is_searchable = EXCLUDED.is_searchable, " +
+            "value_number = EXCLUDED.value_number, value_timestamp = EXCLUDED.value_timestamp, " +
+            "value_boolean = EXCLUDED.value_boolean, " +
+            "updated_at = CURRENT_TIMESTAMP, version = COALESCE(document_metadata.version, 0) + 1 " +
+            "WHERE document_metadata.is_system_metadata IS NOT TRUE " +
+            "RETURNING *")
+    Flux<DocumentMetadata> upsertAll(UUID documentId, String[] keys, String[] values, String[] types, Boolean[] searchable,
+                                     String[] numbers, String[] timestamps, Boolean[] booleans, boolean replace);
 }
@@ -18,8 +18,14 @@
 package com.firefly.commons.ecm.models.repositories;
 
 import com.firefly.commons.ecm.models.entities.DocumentPermission;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -28,4 +34,117 @@ import java.util.UUID;
 @Repository
 public interface DocumentPermissionRepository extends BaseRepository<DocumentPermission, UUID> {
 
+    /**
+     * Find the earliest expiration date after the given instant among the permissions of a party on a document.
+     *
+     * @param documentId The document ID
+     * @param partyId The party ID
+     * @param after The instant from which expirations are considered
+     * @return A Mono emitting the next expiration date, or empty if none of the permissions expires later
+     */
+    @Query("SELECT MIN(expiration_date) FROM document_permissions " +
+            "WHERE document_id = :documentId AND party_id = :partyId AND expiration_date > :after")
+    Mono<LocalDateTime> findNextExpiration(UUID documentId, UUID partyId, LocalDateTime after);
+
+    /**
+     * Find the permissions of a party on a set of documents that have not expired at the given instant.
+     *
+     * @param partyId The party ID
+     * @param documentIds The document IDs
+     * @param now The instant at which expirations are evaluated
+     * @return A Flux emitting the active permissions of the party on the documents
+     */
+    @Query("SELECT * FROM document_permissions " +
+            "WHERE party_id = :partyId AND document_id IN (:documentIds) " +
+            "AND (expiration_date IS NULL OR expiration_date > :now)")
+    Flux<DocumentPermission> findActiveByPartyIdAndDocumentIds(UUID partyId, Collection<UUID> documentIds, LocalDateTime now);
+
+    /**
+     * Find all the permissions of a set of documents, expired ones included.
+     *
+     * @param documentIds The document IDs
+     * @return A Flux emitting the permissions of the documents
+     */
+    @Query("SELECT * FROM document_permissions WHERE document_id IN (:documentIds)")
+    Flux<DocumentPermission> findByDocumentIdIn(Collection<UUID> documentIds);
+
+    /**
+     * Delete one batch of expired permissions. Rows locked by a concurrent sweep are skipped, so that
+     * every instance can sweep at the same time without waiting on each other.
+     *
+     * @param limit The maximum number of permissions deleted
+     * @return A Flux emitting the deleted permissions
+     */
+    @Query("DELETE FROM document_permissions WHERE id IN (" +
+            "SELECT id FROM document_permissions WHERE expiration_date <= now() " +
+            "ORDER BY expiration_date LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *")
+    Flux<DocumentPermission> deleteExpiredBatch(int limit);
+
+    /**
+     * Get how long the oldest expired permission has been waiting to be swept.
+     *
+     * @return A Mono emitting the lag in seconds, 0 when no expired permission is left
+     */
+    @Query("SELECT COALESCE(EXTRACT(EPOCH FROM now() - MIN(expiration_date)), 0)::float8 " +
+            "FROM document_permissions WHERE expiration_date <= now()")
+    Mono<Double> findExpiredLagSeconds();
+
+    /**
+     * Find the distinct tenants that own permissions.
+     *
+     * @return A Flux emitting the distinct tenant IDs
+     */
+    @Query("SELECT DISTINCT tenant_id FROM document_permissions")
+    Flux<String> findTenantIds();
+
+    /**
+     * Find one keyset batch of the permissions of a tenant, ordered by ID.
+     *
+     * @param tenantId The tenant ID
+     * @param afterId The ID of the last permission of the previous batch (the nil UUID for the first batch)
+     * @param limit The batch size
+     * @return A Flux emitting the permissions of the batch
+     */
+    @Query("SELECT * FROM document_permissions WHERE tenant_id = :tenantId AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<DocumentPermission> findBatchByTenantId(String tenantId, UUID afterId, int limit);
+
+    /**
+     * Find the digest recorded for a reconciled batch, if it was verified recently enough.
+     *
+     * @param tenantId The tenant ID
+     * @param firstId The ID of the first permission of the batch
+     * @param maxAgeSeconds The maximum age of the verification
+     * @return A Mono emitting the digest, or empty if the batch has not been verified within the age
+     */
+    @Query("SELECT digest FROM permission_reconcile_digests WHERE tenant_id = :tenantId AND first_id = :firstId " +
+            "AND checked_at > now() - make_interval(secs => :maxAgeSeconds)")
+    Mono<String> findReconcileDigest(String tenantId, UUID firstId, long maxAgeSeconds);
+
+    /**
+     * Record the digest of a batch that has just been verified against the permission provider.
+     *
+     * @param tenantId The tenant ID
+     * @param firstId The ID of the first permission of the batch
+     * @param digest The digest of the batch
+     * @return A Mono emitting the number of affected rows
+     */
+    @Modifying
+    @Query("INSERT INTO permission_reconcile_digests (tenant_id, first_id, digest, checked_at) " +
+            "VALUES (:tenantId, :firstId, :digest, now()) " +
+            "ON CONFLICT (tenant_id, first_id) DO UPDATE SET digest = EXCLUDED.digest, checked_at = EXCLUDED.checked_at")
+    Mono<Integer> saveReconcileDigest(String tenantId, UUID firstId, String digest);
+
+    /**
+     * Delete the batch digests of a tenant too old to let a batch be skipped, including those of batches
+     * whose boundaries have since moved.
+     *
+     * @param tenantId The tenant ID
+     * @param maxAgeSeconds The maximum age of the verifications kept
+     * @return A Mono emitting the number of deleted digests
+     */
+    @Modifying
+    @Query("DELETE FROM permission_reconcile_digests WHERE tenant_id = :tenantId " +
+            "AND checked_at <= now() - make_interval(secs => :maxAgeSeconds)")
+    Mono<Integer> deleteReconcileDigestsOlderThan(String tenantId, long maxAgeSeconds);
 }
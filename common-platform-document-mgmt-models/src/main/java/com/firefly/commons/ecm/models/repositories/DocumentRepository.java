@@ -18,8 +18,13 @@
 package com.firefly.commons.ecm.models.repositories;
 
 import com.firefly.commons.ecm.models.entities.Document;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -28,4 +33,357 @@ import java.util.UUID;
 @Repository
 public interface DocumentRepository extends BaseRepository<Document, UUID> {
 
+    /**
+     * Listing predicate restricting documents to those a principal may read, or a no-op when :principalId is null.
+     * An unexpired READ permission of the principal decides, whether granted or denied (at most one exists per
+     * document, party and type, found through uk_document_permission); without one, documents at one of
+     * :openLevels are readable. Permission checks apply the same rule, see {@link #findIdsAtSecurityLevels} and
+     * {@link #findOpenToPrincipal}.
+     */
+    String READABLE_BY_PRINCIPAL = "(CAST(:principalId AS uuid) IS NULL OR COALESCE(" +
+            "(SELECT p.is_granted FROM document_permissions p " +
+            "WHERE p.document_id = doc.id AND p.party_id = :principalId AND p.permission_type = 'READ' " +
+            "AND (p.expiration_date IS NULL OR p.expiration_date > now())), " +
+            "doc.security_level::text = ANY(:openLevels)))";
+
+    /**
+     * Filter document IDs down to those of documents at one of the given security levels.
+     *
+     * @param documentIds The document IDs
+     * @param securityLevels The security levels
+     * @return A Flux emitting the IDs of the documents at one of the levels
+     */
+    @Query("SELECT id FROM documents WHERE id IN (:documentIds) AND security_level::text = ANY(:securityLevels)")
+    Flux<UUID> findIdsAtSecurityLevels(Collection<UUID> documentIds, String[] securityLevels);
+
+    /**
+     * Filter document IDs down to those a principal may read without a permission: documents at one of
+     * :openLevels on which the principal holds no unexpired READ permission, granted or denied.
+     *
+     * @param documentIds The document IDs
+     * @param principalId The principal ID
+     * @param openLevels The security levels readable without a permission
+     * @return A Flux emitting the IDs of the documents open to the principal
+     */
+    @Query("SELECT doc.id FROM documents doc WHERE doc.id IN (:documentIds) " +
+            "AND doc.security_level::text = ANY(:openLevels) " +
+            "AND NOT EXISTS (SELECT 1 FROM document_permissions p " +
+            "WHERE p.document_id = doc.id AND p.party_id = :principalId AND p.permission_type = 'READ' " +
+            "AND (p.expiration_date IS NULL OR p.expiration_date > now()))")
+    Flux<UUID> findOpenToPrincipal(Collection<UUID> documentIds, UUID principalId, String[] openLevels);
+
+    /**
+     * Count the documents of a tenant.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of documents owned by the tenant
+     */
+    Mono<Long> countByTenantId(String tenantId);
+
+    /**
+     * Find the IDs of every document of a tenant.
+     * Used to bulk load in-memory tag indexes.
+     *
+     * @param tenantId The tenant ID
+     * @return A Flux emitting documents populated with their ID and tenant only
+     */
+    @Query("SELECT id, tenant_id FROM documents WHERE tenant_id = :tenantId")
+    Flux<Document> findIdEntriesByTenantId(String tenantId);
+
+    /**
+     * Find the name entries (id, name, folder and tenant) of every document of a tenant.
+     * Used to bulk load in-memory name indexes.
+     *
+     * @param tenantId The tenant ID
+     * @return A Flux emitting partially populated documents
+     */
+    @Query("SELECT id, name, folder_id, tenant_id FROM documents WHERE tenant_id = :tenantId")
+    Flux<Document> findNameEntriesByTenantId(String tenantId);
+
+    /**
+     * Find documents whose lower-cased name starts with the given LIKE prefix pattern.
+     * The candidate window is read in index order and then ranked by name length.
+     *
+     * @param tenantId The tenant ID
+     * @param prefix The escaped, lower-cased LIKE pattern (ending with '%')
+     * @param window The number of candidates read from the prefix index
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated documents ranked shortest name first
+     */
+    @Query("SELECT c.* FROM (SELECT id, name, folder_id, tenant_id FROM documents " +
+            "WHERE tenant_id = :tenantId AND lower(name) COLLATE \"C\" LIKE :prefix " +
+            "ORDER BY lower(name) COLLATE \"C\" LIMIT :window) c " +
+            "ORDER BY char_length(c.name), lower(c.name) LIMIT :limit")
+    Flux<Document> findNamePrefixMatches(String tenantId, String prefix, int window, int limit);
+
+    /**
+     * Folder-scoped variant of {@link #findNamePrefixMatches(String, String, int, int)}.
+     *
+     * @param tenantId The tenant ID
+     * @param folderId The folder ID
+     * @param prefix The escaped, lower-cased LIKE pattern (ending with '%')
+     * @param window The number of candidates read from the prefix index
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated documents ranked shortest name first
+     */
+    @Query("SELECT c.* FROM (SELECT id, name, folder_id, tenant_id FROM documents " +
+            "WHERE folder_id = :folderId AND tenant_id = :tenantId AND lower(name) COLLATE \"C\" LIKE :prefix " +
+            "ORDER BY lower(name) COLLATE \"C\" LIMIT :window) c " +
+            "ORDER BY char_length(c.name), lower(c.name) LIMIT :limit")
+    Flux<Document> findNamePrefixMatchesInFolder(String tenantId, UUID folderId, String prefix, int window, int limit);
+
+    /**
+     * Find documents whose name is similar to the query using trigram matching.
+     *
+     * @param tenantId The tenant ID
+     * @param query The lower-cased query
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated documents ranked by similarity
+     */
+    @Query("SELECT id, name, folder_id, tenant_id FROM documents " +
+            "WHERE tenant_id = :tenantId AND lower(name) % :query " +
+            "ORDER BY similarity(lower(name), :query) DESC, lower(name) LIMIT :limit")
+    Flux<Document> findNameSimilarityMatches(String tenantId, String query, int limit);
+
+    /**
+     * Folder-scoped variant of {@link #findNameSimilarityMatches(String, String, int)}.
+     *
+     * @param tenantId The tenant ID
+     * @param folderId The folder ID
+     * @param query The lower-cased query
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated documents ranked by similarity
+     */
+    @Query("SELECT id, name, folder_id, tenant_id FROM documents " +
+            "WHERE folder_id = :folderId AND tenant_id = :tenantId AND lower(name) % :query " +
+            "ORDER BY similarity(lower(name), :query) DESC, lower(name) LIMIT :limit")
+    Flux<Document> findNameSimilarityMatchesInFolder(String tenantId, UUID folderId, String query, int limit);
+
+    /**
+     * Find the documents of a folder and of all its descendant folders, ordered by name.
+     *
+     * @param folderId The root folder ID of the subtree
+     * @param limit The maximum number of results
+     * @param offset The number of documents to skip
+     * @return A Flux emitting the documents of the subtree
+     */
+    @Query("SELECT doc.* FROM folders f " +
+            "JOIN folders d ON d.id_path >= f.id_path AND d.id_path < left(f.id_path, -1) || '0' " +
+            "JOIN documents doc ON doc.folder_id = d.id " +
+            "WHERE f.id = :folderId ORDER BY doc.name, doc.id LIMIT :limit OFFSET :offset")
+    Flux<Document> findInSubtree(UUID folderId, int limit, long offset);
+
+    /**
+     * Count the documents of a folder and of all its descendant folders.
+     *
+     * @param folderId The root folder ID of the subtree
+     * @return A Mono emitting the number of documents in the subtree
+     */
+    @Query("SELECT count(*) FROM folders f " +
+            "JOIN folders d ON d.id_path >= f.id_path AND d.id_path < left(f.id_path, -1) || '0' " +
+            "JOIN documents doc ON doc.folder_id = d.id " +
+            "WHERE f.id = :folderId")
+    Mono<Long> countInSubtree(UUID folderId);
+
+    /**
+     * Find a batch of the documents of a folder and of all its descendant folders, in ID order,
+     * after the given document ID. Used by background folder jobs to walk a subtree resumably.
+     *
+     * @param folderId The root folder ID of the subtree
+     * @param afterId The ID of the last document of the previous batch
+     * @param limit The batch size
+     * @return A Flux emitting the documents of the batch
+     */
+    @Query("SELECT doc.* FROM folders f " +
+            "JOIN folders d ON d.id_path >= f.id_path AND d.id_path < left(f.id_path, -1) || '0' " +
+            "JOIN documents doc ON doc.folder_id = d.id " +
+            "WHERE f.id = :folderId AND doc.id > :afterId ORDER BY doc.id LIMIT :limit")
+    Flux<Document> findSubtreeBatch(UUID folderId, UUID afterId, int limit);
+
+    /**
+     * Find a batch of the document IDs of a tenant, in ID order, after the given document ID. Used by
+     * background jobs to walk a tenant's documents resumably.
+     *
+     * @param tenantId The tenant ID
+     * @param afterId The ID of the last document of the previous batch
+     * @param limit The batch size
+     * @return A Flux emitting the document IDs of the batch
+     */
+    @Query("SELECT id FROM documents WHERE tenant_id = :tenantId AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<UUID> findIdBatch(String tenantId, UUID afterId, int limit);
+
+    /**
+     * Find one keyset page of the documents of a folder, ordered by (name, id).
+     * Backed by idx_documents_folder_name_id, so each page is a single index range scan.
+     *
+     * @param folderId The folder ID
+     * @param afterName The name of the last document of the previous page ('' for the first page)
+     * @param afterId The ID of the last document of the previous page (the nil UUID for the first page)
+     * @param principalId The principal the documents must be readable by, or null for all documents
+     * @param openLevels The security levels readable without a permission (see {@link #READABLE_BY_PRINCIPAL})
+     * @param limit The maximum number of results
+     * @return A Flux emitting the documents of the page
+     */
+    @Query("SELECT doc.* FROM documents doc " +
+            "WHERE doc.folder_id = :folderId AND (doc.name, doc.id) > (:afterName, :afterId) " +
+            "AND " + READABLE_BY_PRINCIPAL + " " +
+            "ORDER BY doc.name, doc.id LIMIT :limit")
+    Flux<Document> findPageInFolder(UUID folderId, String afterName, UUID afterId, UUID principalId, String[] openLevels, int limit);
+
+    /**
+     * Narrow projection variant of {@link #findPageInFolder(UUID, String, UUID, UUID, String[], int)}.
+     *
+     * @param folderId The folder ID
+     * @param afterName The name of the last document of the previous page ('' for the first page)
+     * @param afterId The ID of the last document of the previous page (the nil UUID for the first page)
+     * @param principalId The principal the documents must be readable by, or null for all documents
+     * @param openLevels The security levels readable without a permission (see {@link #READABLE_BY_PRINCIPAL})
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated documents
+     */
+    @Query("SELECT doc.id, doc.name, doc.folder_id, doc.file_name, doc.file_extension, doc.mime_type, " +
+            "doc.file_size, doc.document_type, doc.document_status, doc.tenant_id, doc.updated_at FROM documents doc " +
+            "WHERE doc.folder_id = :folderId AND (doc.name, doc.id) > (:afterName, :afterId) " +
+            "AND " + READABLE_BY_PRINCIPAL + " " +
+            "ORDER BY doc.name, doc.id LIMIT :limit")
+    Flux<Document> findSummaryPageInFolder(UUID folderId, String afterName, UUID afterId, UUID principalId, String[] openLevels, int limit);
+
+    /**
+     * Find one keyset page of the documents of a folder and all its descendant folders, ordered by (name, id).
+     *
+     * @param folderId The root folder ID of the subtree
+     * @param afterName The name of the last document of the previous page ('' for the first page)
+     * @param afterId The ID of the last document of the previous page (the nil UUID for the first page)
+     * @param principalId The principal the documents must be readable by, or null for all documents
+     * @param openLevels The security levels readable without a permission (see {@link #READABLE_BY_PRINCIPAL})
+     * @param limit The maximum number of results
+     * @return A Flux emitting the documents of the page
+     */
+    @Query("SELECT doc.* " +
+            "FROM folders f " +
+            "JOIN folders d ON d.id_path >= f.id_path AND d.id_path < left(f.id_path, -1) || '0' " +
+            "JOIN documents doc ON doc.folder_id = d.id " +
+            "WHERE f.id = :folderId AND (doc.name, doc.id) > (:afterName, :afterId) " +
+            "AND " + READABLE_BY_PRINCIPAL + " " +
+            "ORDER BY doc.name, doc.id LIMIT :limit")
+    Flux<Document> findPageInSubtree(UUID folderId, String afterName, UUID afterId, UUID principalId, String[] openLevels, int limit);
+
+    /**
+     * Narrow projection variant of {@link #findPageInSubtree(UUID, String, UUID, UUID, String[], int)}.
+     *
+     * @param folderId The root folder ID of the subtree
+     * @param afterName The name of the last document of the previous page ('' for the first page)
+     * @param afterId The ID of the last document of the previous page (the nil UUID for the first page)
+     * @param principalId The principal the documents must be readable by, or null for all documents
+     * @param openLevels The security levels readable without a permission (see {@link #READABLE_BY_PRINCIPAL})
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated documents
+     */
+    @Query("SELECT doc.id, doc.name, doc.folder_id, doc.file_name, doc.file_extension, doc.mime_type, " +
+            "doc.file_size, doc.document_type, doc.document_status, doc.tenant_id, doc.updated_at " +
+            "FROM folders f " +
+            "JOIN folders d ON d.id_path >= f.id_path AND d.id_path < left(f.id_path, -1) || '0' " +
+            "JOIN documents doc ON doc.folder_id = d.id " +
+            "WHERE f.id = :folderId AND (doc.name, doc.id) > (:afterName, :afterId) " +
+            "AND " + READABLE_BY_PRINCIPAL + " " +
+            "ORDER BY doc.name, doc.id LIMIT :limit")
+    Flux<Document> findSummaryPageInSubtree(UUID folderId, String afterName, UUID afterId, UUID principalId, String[] openLevels, int limit);
+
+    /**
+     * Release one batch of locks whose locked_until has passed. Rows locked by a concurrent sweep or
+     * update are skipped; the version is bumped so that updates based on the locked state fail.
+     *
+     * @param limit The maximum number of locks released
+     * @return A Flux emitting the unlocked documents
+     */
+    @Query("UPDATE documents SET is_locked = FALSE, locked_by = NULL, locked_until = NULL, " +
+            "updated_at = now(), version = version + 1 " +
+            "WHERE id IN (SELECT id FROM documents WHERE is_locked AND locked_until <= now() " +
+            "ORDER BY locked_until LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *")
+    Flux<Document> releaseStaleLocksBatch(int limit);
+
+    /**
+     * Get how long the oldest stale lock has been waiting to be released.
+     *
+     * @return A Mono emitting the lag in seconds, 0 when no stale lock is left
+     */
+    @Query("SELECT COALESCE(EXTRACT(EPOCH FROM now() - MIN(locked_until)), 0)::float8 " +
+            "FROM documents WHERE is_locked AND locked_until <= now()")
+    Mono<Double> findStaleLockLagSeconds();
+
+    /**
+     * Get the metadata version of a document.
+     *
+     * @param documentId The document ID
+     * @return A Mono emitting the metadata version, or empty if the document does not exist
+     */
+    @Query("SELECT metadata_version FROM documents WHERE id = :documentId")
+    Mono<Long> findMetadataVersion(UUID documentId);
+
+    /**
+     * Get the metadata versions of many documents. Only the id, tenant_id and metadata_version columns are loaded.
+     *
+     * @param documentIds The document IDs
+     * @return A Flux emitting the existing documents with their metadata version
+     */
+    @Query("SELECT id, tenant_id, metadata_version FROM documents WHERE id IN (:documentIds)")
+    Flux<Document> findMetadataVersions(Collection<UUID> documentIds);
+
+    /**
+     * Increment the metadata version of a document, ahead of a write to its metadata in the same transaction.
+     * The tenant and type of the document, which select its metadata schema template, are returned by the same
+     * statement; only the id, tenant_id and document_type columns are loaded.
+     *
+     * @param documentId The document ID
+     * @return A Mono emitting the document, or empty if it does not exist
+     */
+    @Query("UPDATE documents SET metadata_version = metadata_version + 1 WHERE id = :documentId " +
+            "RETURNING id, tenant_id, document_type")
+    Mono<Document> incrementMetadataVersion(UUID documentId);
+
+    /**
+     * Delete documents together with their tag assignments, decreasing the usage counts of their tags in the
+     * same statement (the assignments would otherwise go through the ON DELETE CASCADE of document_tags and
+     * leave the counts too high).
+     *
+     * @param documentIds The document IDs
+     * @return A Mono emitting the number of deleted documents
+     */
+    @Modifying
+    @Query("WITH untagged AS (DELETE FROM document_tags WHERE document_id IN (:documentIds) RETURNING tag_id), " +
+            "counted AS (UPDATE tags t SET usage_count = t.usage_count - c.n " +
+            "FROM (SELECT tag_id, count(*) AS n FROM untagged GROUP BY tag_id) c WHERE t.id = c.tag_id) " +
+            "DELETE FROM documents WHERE id IN (:documentIds)")
+    Mono<Integer> deleteWithTagCounts(Collection<UUID> documentIds);
+
+    /**
+     * Allocate the next version number of a document by advancing its version counter in one statement.
+     * The optimistic-lock version is left untouched, so concurrent allocations never conflict; the row lock
+     * is held only until the surrounding transaction ends.
+     *
+     * @param documentId The document ID
+     * @return A Mono emitting the allocated version number, or empty if the document does not exist
+     */
+    @Query("UPDATE documents SET version_counter = version_counter + 1 WHERE id = :documentId RETURNING version_counter")
+    Mono<Long> allocateVersionNumber(UUID documentId);
+
+    /**
+     * Point a document at a newly created version, unless a higher version has already been applied.
+     * The content columns are written in one statement, so uploads of concurrent versions never fail on
+     * the optimistic lock; the version is bumped so that updates based on the previous state do.
+     *
+     * @param documentId The document ID
+     * @param versionNumber The allocated number of the new version
+     * @param fileName The file name of the new version
+     * @param mimeType The MIME type of the new version
+     * @param storagePath The storage path of the new version, or null to keep the current one
+     * @return A Mono emitting the updated document, or empty if a higher version is already current
+     */
+    @Query("UPDATE documents SET current_version_number = :versionNumber, file_name = :fileName, " +
+            "mime_type = :mimeType, storage_path = COALESCE(:storagePath, storage_path), " +
+            "updated_at = now(), version = version + 1 " +
+            "WHERE id = :documentId AND current_version_number < :versionNumber " +
+            "RETURNING *")
+    Mono<Document> applyVersion(UUID documentId, long versionNumber, String fileName, String mimeType, String storagePath);
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.models.repositories;
+
+import com.firefly.commons.ecm.models.entities.DocumentSimilaritySignature;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Repository for managing document MinHash signatures and their LSH buckets in the Enterprise Content Management system.
+ */
+@Repository
+public interface DocumentSimilaritySignatureRepository extends BaseRepository<DocumentSimilaritySignature, UUID> {
+
+    /**
+     * Insert or replace the signature of a document.
+     *
+     * @param documentId The document ID
+     * @param tenantId The tenant ID
+     * @param signature The encoded MinHash signature
+     * @param shingleCount The number of shingles the signature was computed from
+     * @return A Mono emitting the number of affected rows
+     */
+    @Modifying
+    @Query("INSERT INTO document_similarity_signatures (document_id, tenant_id, signature, shingle_count, updated_at) " +
+            "VALUES (:documentId, :tenantId, :signature, :shingleCount, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (document_id) DO UPDATE SET tenant_id = EXCLUDED.tenant_id, signature = EXCLUDED.signature, " +
+            "shingle_count = EXCLUDED.shingle_count, updated_at = EXCLUDED.updated_at")
+    Mono<Integer> upsertSignature(UUID documentId, String tenantId, byte[] signature, int shingleCount);
+
+    /**
+     * Delete the LSH buckets of a document.
+     *
+     * @param documentId The document ID
+     * @return A Mono emitting the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM document_lsh_buckets WHERE document_id = :documentId")
+    Mono<Integer> deleteBuckets(UUID documentId);
+
+    /**
+     * Insert the LSH buckets of a document in a single statement.
+     *
+     * @param documentId The document ID
+     * @param tenantId The tenant ID
+     * @param bands The band numbers, aligned with {@code bucketHashes}
+     * @param bucketHashes The bucket hash of each band
+     * @return A Mono emitting the number of inserted rows
+     */
+    @Modifying
+    @Query("INSERT INTO document_lsh_buckets (tenant_id, band, bucket_hash, document_id) " +
+            "SELECT :tenantId, b.band, b.bucket_hash, :documentId FROM unnest(:bands, :bucketHashes) AS b(band, bucket_hash) " +
+            "ON CONFLICT DO NOTHING")
+    Mono<Integer> insertBuckets(UUID documentId, String tenantId, Integer[] bands, Long[] bucketHashes);
+
+    /**
+     * Find the signatures of the documents sharing at least one LSH bucket with the given bands.
+     *
+     * @param tenantId The tenant ID
+     * @param documentId The document to exclude (the query document itself)
+     * @param bands The band numbers, aligned with {@code bucketHashes}
+     * @param bucketHashes The bucket hash of each band
+     * @param maxCandidates The maximum number of candidates returned
+     * @return A Flux emitting candidate signatures
+     */
+    @Query("SELECT s.document_id, s.tenant_id, s.signature, s.shingle_count, s.updated_at " +
+            "FROM document_similarity_signatures s WHERE s.document_id IN (" +
+            "SELECT DISTINCT lb.document_id FROM document_lsh_buckets lb " +
+            "JOIN unnest(:bands, :bucketHashes) AS q(band, bucket_hash) " +
+            "ON lb.band = q.band AND lb.bucket_hash = q.bucket_hash " +
+            "WHERE lb.tenant_id = :tenantId AND lb.document_id <> :documentId) " +
+            "LIMIT :maxCandidates")
+    Flux<DocumentSimilaritySignature> findCandidates(String tenantId, UUID documentId,
+                                                     Integer[] bands, Long[] bucketHashes, int maxCandidates);
+}
@@ -18,8 +18,11 @@
 package com.firefly.commons.ecm.models.repositories;
 
 import com.firefly.commons.ecm.models.entities.DocumentTag;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 
+import java.util.Collection;
 import java.util.UUID;
 
 
@@ -29,4 +32,63 @@ import java.util.UUID;
 @Repository
 public interface DocumentTagRepository extends BaseRepository<DocumentTag, UUID> {
 
+    /**
+     * Find the (document, tag) pairs of a tenant.
+     * Used to bulk load in-memory tag indexes.
+     *
+     * @param tenantId The tenant ID
+     * @return A Flux emitting partially populated document tags
+     */
+    @Query("SELECT document_id, tag_id, tenant_id FROM document_tags WHERE tenant_id = :tenantId")
+    Flux<DocumentTag> findTagEntriesByTenantId(String tenantId);
+
+    /**
+     * Assign every given tag to every given document of a tenant in one statement. Pairs that are
+     * already assigned are skipped through the uk_document_tag constraint, and documents or tags of
+     * other tenants are ignored. The usage counts of the tags are increased by the same statement.
+     *
+     * @param tenantId The tenant ID
+     * @param documentIds The document IDs
+     * @param tagIds The tag IDs
+     * @return A Flux emitting the (document, tag, tenant) assignments actually created
+     */
+    @Query("WITH inserted AS (INSERT INTO document_tags (document_id, tag_id, tenant_id) " +
+            "SELECT d.id, t.id, d.tenant_id FROM documents d " +
+            "JOIN tags t ON t.tenant_id = d.tenant_id " +
+            "WHERE d.tenant_id = :tenantId AND d.id IN (:documentIds) AND t.id IN (:tagIds) " +
+            "ON CONFLICT ON CONSTRAINT uk_document_tag DO NOTHING " +
+            "RETURNING document_id, tag_id, tenant_id), " +
+            "counted AS (UPDATE tags t SET usage_count = t.usage_count + c.n " +
+            "FROM (SELECT tag_id, count(*) AS n FROM inserted GROUP BY tag_id) c WHERE t.id = c.tag_id) " +
+            "SELECT document_id, tag_id, tenant_id FROM inserted")
+    Flux<DocumentTag> insertAssignments(String tenantId, Collection<UUID> documentIds, Collection<UUID> tagIds);
+
+    /**
+     * Remove every given tag from every given document of a tenant in one statement, through the
+     * uk_document_tag index. The usage counts of the tags are decreased by the same statement.
+     *
+     * @param tenantId The tenant ID
+     * @param documentIds The document IDs
+     * @param tagIds The tag IDs
+     * @return A Flux emitting the (document, tag, tenant) assignments actually deleted
+     */
+    @Query("WITH deleted AS (DELETE FROM document_tags " +
+            "WHERE document_id IN (:documentIds) AND tag_id IN (:tagIds) AND tenant_id = :tenantId " +
+            "RETURNING document_id, tag_id, tenant_id), " +
+            "counted AS (UPDATE tags t SET usage_count = t.usage_count - c.n " +
+            "FROM (SELECT tag_id, count(*) AS n FROM deleted GROUP BY tag_id) c WHERE t.id = c.tag_id) " +
+            "SELECT document_id, tag_id, tenant_id FROM deleted")
+    Flux<DocumentTag> deleteAssignments(String tenantId, Collection<UUID> documentIds, Collection<UUID> tagIds);
+
+    /**
+     * Remove a tag from a document, decreasing the usage count of the tag in the same statement.
+     *
+     * @param documentId The document ID
+     * @param tagId The tag ID
+     * @return A Flux emitting the deleted assignment, or empty if the document did not have the tag
+     */
+    @Query("WITH deleted AS (DELETE FROM document_tags WHERE document_id = :documentId AND tag_id = :tagId RETURNING *), " +
+            "counted AS (UPDATE tags SET usage_count = usage_count - 1 WHERE id IN (SELECT tag_id FROM deleted)) " +
+            "SELECT * FROM deleted")
+    Flux<DocumentTag> deleteByDocumentIdAndTagId(UUID documentId, UUID tagId);
 }
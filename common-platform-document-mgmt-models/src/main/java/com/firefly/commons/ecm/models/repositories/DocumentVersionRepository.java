@@ -18,9 +18,13 @@
 package com.firefly.commons.ecm.models.repositories;
 
 import com.firefly.commons.ecm.models.entities.DocumentVersion;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.UUID;
 
 
@@ -37,4 +41,69 @@ public interface DocumentVersionRepository extends BaseRepository<DocumentVersio
      * @return A Flux emitting all versions for the specified document
      */
     Flux<DocumentVersion> findByDocumentId(UUID documentId);
+
+    /**
+     * Claim the versions of the given documents that their retention policy no longer keeps, marking them as
+     * being pruned. Each document follows the policy of its type, or else its tenant's default policy;
+     * documents without either keep all their versions. A version is kept while it is among the policy's last
+     * keep_last versions of its document (at least the newest one), a major version under keep_major_versions,
+     * or younger than keep_days. Versions referenced by a signature are never claimed, and a claimed version
+     * can no longer be signed. Rows locked by a concurrent claim or signature are skipped, and so are rows
+     * claimed less than the claim timeout ago; older claims were left behind by a stopped run and are taken
+     * over.
+     *
+     * @param documentIds The document IDs
+     * @param claimTimeoutSeconds The age after which a claim is taken over
+     * @return A Flux emitting the claimed versions
+     */
+    @Query("UPDATE document_versions v SET pruning_started_at = now() " +
+            "WHERE v.id IN (SELECT c.id FROM document_versions c " +
+            "WHERE c.id IN (SELECT r.id FROM (" +
+            "SELECT dv.id, dv.is_major_version, dv.created_at, p.keep_last, p.keep_major_versions, p.keep_days, " +
+            "row_number() OVER (PARTITION BY dv.document_id ORDER BY dv.version_number DESC) AS recency " +
+            "FROM document_versions dv " +
+            "JOIN documents d ON d.id = dv.document_id " +
+            "JOIN LATERAL (SELECT rp.keep_last, rp.keep_major_versions, rp.keep_days FROM version_retention_policies rp " +
+            "WHERE rp.tenant_id = d.tenant_id AND (rp.document_type = d.document_type OR rp.document_type IS NULL) " +
+            "ORDER BY rp.document_type NULLS LAST LIMIT 1) p ON TRUE " +
+            "WHERE dv.document_id IN (:documentIds)) r " +
+            "WHERE r.recency > GREATEST(COALESCE(r.keep_last, 1), 1) " +
+            "AND NOT (r.keep_major_versions AND COALESCE(r.is_major_version, FALSE)) " +
+            "AND (r.keep_days IS NULL OR r.created_at < now() - make_interval(days => r.keep_days))) " +
+            "AND (c.pruning_started_at IS NULL OR c.pruning_started_at < now() - make_interval(secs => :claimTimeoutSeconds)) " +
+            "AND NOT EXISTS (SELECT 1 FROM document_signatures s WHERE s.document_version_id = c.id) " +
+            "FOR UPDATE OF c SKIP LOCKED) " +
+            "RETURNING v.*")
+    Flux<DocumentVersion> claimPrunable(Collection<UUID> documentIds, long claimTimeoutSeconds);
+
+    /**
+     * Delete the claimed versions among the given IDs.
+     *
+     * @param versionIds The version IDs
+     * @return A Mono emitting the number of deleted versions
+     */
+    @Modifying
+    @Query("DELETE FROM document_versions WHERE id IN (:versionIds) AND pruning_started_at IS NOT NULL")
+    Mono<Integer> deleteClaimed(Collection<UUID> versionIds);
+
+    /**
+     * Release the claim on versions whose pruning failed, so that they can be signed again and are retried
+     * by the next run.
+     *
+     * @param versionIds The version IDs
+     * @return A Mono emitting the number of released versions
+     */
+    @Modifying
+    @Query("UPDATE document_versions SET pruning_started_at = NULL WHERE id IN (:versionIds)")
+    Mono<Integer> releaseClaimed(Collection<UUID> versionIds);
+
+    /**
+     * Lock a version against pruning until the transaction ends, unless a pruning run already claimed it.
+     * Taken before a signature references the version.
+     *
+     * @param versionId The version ID
+     * @return A Mono emitting the version ID, or empty if the version is gone or being pruned
+     */
+    @Query("SELECT id FROM document_versions WHERE id = :versionId AND pruning_started_at IS NULL FOR SHARE")
+    Mono<UUID> lockUnpruned(UUID versionId);
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.models.repositories;
+
+import com.firefly.commons.ecm.models.entities.FolderJob;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Repository for managing FolderJob entities in the Enterprise Content Management system.
+ */
+@Repository
+public interface FolderJobRepository extends BaseRepository<FolderJob, UUID> {
+
+    /**
+     * Claim the oldest job that is pending, or running under an expired lease (its instance stopped).
+     * Concurrent claimers skip each other's candidate rows instead of waiting on them.
+     *
+     * @param owner The ID of the claiming instance
+     * @param leaseSeconds The lease duration in seconds
+     * @return A Mono emitting the claimed job, or empty when there is none
+     */
+    @Query("UPDATE folder_jobs SET status = 'RUNNING', lease_owner = :owner, " +
+            "lease_until = now() + make_interval(secs => :leaseSeconds), " +
+            "started_at = COALESCE(started_at, now()), updated_at = now(), version = version + 1 " +
+            "WHERE id = (SELECT id FROM folder_jobs WHERE status IN ('PENDING', 'RUNNING') " +
+            "AND (lease_until IS NULL OR lease_until < now()) " +
+            "ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED) RETURNING *")
+    Mono<FolderJob> claimNext(String owner, long leaseSeconds);
+
+    /**
+     * Extend the lease of a job held by an instance.
+     *
+     * @param id The job ID
+     * @param owner The ID of the instance holding the lease
+     * @param leaseSeconds The lease duration in seconds
+     * @return A Mono emitting 1 if the lease was extended, 0 if the instance lost it
+     */
+    @Modifying
+    @Query("UPDATE folder_jobs SET lease_until = now() + make_interval(secs => :leaseSeconds) " +
+            "WHERE id = :id AND lease_owner = :owner")
+    Mono<Integer> renewLease(UUID id, String owner, long leaseSeconds);
+
+    /**
+     * Check whether a job that is not finished yet targets a folder, one of its ancestors or one of its
+     * descendants, through the id_path ranges of the two folders. Jobs on overlapping subtrees would walk
+     * documents the other one is changing.
+     *
+     * @param folderId The folder ID
+     * @return A Mono emitting true if a pending or running job targets a folder of the same branch
+     */
+    @Query("SELECT EXISTS (SELECT 1 FROM folders f " +
+            "JOIN folder_jobs j ON j.status IN ('PENDING', 'RUNNING') " +
+            "JOIN folders jf ON jf.id = j.folder_id " +
+            "WHERE f.id = :folderId AND (" +
+            "(jf.id_path >= f.id_path AND jf.id_path < left(f.id_path, -1) || '0') OR " +
+            "(f.id_path >= jf.id_path AND f.id_path < left(jf.id_path, -1) || '0')))")
+    Mono<Boolean> existsActiveInHierarchy(UUID folderId);
+
+    /**
+     * Record the target created by a copy job for a source folder or document.
+     *
+     * @param jobId The job ID
+     * @param sourceId The source folder or document ID
+     * @param targetId The created folder or document ID
+     * @return A Mono emitting the number of inserted rows
+     */
+    @Modifying
+    @Query("INSERT INTO folder_job_items (job_id, source_id, target_id) VALUES (:jobId, :sourceId, :targetId)")
+    Mono<Integer> insertItem(UUID jobId, UUID sourceId, UUID targetId);
+
+    /**
+     * Find the target created by a copy job for a source folder or document.
+     *
+     * @param jobId The job ID
+     * @param sourceId The source folder or document ID
+     * @return A Mono emitting the target ID, or empty if none was created yet
+     */
+    @Query("SELECT target_id FROM folder_job_items WHERE job_id = :jobId AND source_id = :sourceId")
+    Mono<UUID> findItemTarget(UUID jobId, UUID sourceId);
+
+    /**
+     * Delete the item mapping of a finished job.
+     *
+     * @param jobId The job ID
+     * @return A Mono emitting the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM folder_job_items WHERE job_id = :jobId")
+    Mono<Integer> deleteItems(UUID jobId);
+}
@@ -18,7 +18,11 @@
 package com.firefly.commons.ecm.models.repositories;
 
 import com.firefly.commons.ecm.models.entities.Folder;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.UUID;
 
@@ -29,4 +33,242 @@ import java.util.UUID;
 @Repository
 public interface FolderRepository extends BaseRepository<Folder, UUID> {
 
+    /**
+     * Count the folders of a tenant.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of folders owned by the tenant
+     */
+    Mono<Long> countByTenantId(String tenantId);
+
+    /**
+     * Find every folder of a tenant. Used to bulk load the in-memory folder tree.
+     *
+     * @param tenantId The tenant ID
+     * @return A Flux emitting the folders of the tenant
+     */
+    Flux<Folder> findByTenantId(String tenantId);
+
+    /**
+     * Find a folder of a tenant by its name path, using the (tenant_id, md5(path)) index.
+     *
+     * @param tenantId The tenant ID
+     * @param path The normalized name path
+     * @return A Mono emitting the folder if found
+     */
+    @Query("SELECT * FROM folders WHERE tenant_id = :tenantId AND md5(path) = md5(:path) AND path = :path LIMIT 1")
+    Mono<Folder> findByTenantIdAndPath(String tenantId, String path);
+
+    /**
+     * Notify the other instances that the folders of a tenant changed. The notification is
+     * delivered when the surrounding transaction commits.
+     *
+     * @param channel The notification channel
+     * @param payload The notification payload
+     * @return A Mono completing when the notification is queued
+     */
+    @Query("SELECT pg_notify(:channel, :payload)")
+    Mono<Void> notifyChange(String channel, String payload);
+
+    /**
+     * Find the name entries (id, name, parent and tenant) of every folder of a tenant.
+     * Used to bulk load in-memory name indexes.
+     *
+     * @param tenantId The tenant ID
+     * @return A Flux emitting partially populated folders
+     */
+    @Query("SELECT id, name, parent_folder_id, tenant_id FROM folders WHERE tenant_id = :tenantId")
+    Flux<Folder> findNameEntriesByTenantId(String tenantId);
+
+    /**
+     * Find folders whose lower-cased name starts with the given LIKE prefix pattern.
+     * The candidate window is read in index order and then ranked by name length.
+     *
+     * @param tenantId The tenant ID
+     * @param prefix The escaped, lower-cased LIKE pattern (ending with '%')
+     * @param window The number of candidates read from the prefix index
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated folders ranked shortest name first
+     */
+    @Query("SELECT c.* FROM (SELECT id, name, parent_folder_id, tenant_id FROM folders " +
+            "WHERE tenant_id = :tenantId AND lower(name) COLLATE \"C\" LIKE :prefix " +
+            "ORDER BY lower(name) COLLATE \"C\" LIMIT :window) c " +
+            "ORDER BY char_length(c.name), lower(c.name) LIMIT :limit")
+    Flux<Folder> findNamePrefixMatches(String tenantId, String prefix, int window, int limit);
+
+    /**
+     * Parent-scoped variant of {@link #findNamePrefixMatches(String, String, int, int)}.
+     *
+     * @param tenantId The tenant ID
+     * @param parentFolderId The parent folder ID
+     * @param prefix The escaped, lower-cased LIKE pattern (ending with '%')
+     * @param window The number of candidates read from the prefix index
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated folders ranked shortest name first
+     */
+    @Query("SELECT c.* FROM (SELECT id, name, parent_folder_id, tenant_id FROM folders " +
+            "WHERE parent_folder_id = :parentFolderId AND tenant_id = :tenantId AND lower(name) COLLATE \"C\" LIKE :prefix " +
+            "ORDER BY lower(name) COLLATE \"C\" LIMIT :window) c " +
+            "ORDER BY char_length(c.name), lower(c.name) LIMIT :limit")
+    Flux<Folder> findNamePrefixMatchesInFolder(String tenantId, UUID parentFolderId, String prefix, int window, int limit);
+
+    /**
+     * Find folders whose name is similar to the query using trigram matching.
+     *
+     * @param tenantId The tenant ID
+     * @param query The lower-cased query
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated folders ranked by similarity
+     */
+    @Query("SELECT id, name, parent_folder_id, tenant_id FROM folders " +
+            "WHERE tenant_id = :tenantId AND lower(name) % :query " +
+            "ORDER BY similarity(lower(name), :query) DESC, lower(name) LIMIT :limit")
+    Flux<Folder> findNameSimilarityMatches(String tenantId, String query, int limit);
+
+    /**
+     * Parent-scoped variant of {@link #findNameSimilarityMatches(String, String, int)}.
+     *
+     * @param tenantId The tenant ID
+     * @param parentFolderId The parent folder ID
+     * @param query The lower-cased query
+     * @param limit The maximum number of results
+     * @return A Flux emitting partially populated folders ranked by similarity
+     */
+    @Query("SELECT id, name, parent_folder_id, tenant_id FROM folders " +
+            "WHERE parent_folder_id = :parentFolderId AND tenant_id = :tenantId AND lower(name) % :query " +
+            "ORDER BY similarity(lower(name), :query) DESC, lower(name) LIMIT :limit")
+    Flux<Folder> findNameSimilarityMatchesInFolder(String tenantId, UUID parentFolderId, String query, int limit);
+
+    /**
+     * Derive the materialized paths (id_path, depth and name path) of a folder from its parent.
+     *
+     * @param id The folder ID
+     * @return A Mono emitting the updated folder
+     */
+    @Query("UPDATE folders f SET id_path = COALESCE(p.id_path, '/') || f.id::text || '/', " +
+            "depth = COALESCE(p.depth + 1, 0), path = COALESCE(p.path, '') || '/' || f.name " +
+            "FROM folders c LEFT JOIN folders p ON p.id = c.parent_folder_id " +
+            "WHERE c.id = :id AND f.id = c.id RETURNING f.*")
+    Mono<Folder> assignPaths(UUID id);
+
+    /**
+     * Take the transaction-scoped advisory lock of a tenant's folder hierarchy exclusively.
+     * Held by moves, renames and deletes, which rewrite the paths of whole subtrees.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono completing once the lock is held
+     */
+    @Query("SELECT pg_advisory_xact_lock(hashtextextended('ecm_folders:' || COALESCE(:tenantId, ''), 0))")
+    Mono<Void> lockHierarchy(String tenantId);
+
+    /**
+     * Take the transaction-scoped advisory lock of a tenant's folder hierarchy in shared mode.
+     * Held by folder creation, which derives paths from a parent that must not move meanwhile.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono completing once the lock is held
+     */
+    @Query("SELECT pg_advisory_xact_lock_shared(hashtextextended('ecm_folders:' || COALESCE(:tenantId, ''), 0))")
+    Mono<Void> lockHierarchyShared(String tenantId);
+
+    /**
+     * Move and/or rename a folder and rewrite the materialized paths of its whole subtree in one
+     * statement, replacing the old path prefixes with the new ones. Readers see either the old or
+     * the new hierarchy, never a mix.
+     *
+     * @param folderId The folder ID
+     * @param parentFolderId The new parent folder ID (null for a root folder)
+     * @param name The new name of the folder
+     * @param oldIdPath The previous id_path of the folder
+     * @param newIdPath The new id_path of the folder
+     * @param oldPath The previous name path of the folder
+     * @param newPath The new name path of the folder
+     * @param depthDelta The change in depth of the folder
+     * @return A Mono emitting the number of rewritten folders
+     */
+    @Modifying
+    @Query("UPDATE folders SET " +
+            "parent_folder_id = CASE WHEN id = :folderId THEN :parentFolderId ELSE parent_folder_id END, " +
+            "name = CASE WHEN id = :folderId THEN :name ELSE name END, " +
+            "version = CASE WHEN id = :folderId THEN version + 1 ELSE version END, " +
+            "updated_at = CASE WHEN id = :folderId THEN now() ELSE updated_at END, " +
+            "id_path = :newIdPath || substr(id_path, char_length(:oldIdPath) + 1), " +
+            "path = :newPath || substr(path, char_length(:oldPath) + 1), depth = depth + :depthDelta " +
+            "WHERE id_path >= :oldIdPath AND id_path < left(:oldIdPath, -1) || '0'")
+    Mono<Integer> moveSubtree(UUID folderId, UUID parentFolderId, String name,
+                              String oldIdPath, String newIdPath, String oldPath, String newPath, int depthDelta);
+
+    /**
+     * Re-root the descendants of a deleted folder: its children become root folders and the
+     * paths below them lose the deleted folder's prefix.
+     *
+     * @param idPath The id_path of the deleted folder
+     * @param path The name path of the deleted folder
+     * @param depth The depth of the deleted folder
+     * @return A Mono emitting the number of rewritten folders
+     */
+    @Modifying
+    @Query("UPDATE folders SET id_path = '/' || substr(id_path, char_length(:idPath) + 1), " +
+            "path = substr(path, char_length(:path) + 1), depth = depth - :depth - 1 " +
+            "WHERE id_path > :idPath AND id_path < left(:idPath, -1) || '0'")
+    Mono<Integer> detachSubtreePaths(String idPath, String path, int depth);
+
+    /**
+     * Find the descendants of a folder, in depth-first order of the id_path index.
+     *
+     * @param folderId The folder ID
+     * @param maxDepth The maximum depth below the folder (1 for direct children)
+     * @param limit The maximum number of results
+     * @param offset The number of descendants to skip
+     * @return A Flux emitting the descendants
+     */
+    @Query("SELECT d.* FROM folders f JOIN folders d " +
+            "ON d.id_path > f.id_path AND d.id_path < left(f.id_path, -1) || '0' AND d.depth <= f.depth + :maxDepth " +
+            "WHERE f.id = :folderId ORDER BY d.id_path LIMIT :limit OFFSET :offset")
+    Flux<Folder> findDescendants(UUID folderId, int maxDepth, int limit, long offset);
+
+    /**
+     * Count the descendants of a folder.
+     *
+     * @param folderId The folder ID
+     * @param maxDepth The maximum depth below the folder (1 for direct children)
+     * @return A Mono emitting the number of descendants
+     */
+    @Query("SELECT count(*) FROM folders f JOIN folders d " +
+            "ON d.id_path > f.id_path AND d.id_path < left(f.id_path, -1) || '0' AND d.depth <= f.depth + :maxDepth " +
+            "WHERE f.id = :folderId")
+    Mono<Long> countDescendants(UUID folderId, int maxDepth);
+
+    /**
+     * Find a batch of the folders of a subtree (the root included) in id_path order, after the given id_path.
+     * Parents always come before their children. Used by background folder jobs to walk a subtree resumably.
+     *
+     * @param idPath The id_path of the root folder of the subtree
+     * @param afterIdPath The id_path of the last folder of the previous batch (empty for the first batch)
+     * @param limit The batch size
+     * @return A Flux emitting the folders of the batch
+     */
+    @Query("SELECT * FROM folders WHERE id_path >= :idPath AND id_path < left(:idPath, -1) || '0' " +
+            "AND id_path > :afterIdPath ORDER BY id_path LIMIT :limit")
+    Flux<Folder> findSubtreeBatch(String idPath, String afterIdPath, int limit);
+
+    /**
+     * Delete a folder and all of its descendants in one statement.
+     *
+     * @param idPath The id_path of the root folder of the subtree
+     * @return A Flux emitting the deleted folders
+     */
+    @Query("DELETE FROM folders WHERE id_path >= :idPath AND id_path < left(:idPath, -1) || '0' RETURNING *")
+    Flux<Folder> deleteSubtree(String idPath);
+
+    /**
+     * Find the ancestors of a folder, from the root down to its parent.
+     *
+     * @param folderId The folder ID
+     * @return A Flux emitting the ancestors ordered by depth
+     */
+    @Query("SELECT a.* FROM folders f JOIN folders a " +
+            "ON a.id = ANY(CAST(string_to_array(trim(BOTH '/' FROM f.id_path), '/') AS uuid[])) " +
+            "WHERE f.id = :folderId AND a.id <> f.id ORDER BY a.depth")
+    Flux<Folder> findAncestors(UUID folderId);
 }
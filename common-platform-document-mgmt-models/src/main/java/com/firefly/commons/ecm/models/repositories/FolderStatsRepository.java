@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.models.repositories;
+
+import com.firefly.commons.ecm.models.entities.FolderStats;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Repository for managing FolderStats entities in the Enterprise Content Management system.
+ */
+@Repository
+public interface FolderStatsRepository extends BaseRepository<FolderStats, UUID> {
+
+    /**
+     * Apply a delta to the statistics of a folder and of all its ancestors in one statement.
+     * The direct deltas only apply to the folder itself; the total deltas apply to the whole ancestor chain.
+     * Rows are locked root first, so concurrent deltas on the same chain cannot deadlock.
+     *
+     * @param folderId The folder ID
+     * @param directCountDelta The change in the number of documents directly in the folder
+     * @param directBytesDelta The change in the bytes of documents directly in the folder
+     * @param totalCountDelta The change in the number of documents in the subtree
+     * @param totalBytesDelta The change in the bytes of documents in the subtree
+     * @return A Mono emitting the number of updated folders
+     */
+    @Modifying
+    @Query("INSERT INTO folder_stats (folder_id, tenant_id, direct_document_count, direct_bytes, " +
+            "total_document_count, total_bytes, updated_at) " +
+            "SELECT a.id, f.tenant_id, " +
+            "CASE WHEN a.id = f.id THEN :directCountDelta ELSE 0 END, " +
+            "CASE WHEN a.id = f.id THEN :directBytesDelta ELSE 0 END, " +
+            ":totalCountDelta, :totalBytesDelta, now() " +
+            "FROM folders f CROSS JOIN LATERAL unnest(CAST(string_to_array(trim(BOTH '/' FROM f.id_path), '/') AS uuid[])) " +
+            "WITH ORDINALITY AS a(id, position) " +
+            "WHERE f.id = :folderId ORDER BY a.position " +
+            "ON CONFLICT (folder_id) DO UPDATE SET " +
+            "direct_document_count = folder_stats.direct_document_count + EXCLUDED.direct_document_count, " +
+            "direct_bytes = folder_stats.direct_bytes + EXCLUDED.direct_bytes, " +
+            "total_document_count = folder_stats.total_document_count + EXCLUDED.total_document_count, " +
+            "total_bytes = folder_stats.total_bytes + EXCLUDED.total_bytes, updated_at = EXCLUDED.updated_at")
+    Mono<Integer> applyDelta(UUID folderId, long directCountDelta, long directBytesDelta,
+                             long totalCountDelta, long totalBytesDelta);
+
+    /**
+     * Recompute the statistics of every folder of a tenant from the documents, correcting the rows that drifted.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of corrected folders
+     */
+    @Modifying
+    @Query("WITH direct AS (SELECT f.id, f.id_path, count(doc.id) AS document_count, " +
+            "COALESCE(sum(doc.file_size), 0) AS bytes " +
+            "FROM folders f LEFT JOIN documents doc ON doc.folder_id = f.id " +
+            "WHERE f.tenant_id = :tenantId GROUP BY f.id), " +
+            "totals AS (SELECT a.id, sum(d.document_count) AS document_count, sum(d.bytes) AS bytes " +
+            "FROM direct d CROSS JOIN LATERAL unnest(CAST(string_to_array(trim(BOTH '/' FROM d.id_path), '/') AS uuid[])) AS a(id) " +
+            "GROUP BY a.id) " +
+            "INSERT INTO folder_stats (folder_id, tenant_id, direct_document_count, direct_bytes, " +
+            "total_document_count, total_bytes, updated_at) " +
+            "SELECT d.id, :tenantId, d.document_count, d.bytes, t.document_count, t.bytes, now() " +
+            "FROM direct d JOIN totals t ON t.id = d.id ORDER BY d.id_path " +
+            "ON CONFLICT (folder_id) DO UPDATE SET " +
+            "direct_document_count = EXCLUDED.direct_document_count, direct_bytes = EXCLUDED.direct_bytes, " +
+            "total_document_count = EXCLUDED.total_document_count, total_bytes = EXCLUDED.total_bytes, " +
+            "updated_at = EXCLUDED.updated_at " +
+            "WHERE (folder_stats.direct_document_count, folder_stats.direct_bytes, " +
+            "folder_stats.total_document_count, folder_stats.total_bytes) IS DISTINCT FROM " +
+            "(EXCLUDED.direct_document_count, EXCLUDED.direct_bytes, EXCLUDED.total_document_count, EXCLUDED.total_bytes)")
+    Mono<Integer> reconcileTenant(String tenantId);
+
+    /**
+     * Find the tenants that own folders.
+     *
+     * @return A Flux emitting the distinct tenant IDs
+     */
+    @Query("SELECT DISTINCT tenant_id FROM folders")
+    Flux<String> findFolderTenantIds();
+}
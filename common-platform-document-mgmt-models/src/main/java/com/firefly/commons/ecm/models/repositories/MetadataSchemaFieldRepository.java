@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.models.repositories;
+
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import com.firefly.commons.ecm.models.entities.MetadataSchemaField;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Repository for managing MetadataSchemaField entities in the Enterprise Content Management system.
+ */
+@Repository
+public interface MetadataSchemaFieldRepository extends BaseRepository<MetadataSchemaField, UUID> {
+
+    /**
+     * Find the fields of the metadata schema template of a tenant and document type, in key order.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type
+     * @return A Flux emitting the fields of the template
+     */
+    @Query("SELECT * FROM metadata_schema_fields WHERE tenant_id = :tenantId AND document_type = :documentType " +
+            "ORDER BY metadata_key")
+    Flux<MetadataSchemaField> findByTenantIdAndDocumentType(String tenantId, DocumentType documentType);
+
+    /**
+     * Delete the metadata schema template of a tenant and document type.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type
+     * @return A Mono emitting the number of deleted fields
+     */
+    @Modifying
+    @Query("DELETE FROM metadata_schema_fields WHERE tenant_id = :tenantId AND document_type = :documentType")
+    Mono<Integer> deleteByTenantIdAndDocumentType(String tenantId, DocumentType documentType);
+}
@@ -19,6 +19,7 @@ package com.firefly.commons.ecm.models.repositories;
 
 import com.firefly.commons.ecm.interfaces.enums.SignatureStatus;
 import com.firefly.commons.ecm.models.entities.SignatureRequest;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -74,4 +75,28 @@ public interface SignatureRequestRepository extends BaseRepository<SignatureRequ
      */
     Flux<SignatureRequest> findByReminderSentAndRequestStatus(
             Boolean reminderSent, SignatureStatus requestStatus);
+
+    /**
+     * Mark one batch of pending or in-progress requests past their expiration date as EXPIRED. Rows locked
+     * by a concurrent sweep or update are skipped; the version is bumped so that updates based on the
+     * open state fail.
+     *
+     * @param limit The maximum number of requests expired
+     * @return A Flux emitting the expired requests
+     */
+    @Query("UPDATE signature_requests SET request_status = 'EXPIRED', updated_at = now(), version = version + 1 " +
+            "WHERE id IN (SELECT id FROM signature_requests " +
+            "WHERE request_status IN ('PENDING', 'IN_PROGRESS') AND expiration_date <= now() " +
+            "ORDER BY expiration_date LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *")
+    Flux<SignatureRequest> expireBatch(int limit);
+
+    /**
+     * Get how long the oldest open request past its expiration date has been waiting to be expired.
+     *
+     * @return A Mono emitting the lag in seconds, 0 when no such request is left
+     */
+    @Query("SELECT COALESCE(EXTRACT(EPOCH FROM now() - MIN(expiration_date)), 0)::float8 FROM signature_requests " +
+            "WHERE request_status IN ('PENDING', 'IN_PROGRESS') AND expiration_date <= now()")
+    Mono<Double> findExpiredLagSeconds();
 }
@@ -18,8 +18,13 @@
 package com.firefly.commons.ecm.models.repositories;
 
 import com.firefly.commons.ecm.models.entities.Tag;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.UUID;
 
 
@@ -29,4 +34,81 @@ import java.util.UUID;
 @Repository
 public interface TagRepository extends BaseRepository<Tag, UUID> {
 
+    /**
+     * Find the tags of a tenant with any of the given names.
+     *
+     * @param tenantId The tenant ID
+     * @param names The tag names
+     * @return A Flux emitting the matching tags
+     */
+    Flux<Tag> findByTenantIdAndNameIn(String tenantId, Collection<String> names);
+
+    /**
+     * Find the tags of a tenant.
+     * Used to bulk load in-memory tag dictionaries.
+     *
+     * @param tenantId The tenant ID
+     * @return A Flux emitting the tags of the tenant
+     */
+    Flux<Tag> findByTenantId(String tenantId);
+
+    /**
+     * Count the tags of a tenant.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of tags
+     */
+    Mono<Long> countByTenantId(String tenantId);
+
+    /**
+     * Find the most used tags of a tenant, through idx_tags_tenant_usage.
+     *
+     * @param tenantId The tenant ID
+     * @param limit The maximum number of tags
+     * @return A Flux emitting the tags by decreasing usage count, then by name
+     */
+    @Query("SELECT * FROM tags WHERE tenant_id = :tenantId ORDER BY usage_count DESC, name LIMIT :limit")
+    Flux<Tag> findTopByTenantId(String tenantId, int limit);
+
+    /**
+     * Add a delta to the usage count of a tag, after one of its assignments was created or deleted.
+     *
+     * @param tagId The tag ID
+     * @param delta The number of assignments created, negative for deletions
+     * @return A Mono emitting the number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE tags SET usage_count = usage_count + :delta WHERE id = :tagId")
+    Mono<Integer> adjustUsageCount(UUID tagId, long delta);
+
+    /**
+     * Lock the tag rows of a tenant until the end of the transaction, holding off concurrent usage count deltas.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of locked tags
+     */
+    @Query("SELECT count(*) FROM (SELECT id FROM tags WHERE tenant_id = :tenantId ORDER BY id FOR UPDATE) locked")
+    Mono<Long> lockByTenantId(String tenantId);
+
+    /**
+     * Recompute the usage counts of the tags of a tenant from document_tags, rewriting only the drifted ones.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of corrected tags
+     */
+    @Modifying
+    @Query("UPDATE tags t SET usage_count = c.usage_count " +
+            "FROM (SELECT tg.id, count(dt.id) AS usage_count FROM tags tg " +
+            "LEFT JOIN document_tags dt ON dt.tag_id = tg.id " +
+            "WHERE tg.tenant_id = :tenantId GROUP BY tg.id) c " +
+            "WHERE t.id = c.id AND t.usage_count IS DISTINCT FROM c.usage_count")
+    Mono<Integer> reconcileUsageCounts(String tenantId);
+
+    /**
+     * Find the tenants that own tags.
+     *
+     * @return A Flux emitting the distinct tenant IDs
+     */
+    @Query("SELECT DISTINCT tenant_id FROM tags")
+    Flux<String> findTagTenantIds();
 }
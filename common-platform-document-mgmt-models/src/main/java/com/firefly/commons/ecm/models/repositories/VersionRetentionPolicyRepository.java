@@ -0,0 +1,83 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.models.repositories;
+
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import com.firefly.commons.ecm.models.entities.VersionRetentionPolicy;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Repository for managing VersionRetentionPolicy entities in the Enterprise Content Management system.
+ */
+@Repository
+public interface VersionRetentionPolicyRepository extends BaseRepository<VersionRetentionPolicy, UUID> {
+
+    /**
+     * Find the version retention policy of a tenant and document type.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type
+     * @return A Mono emitting the policy, or empty if the document type has none of its own
+     */
+    @Query("SELECT * FROM version_retention_policies WHERE tenant_id = :tenantId AND document_type = :documentType")
+    Mono<VersionRetentionPolicy> findByTenantIdAndDocumentType(String tenantId, DocumentType documentType);
+
+    /**
+     * Find the default version retention policy of a tenant, applying to document types without one of their own.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the policy, or empty if the tenant has no default policy
+     */
+    @Query("SELECT * FROM version_retention_policies WHERE tenant_id = :tenantId AND document_type IS NULL")
+    Mono<VersionRetentionPolicy> findDefaultByTenantId(String tenantId);
+
+    /**
+     * Delete the version retention policy of a tenant and document type.
+     *
+     * @param tenantId The tenant ID
+     * @param documentType The document type
+     * @return A Mono emitting the number of deleted policies (0 or 1)
+     */
+    @Modifying
+    @Query("DELETE FROM version_retention_policies WHERE tenant_id = :tenantId AND document_type = :documentType")
+    Mono<Integer> deleteByTenantIdAndDocumentType(String tenantId, DocumentType documentType);
+
+    /**
+     * Delete the default version retention policy of a tenant.
+     *
+     * @param tenantId The tenant ID
+     * @return A Mono emitting the number of deleted policies (0 or 1)
+     */
+    @Modifying
+    @Query("DELETE FROM version_retention_policies WHERE tenant_id = :tenantId AND document_type IS NULL")
+    Mono<Integer> deleteDefaultByTenantId(String tenantId);
+
+    /**
+     * Find the tenants having at least one version retention policy.
+     *
+     * @return A Flux emitting the tenant IDs
+     */
+    @Query("SELECT DISTINCT tenant_id FROM version_retention_policies")
+    Flux<String> findPolicyTenantIds();
+}
@@ -0,0 +1,42 @@
+-- Create the tables backing background recursive folder delete and copy jobs
+
+-- One row per job; the cursors record how far each phase got, so that a job resumes where it stopped
+CREATE TABLE folder_jobs (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    tenant_id VARCHAR(100) NOT NULL,
+    job_type VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    phase VARCHAR(20) NOT NULL,
+    folder_id UUID NOT NULL,
+    target_parent_folder_id UUID,
+    target_name VARCHAR(255),
+    target_folder_id UUID,
+    folder_cursor TEXT,
+    document_cursor UUID,
+    total_folders BIGINT NOT NULL DEFAULT 0,
+    total_documents BIGINT NOT NULL DEFAULT 0,
+    processed_folders BIGINT NOT NULL DEFAULT 0,
+    processed_documents BIGINT NOT NULL DEFAULT 0,
+    failed_documents BIGINT NOT NULL DEFAULT 0,
+    error_message TEXT,
+    lease_owner VARCHAR(64),
+    lease_until TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_at TIMESTAMP WITH TIME ZONE,
+    started_at TIMESTAMP WITH TIME ZONE,
+    completed_at TIMESTAMP WITH TIME ZONE,
+    version BIGINT DEFAULT 0
+);
+
+CREATE INDEX idx_folder_jobs_active ON folder_jobs(created_at) WHERE status IN ('PENDING', 'RUNNING');
+CREATE INDEX idx_folder_jobs_folder_id ON folder_jobs(folder_id);
+
+-- Source to target ID mapping of the folders and documents a copy job created
+CREATE TABLE folder_job_items (
+    job_id UUID NOT NULL,
+    source_id UUID NOT NULL,
+    target_id UUID NOT NULL,
+    CONSTRAINT pk_folder_job_items PRIMARY KEY (job_id, source_id),
+    CONSTRAINT fk_folder_job_item_job FOREIGN KEY (job_id) REFERENCES folder_jobs(id) ON DELETE CASCADE
+);
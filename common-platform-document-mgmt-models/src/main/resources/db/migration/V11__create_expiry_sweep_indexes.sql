@@ -0,0 +1,11 @@
+-- Create the partial indexes backing the background expiry sweepers; each covers only the rows that can
+-- expire, so that claiming the next batch of expired rows stays an index range scan however large the tables grow
+
+CREATE INDEX idx_document_permissions_expiration_date ON document_permissions(expiration_date)
+    WHERE expiration_date IS NOT NULL;
+
+CREATE INDEX idx_documents_locked_until ON documents(locked_until)
+    WHERE is_locked;
+
+CREATE INDEX idx_signature_requests_open_expiration_date ON signature_requests(expiration_date)
+    WHERE request_status IN ('PENDING', 'IN_PROGRESS');
@@ -0,0 +1,13 @@
+-- Create the table recording, per batch of local permissions, the digest last verified against the ECM
+-- permission provider; a batch whose digest is unchanged and recent is not checked again
+
+CREATE TABLE permission_reconcile_digests (
+    tenant_id VARCHAR(100) NOT NULL,
+    first_id UUID NOT NULL,
+    digest VARCHAR(64) NOT NULL,
+    checked_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (tenant_id, first_id)
+);
+
+-- Lets reconciliation walk the permissions of a tenant in id order, one keyset batch at a time
+CREATE INDEX idx_document_permissions_tenant_id_id ON document_permissions(tenant_id, id);
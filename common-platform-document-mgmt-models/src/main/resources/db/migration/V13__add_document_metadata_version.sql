@@ -0,0 +1,4 @@
+-- Add a per-document metadata version, incremented by every write to the document's metadata;
+-- cached metadata is served only while its version is still the current one
+
+ALTER TABLE documents ADD COLUMN metadata_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,43 @@
+-- Add typed copies of metadata values, populated from metadata_type on write, so that range queries
+-- on numbers, timestamps and booleans are index range scans instead of a cast on every row
+
+ALTER TABLE document_metadata ADD COLUMN value_number NUMERIC;
+ALTER TABLE document_metadata ADD COLUMN value_timestamp TIMESTAMP WITH TIME ZONE;
+ALTER TABLE document_metadata ADD COLUMN value_boolean BOOLEAN;
+
+-- Casts that yield NULL instead of failing, for the backfill only
+CREATE FUNCTION pg_temp.try_cast_timestamptz(value TEXT) RETURNS TIMESTAMP WITH TIME ZONE AS $$
+BEGIN
+    RETURN value::timestamptz;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Backfill the existing values whose type names a number, a timestamp or a boolean and that parse as one
+UPDATE document_metadata
+SET value_number = trim(metadata_value)::numeric
+WHERE upper(metadata_type) IN ('NUMBER', 'NUMERIC', 'DECIMAL', 'INTEGER', 'INT', 'LONG', 'DOUBLE', 'FLOAT', 'AMOUNT', 'CURRENCY')
+  AND trim(metadata_value) ~ '^[+-]?([0-9]+\.?[0-9]*|\.[0-9]+)([eE][+-]?[0-9]+)?$';
+
+UPDATE document_metadata
+SET value_timestamp = CASE
+        WHEN trim(metadata_value) ~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}$' THEN pg_temp.try_cast_timestamptz(trim(metadata_value) || 'T00:00:00Z')
+        WHEN trim(metadata_value) ~ '(Z|[+-][0-9]{2}:[0-9]{2})$' THEN pg_temp.try_cast_timestamptz(trim(metadata_value))
+        ELSE pg_temp.try_cast_timestamptz(trim(metadata_value) || 'Z')
+    END
+WHERE upper(metadata_type) IN ('DATE', 'DATETIME', 'DATE_TIME', 'TIMESTAMP', 'INSTANT')
+  AND trim(metadata_value) ~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}([T ][0-9]{2}:[0-9]{2}(:[0-9]{2}(\.[0-9]+)?)?)?(Z|[+-][0-9]{2}:[0-9]{2})?$';
+
+UPDATE document_metadata
+SET value_boolean = lower(trim(metadata_value))::boolean
+WHERE upper(metadata_type) IN ('BOOLEAN', 'BOOL')
+  AND lower(trim(metadata_value)) IN ('true', 'false');
+
+-- One partial index per type: a range predicate on a key is a range scan over that key's typed values only
+CREATE INDEX idx_document_metadata_value_number ON document_metadata(tenant_id, metadata_key, value_number, document_id)
+    WHERE value_number IS NOT NULL;
+CREATE INDEX idx_document_metadata_value_timestamp ON document_metadata(tenant_id, metadata_key, value_timestamp, document_id)
+    WHERE value_timestamp IS NOT NULL;
+CREATE INDEX idx_document_metadata_value_boolean ON document_metadata(tenant_id, metadata_key, value_boolean, document_id)
+    WHERE value_boolean IS NOT NULL;
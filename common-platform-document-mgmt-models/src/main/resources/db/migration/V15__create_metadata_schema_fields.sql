@@ -0,0 +1,19 @@
+-- Create the metadata schema templates: per tenant and document type, one row per metadata key
+-- with whether it is required, its typed form, a pattern and the allowed values
+
+CREATE TABLE metadata_schema_fields (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    tenant_id VARCHAR(100) NOT NULL,
+    document_type document_type NOT NULL,
+    metadata_key VARCHAR(255) NOT NULL,
+    is_required BOOLEAN NOT NULL DEFAULT FALSE,
+    value_type VARCHAR(20),
+    value_pattern TEXT,
+    allowed_values TEXT[],
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_at TIMESTAMP WITH TIME ZONE,
+    updated_by VARCHAR(255),
+    version BIGINT DEFAULT 0,
+    CONSTRAINT uk_metadata_schema_fields_key UNIQUE (tenant_id, document_type, metadata_key)
+);
@@ -0,0 +1,11 @@
+-- Add a per-tag usage count, the number of documents carrying the tag. It is maintained by deltas
+-- in the statements that assign and remove tags, and periodically reconciled with document_tags
+
+ALTER TABLE tags ADD COLUMN usage_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE tags t SET usage_count = c.usage_count
+FROM (SELECT tag_id, count(*) AS usage_count FROM document_tags GROUP BY tag_id) c
+WHERE t.id = c.tag_id;
+
+-- Serves the most used tags of a tenant as one index range scan
+CREATE INDEX idx_tags_tenant_usage ON tags(tenant_id, usage_count DESC, name);
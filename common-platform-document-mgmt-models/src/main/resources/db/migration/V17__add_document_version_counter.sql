@@ -0,0 +1,12 @@
+-- Add a per-document version counter, separate from the optimistic-lock version column. Version numbers are
+-- allocated by incrementing version_counter in one statement, so concurrent uploads never compete for a number;
+-- current_version_number is the highest version applied to the document row so far
+
+ALTER TABLE documents ADD COLUMN version_counter BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE documents ADD COLUMN current_version_number BIGINT NOT NULL DEFAULT 0;
+
+-- Version numbers used to be derived from the optimistic-lock version, so no number issued so far exceeds it
+UPDATE documents d SET version_counter = GREATEST(COALESCE(d.version, 0),
+        COALESCE((SELECT max(dv.version_number) FROM document_versions dv WHERE dv.document_id = d.id), 0));
+
+UPDATE documents SET current_version_number = version_counter;
@@ -0,0 +1,30 @@
+-- Create the document version retention policies: per tenant, a default policy and one per document type.
+-- A version is kept while any rule of its policy keeps it (among the last keep_last versions, a major version
+-- when keep_major_versions is set, or younger than keep_days); the newest version of a document is always kept
+
+CREATE TABLE version_retention_policies (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    tenant_id VARCHAR(100) NOT NULL,
+    document_type document_type,
+    keep_last INTEGER CHECK (keep_last >= 1),
+    keep_major_versions BOOLEAN NOT NULL DEFAULT FALSE,
+    keep_days INTEGER CHECK (keep_days >= 0),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_at TIMESTAMP WITH TIME ZONE,
+    updated_by VARCHAR(255),
+    version BIGINT DEFAULT 0
+);
+
+-- One policy per tenant and document type, and one default (no document type) per tenant
+CREATE UNIQUE INDEX uk_version_retention_policies_type ON version_retention_policies(tenant_id, document_type)
+    WHERE document_type IS NOT NULL;
+CREATE UNIQUE INDEX uk_version_retention_policies_default ON version_retention_policies(tenant_id)
+    WHERE document_type IS NULL;
+
+-- Versions claimed by a pruning run: committed before their content is deleted, and refused to new signatures
+ALTER TABLE document_versions ADD COLUMN pruning_started_at TIMESTAMP WITH TIME ZONE;
+
+-- Pruning walks the documents of a tenant in ID order and ranks the versions of each batch, newest first
+CREATE INDEX idx_documents_tenant_id_id ON documents(tenant_id, id);
+CREATE INDEX idx_document_versions_document_number ON document_versions(document_id, version_number DESC);
@@ -0,0 +1,14 @@
+-- Create indexes backing document and folder name autocomplete
+
+-- Enable trigram support for substring matching
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Prefix indexes (C collation so LIKE 'prefix%' and ORDER BY can both use the index)
+CREATE INDEX idx_documents_tenant_name_prefix ON documents(tenant_id, (lower(name) COLLATE "C"));
+CREATE INDEX idx_documents_folder_name_prefix ON documents(folder_id, (lower(name) COLLATE "C"));
+CREATE INDEX idx_folders_tenant_name_prefix ON folders(tenant_id, (lower(name) COLLATE "C"));
+CREATE INDEX idx_folders_parent_name_prefix ON folders(parent_folder_id, (lower(name) COLLATE "C"));
+
+-- Trigram indexes for ranked substring matching
+CREATE INDEX idx_documents_name_trgm ON documents USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX idx_folders_name_trgm ON folders USING gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,23 @@
+-- Create tables backing near-duplicate document detection (MinHash signatures and LSH buckets)
+
+-- One MinHash signature per document, computed from the shingles of its latest uploaded content
+CREATE TABLE document_similarity_signatures (
+    document_id UUID PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    signature BYTEA NOT NULL,
+    shingle_count INTEGER NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_document_similarity_signature_document FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE
+);
+
+-- One row per (band, bucket) of each signature; documents sharing a bucket are similarity candidates
+CREATE TABLE document_lsh_buckets (
+    tenant_id VARCHAR(100) NOT NULL,
+    band INTEGER NOT NULL,
+    bucket_hash BIGINT NOT NULL,
+    document_id UUID NOT NULL,
+    CONSTRAINT pk_document_lsh_buckets PRIMARY KEY (tenant_id, band, bucket_hash, document_id),
+    CONSTRAINT fk_document_lsh_bucket_document FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_document_lsh_buckets_document_id ON document_lsh_buckets(document_id);
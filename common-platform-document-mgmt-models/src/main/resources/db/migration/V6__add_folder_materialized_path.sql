@@ -0,0 +1,26 @@
+-- Maintain materialized paths on folders so subtree and ancestor lookups are single indexed queries
+
+-- id_path holds the IDs from the root down to the folder itself, e.g. '/<root-id>/<child-id>/'.
+-- C collation makes descendants of P the contiguous range (P, left(P, -1) || '0') in the index.
+ALTER TABLE folders ADD COLUMN id_path TEXT COLLATE "C";
+ALTER TABLE folders ADD COLUMN depth INTEGER;
+
+-- path holds the folder names from the root down, e.g. '/Contracts/2024'
+ALTER TABLE folders ALTER COLUMN path TYPE TEXT;
+
+-- Backfill every folder reachable from a root
+WITH RECURSIVE tree AS (
+    SELECT id, '/' || id::text || '/' AS id_path, 0 AS depth, '/' || name AS name_path
+    FROM folders
+    WHERE parent_folder_id IS NULL
+    UNION ALL
+    SELECT child.id, tree.id_path || child.id::text || '/', tree.depth + 1, tree.name_path || '/' || child.name
+    FROM folders child
+    JOIN tree ON child.parent_folder_id = tree.id
+)
+UPDATE folders
+SET id_path = tree.id_path, depth = tree.depth, path = tree.name_path
+FROM tree
+WHERE folders.id = tree.id;
+
+CREATE INDEX idx_folders_id_path ON folders(id_path);
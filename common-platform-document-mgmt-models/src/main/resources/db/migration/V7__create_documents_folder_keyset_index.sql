@@ -0,0 +1,2 @@
+-- Composite index backing folder listings sorted by name with (name, id) keyset paging
+CREATE INDEX idx_documents_folder_name_id ON documents(folder_id, name, id);
@@ -0,0 +1,3 @@
+-- Index backing folder path resolution when a tenant's folder tree is not cached in memory;
+-- hashed so that long paths stay within the B-tree entry size limit
+CREATE INDEX idx_folders_tenant_path ON folders(tenant_id, md5(path));
@@ -0,0 +1,30 @@
+-- Create the folder rollup statistics table, maintained incrementally by document changes
+
+-- Direct counts cover the documents of the folder itself; totals cover its whole subtree
+CREATE TABLE folder_stats (
+    folder_id UUID PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    direct_document_count BIGINT NOT NULL DEFAULT 0,
+    direct_bytes BIGINT NOT NULL DEFAULT 0,
+    total_document_count BIGINT NOT NULL DEFAULT 0,
+    total_bytes BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_folder_stats_folder FOREIGN KEY (folder_id) REFERENCES folders(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_folder_stats_tenant_id ON folder_stats(tenant_id);
+
+-- Backfill from the existing documents: direct figures per folder, then totals by summing
+-- the direct figures of each folder into every folder of its id_path
+WITH direct AS (
+    SELECT f.id, f.tenant_id, f.id_path, count(doc.id) AS document_count, COALESCE(sum(doc.file_size), 0) AS bytes
+    FROM folders f LEFT JOIN documents doc ON doc.folder_id = f.id
+    GROUP BY f.id
+), totals AS (
+    SELECT a.id, sum(d.document_count) AS document_count, sum(d.bytes) AS bytes
+    FROM direct d CROSS JOIN LATERAL unnest(CAST(string_to_array(trim(BOTH '/' FROM d.id_path), '/') AS uuid[])) AS a(id)
+    GROUP BY a.id
+)
+INSERT INTO folder_stats (folder_id, tenant_id, direct_document_count, direct_bytes, total_document_count, total_bytes)
+SELECT d.id, d.tenant_id, d.document_count, d.bytes, t.document_count, t.bytes
+FROM direct d JOIN totals t ON t.id = d.id;
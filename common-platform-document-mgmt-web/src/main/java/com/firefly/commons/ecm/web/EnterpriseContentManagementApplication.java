@@ -27,6 +27,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.reactive.config.EnableWebFlux;
 
 @SpringBootApplication(
@@ -41,6 +42,7 @@ import org.springframework.web.reactive.config.EnableWebFlux;
         basePackages = "com.firefly.commons.ecm.models.repositories"
 )
 @EnableR2dbcAuditing
+@EnableScheduling
 @ConfigurationPropertiesScan
 @OpenAPIDefinition(
         info = @Info(
@@ -19,8 +19,15 @@ package com.firefly.commons.ecm.web.controllers;
 
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
+import com.firefly.commons.ecm.core.services.DocumentMetadataService;
+import com.firefly.commons.ecm.core.services.DocumentPermissionService;
 import com.firefly.commons.ecm.core.services.DocumentService;
+import com.firefly.commons.ecm.core.services.DocumentSimilarityService;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentDTO;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataRangeQueryDTO;
+import com.firefly.commons.ecm.interfaces.dtos.PermissionCheckRequestDTO;
+import com.firefly.commons.ecm.interfaces.dtos.SimilarDocumentDTO;
+import com.firefly.commons.ecm.interfaces.enums.PermissionType;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -40,6 +47,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.util.Map;
 import java.util.UUID;
 /**
  * REST controller for managing Document resources.
@@ -51,6 +59,9 @@ import java.util.UUID;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final DocumentSimilarityService documentSimilarityService;
+    private final DocumentPermissionService documentPermissionService;
+    private final DocumentMetadataService documentMetadataService;
 
     @GetMapping
     @Operation(summary = "List all documents", description = "Returns a paginated list of documents with optional filtering")
@@ -63,6 +74,21 @@ public class DocumentController {
         return documentService.filter(filterRequest != null ? filterRequest : new FilterRequest<>());
     }
 
+    @GetMapping("/by-metadata")
+    @Operation(summary = "Query documents by typed metadata value",
+            description = "Returns a page of IDs of the documents whose number, timestamp or boolean value for a metadata key satisfies a comparison, e.g. invoice_amount GT 10000")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully evaluated metadata range query",
+                    content = @Content(schema = @Schema(implementation = PaginationResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Missing tenant, key, value type or comparison, or a value that does not parse as the value type")
+    })
+    public Mono<PaginationResponse<UUID>> queryDocumentsByMetadata(
+            @Parameter(description = "Tenant, key, value type, comparison and values") @ParameterObject @ModelAttribute MetadataRangeQueryDTO rangeQuery,
+            @Parameter(description = "Zero-based page number") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size) {
+        return documentMetadataService.findDocumentIdsByMetadataRange(rangeQuery, page, size);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get document by ID", description = "Returns a document by its ID")
     @ApiResponses(value = {
@@ -184,4 +210,30 @@ public class DocumentController {
             @Parameter(description = "ID of the document") @PathVariable UUID id) {
         return documentService.getContentMetadata(id);
     }
+
+    @GetMapping("/{id}/similar")
+    @Operation(summary = "Find similar documents", description = "Returns near-duplicate documents of the same tenant, ranked by estimated content similarity")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Similar documents retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = SimilarDocumentDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid minimum similarity")
+    })
+    public Flux<SimilarDocumentDTO> getSimilarDocuments(
+            @Parameter(description = "ID of the document") @PathVariable UUID id,
+            @Parameter(description = "Minimum estimated similarity between 0 and 1") @RequestParam(required = false) Double minSimilarity,
+            @Parameter(description = "Maximum number of similar documents") @RequestParam(required = false) Integer limit) {
+        return documentSimilarityService.findSimilar(id, minSimilarity, limit);
+    }
+
+    @PostMapping("/permissions/check")
+    @Operation(summary = "Check permissions in batch",
+            description = "Checks every permission type on every document for one principal and returns the decisions per document")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Check completed"),
+            @ApiResponse(responseCode = "400", description = "Missing principal, documents or permission types, or too many checks")
+    })
+    public Mono<Map<UUID, Map<PermissionType, Boolean>>> checkPermissions(
+            @Parameter(description = "Principal, documents and permission types to check") @RequestBody PermissionCheckRequestDTO request) {
+        return documentPermissionService.hasPermissions(request.getPrincipalId(), request.getDocumentIds(), request.getPermissionTypes());
+    }
 }
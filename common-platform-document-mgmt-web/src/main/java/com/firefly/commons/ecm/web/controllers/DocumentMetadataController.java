@@ -17,10 +17,10 @@
 
 package com.firefly.commons.ecm.web.controllers;
 
-import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
 import com.firefly.commons.ecm.core.services.DocumentMetadataService;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentMetadataDTO;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataBulkUpsertRequestDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -29,10 +29,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
+
+import java.util.Map;
 import java.util.UUID;
 /**
  * REST controller for managing Document Metadata resources.
@@ -46,7 +47,7 @@ public class DocumentMetadataController {
     private final DocumentMetadataService documentMetadataService;
 
     @GetMapping
-    @Operation(summary = "Get all metadata for a document", description = "Returns all metadata for a specific document")
+    @Operation(summary = "Get all metadata for a document", description = "Returns a page of the metadata of a specific document, in key order")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved document metadata",
                     content = @Content(schema = @Schema(implementation = PaginationResponse.class))),
@@ -54,8 +55,9 @@ public class DocumentMetadataController {
     })
     public Mono<PaginationResponse<DocumentMetadataDTO>> getAllMetadata(
             @Parameter(description = "ID of the document") @PathVariable UUID documentId,
-            @Parameter(description = "Filter request for document metadata") @ParameterObject @ModelAttribute FilterRequest<DocumentMetadataDTO> filterRequest) {
-        return documentMetadataService.filter(filterRequest != null ? filterRequest : new FilterRequest<>());
+            @Parameter(description = "Zero-based page number") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size) {
+        return documentMetadataService.listByDocument(documentId, page, size);
     }
 
     @GetMapping("/{key}")
@@ -68,13 +70,7 @@ public class DocumentMetadataController {
     public Mono<DocumentMetadataDTO> getMetadataByKey(
             @Parameter(description = "ID of the document") @PathVariable UUID documentId,
             @Parameter(description = "Key of the metadata to retrieve") @PathVariable String key) {
-        // This is a simplified implementation. In a real-world scenario, you would need to
-        // query the service to find metadata by document ID and key.
-        return documentMetadataService.filter(new FilterRequest<>())
-                .flatMapMany(response -> Mono.justOrEmpty(response.getContent().stream()
-                        .filter(metadata -> metadata.getDocumentId().equals(documentId) && metadata.getKey().equals(key))
-                        .findFirst()))
-                .next();
+        return documentMetadataService.getByKey(documentId, key);
     }
 
     @PostMapping
@@ -93,6 +89,20 @@ public class DocumentMetadataController {
         return documentMetadataService.create(metadataDTO);
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Upsert document metadata in bulk",
+            description = "Inserts or updates many metadata keys of a document in one statement, optionally deleting its other keys")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Document metadata written successfully"),
+            @ApiResponse(responseCode = "400", description = "Missing entries, blank keys, system keys or too many entries"),
+            @ApiResponse(responseCode = "404", description = "Document not found")
+    })
+    public Mono<Map<String, DocumentMetadataDTO>> upsertMetadata(
+            @Parameter(description = "ID of the document") @PathVariable UUID documentId,
+            @Parameter(description = "Metadata values by key and replace flag") @RequestBody MetadataBulkUpsertRequestDTO request) {
+        return documentMetadataService.upsertAll(documentId, request.getEntries(), Boolean.TRUE.equals(request.getReplace()));
+    }
+
     @PutMapping("/{key}")
     @Operation(summary = "Update document metadata", description = "Updates existing metadata for a document")
     @ApiResponses(value = {
@@ -105,9 +115,7 @@ public class DocumentMetadataController {
             @Parameter(description = "ID of the document") @PathVariable UUID documentId,
             @Parameter(description = "Key of the metadata to update") @PathVariable String key,
             @Parameter(description = "Updated document metadata") @RequestBody DocumentMetadataDTO metadataDTO) {
-        metadataDTO.setDocumentId(documentId);
-        metadataDTO.setKey(key);
-        return documentMetadataService.update(metadataDTO);
+        return documentMetadataService.updateByKey(documentId, key, metadataDTO);
     }
 
     @DeleteMapping("/{key}")
@@ -120,13 +128,6 @@ public class DocumentMetadataController {
     public Mono<Void> deleteMetadata(
             @Parameter(description = "ID of the document") @PathVariable UUID documentId,
             @Parameter(description = "Key of the metadata to delete") @PathVariable String key) {
-        // This is a simplified implementation. In a real-world scenario, you would need to
-        // query the service to find metadata by document ID and key, then delete it.
-        return documentMetadataService.filter(new FilterRequest<>())
-                .flatMapMany(response -> Mono.justOrEmpty(response.getContent().stream()
-                        .filter(metadata -> metadata.getDocumentId().equals(documentId) && metadata.getKey().equals(key))
-                        .findFirst()))
-                .flatMap(metadata -> documentMetadataService.delete(metadata.getId()))
-                .then();
+        return documentMetadataService.deleteByKey(documentId, key);
     }
 }
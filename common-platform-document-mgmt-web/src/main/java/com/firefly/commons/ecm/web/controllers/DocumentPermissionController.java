@@ -121,7 +121,7 @@ public class DocumentPermissionController {
     }
 
     @GetMapping("/check")
-    @Operation(summary = "Check permission", description = "Checks if a principal has a specific permission on a document (via ECM)")
+    @Operation(summary = "Check permission", description = "Checks if a principal has a specific permission on a document (via ECM, or from the stored permissions when no ECM permission provider is configured)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Check completed",
                     content = @Content(schema = @Schema(implementation = Boolean.class)))
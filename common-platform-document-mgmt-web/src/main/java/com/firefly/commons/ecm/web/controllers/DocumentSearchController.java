@@ -19,8 +19,13 @@ package com.firefly.commons.ecm.web.controllers;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
 import com.firefly.commons.ecm.core.services.DocumentSearchService;
+import com.firefly.commons.ecm.core.services.NameSuggestionService;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentDTO;
+import com.firefly.commons.ecm.interfaces.dtos.NameSuggestionDTO;
+import com.firefly.commons.ecm.interfaces.enums.NameSuggestionType;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -28,8 +33,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/v1/documents/search")
 @RequiredArgsConstructor
@@ -37,6 +45,7 @@ import reactor.core.publisher.Mono;
 public class DocumentSearchController {
 
     private final DocumentSearchService documentSearchService;
+    private final NameSuggestionService nameSuggestionService;
 
     @PostMapping("/filter")
     @Operation(summary = "Filter documents", description = "Filters documents using a FilterRequest, consistent with other services")
@@ -47,4 +56,20 @@ public class DocumentSearchController {
     public Mono<PaginationResponse<DocumentDTO>> filter(@RequestBody FilterRequest<DocumentDTO> filterRequest) {
         return documentSearchService.filter(filterRequest != null ? filterRequest : new FilterRequest<>());
     }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest document and folder names", description = "Returns ranked document and folder names matching the typed prefix, for autocomplete")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved suggestions",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = NameSuggestionDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Missing tenant ID")
+    })
+    public Flux<NameSuggestionDTO> suggest(
+            @Parameter(description = "Tenant ID") @RequestParam String tenantId,
+            @Parameter(description = "Text typed so far") @RequestParam("q") String query,
+            @Parameter(description = "Restrict suggestions to the direct children of this folder") @RequestParam(required = false) UUID folderId,
+            @Parameter(description = "Kind of entity to suggest (both when omitted)") @RequestParam(required = false) NameSuggestionType type,
+            @Parameter(description = "Maximum number of suggestions") @RequestParam(required = false) Integer limit) {
+        return nameSuggestionService.suggest(tenantId, query, folderId, type, limit);
+    }
 }
@@ -84,13 +84,6 @@ public class DocumentTagController {
     public Mono<Void> removeTagFromDocument(
             @Parameter(description = "ID of the document") @PathVariable UUID documentId,
             @Parameter(description = "ID of the tag to remove") @PathVariable UUID tagId) {
-        // This is a simplified implementation. In a real-world scenario, you would need to
-        // query the service to find the document-tag association by document ID and tag ID, then delete it.
-        return documentTagService.filter(new FilterRequest<>())
-                .flatMapMany(response -> Mono.justOrEmpty(response.getContent().stream()
-                        .filter(tag -> tag.getDocumentId().equals(documentId) && tag.getTagId().equals(tagId))
-                        .findFirst()))
-                .flatMap(tag -> documentTagService.delete(tag.getId()))
-                .then();
+        return documentTagService.removeTag(documentId, tagId);
     }
 }
@@ -20,9 +20,14 @@ package com.firefly.commons.ecm.web.controllers;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
 import com.firefly.commons.ecm.core.services.DocumentService;
+import com.firefly.commons.ecm.core.services.FolderJobService;
 import com.firefly.commons.ecm.core.services.FolderService;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentDTO;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentPageDTO;
 import com.firefly.commons.ecm.interfaces.dtos.FolderDTO;
+import com.firefly.commons.ecm.interfaces.dtos.FolderJobDTO;
+import com.firefly.commons.ecm.interfaces.dtos.FolderStatsDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentProjection;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -34,6 +39,7 @@ import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.util.UUID;
 /**
@@ -47,6 +53,7 @@ public class FolderController {
 
     private final FolderService folderService;
     private final DocumentService documentService;
+    private final FolderJobService folderJobService;
 
     @GetMapping
     @Operation(summary = "List all folders", description = "Returns a paginated list of folders with optional filtering")
@@ -72,21 +79,130 @@ public class FolderController {
     }
 
     @GetMapping("/{id}/documents")
-    @Operation(summary = "List all documents in a folder", description = "Returns all documents in a specific folder")
+    @Operation(summary = "List all documents in a folder",
+            description = "Returns the documents of a folder, optionally including all subfolders, ordered by name and paged with a cursor")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved documents",
+                    content = @Content(schema = @Schema(implementation = DocumentPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page cursor"),
+            @ApiResponse(responseCode = "404", description = "Folder not found")
+    })
+    public Mono<DocumentPageDTO> listDocumentsInFolder(
+            @Parameter(description = "ID of the folder") @PathVariable UUID id,
+            @Parameter(description = "Whether documents of all subfolders are included") @RequestParam(defaultValue = "false") boolean recursive,
+            @Parameter(description = "FULL for every document attribute, SUMMARY for the attributes of large folder views") @RequestParam(defaultValue = "FULL") DocumentProjection projection,
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Only list the documents this principal may read") @RequestParam(required = false) UUID principalId) {
+        return documentService.listByFolder(id, recursive, projection, cursor, size, principalId);
+    }
+
+    @PostMapping("/{id}/move")
+    @Operation(summary = "Move a folder", description = "Moves a folder under another parent, rewriting the paths of its whole subtree in one statement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Folder successfully moved",
+                    content = @Content(schema = @Schema(implementation = FolderDTO.class))),
+            @ApiResponse(responseCode = "400", description = "The move would place the folder inside its own subtree"),
+            @ApiResponse(responseCode = "404", description = "Folder or parent folder not found")
+    })
+    public Mono<FolderDTO> moveFolder(
+            @Parameter(description = "ID of the folder to move") @PathVariable UUID id,
+            @Parameter(description = "ID of the new parent folder (omit to move the folder to the root)") @RequestParam(required = false) UUID parentFolderId) {
+        return folderService.move(id, parentFolderId);
+    }
+
+    @PostMapping("/{id}/rename")
+    @Operation(summary = "Rename a folder", description = "Renames a folder, rewriting the paths of its whole subtree in one statement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Folder successfully renamed",
+                    content = @Content(schema = @Schema(implementation = FolderDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid folder name"),
+            @ApiResponse(responseCode = "404", description = "Folder not found")
+    })
+    public Mono<FolderDTO> renameFolder(
+            @Parameter(description = "ID of the folder to rename") @PathVariable UUID id,
+            @Parameter(description = "New folder name") @RequestParam String name) {
+        return folderService.rename(id, name);
+    }
+
+    @GetMapping("/{id}/stats")
+    @Operation(summary = "Get folder statistics", description = "Returns the number and total size of the documents directly in a folder and in its whole subtree")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved folder statistics",
+                    content = @Content(schema = @Schema(implementation = FolderStatsDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Folder not found")
+    })
+    public Mono<FolderStatsDTO> getFolderStats(
+            @Parameter(description = "ID of the folder") @PathVariable UUID id) {
+        return folderService.getStats(id);
+    }
+
+    @GetMapping("/{id}/descendants")
+    @Operation(summary = "List the descendants of a folder", description = "Returns the subfolders of a folder at any depth, in depth-first order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved descendant folders",
                     content = @Content(schema = @Schema(implementation = PaginationResponse.class))),
             @ApiResponse(responseCode = "404", description = "Folder not found")
     })
-    public Mono<PaginationResponse<DocumentDTO>> listDocumentsInFolder(
+    public Mono<PaginationResponse<FolderDTO>> listDescendants(
+            @Parameter(description = "ID of the folder") @PathVariable UUID id,
+            @Parameter(description = "Maximum depth below the folder (1 for direct children, unlimited by default)") @RequestParam(required = false) Integer maxDepth,
+            @Parameter(description = "Zero-based page number") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size) {
+        return folderService.getDescendants(id, maxDepth, page, size);
+    }
+
+    @GetMapping("/{id}/ancestors")
+    @Operation(summary = "List the ancestors of a folder", description = "Returns the breadcrumbs of a folder, from the root down to its parent")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved ancestor folders",
+                    content = @Content(schema = @Schema(implementation = FolderDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Folder not found")
+    })
+    public Flux<FolderDTO> listAncestors(
+            @Parameter(description = "ID of the folder") @PathVariable UUID id) {
+        return folderService.getAncestors(id);
+    }
+
+    @GetMapping("/{id}/breadcrumbs")
+    @Operation(summary = "Get the breadcrumbs of a folder", description = "Returns the ancestors of a folder from the root down, followed by the folder itself, served from the in-memory folder tree")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved breadcrumbs",
+                    content = @Content(schema = @Schema(implementation = FolderDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Folder not found")
+    })
+    public Flux<FolderDTO> getBreadcrumbs(
             @Parameter(description = "ID of the folder") @PathVariable UUID id,
-            @Parameter(description = "Filter request for documents") @ParameterObject @ModelAttribute FilterRequest<DocumentDTO> filterRequest) {
+            @Parameter(description = "Tenant that owns the folder") @RequestParam String tenantId) {
+        return folderService.getBreadcrumbs(tenantId, id);
+    }
 
-        FilterRequest<DocumentDTO> request = filterRequest != null ? filterRequest : new FilterRequest<>();
+    @GetMapping("/resolve")
+    @Operation(summary = "Resolve a folder path", description = "Returns the folder with the given name path, such as /Contracts/2024")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully resolved the folder",
+                    content = @Content(schema = @Schema(implementation = FolderDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid path"),
+            @ApiResponse(responseCode = "404", description = "No folder with that path")
+    })
+    public Mono<FolderDTO> resolvePath(
+            @Parameter(description = "Tenant that owns the folder") @RequestParam String tenantId,
+            @Parameter(description = "Name path of the folder") @RequestParam String path) {
+        return folderService.resolvePath(tenantId, path);
+    }
 
-        // In a real implementation, you would add a filter for the folder ID
-        // This is a simplified implementation
-        return documentService.filter(request);
+    @GetMapping("/{id}/subtree/documents")
+    @Operation(summary = "List all documents under a folder", description = "Returns the documents of a folder and of all its descendant folders, ordered by name")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved documents",
+                    content = @Content(schema = @Schema(implementation = PaginationResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Folder not found")
+    })
+    public Mono<PaginationResponse<DocumentDTO>> listSubtreeDocuments(
+            @Parameter(description = "ID of the folder") @PathVariable UUID id,
+            @Parameter(description = "Zero-based page number") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size) {
+        return folderService.getSubtreeDocuments(id, page, size);
     }
 
     @PostMapping
@@ -128,4 +244,45 @@ public class FolderController {
             @Parameter(description = "ID of the folder to delete") @PathVariable UUID id) {
         return folderService.delete(id);
     }
+
+    @PostMapping("/{id}/recursive-delete")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Delete a folder recursively", description = "Starts a background job deleting a folder, all of its subfolders, their documents and the stored content")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Delete job created",
+                    content = @Content(schema = @Schema(implementation = FolderJobDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Folder not found")
+    })
+    public Mono<FolderJobDTO> deleteFolderRecursively(
+            @Parameter(description = "ID of the folder to delete") @PathVariable UUID id) {
+        return folderJobService.startDelete(id);
+    }
+
+    @PostMapping("/{id}/copy")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Copy a folder recursively", description = "Starts a background job copying a folder, all of its subfolders, their documents and the stored content")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Copy job created",
+                    content = @Content(schema = @Schema(implementation = FolderJobDTO.class))),
+            @ApiResponse(responseCode = "400", description = "The target is inside the copied folder or in another tenant"),
+            @ApiResponse(responseCode = "404", description = "Folder or target parent folder not found")
+    })
+    public Mono<FolderJobDTO> copyFolder(
+            @Parameter(description = "ID of the folder to copy") @PathVariable UUID id,
+            @Parameter(description = "ID of the folder to create the copy in (omit to copy to the root)") @RequestParam(required = false) UUID targetParentFolderId,
+            @Parameter(description = "Name of the copy") @RequestParam(required = false) String name) {
+        return folderJobService.startCopy(id, targetParentFolderId, name);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get a folder job", description = "Returns the status and progress of a recursive folder delete or copy job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the job",
+                    content = @Content(schema = @Schema(implementation = FolderJobDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    public Mono<FolderJobDTO> getFolderJob(
+            @Parameter(description = "ID of the job") @PathVariable UUID jobId) {
+        return folderJobService.getJob(jobId);
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.commons.ecm.web.controllers;
+
+import com.firefly.commons.ecm.core.services.MetadataSchemaService;
+import com.firefly.commons.ecm.interfaces.dtos.MetadataSchemaDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+/**
+ * REST controller for managing metadata schema templates.
+ */
+@RestController
+@RequestMapping("/api/v1/metadata-schemas")
+@RequiredArgsConstructor
+@Tag(name = "Metadata Schema Controller", description = "API for managing the metadata schema templates of document types")
+public class MetadataSchemaController {
+
+    private final MetadataSchemaService metadataSchemaService;
+
+    @GetMapping("/{tenantId}/{documentType}")
+    @Operation(summary = "Get a metadata schema", description = "Returns the metadata schema template of a tenant and document type")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved metadata schema",
+                    content = @Content(schema = @Schema(implementation = MetadataSchemaDTO.class)))
+    })
+    public Mono<MetadataSchemaDTO> getSchema(
+            @Parameter(description = "Tenant ID") @PathVariable String tenantId,
+            @Parameter(description = "Document type") @PathVariable DocumentType documentType) {
+        return metadataSchemaService.getSchema(tenantId, documentType);
+    }
+
+    @PutMapping("/{tenantId}/{documentType}")
+    @Operation(summary = "Replace a metadata schema",
+            description = "Replaces the metadata schema template of a tenant and document type; later metadata writes on their documents are validated against it")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Metadata schema replaced successfully",
+                    content = @Content(schema = @Schema(implementation = MetadataSchemaDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid metadata schema")
+    })
+    public Mono<MetadataSchemaDTO> replaceSchema(
+            @Parameter(description = "Tenant ID") @PathVariable String tenantId,
+            @Parameter(description = "Document type") @PathVariable DocumentType documentType,
+            @Parameter(description = "Metadata schema template") @RequestBody MetadataSchemaDTO schema) {
+        return metadataSchemaService.replaceSchema(tenantId, documentType, schema);
+    }
+
+    @DeleteMapping("/{tenantId}/{documentType}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Delete a metadata schema", description = "Deletes the metadata schema template of a tenant and document type")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Metadata schema deleted successfully")
+    })
+    public Mono<Void> deleteSchema(
+            @Parameter(description = "Tenant ID") @PathVariable String tenantId,
+            @Parameter(description = "Document type") @PathVariable DocumentType documentType) {
+        return metadataSchemaService.deleteSchema(tenantId, documentType);
+    }
+}
@@ -20,8 +20,11 @@ package com.firefly.commons.ecm.web.controllers;
 import com.firefly.common.core.filters.FilterRequest;
 import com.firefly.common.core.queries.PaginationResponse;
 import com.firefly.commons.ecm.core.services.DocumentService;
+import com.firefly.commons.ecm.core.services.DocumentTagService;
 import com.firefly.commons.ecm.core.services.TagService;
 import com.firefly.commons.ecm.interfaces.dtos.DocumentDTO;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentTagBulkRequestDTO;
+import com.firefly.commons.ecm.interfaces.dtos.DocumentTagBulkResultDTO;
 import com.firefly.commons.ecm.interfaces.dtos.TagDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -34,6 +37,7 @@ import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.util.UUID;
 /**
@@ -47,6 +51,7 @@ public class TagController {
 
     private final TagService tagService;
     private final DocumentService documentService;
+    private final DocumentTagService documentTagService;
 
     @GetMapping
     @Operation(summary = "List all tags", description = "Returns a paginated list of tags with optional filtering")
@@ -59,6 +64,64 @@ public class TagController {
         return tagService.filter(filterRequest != null ? filterRequest : new FilterRequest<>());
     }
 
+    @GetMapping("/query")
+    @Operation(summary = "Query documents by tag expression",
+            description = "Returns a page of IDs of the documents whose tags satisfy a boolean expression, e.g. KYC AND 2024 AND NOT archived")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully evaluated tag expression",
+                    content = @Content(schema = @Schema(implementation = PaginationResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Malformed tag expression")
+    })
+    public Mono<PaginationResponse<UUID>> queryDocumentsByTags(
+            @Parameter(description = "Tenant ID") @RequestParam String tenantId,
+            @Parameter(description = "Tag expression using AND, OR, NOT, parentheses and tag names or IDs (double-quote names with spaces)")
+            @RequestParam String expression,
+            @Parameter(description = "Zero-based page number") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size) {
+        return documentTagService.findDocumentIdsByTagExpression(tenantId, expression, page, size);
+    }
+
+    @GetMapping("/top")
+    @Operation(summary = "List the most used tags",
+            description = "Returns the tags of a tenant by decreasing number of documents carrying them, for tag clouds and tag pickers")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved most used tags",
+                    content = @Content(schema = @Schema(implementation = TagDTO.class)))
+    })
+    public Flux<TagDTO> listTopTags(
+            @Parameter(description = "Tenant ID") @RequestParam String tenantId,
+            @Parameter(description = "Maximum number of tags") @RequestParam(required = false) Integer limit) {
+        return tagService.findTopTags(tenantId, limit);
+    }
+
+    @PostMapping("/bulk/tag")
+    @Operation(summary = "Add tags to many documents",
+            description = "Adds a set of tags to every selected document, selected by ID or as the documents of a folder subtree; tags already assigned are skipped")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tags added successfully",
+                    content = @Content(schema = @Schema(implementation = DocumentTagBulkResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid bulk tag request, or a folder of another tenant"),
+            @ApiResponse(responseCode = "404", description = "Folder not found")
+    })
+    public Mono<DocumentTagBulkResultDTO> tagDocuments(
+            @Parameter(description = "Tags and the documents to add them to") @RequestBody DocumentTagBulkRequestDTO request) {
+        return documentTagService.tagDocuments(request);
+    }
+
+    @PostMapping("/bulk/untag")
+    @Operation(summary = "Remove tags from many documents",
+            description = "Removes a set of tags from every selected document, selected by ID or as the documents of a folder subtree")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tags removed successfully",
+                    content = @Content(schema = @Schema(implementation = DocumentTagBulkResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid bulk untag request, or a folder of another tenant"),
+            @ApiResponse(responseCode = "404", description = "Folder not found")
+    })
+    public Mono<DocumentTagBulkResultDTO> untagDocuments(
+            @Parameter(description = "Tags and the documents to remove them from") @RequestBody DocumentTagBulkRequestDTO request) {
+        return documentTagService.untagDocuments(request);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get tag by ID", description = "Returns a tag by its ID")
     @ApiResponses(value = {
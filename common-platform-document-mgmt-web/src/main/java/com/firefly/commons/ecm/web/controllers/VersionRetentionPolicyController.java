@@ -0,0 +1,86 @@
+/*
+ * Copyright 2025 Firefly Software Solutions Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.firefly.commons.ecm.web.controllers;
+
+import com.firefly.commons.ecm.core.services.VersionRetentionPolicyService;
+import com.firefly.commons.ecm.interfaces.dtos.VersionRetentionPolicyDTO;
+import com.firefly.commons.ecm.interfaces.enums.DocumentType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+/**
+ * REST controller for managing document version retention policies.
+ */
+@RestController
+@RequestMapping("/api/v1/version-retention-policies")
+@RequiredArgsConstructor
+@Tag(name = "Version Retention Policy Controller", description = "API for managing which document versions are kept and which are pruned")
+public class VersionRetentionPolicyController {
+
+    private final VersionRetentionPolicyService versionRetentionPolicyService;
+
+    @GetMapping("/{tenantId}")
+    @Operation(summary = "Get a version retention policy",
+            description = "Returns the version retention policy of a tenant and document type, or the tenant's default policy when no type is given")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved version retention policy",
+                    content = @Content(schema = @Schema(implementation = VersionRetentionPolicyDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Version retention policy not found")
+    })
+    public Mono<VersionRetentionPolicyDTO> getPolicy(
+            @Parameter(description = "Tenant ID") @PathVariable String tenantId,
+            @Parameter(description = "Document type, omitted for the default policy") @RequestParam(required = false) DocumentType documentType) {
+        return versionRetentionPolicyService.getPolicy(tenantId, documentType);
+    }
+
+    @PutMapping("/{tenantId}")
+    @Operation(summary = "Replace a version retention policy",
+            description = "Creates or replaces the version retention policy of a tenant and document type, or the tenant's default policy; versions it no longer keeps are pruned by the next pruning run")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Version retention policy replaced successfully",
+                    content = @Content(schema = @Schema(implementation = VersionRetentionPolicyDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid version retention policy")
+    })
+    public Mono<VersionRetentionPolicyDTO> replacePolicy(
+            @Parameter(description = "Tenant ID") @PathVariable String tenantId,
+            @Parameter(description = "Document type, omitted for the default policy") @RequestParam(required = false) DocumentType documentType,
+            @Parameter(description = "Version retention policy") @RequestBody VersionRetentionPolicyDTO policy) {
+        return versionRetentionPolicyService.replacePolicy(tenantId, documentType, policy);
+    }
+
+    @DeleteMapping("/{tenantId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Delete a version retention policy",
+            description = "Deletes the version retention policy of a tenant and document type, or the tenant's default policy")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Version retention policy deleted successfully")
+    })
+    public Mono<Void> deletePolicy(
+            @Parameter(description = "Tenant ID") @PathVariable String tenantId,
+            @Parameter(description = "Document type, omitted for the default policy") @RequestParam(required = false) DocumentType documentType) {
+        return versionRetentionPolicyService.deletePolicy(tenantId, documentType);
+    }
+}